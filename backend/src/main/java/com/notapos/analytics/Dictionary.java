@@ -0,0 +1,53 @@
+package com.notapos.analytics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a low-cardinality column (status, category, menu
+ * item, prep station).
+ *
+ * Each distinct value gets the next int code, so the column itself is an
+ * int[] and a group-by is an index into a dense counter array instead of a
+ * hash lookup per row. null is a value like any other. Codes are never
+ * reused or removed.
+ *
+ * @author CJ
+ */
+
+public final class Dictionary<T> {
+
+    private final Map<T, Integer> codes = new HashMap<>();
+    private Object[] values = new Object[16];
+    private int size;
+
+    public synchronized int encode(T value) {                           // Existing code, or the next one
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    public synchronized int find(T value) {                             // -1 when the value never occurred (a filter that matches nothing)
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> snapshot() {                            // Index = code; safe to read while more values are added
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(values, size)));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,359 @@
+package com.notapos.analytics;
+
+import com.notapos.dto.ItemMixRow;
+import com.notapos.dto.ModifierAttachRate;
+import com.notapos.dto.StationTicketTime;
+import com.notapos.service.OrderArchiveService;
+import com.notapos.service.OrderItemLifecycle;
+import com.notapos.service.PricingEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory analytics over the items of completed checks.
+ *
+ * Every item of every completed order (hot and archived) is loaded once at
+ * startup into an OrderItemColumns store, and each check is appended when it
+ * is closed. Queries never touch the database: the rows are cut into chunks
+ * of CHUNK_ROWS, the chunks are scanned in parallel on the common fork-join
+ * pool, and each chunk first narrows a selection vector one filter column at
+ * a time, then aggregates the survivors into arrays indexed by dictionary
+ * code. The per-chunk arrays are added together at the end.
+ *
+ * Category and prep station come from the menu as it is when the item is
+ * loaded, not as it was when it was ordered. Draft items never left the
+ * table and are skipped by every query.
+ *
+ * The store only grows: nothing is dropped, archived checks included. Each
+ * item costs 76 bytes (seven int and six long columns), up to twice that
+ * while the arrays have headroom after a grow - about 14 MB a year at 500
+ * items a day. If a long-lived install ever outgrows that, narrow ITEMS_SQL
+ * to a closed_at window rather than loading all of history.
+ *
+ * @author CJ
+ */
+
+@Component
+public class OrderItemAnalytics {
+
+    static final int CHUNK_ROWS = 1 << 16;                          // Rows per parallel task
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemAnalytics.class);
+
+    private static final String ITEMS_SQL = """
+            SELECT oi.order_id, oi.menu_item_id, mi.category, mi.prep_station_id, oi.status, oi.quantity, oi.price,
+                   COALESCE(m.modifier_count, 0) AS modifier_count, m.modifier_total,
+                   oi.created_at, oi.fired_at, oi.completed_at, o.completed_at AS closed_at
+            FROM order_items%1$s oi
+            JOIN orders%1$s o ON o.order_id = oi.order_id
+            LEFT JOIN menu_items mi ON mi.menu_item_id = oi.menu_item_id
+            LEFT JOIN (SELECT order_item_id, COUNT(*) AS modifier_count, SUM(price_adjustment) AS modifier_total
+                       FROM order_item_modifiers%1$s
+                       WHERE %2$s
+                       GROUP BY order_item_id) m ON m.order_item_id = oi.order_item_id
+            WHERE o.status = 'completed' AND %3$s""";
+
+    private static final String HOT = "";
+    private static final String ARCHIVE = "_archive";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderItemColumns columns = new OrderItemColumns();
+
+    private final Set<Long> pending = new LinkedHashSet<>();        // Checks closed while the load was running
+    private volatile boolean loaded;
+
+    public record Filter(LocalDateTime from, LocalDateTime to, String category, Long prepStationId) {   // Range is on the check's close time; nulls don't filter
+
+        public static final Filter ALL = new Filter(null, null, null, null);
+    }
+
+    @FunctionalInterface
+    private interface ChunkScan<A> {
+        void scan(OrderItemColumns.Snapshot columns, int[] selection, int count, A into);
+    }
+
+    @FunctionalInterface
+    private interface ResultBuilder<A, R> {
+        R build(OrderItemColumns.Snapshot snapshot, A totals);
+    }
+
+    @Autowired
+    public OrderItemAnalytics(JdbcTemplate jdbcTemplate, OrderArchiveService orderArchiveService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)                     // One statement over hot + archive, so it's one consistent snapshot
+    public void load() {
+        String sql = String.format(ITEMS_SQL, HOT, "1 = 1", "1 = 1");
+        if (orderArchiveService.reaches(null)) {
+            sql += "\nUNION ALL\n" + String.format(ITEMS_SQL, ARCHIVE, "1 = 1", "1 = 1");
+        }
+        jdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> columns.append(toRow(resultSet)));
+
+        List<Long> closedMeanwhile;
+        synchronized (pending) {
+            loaded = true;
+            closedMeanwhile = new ArrayList<>(pending);
+            pending.clear();
+        }
+        closedMeanwhile.forEach(this::appendOrder);                 // Skipped if the load already saw them
+
+        log.info("Order item analytics loaded with {} item(s)", columns.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void orderCompleted(Long orderId) {                      // Called by OrderService when a check is closed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    orderCommitted(orderId);
+                }
+            });
+            return;
+        }
+        orderCommitted(orderId);
+    }
+
+    public List<ItemMixRow> itemMix(Filter filter) {               // Quantity and sales per hour of day x menu item
+        return query(filter, snapshot -> new long[2 * 24 * snapshot.menuItems.size()], (s, selection, count, into) -> {
+            int items = s.menuItems.size();
+            for (int n = 0; n < count; n++) {
+                int i = selection[n];
+                if (s.createdAt[i] == OrderItemColumns.NO_TIME) {
+                    continue;
+                }
+                int cell = OrderItemColumns.hourOfDay(s.createdAt[i]) * items + s.menuItem[i];
+                into[2 * cell] += s.quantity[i];
+                into[2 * cell + 1] += (s.unitCents[i] + s.modifierCents[i]) * s.quantity[i];
+            }
+        }, OrderItemAnalytics::add, (snapshot, totals) -> {
+            int items = snapshot.menuItems.size();
+            List<ItemMixRow> rows = new ArrayList<>();
+            for (int cell = 0; cell < totals.length / 2; cell++) {
+                if (totals[2 * cell] != 0 || totals[2 * cell + 1] != 0) {
+                    rows.add(new ItemMixRow(cell / items, snapshot.menuItems.get(cell % items), totals[2 * cell],
+                            PricingEngine.fromCents(totals[2 * cell + 1])));
+                }
+            }
+            rows.sort(Comparator.comparingInt(ItemMixRow::hour)
+                    .thenComparing(Comparator.comparingLong(ItemMixRow::quantity).reversed()));
+            return rows;
+        });
+    }
+
+    public List<StationTicketTime> ticketTimes(Filter filter) {    // Fired -> completed, per prep station
+        return query(filter, snapshot -> new long[3 * snapshot.stations.size()], (s, selection, count, into) -> {
+            for (int n = 0; n < count; n++) {
+                int i = selection[n];
+                long fired = s.firedAt[i];
+                long completed = s.completedAt[i];
+                if (fired == OrderItemColumns.NO_TIME || completed == OrderItemColumns.NO_TIME || completed < fired) {
+                    continue;
+                }
+                int station = s.station[i];
+                long millis = completed - fired;
+                into[3 * station]++;
+                into[3 * station + 1] += millis;
+                into[3 * station + 2] = Math.max(into[3 * station + 2], millis);
+            }
+        }, (a, b) -> {
+            for (int station = 0; station < a.length / 3; station++) {
+                a[3 * station] += b[3 * station];
+                a[3 * station + 1] += b[3 * station + 1];
+                a[3 * station + 2] = Math.max(a[3 * station + 2], b[3 * station + 2]);
+            }
+            return a;
+        }, (snapshot, totals) -> {
+            List<StationTicketTime> rows = new ArrayList<>();
+            for (int station = 0; station < totals.length / 3; station++) {
+                long items = totals[3 * station];
+                if (items > 0) {
+                    rows.add(new StationTicketTime(snapshot.stations.get(station), items,
+                            totals[3 * station + 1] / 1000.0 / items, totals[3 * station + 2] / 1000));
+                }
+            }
+            rows.sort(Comparator.comparing(StationTicketTime::prepStationId, Comparator.nullsLast(Comparator.naturalOrder())));
+            return rows;
+        });
+    }
+
+    public List<ModifierAttachRate> modifierAttach(Filter filter) {    // Share of items ordered with at least one modifier, per category
+        return query(filter, snapshot -> new long[3 * snapshot.categories.size()], (s, selection, count, into) -> {
+            for (int n = 0; n < count; n++) {
+                int i = selection[n];
+                int category = s.category[i];
+                int modifiers = s.modifierCount[i];
+                into[3 * category]++;
+                into[3 * category + 1] += modifiers > 0 ? 1 : 0;
+                into[3 * category + 2] += modifiers;
+            }
+        }, OrderItemAnalytics::add, (snapshot, totals) -> {
+            List<ModifierAttachRate> rows = new ArrayList<>();
+            for (int category = 0; category < totals.length / 3; category++) {
+                long items = totals[3 * category];
+                if (items > 0) {
+                    rows.add(new ModifierAttachRate(snapshot.categories.get(category), items, totals[3 * category + 1],
+                            totals[3 * category + 2], (double) totals[3 * category + 1] / items,
+                            (double) totals[3 * category + 2] / items));
+                }
+            }
+            rows.sort(Comparator.comparing(ModifierAttachRate::category, Comparator.nullsLast(Comparator.naturalOrder())));
+            return rows;
+        });
+    }
+
+    void append(OrderItemColumns.Row row) {                         // Test hook: load rows without a database
+        columns.append(row);
+    }
+
+    private void orderCommitted(Long orderId) {
+        synchronized (pending) {
+            if (!loaded) {
+                pending.add(orderId);
+                return;
+            }
+        }
+        appendOrder(orderId);
+    }
+
+    private void appendOrder(Long orderId) {
+        if (columns.containsOrder(orderId)) {
+            return;
+        }
+        try {
+            List<OrderItemColumns.Row> rows = jdbcTemplate.query(String.format(ITEMS_SQL, HOT,
+                    "order_item_id IN (SELECT order_item_id FROM order_items WHERE order_id = ?)", "o.order_id = ?"),
+                    (resultSet, rowNum) -> toRow(resultSet), orderId, orderId);
+            columns.appendOrder(orderId, rows);
+        } catch (DataAccessException e) {                           // The check is closed either way - it's back after the next restart
+            log.warn("Could not add order {} to item analytics", orderId, e);
+        }
+    }
+
+    private <A, R> R query(Filter filter, Function<OrderItemColumns.Snapshot, A> newTotals, ChunkScan<A> scan,
+                           BinaryOperator<A> merge, ResultBuilder<A, R> result) {
+        OrderItemColumns.Snapshot snapshot = columns.snapshot();
+        Selection selection = Selection.of(filter, columns);
+        if (selection == null) {                                    // Filter names a category / station we've never seen
+            return result.build(snapshot, newTotals.apply(snapshot));
+        }
+
+        int chunks = (snapshot.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        A totals = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    int from = chunk * CHUNK_ROWS;
+                    int to = Math.min(snapshot.size, from + CHUNK_ROWS);
+                    int[] rows = new int[to - from];
+                    int count = selection.select(snapshot, from, to, rows);
+                    A chunkTotals = newTotals.apply(snapshot);
+                    scan.scan(snapshot, rows, count, chunkTotals);
+                    return chunkTotals;
+                })
+                .reduce(merge)
+                .orElseGet(() -> newTotals.apply(snapshot));
+        return result.build(snapshot, totals);
+    }
+
+    private record Selection(long from, long to, int draft, int category, int station) {   // Filter as column codes, -1 = any
+
+        static Selection of(Filter filter, OrderItemColumns columns) {                      // null when nothing can match
+            int category = filter.category() == null ? -1 : columns.findCategory(filter.category());
+            int station = filter.prepStationId() == null ? -1 : columns.findStation(filter.prepStationId());
+            if ((filter.category() != null && category < 0) || (filter.prepStationId() != null && station < 0)) {
+                return null;
+            }
+            return new Selection(
+                    filter.from() == null ? Long.MIN_VALUE : OrderItemColumns.toMillis(filter.from()),
+                    filter.to() == null ? Long.MAX_VALUE : OrderItemColumns.toMillis(filter.to()),
+                    columns.findStatus(OrderItemLifecycle.DRAFT), category, station);
+        }
+
+        int select(OrderItemColumns.Snapshot s, int from, int to, int[] rows) {            // Fills rows with the matching indexes, returns how many
+            int count = 0;
+            long[] closedAt = s.closedAt;
+            for (int i = from; i < to; i++) {
+                long closed = closedAt[i];
+                if (closed >= this.from && closed < this.to) {
+                    rows[count++] = i;
+                }
+            }
+            if (draft >= 0) {
+                count = refine(s.status, rows, count, draft, false);
+            }
+            if (category >= 0) {
+                count = refine(s.category, rows, count, category, true);
+            }
+            if (station >= 0) {
+                count = refine(s.station, rows, count, station, true);
+            }
+            return count;
+        }
+
+        private static int refine(int[] column, int[] rows, int count, int code, boolean keepEqual) {  // Compacts rows in place
+            int kept = 0;
+            for (int n = 0; n < count; n++) {
+                int i = rows[n];
+                if ((column[i] == code) == keepEqual) {
+                    rows[kept++] = i;
+                }
+            }
+            return kept;
+        }
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    private static OrderItemColumns.Row toRow(ResultSet row) throws SQLException {
+        return new OrderItemColumns.Row(
+                row.getLong("order_id"),
+                row.getLong("menu_item_id"),
+                row.getString("category"),
+                row.getObject("prep_station_id") == null ? null : row.getLong("prep_station_id"),
+                row.getString("status"),
+                row.getInt("quantity"),
+                PricingEngine.toCents(PricingEngine.toMoney(row.getString("price"))),
+                row.getInt("modifier_count"),
+                PricingEngine.toCents(PricingEngine.toMoney(row.getString("modifier_total"))),
+                toTime(row.getTimestamp("created_at")),
+                toTime(row.getTimestamp("fired_at")),
+                toTime(row.getTimestamp("completed_at")),
+                toTime(row.getTimestamp("closed_at")));
+    }
+
+    private static LocalDateTime toTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,168 @@
+package com.notapos.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column store of order items on completed checks.
+ *
+ * One primitive array per column instead of one object per row: ids and
+ * counts as int, money as long cents, timestamps as long millis, and the
+ * text columns dictionary-encoded to int codes. A scan over one column
+ * touches nothing but that array.
+ *
+ * Append-only with a single writer (synchronized). Readers take a Snapshot -
+ * the arrays and the row count at that moment - and scan it without a lock;
+ * later appends only write past that count, or into new arrays after a grow.
+ *
+ * Timestamps are local wall-clock millis (the LocalDateTime read as if it
+ * were UTC), so hour of day is plain arithmetic with no time zone involved.
+ *
+ * @author CJ
+ */
+
+public final class OrderItemColumns {
+
+    public static final long NO_TIME = Long.MIN_VALUE;              // null timestamp
+    public static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final Dictionary<String> statuses = new Dictionary<>();
+    private final Dictionary<String> categories = new Dictionary<>();
+    private final Dictionary<Long> menuItems = new Dictionary<>();
+    private final Dictionary<Long> stations = new Dictionary<>();
+    private final BitSet orders = new BitSet();                     // Which checks are already in (order ids are dense)
+
+    private int size;
+    private int[] orderId = new int[0];
+    private int[] menuItem = new int[0];
+    private int[] category = new int[0];
+    private int[] station = new int[0];
+    private int[] status = new int[0];
+    private int[] quantity = new int[0];
+    private int[] modifierCount = new int[0];
+    private long[] unitCents = new long[0];
+    private long[] modifierCents = new long[0];
+    private long[] createdAt = new long[0];
+    private long[] firedAt = new long[0];
+    private long[] completedAt = new long[0];
+    private long[] closedAt = new long[0];                          // The check's completed_at
+
+    public record Row(long orderId, Long menuItemId, String category, Long prepStationId, String status, int quantity,
+                      long unitCents, int modifierCount, long modifierCents, LocalDateTime createdAt,
+                      LocalDateTime firedAt, LocalDateTime completedAt, LocalDateTime closedAt) {}
+
+    public static final class Snapshot {                           // Read-only view of the first `size` rows
+
+        public final int size;
+        public final int[] orderId, menuItem, category, station, status, quantity, modifierCount;
+        public final long[] unitCents, modifierCents, createdAt, firedAt, completedAt, closedAt;
+        public final List<String> statuses, categories;
+        public final List<Long> menuItems, stations;
+
+        private Snapshot(OrderItemColumns c) {
+            size = c.size;
+            orderId = c.orderId;
+            menuItem = c.menuItem;
+            category = c.category;
+            station = c.station;
+            status = c.status;
+            quantity = c.quantity;
+            modifierCount = c.modifierCount;
+            unitCents = c.unitCents;
+            modifierCents = c.modifierCents;
+            createdAt = c.createdAt;
+            firedAt = c.firedAt;
+            completedAt = c.completedAt;
+            closedAt = c.closedAt;
+            statuses = c.statuses.snapshot();
+            categories = c.categories.snapshot();
+            menuItems = c.menuItems.snapshot();
+            stations = c.stations.snapshot();
+        }
+    }
+
+    public synchronized void append(Row row) {
+        if (size == orderId.length) {
+            grow(Math.max(1024, size * 2));
+        }
+        int i = size;
+        orderId[i] = Math.toIntExact(row.orderId());
+        menuItem[i] = menuItems.encode(row.menuItemId());
+        category[i] = categories.encode(row.category());
+        station[i] = stations.encode(row.prepStationId());
+        status[i] = statuses.encode(row.status());
+        quantity[i] = row.quantity();
+        modifierCount[i] = row.modifierCount();
+        unitCents[i] = row.unitCents();
+        modifierCents[i] = row.modifierCents();
+        createdAt[i] = toMillis(row.createdAt());
+        firedAt[i] = toMillis(row.firedAt());
+        completedAt[i] = toMillis(row.completedAt());
+        closedAt[i] = toMillis(row.closedAt());
+        orders.set(orderId[i]);
+        size = i + 1;
+    }
+
+    public synchronized boolean appendOrder(long orderId, List<Row> rows) {     // A check's items, once - false if it was already in
+        if (containsOrder(orderId)) {
+            return false;
+        }
+        rows.forEach(this::append);
+        orders.set(Math.toIntExact(orderId));                          // Also for a check with no items
+        return true;
+    }
+
+    public synchronized boolean containsOrder(long orderId) {
+        return orders.get(Math.toIntExact(orderId));
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int findStatus(String value) {
+        return statuses.find(value);
+    }
+
+    public int findCategory(String value) {
+        return categories.find(value);
+    }
+
+    public int findStation(Long value) {
+        return stations.find(value);
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    public static int hourOfDay(long millis) {
+        return (int) Math.floorMod(Math.floorDiv(millis, HOUR_MILLIS), 24L);
+    }
+
+    private void grow(int capacity) {                               // Copies; snapshots keep the old arrays
+        orderId = Arrays.copyOf(orderId, capacity);
+        menuItem = Arrays.copyOf(menuItem, capacity);
+        category = Arrays.copyOf(category, capacity);
+        station = Arrays.copyOf(station, capacity);
+        status = Arrays.copyOf(status, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+        modifierCount = Arrays.copyOf(modifierCount, capacity);
+        unitCents = Arrays.copyOf(unitCents, capacity);
+        modifierCents = Arrays.copyOf(modifierCents, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        firedAt = Arrays.copyOf(firedAt, capacity);
+        completedAt = Arrays.copyOf(completedAt, capacity);
+        closedAt = Arrays.copyOf(closedAt, capacity);
+    }
+}
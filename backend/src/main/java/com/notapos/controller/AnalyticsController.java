@@ -0,0 +1,70 @@
+package com.notapos.controller;
+
+import com.notapos.analytics.OrderItemAnalytics;
+import com.notapos.dto.ItemMixRow;
+import com.notapos.dto.ModifierAttachRate;
+import com.notapos.dto.StationTicketTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REST API Controller for menu and kitchen analytics.
+ *
+ * Answered from the in-memory item columns (OrderItemAnalytics), not the
+ * database. Every endpoint takes the same optional filters: a from/to range
+ * on when the check was closed, a menu category and a prep station.
+ *
+ * @author CJ
+ */
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final OrderItemAnalytics orderItemAnalytics;
+
+    @Autowired
+    public AnalyticsController(OrderItemAnalytics orderItemAnalytics) {
+        this.orderItemAnalytics = orderItemAnalytics;
+    }
+
+    @GetMapping("/item-mix")                                                    // Quantity + sales per hour of day and menu item
+    public ResponseEntity<List<ItemMixRow>> getItemMix(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long station) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderItemAnalytics.itemMix(new OrderItemAnalytics.Filter(from, to, category, station)));
+    }
+
+    @GetMapping("/ticket-times")                                                // Average / max ticket time per prep station
+    public ResponseEntity<List<StationTicketTime>> getTicketTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long station) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderItemAnalytics.ticketTimes(new OrderItemAnalytics.Filter(from, to, category, station)));
+    }
+
+    @GetMapping("/modifier-attach")                                             // Modifier attach rate per menu category
+    public ResponseEntity<List<ModifierAttachRate>> getModifierAttach(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Long station) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderItemAnalytics.modifierAttach(new OrderItemAnalytics.Filter(from, to, category, station)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.notapos.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for list endpoints backed by a ChangeCounter ETag.
+ *
+ * If the client's If-None-Match still matches, Spring writes the 304 and the
+ * body supplier never runs - no database access, no JSON.
+ *
+ * @author CJ
+ */
+
+final class ConditionalGet {
+
+    private ConditionalGet() {}
+
+    static <T> ResponseEntity<T> ok(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {                   // Also sets the ETag header on the way out
+            return null;
+        }
+        return ResponseEntity.ok(body.get());
+    }
+}
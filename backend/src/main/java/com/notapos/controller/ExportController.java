@@ -0,0 +1,76 @@
+package com.notapos.controller;
+
+import com.notapos.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDateTime;
+
+/**
+ * REST API Controller for bulk exports.
+ *
+ * Streams payments or orders for a date range as CSV (default) or NDJSON.
+ * The body is written page by page while the client reads it, so a
+ * year-end export costs the server no more memory than a single day.
+ *
+ * @author CJ
+ */
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/payments")                                                    // Payments in a range (?format=csv|ndjson)
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format parsed = parseFormat(format);
+        if (parsed == null || from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("payments", parsed, out -> exportService.exportPayments(from, to, parsed, out));
+    }
+
+    @GetMapping("/orders")                                                      // Orders in a range (?format=csv|ndjson)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format parsed = parseFormat(format);
+        if (parsed == null || from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("orders", parsed, out -> exportService.exportOrders(from, to, parsed, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format, StreamingResponseBody body) {
+        boolean csv = format == ExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    private static ExportService.Format parseFormat(String format) {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.notapos.controller;
+
+import com.notapos.service.MenuBundleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST API Controller for the full menu bundle.
+ *
+ * Terminals poll the tiny /version endpoint and only download
+ * /bundle/{version} when it changes. A bundle URL never changes content, so
+ * it is served gzipped with a one-year immutable cache header; asking for an
+ * old version redirects to the current one.
+ *
+ * @author CJ
+ */
+
+@RestController
+@RequestMapping("/api/menu")
+public class MenuController {
+
+    private static final String BUNDLE_PATH = "/api/menu/bundle/";
+
+    private final MenuBundleService menuBundleService;
+
+    @Autowired
+    public MenuController(MenuBundleService menuBundleService) {
+        this.menuBundleService = menuBundleService;
+    }
+
+    @GetMapping("/version")                                                     // Current menu version + where to get it
+    public ResponseEntity<Map<String, Object>> getMenuVersion() {
+        long version = menuBundleService.getVersion();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", version);
+        body.put("bundleUrl", BUNDLE_PATH + version);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    @GetMapping("/bundle/{version}")                                            // Active items + modifier trees, one gzipped document
+    public ResponseEntity<byte[]> getMenuBundle(
+            @PathVariable long version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        MenuBundleService.CompressedBundle bundle = menuBundleService.getBundle();
+
+        if (bundle.version() != version) {                                     // Stale link, send them to the current menu
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(BUNDLE_PATH + bundle.version()))
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .eTag(Long.toString(bundle.version()))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(bundle.gzippedJson());
+        }
+        return response.body(bundle.json());
+    }
+}
@@ -2,16 +2,19 @@ package com.notapos.controller;
 
 import com.notapos.entity.MenuItem;
 import com.notapos.service.MenuItemService;
+import com.notapos.service.MenuSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 /**
  * REST API Controller for MenuItem operations.
  * 
  * Exposes HTTP endpoints for managing menu items.
+ * List endpoints carry an ETag and answer If-None-Match with 304.
  * 
  * @author CJ
  */
@@ -21,23 +24,30 @@ import java.util.List;
 public class MenuItemController {
 
     private final MenuItemService menuItemService;
+    private final MenuSearchService menuSearchService;
 
     @Autowired
-    public MenuItemController(MenuItemService menuItemService) {
+    public MenuItemController(MenuItemService menuItemService, MenuSearchService menuSearchService) {
         this.menuItemService = menuItemService;
+        this.menuSearchService = menuSearchService;
     }
 
     @GetMapping                                                         // Get all menu items
     public ResponseEntity<List<MenuItem>> getAllMenuItems(
-            @RequestParam(required = false) Boolean active) {
+            @RequestParam(required = false) Boolean active,
+            WebRequest request) {
 
-        if (active != null && active) {
-            return ResponseEntity.ok(menuItemService.getActiveMenuItems());
-        }
-
-        return ResponseEntity.ok(menuItemService.getActiveMenuItems());
+        return ConditionalGet.ok(request, menuItemService.getMenuItemsETag(),
+                menuItemService::getActiveMenuItems);
     }
     
+    @GetMapping("/search")                                                      // Search active items by name/category/description (prefix + typos)
+    public ResponseEntity<List<MenuItem>> searchMenuItems(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(menuSearchService.search(q, limit));
+    }
+
     @GetMapping("/{id}")                                                         // Get menu item by id
     public ResponseEntity<MenuItem> getMenuItemById(@PathVariable Long id) {
         return menuItemService.getMenuItemById(id)
@@ -48,21 +58,20 @@ public class MenuItemController {
     @GetMapping("/category/{category}")                                         // Get menu items by category
     public ResponseEntity<List<MenuItem>> getMenuItemByCategory(
         @PathVariable String category,
-        @RequestParam(required = false) Boolean active) {
+        @RequestParam(required = false) Boolean active,
+        WebRequest request) {
 
-    if (active != null && active) {
-        return ResponseEntity.ok(
-            menuItemService.getActiveMenuItemsByCategory(category));
-    }
-    return ResponseEntity.ok(
-        menuItemService.getMenuItemsByCategory(category));
+    return ConditionalGet.ok(request, menuItemService.getMenuItemsETag(), () -> active != null && active
+            ? menuItemService.getActiveMenuItemsByCategory(category)
+            : menuItemService.getMenuItemsByCategory(category));
     }
 
     @GetMapping("/prep-station/{prepStationId}")                                // Get menu items by prep station
     public ResponseEntity<List<MenuItem>> getMenuItemsByPrepStation(
-            @PathVariable Long prepStationId) {
-        List<MenuItem> items = menuItemService.getMenuItemsByPrepStation(prepStationId);
-        return ResponseEntity.ok(items);
+            @PathVariable Long prepStationId,
+            WebRequest request) {
+        return ConditionalGet.ok(request, menuItemService.getMenuItemsETag(),
+                () -> menuItemService.getMenuItemsByPrepStation(prepStationId));
     }
 
     @PostMapping                                                                        // Create new menu item
@@ -0,0 +1,39 @@
+package com.notapos.controller;
+
+import com.notapos.metrics.DelayTimerMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+/**
+ * REST API Controller for operational metrics.
+ * 
+ * Exposes the delay timer fire-lateness histograms (overall and per prep station)
+ * and per-tick throughput/timings.
+ * 
+ * @author CJ
+ */
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final DelayTimerMetrics delayTimerMetrics;
+
+    @Autowired
+    public MetricsController(DelayTimerMetrics delayTimerMetrics) {
+        this.delayTimerMetrics = delayTimerMetrics;
+    }
+
+    @GetMapping("/delay-timer")                                                 // Get delay timer lateness + throughput
+    public ResponseEntity<Map<String, Object>> getDelayTimerMetrics() {
+        return ResponseEntity.ok(delayTimerMetrics.snapshot());
+    }
+
+    @DeleteMapping("/delay-timer")                                              // Reset the measurement window
+    public ResponseEntity<Void> resetDelayTimerMetrics() {
+        delayTimerMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,12 +1,16 @@
 package com.notapos.controller;
 
+import com.notapos.dto.ChangeFeed;
+import com.notapos.dto.OrderAggregate;
 import com.notapos.entity.Order;
+import com.notapos.service.OrderAggregateService;
+import com.notapos.service.OrderPricingService;
 import com.notapos.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.math.BigDecimal;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 /**
@@ -23,27 +27,38 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderPricingService orderPricingService;
+    private final OrderAggregateService orderAggregateService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderPricingService orderPricingService,
+                           OrderAggregateService orderAggregateService) {
         this.orderService = orderService;
+        this.orderPricingService = orderPricingService;
+        this.orderAggregateService = orderAggregateService;
     }
 
-@GetMapping
-public ResponseEntity<List<Order>> getAllOrders(
-        @RequestParam(required = false) String status,
-        @RequestParam(required = false) Long tableId) {  // ADD tableId param
-    
-    if (tableId != null) {  // ADD this block
-        return ResponseEntity.ok(orderService.getOrdersByTableId(tableId));
+    @GetMapping                                                             // Get orders (ETag'd - polls get 304 until something changes)
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long tableId,
+            WebRequest request) {
+
+        return ConditionalGet.ok(request, orderService.getOrdersETag(), () -> {
+            if (tableId != null) {
+                return orderService.getOrdersByTableId(tableId);
+            }
+            if (status != null) {
+                return orderService.getOrdersByStatus(status);
+            }
+            return orderService.getAllOrders();
+        });
     }
-    
-    if (status != null) {
-        return ResponseEntity.ok(orderService.getOrdersByStatus(status));
+
+    @GetMapping("/changes")                                                 // Orders changed since a cursor (incremental sync, -1 = everything)
+    public ResponseEntity<ChangeFeed<Order>> getChanges(@RequestParam(defaultValue = "-1") long since) {
+        return ResponseEntity.ok(orderService.getChangesSince(since));
     }
-    
-    return ResponseEntity.ok(orderService.getAllOrders());
-}
 
     @GetMapping("/{id}")                                                    // Get order by ID
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
@@ -52,6 +67,13 @@ public ResponseEntity<List<Order>> getAllOrders(
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/full")                                               // Order + items + modifiers + payments in one round trip
+    public ResponseEntity<OrderAggregate> getFullOrder(@PathVariable Long id) {
+        return orderAggregateService.getFullOrder(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/table/{tableId}")                                         // Get orders by table
     public ResponseEntity<List<Order>> getOrdersByTable(
             @PathVariable Long tableId,
@@ -69,13 +91,10 @@ public ResponseEntity<List<Order>> getAllOrders(
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
-    @PutMapping("/{id}/totals")                                                 // Update order Totals
-    public ResponseEntity<Order> updateOrderTotals(
-            @PathVariable Long id,
-            @RequestParam BigDecimal subtotal,
-            @RequestParam BigDecimal taxRate) {
+    @PutMapping("/{id}/totals")                                                 // Recompute order totals from the stored item prices
+    public ResponseEntity<Order> updateOrderTotals(@PathVariable Long id) {
         try {
-            Order updated = orderService.updateOrderTotals(id, subtotal, taxRate);
+            Order updated = orderPricingService.repriceOrder(id);
             return ResponseEntity.ok(updated);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
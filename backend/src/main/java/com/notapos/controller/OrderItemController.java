@@ -1,17 +1,22 @@
 package com.notapos.controller;
 
+import com.notapos.dto.ChangeFeed;
 import com.notapos.entity.OrderItem;
+import com.notapos.events.OrderItemEventStream;
 import com.notapos.service.OrderItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 /**
  * REST API Controller for OrderItem operations.
  * 
  * Exposes endpoints for managing order items and the delay timer feature.
+ * Screens follow changes through the /stream endpoint instead of polling.
  * 
  * @author CJ
  */
@@ -21,22 +26,42 @@ import java.util.List;
 public class OrderItemController {
     
     private final OrderItemService orderItemService;
+    private final OrderItemEventStream orderItemEventStream;
 
     @Autowired
-    public OrderItemController(OrderItemService orderItemService) {
+    public OrderItemController(OrderItemService orderItemService, OrderItemEventStream orderItemEventStream) {
         this.orderItemService = orderItemService;
+        this.orderItemEventStream = orderItemEventStream;
     }
 
-    @GetMapping                                                             // Get all order items
+    @GetMapping                                                             // Get all order items (openOrders=true: only items on open checks)
     public ResponseEntity<List<OrderItem>> getAllOrderItems(
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean openOrders) {
 
+        if (openOrders) {
+            return ResponseEntity.ok(orderItemService.getItemsOfOpenOrders());
+        }
         if (status != null) {
             return ResponseEntity.ok(orderItemService.getItemsByStatus(status));
         }
         return ResponseEntity.ok(orderItemService.getAllOrderItems());
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)            // Live lifecycle events, optionally for one prep station or order
+    public SseEmitter streamOrderItemEvents(
+            @RequestParam(required = false) Long prepStationId,
+            @RequestParam(required = false) Long orderId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        return orderItemEventStream.subscribe(prepStationId, orderId, lastEventId);
+    }
+
+    @GetMapping("/changes")                                                         // Items changed since a cursor (incremental sync, -1 = everything)
+    public ResponseEntity<ChangeFeed<OrderItem>> getChanges(@RequestParam(defaultValue = "-1") long since) {
+        return ResponseEntity.ok(orderItemService.getChangesSince(since));
+    }
+
     @GetMapping("/{id}")                                                            // Get order item by ID
     public ResponseEntity<OrderItem> getOrderItemById(@PathVariable Long id) {
         return orderItemService.getOrderItemById(id)
@@ -64,8 +89,12 @@ public class OrderItemController {
 
     @PostMapping                                                                            // Create new order item, add to order
     public ResponseEntity<OrderItem> createOrderItem(@RequestBody OrderItem orderItem) {
-        OrderItem created = orderItemService.createOrderItem(orderItem);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        try {
+            OrderItem created = orderItemService.createOrderItem(orderItem);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (RuntimeException e) {                                      // Unknown menu item - nothing to price it from
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")                                            // Update Order Item
@@ -75,6 +104,8 @@ public class OrderItemController {
         try {
             OrderItem updated = orderItemService.updateOrderItem(id, orderItem);
             return ResponseEntity.ok(updated);
+        } catch (IllegalStateException e) {                                 // Wrong status for this move, or lost the race
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -86,23 +117,9 @@ public class OrderItemController {
         return ResponseEntity.ok(sentItems);
     }
 
-    @PostMapping("/order/{orderId}/send-now")
+    @PostMapping("/order/{orderId}/send-now")                                                   // Send all draft/limbo items now, bypass timer
     public ResponseEntity<List<OrderItem>> sendOrderNow(@PathVariable Long orderId) {
-        List<OrderItem> draftItems = orderItemService.getDraftItemsByOrder(orderId);
-        List<OrderItem> limboItems = orderItemService.getLimboItemsByOrder(orderId);
-
-        List<OrderItem> sentItems = new java.util.ArrayList<>();
-
-        // Send draft items
-        for (OrderItem item : draftItems) {
-            sentItems.add(orderItemService.sendItemNow(item.getOrderItemId()));
-        }
-
-        // Send limbo items (bypass timer)
-        for (OrderItem item : limboItems) {
-            sentItems.add(orderItemService.sendItemNow(item.getOrderItemId()));
-        }
-
+        List<OrderItem> sentItems = orderItemService.sendOrderNow(orderId);
         return ResponseEntity.ok(sentItems);
     }
 
@@ -111,6 +128,8 @@ public class OrderItemController {
         try {
             OrderItem sent = orderItemService.sendItemNow(id);
             return ResponseEntity.ok(sent);
+        } catch (IllegalStateException e) {                                 // Wrong status for this move, or lost the race
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -121,6 +140,8 @@ public class OrderItemController {
         try {
             OrderItem started = orderItemService.startItem(id);
             return ResponseEntity.ok(started);
+        } catch (IllegalStateException e) {                                 // Wrong status for this move, or lost the race
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -131,6 +152,8 @@ public class OrderItemController {
         try {
             OrderItem completed = orderItemService.completeItem(id);
             return ResponseEntity.ok(completed);
+        } catch (IllegalStateException e) {                                 // Wrong status for this move, or lost the race
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -54,8 +54,27 @@ public class OrderItemModifierController {
     @PostMapping
     public ResponseEntity<OrderItemModifier> createOrderItemModifier(                                       // Create new order item modifier
             @RequestBody OrderItemModifier orderItemModifier) {
-        OrderItemModifier created = orderItemModifierService.createOrderItemModifier(orderItemModifier);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        try {
+            OrderItemModifier created = orderItemModifierService.createOrderItemModifier(orderItemModifier);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();                                                 // Not offered on this item / group full
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/order-item/{orderItemId}")
+    public ResponseEntity<List<OrderItemModifier>> replaceModifiers(                                        // Set an order item's whole modifier selection
+            @PathVariable Long orderItemId,
+            @RequestBody List<Long> modifierIds) {
+        try {
+            return ResponseEntity.ok(orderItemModifierService.replaceModifiers(orderItemId, modifierIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();                                                 // Breaks a modifier rule (missing required group, too many...)
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @DeleteMapping("/{id}")
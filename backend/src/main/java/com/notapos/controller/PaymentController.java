@@ -11,6 +11,9 @@ import java.util.List;
 /**
  * REST API Controller for Payment operations
  * 
+ * POST accepts an optional Idempotency-Key header; a retry with the same key
+ * gets the original payment back instead of creating a second one.
+ * 
  * @author CJ
  */
 
@@ -18,6 +21,9 @@ import java.util.List;
 @RequestMapping("/api/payments")
 public class PaymentController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;                  // payments.idempotency_key
+
     private final PaymentService paymentService;
 
     @Autowired
@@ -52,9 +58,23 @@ public class PaymentController {
     }
 
     @PostMapping
-    public ResponseEntity<Payment> createPayment(@RequestBody Payment payment) {                    // Create new payment
-        Payment created = paymentService.createPayment(payment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<Payment> createPayment(                                                   // Create new payment
+            @RequestBody Payment payment,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        if (idempotencyKey == null) {
+            Payment created = paymentService.createPayment(payment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Payment created = paymentService.createPayment(payment, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);                 // Same answer for the first try and every replay
+        } catch (IllegalStateException e) {
+            return ResponseEntity.unprocessableEntity().build();                            // Key reused for a different payment
+        }
     }
 
     @PutMapping("/{id}")
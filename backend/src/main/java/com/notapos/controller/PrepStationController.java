@@ -1,6 +1,8 @@
 package com.notapos.controller;
 
+import com.notapos.dto.KitchenTicket;
 import com.notapos.entity.PrepStation;
+import com.notapos.service.KitchenTicketService;
 import com.notapos.service.PrepStationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -19,10 +21,12 @@ import java.util.List;
 public class PrepStationController {
     
     private final PrepStationService prepStationService;
+    private final KitchenTicketService kitchenTicketService;
 
     @Autowired
-    public PrepStationController(PrepStationService prepStationService) {
+    public PrepStationController(PrepStationService prepStationService, KitchenTicketService kitchenTicketService) {
         this.prepStationService = prepStationService;
+        this.kitchenTicketService = kitchenTicketService;
     }
 
     @GetMapping
@@ -42,6 +46,11 @@ public class PrepStationController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/tickets")
+    public ResponseEntity<List<KitchenTicket>> getKitchenTickets(@PathVariable Long id) {     // KDS: pending + fired items for this station
+        return ResponseEntity.ok(kitchenTicketService.getTickets(id));
+    }
+
     @PostMapping
     public ResponseEntity<PrepStation> createPrepStation(@RequestBody PrepStation prepStation) {        // Create prep station
         PrepStation created = prepStationService.createPrepStation(prepStation);
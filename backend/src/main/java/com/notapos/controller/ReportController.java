@@ -0,0 +1,64 @@
+package com.notapos.controller;
+
+import com.notapos.dto.SalesSummary;
+import com.notapos.dto.ServerSales;
+import com.notapos.service.SalesRollupService;
+import com.notapos.service.ServerSalesReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REST API Controller for sales reports.
+ *
+ * Serves the Financials screen from the pre-aggregated sales rollups, so a
+ * day's figures cost the same to read at close as they did at open. The
+ * per-server tip report comes from ServerSalesReportService.
+ *
+ * @author CJ
+ */
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final SalesRollupService salesRollupService;
+    private final ServerSalesReportService serverSalesReportService;
+
+    @Autowired
+    public ReportController(SalesRollupService salesRollupService, ServerSalesReportService serverSalesReportService) {
+        this.salesRollupService = salesRollupService;
+        this.serverSalesReportService = serverSalesReportService;
+    }
+
+    @GetMapping("/day")                                                         // Sales for a business day (default: the current one)
+    public ResponseEntity<SalesSummary> getBusinessDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate businessDay = date != null ? date : SalesRollupService.businessDay(LocalDateTime.now());
+        return ResponseEntity.ok(salesRollupService.getBusinessDaySummary(businessDay));
+    }
+
+    @GetMapping("/summary")                                                     // Sales for a shift or any other range
+    public ResponseEntity<SalesSummary> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.getSummary(from, to));
+    }
+
+    @GetMapping("/servers")                                                     // Sales + tips per server and section, whole hours only
+    public ResponseEntity<List<ServerSales>> getServerSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to) || !ServerSalesReportService.isWholeHour(from) || !ServerSalesReportService.isWholeHour(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(serverSalesReportService.getReport(from, to));
+    }
+}
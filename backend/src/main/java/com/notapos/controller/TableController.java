@@ -1,17 +1,26 @@
 package com.notapos.controller;
 
+import com.notapos.dto.TableSession;
 import com.notapos.entity.RestaurantTable;
+import com.notapos.events.FloorMapSnapshot;
+import com.notapos.events.FloorMapStream;
+import com.notapos.service.OrderAggregateService;
 import com.notapos.service.TableService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 /**
  * REST API Controller for Table operations.
  * 
  * Exposes HTTP endpoints for managing restaurant tables.
+ * The floor map loads /floor once, then follows /stream for deltas.
+ * The order screen opens a table with /{id}/session.
  * 
  * @author CJ
  */
@@ -21,16 +30,31 @@ import java.util.List;
 public class TableController {
 
     private final TableService tableService;
+    private final FloorMapStream floorMapStream;
+    private final OrderAggregateService orderAggregateService;
 
     @Autowired
-    public TableController(TableService tableService) {
+    public TableController(TableService tableService, FloorMapStream floorMapStream,
+                           OrderAggregateService orderAggregateService) {
         this.tableService = tableService;
+        this.floorMapStream = floorMapStream;
+        this.orderAggregateService = orderAggregateService;
     }
 
     @GetMapping                                                             // Get all tables
-    public ResponseEntity<List<RestaurantTable>> getAllTables() {
-        List<RestaurantTable> tables = tableService.getAllTables();
-        return ResponseEntity.ok(tables);
+    public ResponseEntity<List<RestaurantTable>> getAllTables(WebRequest request) {
+        return ConditionalGet.ok(request, tableService.getTablesETag(), tableService::getAllTables);
+    }
+
+    @GetMapping("/floor")                                                   // All tables plus the floor version they're current as of
+    public ResponseEntity<FloorMapSnapshot> getFloorSnapshot() {
+        long floorVersion = floorMapStream.getFloorVersion();                   // Read first - a delta we race is re-applied harmlessly
+        return ResponseEntity.ok(new FloorMapSnapshot(floorVersion, tableService.getAllTables()));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)        // Live table status deltas
+    public SseEmitter streamFloorMap() {
+        return floorMapStream.subscribe();
     }
 
     @GetMapping("/{id}")                                                                // Get table by ID
@@ -40,6 +64,13 @@ public class TableController {
                     .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/session")                                                        // Table + every open check on it, fully expanded
+    public ResponseEntity<TableSession> getTableSession(@PathVariable Long id) {
+        return orderAggregateService.getTableSession(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping                                                                                    // Create new table
     public ResponseEntity<RestaurantTable> createTable(@RequestBody RestaurantTable table) {
         RestaurantTable created = tableService.createTable(table);
@@ -0,0 +1,14 @@
+package com.notapos.dto;
+
+import java.util.List;
+
+/**
+ * One page of a "since" change feed.
+ *
+ * changed = rows written after the caller's cursor, deleted = ids removed
+ * since then. Pass cursor back as ?since= on the next poll.
+ *
+ * @author CJ
+ */
+
+public record ChangeFeed<T>(long cursor, List<T> changed, List<Long> deleted) {}
@@ -0,0 +1,12 @@
+package com.notapos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * How much of one menu item sold in one hour of the day, summed over every
+ * day in the range. Sales include modifier charges.
+ *
+ * @author CJ
+ */
+
+public record ItemMixRow(int hour, Long menuItemId, long quantity, BigDecimal sales) {}
@@ -0,0 +1,35 @@
+package com.notapos.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What a Kitchen Display System shows for one order item.
+ *
+ * receivedAt is when the item was sent (or created, if it was sent without
+ * a stamp). ageSeconds is measured from it at response time, so a cached
+ * ticket still shows how long the kitchen has really had it.
+ *
+ * @author CJ
+ */
+
+public record KitchenTicket(
+        Long orderItemId,
+        Long orderId,
+        String tableNumber,
+        String itemName,
+        Integer quantity,
+        String status,
+        List<String> modifiers,
+        String specialInstructions,
+        LocalDateTime receivedAt,
+        LocalDateTime firedAt,
+        long ageSeconds) {
+
+    public KitchenTicket agedAt(LocalDateTime now) {                // Same ticket, age recalculated for now
+        long age = receivedAt != null ? Math.max(0, Duration.between(receivedAt, now).getSeconds()) : 0;
+        return new KitchenTicket(orderItemId, orderId, tableNumber, itemName, quantity, status,
+                modifiers, specialInstructions, receivedAt, firedAt, age);
+    }
+}
@@ -0,0 +1,26 @@
+package com.notapos.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the kitchen ticket query.
+ *
+ * The query left-joins modifiers, so an item with three modifiers comes back
+ * as three rows (modifierName null when it has none). KitchenTicketService
+ * folds them back into one KitchenTicket per item.
+ *
+ * @author CJ
+ */
+
+public record KitchenTicketRow(
+        Long orderItemId,
+        Long orderId,
+        String tableNumber,
+        String itemName,
+        Integer quantity,
+        String status,
+        String specialInstructions,
+        LocalDateTime sentAt,
+        LocalDateTime firedAt,
+        LocalDateTime createdAt,
+        String modifierName) {}
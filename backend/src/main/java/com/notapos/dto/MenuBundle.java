@@ -0,0 +1,38 @@
+package com.notapos.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The whole orderable menu in one document: every active item with the
+ * modifier groups it offers and their active modifiers.
+ *
+ * Built from one MenuCatalog version and served from
+ * /api/menu/bundle/{version}, so it never changes once published.
+ *
+ * @author CJ
+ */
+
+public record MenuBundle(long version, List<Item> items) {
+
+    public record Item(
+            Long menuItemId,
+            String name,
+            String description,
+            BigDecimal price,
+            String category,
+            Long prepStationId,
+            List<Group> modifierGroups) {}
+
+    public record Group(
+            Long modifierGroupId,
+            String name,
+            Boolean isRequired,
+            Integer maxSelections,
+            List<Option> modifiers) {}
+
+    public record Option(
+            Long modifierId,
+            String name,
+            BigDecimal priceAdjustment) {}
+}
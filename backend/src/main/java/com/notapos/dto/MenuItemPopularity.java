@@ -0,0 +1,9 @@
+package com.notapos.dto;
+
+/**
+ * How many of a menu item have ever been ordered (sum of quantities).
+ *
+ * @author CJ
+ */
+
+public record MenuItemPopularity(Long menuItemId, Long timesOrdered) {}
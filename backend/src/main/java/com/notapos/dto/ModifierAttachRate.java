@@ -0,0 +1,12 @@
+package com.notapos.dto;
+
+/**
+ * How often items in a menu category were ordered with modifiers.
+ *
+ * attachRate = itemsWithModifiers / items, modifiersPerItem = modifiers / items.
+ *
+ * @author CJ
+ */
+
+public record ModifierAttachRate(String category, long items, long itemsWithModifiers, long modifiers,
+                                 double attachRate, double modifiersPerItem) {}
@@ -0,0 +1,22 @@
+package com.notapos.dto;
+
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.Payment;
+import java.util.List;
+
+/**
+ * A whole check in one response: the order, its items (each with the
+ * modifiers chosen for it) and the payments taken against it.
+ *
+ * Returned by GET /api/orders/{id}/full and, per open order, by
+ * GET /api/tables/{id}/session.
+ *
+ * @author CJ
+ */
+
+public record OrderAggregate(Order order, List<Item> items, List<Payment> payments) {
+
+    public record Item(OrderItem orderItem, List<OrderItemModifier> modifiers) {}
+}
@@ -0,0 +1,32 @@
+package com.notapos.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales figures for a shift or business day, folded from SalesRollup rows.
+ *
+ * Sales exclude tips. averageCheck is the mean total of the checks closed in
+ * the range, averageTipPercent is tips over sales. intervals has one entry
+ * per 15-minute bucket that saw any activity.
+ *
+ * @author CJ
+ */
+
+public record SalesSummary(
+        LocalDateTime from,
+        LocalDateTime to,
+        BigDecimal totalSales,
+        BigDecimal totalTips,
+        int paymentCount,
+        int ordersClosed,
+        BigDecimal averageCheck,
+        BigDecimal averageTipPercent,
+        Map<String, BigDecimal> salesByPaymentMethod,
+        Map<String, BigDecimal> salesByServer,
+        List<Interval> intervals) {
+
+    public record Interval(LocalDateTime start, BigDecimal sales, BigDecimal tips, int ordersClosed) {}
+}
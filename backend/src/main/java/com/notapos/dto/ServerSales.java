@@ -0,0 +1,14 @@
+package com.notapos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales and tips for one server in one section over a report range.
+ *
+ * Sales exclude tips. serverName and section are the ones recorded on the
+ * order when it was opened; either is null for orders from before that.
+ *
+ * @author CJ
+ */
+
+public record ServerSales(String serverName, String section, BigDecimal sales, BigDecimal tips, long paymentCount) {}
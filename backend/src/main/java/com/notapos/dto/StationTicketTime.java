@@ -0,0 +1,10 @@
+package com.notapos.dto;
+
+/**
+ * Ticket time for one prep station: from the item firing to the kitchen to
+ * it being completed. prepStationId is null for items with no station.
+ *
+ * @author CJ
+ */
+
+public record StationTicketTime(Long prepStationId, long items, double averageSeconds, long maxSeconds) {}
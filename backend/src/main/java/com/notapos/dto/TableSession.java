@@ -0,0 +1,13 @@
+package com.notapos.dto;
+
+import com.notapos.entity.RestaurantTable;
+import java.util.List;
+
+/**
+ * Everything the order screen needs when a server opens a table: the table
+ * and every open check on it, fully expanded.
+ *
+ * @author CJ
+ */
+
+public record TableSession(RestaurantTable table, List<OrderAggregate> orders) {}
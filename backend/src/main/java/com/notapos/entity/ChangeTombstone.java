@@ -0,0 +1,73 @@
+package com.notapos.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording that a row was deleted, for the change feeds.
+ * 
+ * A deleted order or order item can't show up in a "modified since" query,
+ * so the delete leaves one of these behind with the sequence it happened at.
+ * 
+ * @author CJ
+ */
+
+@Entity
+@Table(name = "change_tombstones", indexes = {
+        @Index(name = "idx_change_tombstones_type_seq", columnList = "entity_type, mod_seq")
+})
+public class ChangeTombstone {
+
+    public static final String ORDER = "order";
+    public static final String ORDER_ITEM = "order_item";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tombstone_id")
+    private Long tombstoneId;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "mod_seq", nullable = false)
+    private Long modSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public ChangeTombstone() {}
+
+    public ChangeTombstone(String entityType, Long entityId, Long modSeq) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.modSeq = modSeq;
+    }
+
+    public Long getTombstoneId() {
+        return tombstoneId;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getModSeq() {
+        return modSeq;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+}
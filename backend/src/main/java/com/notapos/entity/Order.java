@@ -1,6 +1,7 @@
 package com.notapos.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -15,7 +16,9 @@ import java.time.LocalDateTime;
  */
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_mod_seq", columnList = "mod_seq")                 // Change feed (GET /api/orders/changes)
+})
 public class Order {
     
     @Id
@@ -47,6 +50,16 @@ public class Order {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Column(name = "server_name", length = 50)                  // Copied from the table when the order is created
+    private String serverName;
+
+    @Column(name = "section", length = 20)                      // Same - reports group by these, not by the table's current values
+    private String section;
+
+    @ColumnDefault("0")
+    @Column(name = "mod_seq", nullable = false)                 // ModificationSequence value of the last write
+    private Long modSeq = 0L;
+
     public Order() {}
 
     public Long getOrderId() {
@@ -117,6 +130,30 @@ public class Order {
         this.completedAt = completedAt;
     }
 
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public void setSection(String section) {
+        this.section = section;
+    }
+
+    public Long getModSeq() {
+        return modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,6 +1,7 @@
 package com.notapos.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -10,11 +11,18 @@ import java.time.LocalDateTime;
  * Each item has a 15-second delay before being locked and sent to kitchen.
  * Servers can edit/delete items during the delay window.
  * 
+ * The partial index the delay timer relies on (unlocked rows only) lives in
+ * db/indexes.sql because @Index can't express a WHERE clause.
+ * 
  * @author CJ
  */
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_status", columnList = "order_id, status"),     // Items for an order by status (send, send-now)
+        @Index(name = "idx_order_items_status", columnList = "status"),                     // Items by status (KDS, limbo rebuild)
+        @Index(name = "idx_order_items_mod_seq", columnList = "mod_seq")                    // Change feed (GET /api/order-items/changes)
+})
 public class OrderItem {
     
     @Id
@@ -61,6 +69,15 @@ public class OrderItem {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Version                                                    // Optimistic lock - bumped by every save and status transition
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;                                       // Null until persisted (Hibernate seeds 0), so a PUT body without one skips the stale-copy check
+
+    @ColumnDefault("0")
+    @Column(name = "mod_seq", nullable = false)                 // ModificationSequence value of the last write
+    private Long modSeq = 0L;
+
     public OrderItem() {}
 
     public Long getOrderItemId() {
@@ -171,6 +188,22 @@ public class OrderItem {
         this.completedAt = completedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getModSeq() {
+        return modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package com.notapos.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -9,6 +10,8 @@ import java.time.LocalDateTime;
  * 
  * Orders can have multiple payments (split checks).
  * Tracks payment method, amount, and tips.
+ * idempotencyKey is the terminal's Idempotency-Key header, kept for the
+ * replay window only (unique index in db/indexes.sql).
  * 
  * @author CJ
  */
@@ -43,6 +46,10 @@ public class Payment {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @JsonIgnore                                                 // Comes from the header, never the body
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
     public Payment() {}
 
     public Long getPaymentId() {
@@ -105,6 +112,14 @@ public class Payment {
         return createdAt;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,139 @@
+package com.notapos.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding pre-aggregated sales for one 15-minute interval.
+ *
+ * One row per (interval, payment method, server). Payment rows carry sales,
+ * tips and a payment count; closing a check adds to the row with an empty
+ * payment method (a check isn't tied to one method) - orders closed and the
+ * sum of their totals, for average check size.
+ *
+ * Rows are only ever added to (SalesRollupRepository.add) in the same
+ * transaction as the payment or order write, never recomputed. The unique
+ * index the upsert relies on is in db/indexes.sql.
+ *
+ * @author CJ
+ */
+
+@Entity
+@Table(name = "sales_rollups",
+        indexes = @Index(name = "idx_sales_rollups_business_day", columnList = "business_day"))
+public class SalesRollup {
+
+    public static final String CHECKS = "";                     // payment_method of the orders-closed rows
+    public static final String NO_SERVER = "";                  // server_name when the order has none (opened before servers were recorded)
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "business_day", nullable = false)
+    private LocalDate businessDay;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(name = "server_name", nullable = false, length = 100)
+    private String serverName;
+
+    @Column(name = "sales_cents", nullable = false)
+    private long salesCents;
+
+    @Column(name = "tips_cents", nullable = false)
+    private long tipsCents;
+
+    @Column(name = "payment_count", nullable = false)
+    private int paymentCount;
+
+    @Column(name = "orders_closed", nullable = false)
+    private int ordersClosed;
+
+    @Column(name = "check_total_cents", nullable = false)
+    private long checkTotalCents;
+
+    public SalesRollup() {}
+
+    public Long getRollupId() {
+        return rollupId;
+    }
+
+    public LocalDate getBusinessDay() {
+        return businessDay;
+    }
+
+    public void setBusinessDay(LocalDate businessDay) {
+        this.businessDay = businessDay;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName;
+    }
+
+    public long getSalesCents() {
+        return salesCents;
+    }
+
+    public void setSalesCents(long salesCents) {
+        this.salesCents = salesCents;
+    }
+
+    public long getTipsCents() {
+        return tipsCents;
+    }
+
+    public void setTipsCents(long tipsCents) {
+        this.tipsCents = tipsCents;
+    }
+
+    public int getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(int paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public int getOrdersClosed() {
+        return ordersClosed;
+    }
+
+    public void setOrdersClosed(int ordersClosed) {
+        this.ordersClosed = ordersClosed;
+    }
+
+    public long getCheckTotalCents() {
+        return checkTotalCents;
+    }
+
+    public void setCheckTotalCents(long checkTotalCents) {
+        this.checkTotalCents = checkTotalCents;
+    }
+}
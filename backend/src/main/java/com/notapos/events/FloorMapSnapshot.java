@@ -0,0 +1,12 @@
+package com.notapos.events;
+
+import com.notapos.entity.RestaurantTable;
+import java.util.List;
+
+/**
+ * Full floor state a client loads before following the floor map stream.
+ *
+ * @author CJ
+ */
+
+public record FloorMapSnapshot(long floorVersion, List<RestaurantTable> tables) {}
@@ -0,0 +1,106 @@
+package com.notapos.events;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Server-Sent Events channel for floor map (table status) deltas.
+ *
+ * Each table change bumps a floor version and pushes only that table's id,
+ * status and serverName. The version increases by exactly one per change, so
+ * a client that sees a jump knows it missed something and reloads the
+ * snapshot - otherwise it never needs to re-fetch the table list.
+ *
+ * The version is bumped under the lock; the sends are queued on this
+ * stream's sender thread (SseSupport) and happen outside it.
+ *
+ * @author CJ
+ */
+
+@Component
+public class FloorMapStream {
+
+    public static final String TABLE_EVENT = "table";
+
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    private final Executor sender;
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+    private long floorVersion;
+
+    public record TableDelta(Long tableId, String status, String serverName, long floorVersion) {}
+
+    public FloorMapStream() {
+        this(SseSupport.newSender("floor-map-events"));
+    }
+
+    FloorMapStream(Executor sender) {
+        this.sender = sender;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)                   // After commit (or straight away outside a transaction)
+    public synchronized void onTableChanged(TableChangedEvent change) {
+        TableDelta delta = new TableDelta(change.tableId(), change.status(), change.serverName(), ++floorVersion);
+
+        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                .id(String.valueOf(delta.floorVersion()))
+                .name(TABLE_EVENT)
+                .data(delta, MediaType.APPLICATION_JSON);
+
+        List<SseEmitter> targets = List.copyOf(subscribers);
+        sender.execute(() -> targets.forEach(emitter -> {                   // Queued under the lock, so versions go out in order
+            if (!SseSupport.send(emitter, event)) {
+                unsubscribe(emitter);
+            }
+        }));
+    }
+
+    public synchronized SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onTimeout(() -> unsubscribe(emitter));
+        emitter.onError(error -> unsubscribe(emitter));
+
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    public synchronized long getFloorVersion() {                     // Changes seen since startup
+        return floorVersion;
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedRate = SseSupport.HEARTBEAT_MILLIS)
+    public synchronized void heartbeat() {
+        List<SseEmitter> targets = List.copyOf(subscribers);
+        sender.execute(() -> targets.forEach(emitter -> {
+            if (!SseSupport.ping(emitter)) {
+                unsubscribe(emitter);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.remove(emitter);
+    }
+}
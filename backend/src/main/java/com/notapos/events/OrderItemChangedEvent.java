@@ -0,0 +1,38 @@
+package com.notapos.events;
+
+import com.notapos.entity.OrderItem;
+import java.time.LocalDateTime;
+
+/**
+ * Compact delta published by OrderItemService whenever an order item changes.
+ *
+ * Carries just enough for a screen to patch its copy of the item - status,
+ * lock flag and version - instead of re-fetching every order item.
+ *
+ * @author CJ
+ */
+
+public record OrderItemChangedEvent(
+        String type,
+        Long orderItemId,
+        Long orderId,
+        Long menuItemId,
+        Integer quantity,
+        String status,
+        Boolean isLocked,
+        Long version,
+        LocalDateTime changedAt) {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String SENT = "sent";                   // draft -> limbo, timer started
+    public static final String LOCKED = "locked";               // -> pending, timer expired or sent now
+    public static final String FIRED = "fired";
+    public static final String COMPLETED = "completed";
+    public static final String DELETED = "deleted";
+
+    public static OrderItemChangedEvent of(String type, OrderItem item) {
+        return new OrderItemChangedEvent(type, item.getOrderItemId(), item.getOrderId(), item.getMenuItemId(),
+                item.getQuantity(), item.getStatus(), item.getIsLocked(), item.getVersion(), LocalDateTime.now());
+    }
+}
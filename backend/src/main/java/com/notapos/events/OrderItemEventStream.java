@@ -0,0 +1,175 @@
+package com.notapos.events;
+
+import com.notapos.service.PrepStationLookup;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Server-Sent Events hub for order item lifecycle changes.
+ *
+ * Every OrderItemChangedEvent is numbered, kept in a ring buffer of recent
+ * events and pushed to the subscribers whose filter (prep station / order)
+ * matches. A reconnecting client sends Last-Event-ID and gets what it missed;
+ * if that's no longer in the buffer it is told to "resync" (re-fetch once).
+ *
+ * Events are only streamed after the transaction that caused them commits.
+ * The buffer and subscriber list are updated under the lock; the sends are
+ * queued on this stream's sender thread (SseSupport) and happen outside it.
+ *
+ * @author CJ
+ */
+
+@Component
+public class OrderItemEventStream {
+
+    public static final String RESYNC = "resync";
+
+    static final int BUFFER_SIZE = 1024;
+
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();      // Browser reconnects with Last-Event-ID
+
+    private final PrepStationLookup prepStationLookup;
+    private final Executor sender;
+
+    private final Deque<StreamedEvent> recent = new ArrayDeque<>(BUFFER_SIZE);
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long lastEventId;
+
+    record StreamedEvent(long id, Long prepStationId, OrderItemChangedEvent change) {}
+
+    private record Subscriber(SseEmitter emitter, Long prepStationId, Long orderId) {
+
+        boolean wants(StreamedEvent event) {
+            return (prepStationId == null || prepStationId.equals(event.prepStationId()))
+                    && (orderId == null || orderId.equals(event.change().orderId()));
+        }
+    }
+
+    @Autowired
+    public OrderItemEventStream(PrepStationLookup prepStationLookup) {
+        this(prepStationLookup, SseSupport.newSender("order-item-events"));
+    }
+
+    OrderItemEventStream(PrepStationLookup prepStationLookup, Executor sender) {
+        this.prepStationLookup = prepStationLookup;
+        this.sender = sender;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)                   // After commit (or straight away outside a transaction)
+    public void onOrderItemChanged(OrderItemChangedEvent change) {
+        Long stationId = prepStationLookup.stationFor(change.menuItemId());
+
+        synchronized (this) {
+            StreamedEvent event = new StreamedEvent(++lastEventId, stationId, change);
+            if (recent.size() == BUFFER_SIZE) {
+                recent.removeFirst();
+            }
+            recent.addLast(event);
+
+            List<Subscriber> targets = subscribers.stream().filter(subscriber -> subscriber.wants(event)).toList();
+            sender.execute(() -> targets.forEach(subscriber -> deliver(subscriber, List.of(event))));    // Queued under the lock, so ids go out in order
+        }
+    }
+
+    public synchronized SseEmitter subscribe(Long prepStationId, Long orderId, Long lastSeenEventId) {    // Open a stream, replaying anything missed since lastSeenEventId
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter, prepStationId, orderId);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        if (lastSeenEventId != null) {                                  // Replay is queued ahead of anything newer
+            Optional<List<StreamedEvent>> missed = eventsAfter(lastSeenEventId);
+            long resyncId = lastEventId;
+
+            if (missed.isPresent()) {
+                List<StreamedEvent> wanted = missed.get().stream().filter(subscriber::wants).toList();
+                sender.execute(() -> deliver(subscriber, wanted));
+            } else {
+                sender.execute(() -> {
+                    if (!sendResync(emitter, resyncId)) {
+                        unsubscribe(subscriber);
+                    }
+                });
+            }
+        }
+
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public synchronized long getLastEventId() {
+        return lastEventId;
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedRate = SseSupport.HEARTBEAT_MILLIS)                        // Keeps idle connections open through proxies, drops dead ones
+    public synchronized void heartbeat() {
+        List<Subscriber> targets = List.copyOf(subscribers);
+        sender.execute(() -> targets.forEach(subscriber -> {
+            if (!SseSupport.ping(subscriber.emitter())) {
+                unsubscribe(subscriber);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    synchronized Optional<List<StreamedEvent>> eventsAfter(long lastSeenEventId) {     // Empty = gap we can't fill, client must resync
+        if (lastSeenEventId > lastEventId) {
+            return Optional.empty();                                                 // Id from before a restart
+        }
+
+        long oldestBuffered = recent.isEmpty() ? lastEventId + 1 : recent.peekFirst().id();
+        if (lastSeenEventId < oldestBuffered - 1) {
+            return Optional.empty();                                                 // Fell out of the buffer
+        }
+
+        return Optional.of(recent.stream().filter(event -> event.id() > lastSeenEventId).toList());
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private void deliver(Subscriber subscriber, List<StreamedEvent> events) {      // On the sender thread - a dead client is dropped
+        for (StreamedEvent event : events) {
+            if (!send(subscriber.emitter(), event)) {
+                unsubscribe(subscriber);
+                return;
+            }
+        }
+    }
+
+    private static boolean sendResync(SseEmitter emitter, long eventId) {
+        return SseSupport.send(emitter, SseEmitter.event().id(String.valueOf(eventId)).name(RESYNC).data(eventId));
+    }
+
+    private static boolean send(SseEmitter emitter, StreamedEvent event) {
+        return SseSupport.send(emitter, SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .data(event.change(), MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,44 @@
+package com.notapos.events;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small helpers shared by the SSE streams.
+ *
+ * Each stream writes to its emitters from one sender thread of its own, so a
+ * slow client never holds the stream's lock, the committing request thread or
+ * the scheduler - and a client still gets its events in order.
+ *
+ * @author CJ
+ */
+
+final class SseSupport {
+
+    static final long HEARTBEAT_MILLIS = 15_000;
+
+    private SseSupport() {}
+
+    static ExecutorService newSender(String name) {                        // Single daemon thread, tasks run in submission order
+        return Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {       // false = client went away, drop it
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {                 // Container cleans up the response
+            return false;
+        }
+    }
+
+    static boolean ping(SseEmitter emitter) {
+        return send(emitter, SseEmitter.event().comment("ping"));
+    }
+}
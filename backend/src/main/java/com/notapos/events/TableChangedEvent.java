@@ -0,0 +1,22 @@
+package com.notapos.events;
+
+import com.notapos.entity.RestaurantTable;
+
+/**
+ * Published by TableService whenever a table's floor state changes.
+ *
+ * @author CJ
+ */
+
+public record TableChangedEvent(Long tableId, String status, String serverName) {
+
+    public static final String DELETED = "deleted";                 // status sent when a table is removed from the floor
+
+    public static TableChangedEvent of(RestaurantTable table) {
+        return new TableChangedEvent(table.getTableId(), table.getStatus(), table.getServerName());
+    }
+
+    public static TableChangedEvent deleted(Long tableId) {
+        return new TableChangedEvent(tableId, DELETED, null);
+    }
+}
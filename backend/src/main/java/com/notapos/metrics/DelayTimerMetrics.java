@@ -0,0 +1,135 @@
+package com.notapos.metrics;
+
+import com.notapos.entity.OrderItem;
+import com.notapos.service.PrepStationLookup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fire-lateness and throughput metrics for the 15-second delay buffer.
+ *
+ * Lateness = time the item was actually locked minus its delayExpiresAt.
+ * "15 seconds" should mean 15 seconds - this is what lets us put an SLO on it.
+ * Recorded overall and per prep station, plus per-tick statement timings.
+ *
+ * @author CJ
+ */
+
+@Component
+public class DelayTimerMetrics {
+
+    public static final Long UNASSIGNED_STATION = PrepStationLookup.UNASSIGNED_STATION;
+
+    private static final long MAX_LATENESS_MILLIS = Duration.ofHours(1).toMillis();
+    private static final long MAX_STATEMENT_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final PrepStationLookup prepStationLookup;
+
+    private final AtomicLong wheelTicks = new AtomicLong();
+    private final AtomicLong timersExpired = new AtomicLong();
+    private final AtomicLong lockTicks = new AtomicLong();
+    private final AtomicLong itemsFired = new AtomicLong();
+    private final AtomicReference<Map<String, Object>> lastTick = new AtomicReference<>(Map.of());
+
+    private volatile LatencyHistogram lateness;
+    private volatile Map<Long, LatencyHistogram> latenessByStation;
+    private volatile LatencyHistogram itemsPerTick;
+    private volatile LatencyHistogram lockStatementMicros;
+    private volatile LatencyHistogram reloadQueryMicros;
+    private volatile LatencyHistogram wheelAdvanceMicros;
+
+    @Autowired
+    public DelayTimerMetrics(PrepStationLookup prepStationLookup) {
+        this.prepStationLookup = prepStationLookup;
+        reset();
+    }
+
+    public void recordWheelTick(int dueCount, long advanceNanos) {              // Every scheduler tick, even the idle ones
+        wheelTicks.incrementAndGet();
+        timersExpired.addAndGet(dueCount);
+        wheelAdvanceMicros.record(advanceNanos / 1000);
+    }
+
+    public void recordLockTick(List<OrderItem> lockedItems, LocalDateTime lockedAt,
+                               long lockStatementNanos, long reloadQueryNanos) {     // One lock transition (timer tick or POST /lock-expired)
+        lockTicks.incrementAndGet();
+        itemsFired.addAndGet(lockedItems.size());
+        itemsPerTick.record(lockedItems.size());
+        lockStatementMicros.record(lockStatementNanos / 1000);
+        reloadQueryMicros.record(reloadQueryNanos / 1000);
+
+        long worstLateness = 0;
+        Map<Long, Long> stations = prepStationLookup.stationsFor(lockedItems);
+
+        for (OrderItem item : lockedItems) {
+            if (item.getDelayExpiresAt() == null) {
+                continue;
+            }
+
+            long latenessMillis = Duration.between(item.getDelayExpiresAt(), lockedAt).toMillis();
+            Long stationId = stations.getOrDefault(item.getMenuItemId(), UNASSIGNED_STATION);
+
+            lateness.record(latenessMillis);
+            latenessByStation.computeIfAbsent(stationId, id -> new LatencyHistogram(MAX_LATENESS_MILLIS)).record(latenessMillis);
+            worstLateness = Math.max(worstLateness, latenessMillis);
+        }
+
+        Map<String, Object> tick = new LinkedHashMap<>();
+        tick.put("at", lockedAt);
+        tick.put("itemsFired", lockedItems.size());
+        tick.put("lockStatementMicros", lockStatementNanos / 1000);
+        tick.put("reloadQueryMicros", reloadQueryNanos / 1000);
+        tick.put("worstLatenessMillis", worstLateness);
+        lastTick.set(tick);
+    }
+
+    public LatencyHistogram getLateness() {
+        return lateness;
+    }
+
+    public LatencyHistogram getLatenessForStation(Long prepStationId) {
+        return latenessByStation.get(prepStationId);
+    }
+
+    public Map<String, Object> snapshot() {                                        // Everything the metrics endpoint shows
+        Map<String, Object> byStation = new TreeMap<>();
+        latenessByStation.forEach((stationId, histogram) -> byStation.put(String.valueOf(stationId), histogram.summary()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("wheelTicks", wheelTicks.get());
+        snapshot.put("timersExpired", timersExpired.get());
+        snapshot.put("lockTicks", lockTicks.get());
+        snapshot.put("itemsFired", itemsFired.get());
+        snapshot.put("lastLockTick", lastTick.get());
+        snapshot.put("latenessMillis", lateness.summary());
+        snapshot.put("latenessMillisByPrepStation", byStation);
+        snapshot.put("itemsPerLockTick", itemsPerTick.summary());
+        snapshot.put("lockStatementMicros", lockStatementMicros.summary());
+        snapshot.put("reloadQueryMicros", reloadQueryMicros.summary());
+        snapshot.put("wheelAdvanceMicros", wheelAdvanceMicros.summary());
+        return snapshot;
+    }
+
+    public final synchronized void reset() {                            // Start a fresh measurement window (final: the constructor calls it)
+        wheelTicks.set(0);
+        timersExpired.set(0);
+        lockTicks.set(0);
+        itemsFired.set(0);
+        lastTick.set(Map.of());
+        lateness = new LatencyHistogram(MAX_LATENESS_MILLIS);
+        latenessByStation = new ConcurrentHashMap<>();
+        itemsPerTick = new LatencyHistogram(100_000);
+        lockStatementMicros = new LatencyHistogram(MAX_STATEMENT_MICROS);
+        reloadQueryMicros = new LatencyHistogram(MAX_STATEMENT_MICROS);
+        wheelAdvanceMicros = new LatencyHistogram(MAX_STATEMENT_MICROS);
+    }
+}
@@ -0,0 +1,24 @@
+package com.notapos.repository;
+
+import com.notapos.entity.ChangeTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Repository for ChangeTombstone entity.
+ * 
+ * @author CJ
+ */
+
+@Repository
+public interface ChangeTombstoneRepository extends JpaRepository<ChangeTombstone, Long> {
+
+    @Query("SELECT t.entityId FROM ChangeTombstone t WHERE t.entityType = :entityType "                     // Ids deleted within a change feed window
+            + "AND t.modSeq > :since AND t.modSeq <= :upTo ORDER BY t.modSeq")
+    List<Long> findDeletedIdsBetween(String entityType, long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(t.modSeq), 0) FROM ChangeTombstone t")
+    long findHighestModSeq();
+}
@@ -2,7 +2,11 @@ package com.notapos.repository;
 
 import com.notapos.entity.OrderItemModifier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,4 +23,11 @@ public interface OrderItemModifierRepository extends JpaRepository<OrderItemModi
     List<OrderItemModifier> findByOrderItemId(Long orderItemId);                // Find all modifiers for a specific order item
 
     List<OrderItemModifier> findByModifierId(Long modifierId);                  // Find all order items that used a specific modifier
+
+    List<OrderItemModifier> findByOrderItemIdIn(Collection<Long> orderItemIds);  // Modifiers for a whole order in one query (pricing)
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM OrderItemModifier oim WHERE oim.orderItemId = :orderItemId")        // Clear an item's selection in one statement
+    int deleteByOrderItemId(Long orderItemId);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.notapos.repository;
 
+import com.notapos.dto.KitchenTicketRow;
+import com.notapos.dto.MenuItemPopularity;
 import com.notapos.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,8 +26,14 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrderId(Long orderId);            // Find all items for specific order
 
+    List<OrderItem> findByOrderIdInOrderByOrderItemIdAsc(Collection<Long> orderIds);      // Items for several orders in one query (aggregates)
+
     List<OrderItem> findByStatus(String status);            // Find items by status
 
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId IN (SELECT o.orderId FROM Order o WHERE o.status = 'open') "     // Every item on an open check (loads OpenOrderCache)
+            + "ORDER BY oi.orderItemId")
+    List<OrderItem> findItemsOfOpenOrders();
+
     List<OrderItem> findByIsLocked(Boolean isLocked);         // Find all unlocked items (still editable)
 
     List<OrderItem> findByOrderIdAndStatus(Long orderId, String status);        // Find draft items (not sent yet)
@@ -34,4 +45,65 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findPendingItemsByOrder(Long orderId, String status);
 
     List<OrderItem> findByMenuItemId(Long menuItemId);              // Find items by menu item ID
+
+    @Query(value = "UPDATE order_items SET status = 'pending', is_locked = 1, version = version + 1, mod_seq = :modSeq "      // Lock every expired limbo item in ONE statement, returns the ids it locked
+            + "WHERE delay_expires_at <= :now AND is_locked = 0 AND status = 'limbo' "
+            + "RETURNING order_item_id", nativeQuery = true)
+    List<Long> lockExpiredLimboItems(LocalDateTime now, long modSeq);
+
+    @Query(value = "UPDATE order_items SET status = 'pending', is_locked = 1, version = version + 1, mod_seq = :modSeq "      // Same transition, limited to ids the timer wheel handed us
+            + "WHERE order_item_id IN (:ids) AND delay_expires_at <= :now AND is_locked = 0 AND status = 'limbo' "
+            + "RETURNING order_item_id", nativeQuery = true)
+    List<Long> lockExpiredLimboItems(Collection<Long> ids, LocalDateTime now, long modSeq);
+
+    @Query(value = "UPDATE order_items SET status = 'pending', is_locked = 1, sent_at = COALESCE(sent_at, :now), "       // Send a whole order now: every draft/limbo item -> pending in ONE statement
+            + "version = version + 1, mod_seq = :modSeq WHERE order_id = :orderId AND status IN ('draft', 'limbo') "
+            + "RETURNING *", nativeQuery = true)
+    List<OrderItem> sendOrderNow(Long orderId, LocalDateTime now, long modSeq);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = 'pending', oi.isLocked = true, oi.sentAt = COALESCE(oi.sentAt, :now), "      // Send now: draft/limbo -> pending, only if nobody moved it first
+            + "oi.version = oi.version + 1, oi.modSeq = :modSeq "
+            + "WHERE oi.orderItemId = :id AND oi.status = :expectedStatus")
+    int compareAndSendNow(Long id, String expectedStatus, LocalDateTime now, long modSeq);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = 'fired', oi.firedAt = :firedAt, oi.version = oi.version + 1, oi.modSeq = :modSeq "     // Kitchen starts: pending -> fired
+            + "WHERE oi.orderItemId = :id AND oi.status = 'pending'")
+    int compareAndFire(Long id, LocalDateTime firedAt, long modSeq);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = 'completed', oi.completedAt = :completedAt, oi.version = oi.version + 1, "    // Kitchen done: fired -> completed
+            + "oi.modSeq = :modSeq WHERE oi.orderItemId = :id AND oi.status = 'fired'")
+    int compareAndComplete(Long id, LocalDateTime completedAt, long modSeq);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM OrderItem oi WHERE oi.orderItemId = :id AND oi.isLocked = false")          // Delete only while still editable
+    int deleteIfUnlocked(Long id);
+
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.modSeq > :since AND oi.modSeq <= :upTo ORDER BY oi.modSeq")      // Change feed window
+    List<OrderItem> findChangedBetween(long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(oi.modSeq), 0) FROM OrderItem oi")
+    long findHighestModSeq();
+
+    @Query("SELECT new com.notapos.dto.KitchenTicketRow(oi.orderItemId, oi.orderId, t.tableNumber, m.name, oi.quantity, "    // Kitchen tickets for one station: item, menu item, table and modifiers in ONE query
+            + "oi.status, oi.specialInstructions, oi.sentAt, oi.firedAt, oi.createdAt, md.name) "
+            + "FROM OrderItem oi "
+            + "JOIN MenuItem m ON m.menuItemId = oi.menuItemId "
+            + "JOIN Order o ON o.orderId = oi.orderId "
+            + "LEFT JOIN RestaurantTable t ON t.tableId = o.tableId "
+            + "LEFT JOIN OrderItemModifier oim ON oim.orderItemId = oi.orderItemId "
+            + "LEFT JOIN Modifier md ON md.modifierId = oim.modifierId "
+            + "WHERE m.prepStationId = :prepStationId AND oi.status IN ('pending', 'fired') "
+            + "ORDER BY COALESCE(oi.sentAt, oi.createdAt), oi.orderItemId, oim.orderItemModifierId")
+    List<KitchenTicketRow> findKitchenTicketRows(Long prepStationId);
+
+    @Query("SELECT new com.notapos.dto.MenuItemPopularity(oi.menuItemId, SUM(oi.quantity)) "            // Units ordered per menu item (search ranking)
+            + "FROM OrderItem oi GROUP BY oi.menuItemId")
+    List<MenuItemPopularity> countOrderedByMenuItem();
 }
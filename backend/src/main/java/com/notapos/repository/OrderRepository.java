@@ -1,8 +1,11 @@
 package com.notapos.repository;
 
 import com.notapos.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,4 +28,31 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :start AND :end")               // Find orders created within a time range
     List<Order> findOrdersBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "SELECT * FROM orders_archive WHERE created_at BETWEEN :start AND :end", nativeQuery = true)      // Same range in the history table (OrderArchiveService)
+    List<Order> findArchivedOrdersBetween(LocalDateTime start, LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :start AND :end AND o.orderId > :afterId ORDER BY o.orderId")     // Keyset page for exports (ExportService)
+    List<Order> findOrderPageBetween(LocalDateTime start, LocalDateTime end, long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query(value = "SELECT * FROM orders_archive WHERE created_at BETWEEN :start AND :end AND order_id > :afterId "
+            + "ORDER BY order_id LIMIT :limit", nativeQuery = true)
+    List<Order> findArchivedOrderPageBetween(LocalDateTime start, LocalDateTime end, long afterId, int limit);
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.status = 'completed' AND o.completedAt < :cutoff "           // Next batch to archive - never the holder of a table's highest id
+            + "AND o.orderId < (SELECT MAX(h.orderId) FROM Order h) "
+            + "AND o.orderId NOT IN (SELECT i.orderId FROM OrderItem i WHERE i.orderItemId = (SELECT MAX(hi.orderItemId) FROM OrderItem hi)) "
+            + "AND o.orderId NOT IN (SELECT p.orderId FROM Payment p WHERE p.paymentId = (SELECT MAX(hp.paymentId) FROM Payment hp)) "
+            + "AND o.orderId NOT IN (SELECT i.orderId FROM OrderItem i, OrderItemModifier m WHERE m.orderItemId = i.orderItemId "
+            + "AND m.orderItemModifierId = (SELECT MAX(hm.orderItemModifierId) FROM OrderItemModifier hm)) "
+            + "ORDER BY o.orderId")
+    List<Long> findArchivableOrderIds(LocalDateTime cutoff, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.modSeq > :since AND o.modSeq <= :upTo ORDER BY o.modSeq")         // Change feed window
+    List<Order> findChangedBetween(long since, long upTo);
+
+    @Query("SELECT COALESCE(MAX(o.modSeq), 0) FROM Order o")
+    long findHighestModSeq();
 }
@@ -1,12 +1,19 @@
 package com.notapos.repository;
 
 import com.notapos.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Payment entity.
@@ -19,13 +26,55 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByOrderId(Long orderId);                                      // Find order by ID
 
+    List<Payment> findByOrderIdIn(Collection<Long> orderIds);                       // Payments for several orders in one query (aggregates)
+
     List<Payment> findByPaymentMethod(String paymentMethod);                        // Find order by payment method
 
     List<Payment> findByStatus(String status);                                      // Find order by status
 
+    Optional<Payment> findByIdempotencyKeyAndCreatedAtAfter(String idempotencyKey, LocalDateTime since);        // Replay lookup (PaymentService)
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.idempotencyKey = NULL WHERE p.idempotencyKey IS NOT NULL AND p.createdAt < :cutoff")     // Free keys past the replay window
+    int clearIdempotencyKeysBefore(LocalDateTime cutoff);
+
     @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :start AND :end")                     // Find payments between certain times
     List<Payment> findPaymentsBetween(LocalDateTime start, LocalDateTime end);
 
+    @Query(value = "SELECT * FROM payments_archive WHERE created_at BETWEEN :start AND :end", nativeQuery = true)      // Same range in the history table (OrderArchiveService)
+    List<Payment> findArchivedPaymentsBetween(LocalDateTime start, LocalDateTime end);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :start AND :end AND p.paymentId > :afterId ORDER BY p.paymentId")     // Keyset page for exports (ExportService)
+    List<Payment> findPaymentPageBetween(LocalDateTime start, LocalDateTime end, long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query(value = "SELECT * FROM payments_archive WHERE created_at BETWEEN :start AND :end AND payment_id > :afterId "
+            + "ORDER BY payment_id LIMIT :limit", nativeQuery = true)
+    List<Payment> findArchivedPaymentPageBetween(LocalDateTime start, LocalDateTime end, long afterId, int limit);
+
     @Query("SELECT SUM(p.tipAmount) FROM Payment p WHERE p.createdAt BETWEEN :start AND :end")      // Find total tips between certain times
     BigDecimal calculateTotalTips(LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "SELECT SUM(tip_amount) FROM payments_archive WHERE created_at BETWEEN :start AND :end", nativeQuery = true)
+    BigDecimal calculateArchivedTips(LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "SELECT o.server_name, o.section, (p.created_at - :start) / 3600000 AS hour_index, "          // Completed sales + tips per server, section and hour, one query: {server, section, hours after start, sales, tips, count}
+            + "SUM(p.amount), SUM(p.tip_amount), COUNT(*) "
+            + "FROM payments p LEFT JOIN orders o ON o.order_id = p.order_id "
+            + "WHERE p.status = 'completed' AND p.created_at >= :start AND p.created_at < :end "
+            + "GROUP BY o.server_name, o.section, hour_index", nativeQuery = true)
+    List<Object[]> sumByServerSectionAndHour(LocalDateTime start, LocalDateTime end);
+
+    @Query(value = "SELECT server_name, section, hour_index, SUM(amount), SUM(tip_amount), COUNT(*) FROM ("         // Same over hot + history tables in one statement
+            + "SELECT o.server_name, o.section, (p.created_at - :start) / 3600000 AS hour_index, p.amount, p.tip_amount "
+            + "FROM payments p LEFT JOIN orders o ON o.order_id = p.order_id "
+            + "WHERE p.status = 'completed' AND p.created_at >= :start AND p.created_at < :end "
+            + "UNION ALL "
+            + "SELECT o.server_name, o.section, (p.created_at - :start) / 3600000 AS hour_index, p.amount, p.tip_amount "
+            + "FROM payments_archive p LEFT JOIN orders_archive o ON o.order_id = p.order_id "
+            + "WHERE p.status = 'completed' AND p.created_at >= :start AND p.created_at < :end"
+            + ") GROUP BY server_name, section, hour_index", nativeQuery = true)
+    List<Object[]> sumWithArchiveByServerSectionAndHour(LocalDateTime start, LocalDateTime end);
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.notapos.repository;
+
+import com.notapos.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for SalesRollup entity.
+ *
+ * @author CJ
+ */
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollups (business_day, bucket_start, payment_method, server_name, "        // Upsert: add to the bucket's row, creating it on first use (one statement, no read)
+            + "sales_cents, tips_cents, payment_count, orders_closed, check_total_cents) "
+            + "VALUES (:businessDay, :bucketStart, :paymentMethod, :serverName, "
+            + ":salesCents, :tipsCents, :paymentCount, :ordersClosed, :checkTotalCents) "
+            + "ON CONFLICT (bucket_start, payment_method, server_name) DO UPDATE SET "
+            + "sales_cents = sales_cents + excluded.sales_cents, tips_cents = tips_cents + excluded.tips_cents, "
+            + "payment_count = payment_count + excluded.payment_count, orders_closed = orders_closed + excluded.orders_closed, "
+            + "check_total_cents = check_total_cents + excluded.check_total_cents", nativeQuery = true)
+    int add(LocalDate businessDay, LocalDateTime bucketStart, String paymentMethod, String serverName,
+            long salesCents, long tipsCents, int paymentCount, int ordersClosed, long checkTotalCents);
+
+    List<SalesRollup> findByBusinessDayOrderByBucketStartAsc(LocalDate businessDay);           // One business day
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")     // A shift (or any range of buckets)
+    List<SalesRollup> findBucketsBetween(LocalDateTime from, LocalDateTime to);
+}
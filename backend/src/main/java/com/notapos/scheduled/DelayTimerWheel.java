@@ -0,0 +1,193 @@
+package com.notapos.scheduled;
+
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory hierarchical timing wheel for the order item delay timer.
+ *
+ * Items in limbo are registered with the time their delay expires.
+ * The wheel has 4 levels of 64 slots each. Level 0 slots are one tick wide,
+ * each higher level covers 64x the range of the level below it, and entries
+ * cascade down a level as the wheel turns. Scheduling, cancelling and
+ * advancing are all O(1) per entry, so a tick with nothing due costs nothing.
+ *
+ * The database stays the durable record - this only decides WHEN to lock.
+ *
+ * @author CJ
+ */
+
+@Component
+public class DelayTimerWheel {
+
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;                // 64 slots per level
+    private static final long SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;                            // 100ms ticks cover ~19 days
+
+    private final long tickMillis;
+    private final List<Set<Long>> buckets = new ArrayList<>(LEVELS * SLOTS);
+    private final Map<Long, Timer> timers = new HashMap<>();          // orderItemId -> where it lives in the wheel
+    private final List<Long> due = new ArrayList<>();                 // already expired, handed out on next advance
+
+    private long currentTick;
+
+    private record Timer(long expiresTick, int bucket) {}
+
+    public DelayTimerWheel() {
+        this(DEFAULT_TICK_MILLIS, System.currentTimeMillis());
+    }
+
+    public DelayTimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public synchronized void schedule(Long orderItemId, LocalDateTime expiresAt) {      // Register (or re-register) an item's delay expiry
+        schedule(orderItemId, toEpochMillis(expiresAt));
+    }
+
+    public synchronized void schedule(Long orderItemId, long expiresAtMillis) {
+        cancel(orderItemId);
+
+        long expiresTick = (expiresAtMillis + tickMillis - 1) / tickMillis;         // Round up so we never fire early
+        place(orderItemId, expiresTick);
+    }
+
+    public synchronized boolean cancel(Long orderItemId) {                  // Remove an item (sent now, deleted, etc.)
+        Timer timer = timers.remove(orderItemId);
+
+        if (timer == null) {
+            return due.remove(orderItemId);
+        }
+
+        if (timer.bucket() >= 0) {
+            buckets.get(timer.bucket()).remove(orderItemId);
+        } else {
+            due.remove(orderItemId);                                        // Expired but not handed out yet
+        }
+        return true;
+    }
+
+    public synchronized List<Long> advance(long nowMillis) {            // Turn the wheel up to now, return every item whose delay expired
+        long targetTick = nowMillis / tickMillis;
+
+        if (timers.size() == due.size()) {                                    // Nothing waiting in the wheel, jump straight to now
+            currentTick = Math.max(currentTick, targetTick);
+        }
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            int index = (int) (currentTick & SLOT_MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+            expire(buckets.get(index));
+        }
+
+        if (due.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> expired = new ArrayList<>(due);
+        for (Long orderItemId : expired) {
+            timers.remove(orderItemId);
+        }
+        due.clear();
+        return expired;
+    }
+
+    public synchronized boolean isScheduled(Long orderItemId) {
+        return timers.containsKey(orderItemId);
+    }
+
+    public synchronized int size() {                                   // Number of items waiting on the timer
+        return timers.size();
+    }
+
+    public synchronized void clear() {
+        for (Set<Long> bucket : buckets) {
+            bucket.clear();
+        }
+        timers.clear();
+        due.clear();
+    }
+
+    private void place(Long orderItemId, long expiresTick) {
+        long delta = expiresTick - currentTick;
+
+        if (delta <= 0) {                                                    // Already expired
+            due.add(orderItemId);
+            timers.put(orderItemId, new Timer(expiresTick, -1));
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        long maxDelta = 1L << (SLOT_BITS * LEVELS);
+        long placedTick = delta < maxDelta ? expiresTick : currentTick + maxDelta - 1;    // Clamp anything past the top level, it re-cascades later
+
+        int slot = (int) ((placedTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int bucket = level * SLOTS + slot;
+
+        buckets.get(bucket).add(orderItemId);
+        timers.put(orderItemId, new Timer(expiresTick, bucket));
+    }
+
+    private void cascade(int level) {                   // Move one higher-level slot down into finer slots
+        if (level >= LEVELS) {
+            return;
+        }
+
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+
+        Set<Long> bucket = buckets.get(level * SLOTS + index);
+        List<Long> moving = new ArrayList<>(bucket);
+        bucket.clear();
+
+        for (Long orderItemId : moving) {
+            place(orderItemId, timers.get(orderItemId).expiresTick());
+        }
+    }
+
+    private void expire(Set<Long> bucket) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+
+        for (Long orderItemId : bucket) {
+            Timer timer = timers.get(orderItemId);
+            timers.put(orderItemId, new Timer(timer.expiresTick(), -1));
+            due.add(orderItemId);
+        }
+        bucket.clear();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
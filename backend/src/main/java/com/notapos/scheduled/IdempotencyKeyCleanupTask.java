@@ -0,0 +1,43 @@
+package com.notapos.scheduled;
+
+import com.notapos.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that clears expired payment idempotency keys.
+ *
+ * A key only has to be honored for PaymentService.IDEMPOTENCY_WINDOW_HOURS.
+ * Clearing it afterwards keeps the unique index small and lets a terminal
+ * reuse the value once the window is over.
+ *
+ * @author CJ
+ */
+
+@Component
+public class IdempotencyKeyCleanupTask {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyCleanupTask.class);
+
+    static final long INTERVAL_MILLIS = 60 * 60 * 1000L;
+
+    private final PaymentService paymentService;
+
+    @Autowired
+    public IdempotencyKeyCleanupTask(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    @Scheduled(fixedDelay = INTERVAL_MILLIS, initialDelay = INTERVAL_MILLIS)
+    public int clearExpiredKeys() {                                 // Number of keys cleared
+        int cleared = paymentService.expireIdempotencyKeys();
+
+        if (cleared > 0) {
+            log.info("Cleared {} payment idempotency key(s) older than {} hours", cleared, PaymentService.IDEMPOTENCY_WINDOW_HOURS);
+        }
+        return cleared;
+    }
+}
@@ -0,0 +1,55 @@
+package com.notapos.scheduled;
+
+import com.notapos.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+
+/**
+ * Background job that archives old completed orders.
+ *
+ * Every hour, orders completed more than ARCHIVE_AFTER_DAYS ago are moved
+ * with their items, modifiers and payments into the history tables, so the
+ * status / table / change feed queries on the hot tables only ever see a
+ * few weeks of data. Reports still see everything.
+ *
+ * A run that fails part way keeps the batches it already moved; the rest
+ * are picked up next run.
+ *
+ * @author CJ
+ */
+
+@Component
+public class OrderArchivalTask {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchivalTask.class);
+
+    static final int ARCHIVE_AFTER_DAYS = 30;
+    static final long INTERVAL_MILLIS = 60 * 60 * 1000L;
+
+    private final OrderService orderService;
+
+    @Autowired
+    public OrderArchivalTask(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @Scheduled(fixedDelay = INTERVAL_MILLIS, initialDelay = INTERVAL_MILLIS)
+    public int archiveOldOrders() {                                 // Number of orders moved
+        int archived = 0;
+
+        try {
+            archived = orderService.archiveCompletedOrders(LocalDateTime.now().minusDays(ARCHIVE_AFTER_DAYS));
+        } catch (RuntimeException e) {
+            log.warn("Order archival stopped early: {}", e.getMessage());
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} completed order(s) older than {} days", archived, ARCHIVE_AFTER_DAYS);
+        }
+        return archived;
+    }
+}
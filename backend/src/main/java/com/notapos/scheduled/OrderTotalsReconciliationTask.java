@@ -0,0 +1,61 @@
+package com.notapos.scheduled;
+
+import com.notapos.entity.Order;
+import com.notapos.service.OrderPricingService;
+import com.notapos.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that checks the running order totals.
+ *
+ * Order totals are maintained by deltas as items and modifiers change. Every
+ * few minutes this job recomputes each open order from scratch and compares
+ * - a mismatch means a delta was missed (or a row was edited by hand), so
+ * it's logged and the stored totals are replaced with the recompute.
+ *
+ * Each order is checked in its own transaction; one that fails (say it was
+ * being written at the same moment) is simply checked again next run.
+ *
+ * @author CJ
+ */
+
+@Component
+public class OrderTotalsReconciliationTask {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalsReconciliationTask.class);
+
+    static final long INTERVAL_MILLIS = 5 * 60 * 1000L;
+
+    private final OrderService orderService;
+    private final OrderPricingService orderPricingService;
+
+    @Autowired
+    public OrderTotalsReconciliationTask(OrderService orderService, OrderPricingService orderPricingService) {
+        this.orderService = orderService;
+        this.orderPricingService = orderPricingService;
+    }
+
+    @Scheduled(fixedDelay = INTERVAL_MILLIS, initialDelay = INTERVAL_MILLIS)
+    public int reconcileOpenOrders() {                              // Number of orders that had drifted
+        int drifted = 0;
+
+        for (Order order : orderService.getOrdersByStatus("open")) {
+            try {
+                if (orderPricingService.reconcileOrder(order.getOrderId())) {
+                    drifted++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not reconcile totals for order {}: {}", order.getOrderId(), e.getMessage());
+            }
+        }
+
+        if (drifted > 0) {
+            log.warn("Repaired running totals on {} open order(s)", drifted);
+        }
+        return drifted;
+    }
+}
@@ -1,38 +1,99 @@
 package com.notapos.scheduled;
 
+import com.notapos.entity.OrderItem;
+import com.notapos.metrics.DelayTimerMetrics;
 import com.notapos.service.OrderItemService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import java.util.List;
 
 /**
  * Background job that automatically locks expired order items.
- * 
+ *
  * This is the heart of the 15-second delay timer feature.
- * Runs every second to check for items where the delay timer has expired,
- * then locks them and fires them to the kitchen/bar.
- * 
+ * Items are registered in the DelayTimerWheel when they are sent, and this job
+ * turns the wheel every tick. The database is only touched when a timer
+ * actually expires - an idle restaurant costs nothing.
+ *
  * Flow:
  * 1. Server adds items to order (status = "draft")
- * 2. Server clicks "Send" (status = "pending", timer starts)
- * 3. This job checks every second for expired timers
- * 4. When timer expires: locks item, fires to kitchen (status = "fired")
- * 
+ * 2. Server clicks "Send" (status = "limbo", timer registered in the wheel)
+ * 3. This job turns the wheel every tick
+ * 4. When timer expires: locks item, sends to kitchen (status = "pending")
+ *
+ * On startup the wheel is rebuilt from any items still in limbo. If the lock
+ * statement fails (e.g. the database is busy) the ids go back on the wheel
+ * for the next tick, and a slow sweep over the unlocked-expiry index locks
+ * anything whose timer was lost some other way.
+ *
  * @author CJ
  */
 
 @Component
 public class TimerScheduledTask {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(TimerScheduledTask.class);
+
+    static final long SWEEP_MILLIS = 60 * 1000L;                    // Fallback only - the wheel does the real work
+
     private final OrderItemService orderItemService;
+    private final DelayTimerWheel delayTimerWheel;
+    private final DelayTimerMetrics delayTimerMetrics;
 
     @Autowired
-    public TimerScheduledTask(OrderItemService orderItemService) {
+    public TimerScheduledTask(OrderItemService orderItemService, DelayTimerWheel delayTimerWheel,
+                              DelayTimerMetrics delayTimerMetrics) {
         this.orderItemService = orderItemService;
+        this.delayTimerWheel = delayTimerWheel;
+        this.delayTimerMetrics = delayTimerMetrics;
     }
 
-    @Scheduled(fixedRate = 1000)
+    @Scheduled(fixedRate = DelayTimerWheel.DEFAULT_TICK_MILLIS)
     public void checkExpiredTimers() {
-        orderItemService.lockAndSendExpiredItems();
+        long started = System.nanoTime();
+        List<Long> expiredIds = delayTimerWheel.advance(System.currentTimeMillis());
+        delayTimerMetrics.recordWheelTick(expiredIds.size(), System.nanoTime() - started);
+
+        if (expiredIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            orderItemService.lockExpiredItems(expiredIds);
+        } catch (RuntimeException e) {                              // The wheel already let go of them - re-arm for the next tick
+            long retryAt = System.currentTimeMillis() + delayTimerWheel.getTickMillis();
+            for (Long id : expiredIds) {
+                delayTimerWheel.schedule(id, retryAt);
+            }
+            log.warn("Could not lock {} expired item(s), retrying next tick", expiredIds.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelay = SWEEP_MILLIS, initialDelay = SWEEP_MILLIS)
+    public int sweepExpiredItems() {                                // Lock any expired limbo item the wheel lost track of
+        int locked = orderItemService.lockAndSendExpiredItems().size();
+
+        if (locked > 0) {
+            log.warn("Delay timer sweep locked {} item(s) the wheel missed", locked);
+        }
+        return locked;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)                     // Rebuild the wheel from limbo rows (timers survive a restart)
+    public void rebuildTimers() {
+        List<OrderItem> limboItems = orderItemService.getItemsByStatus("limbo");
+
+        for (OrderItem item : limboItems) {
+            if (!item.getIsLocked() && item.getDelayExpiresAt() != null) {
+                delayTimerWheel.schedule(item.getOrderItemId(), item.getDelayExpiresAt());
+            }
+        }
+
+        log.info("Delay timer wheel rebuilt with {} item(s) in limbo", delayTimerWheel.size());
     }
 }
@@ -0,0 +1,48 @@
+package com.notapos.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-aggregate change counter used for list ETags.
+ *
+ * The owning service bumps it after every write, so "has anything changed?"
+ * is one volatile read - no query, no hashing a response body. The boot id
+ * makes sure an ETag handed out before a restart never matches afterwards.
+ *
+ * @author CJ
+ */
+
+public final class ChangeCounter {
+
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private final String aggregate;
+    private final AtomicLong version = new AtomicLong();
+
+    public ChangeCounter(String aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public void bump() {                                    // Inside a transaction, waits for the commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+            return;
+        }
+        version.incrementAndGet();
+    }
+
+    public long get() {
+        return version.get();
+    }
+
+    public String etag() {                                  // Read BEFORE loading the data it describes
+        return "\"" + aggregate + "-" + BOOT_ID + "-" + version.get() + "\"";
+    }
+}
@@ -0,0 +1,148 @@
+package com.notapos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notapos.entity.Order;
+import com.notapos.entity.Payment;
+import com.notapos.repository.OrderRepository;
+import com.notapos.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes payments and orders for a date range as CSV or NDJSON.
+ *
+ * Rows are read PAGE_ROWS at a time by keyset (id > last id written, in id
+ * order) and go straight to the output stream. Each page is its own short
+ * query - no transaction or cursor stays open while the client downloads,
+ * so a slow export never holds SQLite's read lock against the writers, and
+ * memory stays flat however long the range is. Archived rows are written
+ * first when the range reaches back into the history tables, like the
+ * report reads.
+ *
+ * Don't call these inside a transaction: the persistence context would keep
+ * every page until it ends.
+ *
+ * @author CJ
+ */
+
+@Service
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final int PAGE_ROWS = 500;
+
+    private static final List<String> PAYMENT_COLUMNS = List.of(
+            "paymentId", "orderId", "amount", "tipAmount", "paymentMethod", "status", "transactionReference", "createdAt");
+    private static final List<String> ORDER_COLUMNS = List.of(
+            "orderId", "tableId", "orderType", "status", "subtotal", "tax", "total", "createdAt", "completedAt");
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final ObjectMapper objectMapper;
+
+    @FunctionalInterface
+    private interface PageSource<T> {
+        List<T> page(long afterId);                                     // Next PAGE_ROWS rows with an id above afterId, in id order
+    }
+
+    @Autowired
+    public ExportService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+                         OrderArchiveService orderArchiveService, ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportPayments(LocalDateTime start, LocalDateTime end, Format format, OutputStream out) throws IOException {
+        return export(out, format, PAYMENT_COLUMNS, payment -> Arrays.asList(
+                        payment.getPaymentId(), payment.getOrderId(), payment.getAmount(), payment.getTipAmount(),
+                        payment.getPaymentMethod(), payment.getStatus(), payment.getTransactionReference(), payment.getCreatedAt()),
+                Payment::getPaymentId,
+                orderArchiveService.reaches(start)
+                        ? afterId -> paymentRepository.findArchivedPaymentPageBetween(start, end, afterId, PAGE_ROWS) : null,
+                afterId -> paymentRepository.findPaymentPageBetween(start, end, afterId, Limit.of(PAGE_ROWS)));
+    }
+
+    public long exportOrders(LocalDateTime start, LocalDateTime end, Format format, OutputStream out) throws IOException {
+        return export(out, format, ORDER_COLUMNS, order -> Arrays.asList(
+                        order.getOrderId(), order.getTableId(), order.getOrderType(), order.getStatus(),
+                        order.getSubtotal(), order.getTax(), order.getTotal(), order.getCreatedAt(), order.getCompletedAt()),
+                Order::getOrderId,
+                orderArchiveService.reaches(start)
+                        ? afterId -> orderRepository.findArchivedOrderPageBetween(start, end, afterId, PAGE_ROWS) : null,
+                afterId -> orderRepository.findOrderPageBetween(start, end, afterId, Limit.of(PAGE_ROWS)));
+    }
+
+    @SafeVarargs
+    private <T> long export(OutputStream out, Format format, List<String> columns, Function<T, List<Object>> csvRow,
+                            Function<T, Long> id, PageSource<T>... sources) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        if (format == Format.CSV) {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        for (PageSource<T> source : sources) {
+            if (source == null) {
+                continue;
+            }
+            long afterId = 0;
+            while (true) {
+                List<T> page = source.page(afterId);
+                for (T row : page) {
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, csvRow.apply(row));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                }
+                rows += page.size();
+                if (page.size() < PAGE_ROWS) {
+                    break;
+                }
+                afterId = id.apply(page.get(page.size() - 1));
+            }
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    static String csvField(Object value) {                              // RFC 4180: quote when needed, double inner quotes
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,98 @@
+package com.notapos.service;
+
+import com.notapos.dto.KitchenTicket;
+import com.notapos.dto.KitchenTicketRow;
+import com.notapos.events.OrderItemChangedEvent;
+import com.notapos.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kitchen Display System tickets per prep station.
+ *
+ * Every pending/fired item for a station - name, modifiers, instructions,
+ * table number - comes from one projected query. Several screens poll the
+ * same station, so the result is kept for CACHE_MILLIS and dropped as soon
+ * as OrderItemService reports a change to an item on that station.
+ *
+ * @author CJ
+ */
+
+@Service
+public class KitchenTicketService {
+
+    static final long CACHE_MILLIS = 2_000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final PrepStationLookup prepStationLookup;
+
+    private final Map<Long, CachedTickets> ticketsByStation = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record CachedTickets(List<KitchenTicket> tickets, long loadedAtMillis) {}
+
+    @Autowired
+    public KitchenTicketService(OrderItemRepository orderItemRepository, PrepStationLookup prepStationLookup) {
+        this.orderItemRepository = orderItemRepository;
+        this.prepStationLookup = prepStationLookup;
+    }
+
+    public List<KitchenTicket> getTickets(Long prepStationId) {              // Pending + fired items for a station, oldest first
+        long nowMillis = System.currentTimeMillis();
+        CachedTickets cached = ticketsByStation.get(prepStationId);
+
+        if (cached == null || nowMillis - cached.loadedAtMillis() > CACHE_MILLIS) {
+            long invalidationsBefore = invalidations.get();
+            cached = new CachedTickets(toTickets(orderItemRepository.findKitchenTicketRows(prepStationId)), nowMillis);
+
+            if (invalidations.get() == invalidationsBefore) {                   // Don't cache a load that raced a change
+                ticketsByStation.put(prepStationId, cached);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return cached.tickets().stream().map(ticket -> ticket.agedAt(now)).toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)                   // After commit (or straight away outside a transaction)
+    public void onOrderItemChanged(OrderItemChangedEvent change) {
+        invalidations.incrementAndGet();
+
+        Long stationId = prepStationLookup.stationFor(change.menuItemId());
+        if (PrepStationLookup.UNASSIGNED_STATION.equals(stationId)) {
+            ticketsByStation.clear();
+        } else {
+            ticketsByStation.remove(stationId);
+        }
+    }
+
+    private static List<KitchenTicket> toTickets(List<KitchenTicketRow> rows) {     // Fold modifier rows back into one ticket per item
+        Map<Long, List<KitchenTicketRow>> rowsByItem = new LinkedHashMap<>();
+        for (KitchenTicketRow row : rows) {
+            rowsByItem.computeIfAbsent(row.orderItemId(), id -> new ArrayList<>()).add(row);
+        }
+
+        List<KitchenTicket> tickets = new ArrayList<>(rowsByItem.size());
+        for (List<KitchenTicketRow> itemRows : rowsByItem.values()) {
+            KitchenTicketRow first = itemRows.get(0);
+            List<String> modifiers = itemRows.stream()
+                    .map(KitchenTicketRow::modifierName)
+                    .filter(name -> name != null)
+                    .toList();
+            LocalDateTime receivedAt = first.sentAt() != null ? first.sentAt() : first.createdAt();
+
+            tickets.add(new KitchenTicket(first.orderItemId(), first.orderId(), first.tableNumber(), first.itemName(),
+                    first.quantity(), first.status(), modifiers, first.specialInstructions(), receivedAt,
+                    first.firedAt(), 0));
+        }
+        return List.copyOf(tickets);
+    }
+}
@@ -0,0 +1,106 @@
+package com.notapos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notapos.dto.MenuBundle;
+import com.notapos.entity.MenuItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialised, gzip-compressed full menu bundle.
+ *
+ * The bundle is built and compressed once per MenuCatalog version and kept
+ * as bytes, so serving it is a byte copy - no entity access, no Jackson.
+ * A menu write bumps the catalog version and the next request builds the
+ * new bundle.
+ *
+ * @author CJ
+ */
+
+@Service
+public class MenuBundleService {
+
+    private final MenuCatalogService menuCatalogService;
+    private final ObjectMapper objectMapper;
+
+    private volatile CompressedBundle bundle;
+
+    public record CompressedBundle(long version, byte[] gzippedJson) {
+
+        public byte[] json() {                                          // For the rare client that can't take gzip
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzippedJson))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Autowired
+    public MenuBundleService(MenuCatalogService menuCatalogService, ObjectMapper objectMapper) {
+        this.menuCatalogService = menuCatalogService;
+        this.objectMapper = objectMapper;
+    }
+
+    public long getVersion() {                                          // What terminals poll to know when to refetch
+        return menuCatalogService.current().getVersion();
+    }
+
+    public CompressedBundle getBundle() {                               // Bundle for the current catalog version
+        MenuCatalog catalog = menuCatalogService.current();
+        CompressedBundle cached = bundle;
+
+        if (cached == null || cached.version() != catalog.getVersion()) {
+            cached = new CompressedBundle(catalog.getVersion(), gzip(serialize(toBundle(catalog))));
+            bundle = cached;
+        }
+        return cached;
+    }
+
+    static MenuBundle toBundle(MenuCatalog catalog) {
+        List<MenuBundle.Item> items = catalog.getActiveMenuItems().stream()
+                .map(item -> toItem(item, catalog.getModifierTree(item.getMenuItemId())))
+                .toList();
+        return new MenuBundle(catalog.getVersion(), items);
+    }
+
+    private static MenuBundle.Item toItem(MenuItem item, List<MenuCatalog.ModifierGroupTree> tree) {
+        List<MenuBundle.Group> groups = tree.stream()
+                .map(node -> new MenuBundle.Group(node.group().getModifierGroupId(), node.group().getName(),
+                        node.group().getIsRequired(), node.group().getMaxSelections(),
+                        node.modifiers().stream()
+                                .map(modifier -> new MenuBundle.Option(modifier.getModifierId(), modifier.getName(),
+                                        modifier.getPriceAdjustment()))
+                                .toList()))
+                .toList();
+
+        return new MenuBundle.Item(item.getMenuItemId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getCategory(), item.getPrepStationId(), groups);
+    }
+
+    private byte[] serialize(MenuBundle menuBundle) {
+        try {
+            return objectMapper.writeValueAsBytes(menuBundle);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize menu bundle version " + menuBundle.version(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
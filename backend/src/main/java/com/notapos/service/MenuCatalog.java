@@ -0,0 +1,227 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.MenuItemModifierGroup;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.ModifierGroup;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the whole menu: items, modifier groups, modifiers and
+ * the links between them, with the indexes order entry reads by.
+ *
+ * Built in one go by MenuCatalogService and never changed afterwards - a write
+ * builds a new snapshot and swaps it in, so a reader always sees one
+ * consistent version. The entities inside are detached copies shared by every
+ * reader; treat them as read-only.
+ *
+ * @author CJ
+ */
+
+public final class MenuCatalog {
+
+    public static final MenuCatalog EMPTY = of(0L, List.of(), List.of(), List.of(), List.of());
+
+    public record ModifierGroupTree(ModifierGroup group, List<Modifier> modifiers) {}     // One group offered on an item, with its active modifiers
+
+    private final long version;
+
+    private final List<MenuItem> menuItems;
+    private final Map<Long, MenuItem> menuItemsById;
+    private final Map<String, MenuItem> menuItemsByName;
+    private final Map<String, List<MenuItem>> menuItemsByCategory;
+    private final Map<Long, List<MenuItem>> menuItemsByPrepStation;
+
+    private final List<ModifierGroup> modifierGroups;
+    private final Map<Long, ModifierGroup> modifierGroupsById;
+    private final Map<String, ModifierGroup> modifierGroupsByName;
+
+    private final List<Modifier> modifiers;
+    private final Map<Long, Modifier> modifiersById;
+    private final Map<Long, List<Modifier>> modifiersByGroup;
+
+    private final List<MenuItemModifierGroup> links;
+    private final Map<Long, MenuItemModifierGroup> linksById;
+    private final Map<Long, List<MenuItemModifierGroup>> linksByMenuItem;
+    private final Map<Long, List<MenuItemModifierGroup>> linksByModifierGroup;
+
+    private final Map<Long, List<ModifierGroupTree>> modifierTreesByMenuItem;
+    private final ModifierValidator modifierValidator;
+
+    private MenuCatalog(long version, List<MenuItem> menuItems, List<ModifierGroup> modifierGroups,
+                        List<Modifier> modifiers, List<MenuItemModifierGroup> links) {
+        this.version = version;
+
+        this.menuItems = menuItems;
+        this.menuItemsById = indexBy(menuItems, MenuItem::getMenuItemId);
+        this.menuItemsByName = indexBy(menuItems, MenuItem::getName);
+        this.menuItemsByCategory = groupBy(menuItems, MenuItem::getCategory);
+        this.menuItemsByPrepStation = groupBy(menuItems, MenuItem::getPrepStationId);
+
+        this.modifierGroups = modifierGroups;
+        this.modifierGroupsById = indexBy(modifierGroups, ModifierGroup::getModifierGroupId);
+        this.modifierGroupsByName = indexBy(modifierGroups, ModifierGroup::getName);
+
+        this.modifiers = modifiers;
+        this.modifiersById = indexBy(modifiers, Modifier::getModifierId);
+        this.modifiersByGroup = groupBy(modifiers, Modifier::getModifierGroupId);
+
+        this.links = links;
+        this.linksById = indexBy(links, MenuItemModifierGroup::getMenuItemModifierGroupId);
+        this.linksByMenuItem = groupBy(links, MenuItemModifierGroup::getMenuItemId);
+        this.linksByModifierGroup = groupBy(links, MenuItemModifierGroup::getModifierGroupId);
+
+        this.modifierTreesByMenuItem = buildModifierTrees();
+        this.modifierValidator = ModifierValidator.compile(this);       // Needs the trees above
+    }
+
+    public static MenuCatalog of(long version, Collection<MenuItem> menuItems, Collection<ModifierGroup> modifierGroups,
+                                 Collection<Modifier> modifiers, Collection<MenuItemModifierGroup> links) {
+        return new MenuCatalog(version,
+                sorted(menuItems, MenuItem::getMenuItemId),
+                sorted(modifierGroups, ModifierGroup::getModifierGroupId),
+                sorted(modifiers, Modifier::getModifierId),
+                sorted(links, MenuItemModifierGroup::getMenuItemModifierGroupId));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // ----- Menu items -----
+
+    public List<MenuItem> getMenuItems() {
+        return menuItems;
+    }
+
+    public List<MenuItem> getActiveMenuItems() {
+        return active(menuItems, MenuItem::getIsActive);
+    }
+
+    public Optional<MenuItem> getMenuItem(Long menuItemId) {
+        return Optional.ofNullable(menuItemsById.get(menuItemId));
+    }
+
+    public Optional<MenuItem> getMenuItemByName(String name) {
+        return Optional.ofNullable(menuItemsByName.get(name));
+    }
+
+    public List<MenuItem> getMenuItemsByCategory(String category) {
+        return menuItemsByCategory.getOrDefault(category, List.of());
+    }
+
+    public List<MenuItem> getMenuItemsByPrepStation(Long prepStationId) {
+        return menuItemsByPrepStation.getOrDefault(prepStationId, List.of());
+    }
+
+    // ----- Modifier groups -----
+
+    public List<ModifierGroup> getModifierGroups() {
+        return modifierGroups;
+    }
+
+    public Optional<ModifierGroup> getModifierGroup(Long modifierGroupId) {
+        return Optional.ofNullable(modifierGroupsById.get(modifierGroupId));
+    }
+
+    public Optional<ModifierGroup> getModifierGroupByName(String name) {
+        return Optional.ofNullable(modifierGroupsByName.get(name));
+    }
+
+    // ----- Modifiers -----
+
+    public List<Modifier> getModifiers() {
+        return modifiers;
+    }
+
+    public Optional<Modifier> getModifier(Long modifierId) {
+        return Optional.ofNullable(modifiersById.get(modifierId));
+    }
+
+    public List<Modifier> getModifiersByGroup(Long modifierGroupId) {
+        return modifiersByGroup.getOrDefault(modifierGroupId, List.of());
+    }
+
+    // ----- Menu item <-> modifier group links -----
+
+    public List<MenuItemModifierGroup> getLinks() {
+        return links;
+    }
+
+    public Optional<MenuItemModifierGroup> getLink(Long linkId) {
+        return Optional.ofNullable(linksById.get(linkId));
+    }
+
+    public List<MenuItemModifierGroup> getLinksForMenuItem(Long menuItemId) {
+        return linksByMenuItem.getOrDefault(menuItemId, List.of());
+    }
+
+    public List<MenuItemModifierGroup> getLinksForModifierGroup(Long modifierGroupId) {
+        return linksByModifierGroup.getOrDefault(modifierGroupId, List.of());
+    }
+
+    public List<ModifierGroupTree> getModifierTree(Long menuItemId) {      // Active groups offered on this item, each with its active modifiers
+        return modifierTreesByMenuItem.getOrDefault(menuItemId, List.of());
+    }
+
+    public ModifierValidator getModifierValidator() {               // Modifier rules compiled for this version
+        return modifierValidator;
+    }
+
+    static <T> List<T> active(List<T> rows, Function<T, Boolean> isActive) {
+        return rows.stream().filter(row -> Boolean.TRUE.equals(isActive.apply(row))).toList();
+    }
+
+    private Map<Long, List<ModifierGroupTree>> buildModifierTrees() {
+        Map<Long, List<ModifierGroupTree>> trees = new LinkedHashMap<>();
+
+        for (Map.Entry<Long, List<MenuItemModifierGroup>> entry : linksByMenuItem.entrySet()) {
+            List<ModifierGroupTree> groups = new ArrayList<>();
+            for (MenuItemModifierGroup link : entry.getValue()) {
+                ModifierGroup group = modifierGroupsById.get(link.getModifierGroupId());
+                if (group != null && Boolean.TRUE.equals(group.getIsActive())) {
+                    groups.add(new ModifierGroupTree(group,
+                            active(getModifiersByGroup(group.getModifierGroupId()), Modifier::getIsActive)));
+                }
+            }
+            trees.put(entry.getKey(), List.copyOf(groups));
+        }
+        return Collections.unmodifiableMap(trees);
+    }
+
+    private static <T> List<T> sorted(Collection<T> rows, Function<T, Long> id) {
+        return rows.stream()
+                .sorted(Comparator.comparing(id, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static <K, T> Map<K, T> indexBy(List<T> rows, Function<T, K> key) {       // Unique key -> row (first one wins)
+        Map<K, T> index = new LinkedHashMap<>();
+        for (T row : rows) {
+            K value = key.apply(row);
+            if (value != null) {
+                index.putIfAbsent(value, row);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <K, T> Map<K, List<T>> groupBy(List<T> rows, Function<T, K> key) {   // Key -> rows, in id order
+        Map<K, List<T>> groups = rows.stream()
+                .filter(row -> key.apply(row) != null)
+                .collect(Collectors.groupingBy(key, LinkedHashMap::new, Collectors.toList()));
+
+        Map<K, List<T>> frozen = new LinkedHashMap<>();
+        groups.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
@@ -0,0 +1,80 @@
+package com.notapos.service;
+
+import com.notapos.repository.MenuItemModifierGroupRepository;
+import com.notapos.repository.MenuItemRepository;
+import com.notapos.repository.ModifierGroupRepository;
+import com.notapos.repository.ModifierRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the current MenuCatalog snapshot.
+ *
+ * Menu items, modifier groups, modifiers and their links are read on every
+ * order entry but change maybe once a week, so reads come from memory. The
+ * snapshot is loaded on first use; after any menu write the owning service
+ * calls refresh(), which reloads all four tables into a brand new snapshot
+ * and swaps it in (copy-on-write) - readers never see a half-built menu.
+ *
+ * Versions start from the boot time in millis, so a version handed out
+ * before a restart is never reused for a different menu afterwards.
+ *
+ * @author CJ
+ */
+
+@Service
+public class MenuCatalogService {
+
+    private final MenuItemRepository menuItemRepository;
+    private final ModifierGroupRepository modifierGroupRepository;
+    private final ModifierRepository modifierRepository;
+    private final MenuItemModifierGroupRepository menuItemModifierGroupRepository;
+
+    private volatile MenuCatalog catalog;
+    private long lastVersion;
+
+    @Autowired
+    public MenuCatalogService(MenuItemRepository menuItemRepository, ModifierGroupRepository modifierGroupRepository,
+                              ModifierRepository modifierRepository,
+                              MenuItemModifierGroupRepository menuItemModifierGroupRepository) {
+        this.menuItemRepository = menuItemRepository;
+        this.modifierGroupRepository = modifierGroupRepository;
+        this.modifierRepository = modifierRepository;
+        this.menuItemModifierGroupRepository = menuItemModifierGroupRepository;
+    }
+
+    public MenuCatalog current() {                                  // One volatile read once loaded
+        MenuCatalog snapshot = catalog;
+        return snapshot != null ? snapshot : load();
+    }
+
+    public void refresh() {                                         // Inside a transaction, waits for the commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+            return;
+        }
+        rebuild();
+    }
+
+    private synchronized MenuCatalog load() {
+        return catalog != null ? catalog : rebuild();
+    }
+
+    private synchronized MenuCatalog rebuild() {                    // Serialised, so the last rebuild always sees the last write
+        lastVersion = Math.max(lastVersion + 1, System.currentTimeMillis());
+
+        catalog = MenuCatalog.of(lastVersion,
+                menuItemRepository.findAll(),
+                modifierGroupRepository.findAll(),
+                modifierRepository.findAll(),
+                menuItemModifierGroupRepository.findAll());
+        return catalog;
+    }
+}
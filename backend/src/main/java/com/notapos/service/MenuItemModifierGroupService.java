@@ -11,6 +11,7 @@ import java.util.Optional;
  * Service layer for MenuItemModifierGroup operations.
  * 
  * Contains business logic for managing menu item and modifier group relationships.
+ * Reads come from the in-memory MenuCatalog, writes refresh it.
  * 
  * @author CJ
  */
@@ -19,33 +20,39 @@ import java.util.Optional;
 public class MenuItemModifierGroupService {
     
     private final MenuItemModifierGroupRepository menuItemModifierGroupRepository;
+    private final MenuCatalogService menuCatalogService;
 
     @Autowired
-    public MenuItemModifierGroupService(MenuItemModifierGroupRepository menuItemModifierGroupRepository) {
+    public MenuItemModifierGroupService(MenuItemModifierGroupRepository menuItemModifierGroupRepository,
+                                        MenuCatalogService menuCatalogService) {
         this.menuItemModifierGroupRepository = menuItemModifierGroupRepository;
+        this.menuCatalogService = menuCatalogService;
     }
 
     public List<MenuItemModifierGroup> getAllLinks() {                                  // Get all menu item modifier group links
-        return menuItemModifierGroupRepository.findAll();
+        return menuCatalogService.current().getLinks();
     }
 
     public Optional<MenuItemModifierGroup> getLinkById(Long id) {                               // Get item modifier group link by ID
-        return menuItemModifierGroupRepository.findById(id);
+        return menuCatalogService.current().getLink(id);
     }
 
     public List<MenuItemModifierGroup> getModifierGroupsForMenuItem(Long menuItemId) {          // Get all modifier groups for a menu item
-        return menuItemModifierGroupRepository.findByMenuItemId(menuItemId);
+        return menuCatalogService.current().getLinksForMenuItem(menuItemId);
     }
 
     public List<MenuItemModifierGroup> getMenuItemsForModifierGroup(Long modifierGroupId) {     // Get all menu items that use a specific modifier group
-        return menuItemModifierGroupRepository.findByModifierGroupId(modifierGroupId);
+        return menuCatalogService.current().getLinksForModifierGroup(modifierGroupId);
     }
 
     public MenuItemModifierGroup createLink(MenuItemModifierGroup link) {                       // Create a new link between menu item and modifier group
-        return menuItemModifierGroupRepository.save(link);
+        MenuItemModifierGroup saved = menuItemModifierGroupRepository.save(link);
+        menuCatalogService.refresh();
+        return saved;
     }
 
     public void deleteLink(Long id) {
         menuItemModifierGroupRepository.deleteById(id);                                         // Delete a link
+        menuCatalogService.refresh();
     }
 }
@@ -13,6 +13,8 @@ import java.util.Optional;
  * 
  * Contains business logic for managing menu items.
  * Sits between the Controller (REST API) and Repository (database).
+ * Reads are served from the in-memory MenuCatalog; writes go to the
+ * database and refresh it.
  * 
  * @author CJ
  */
@@ -21,42 +23,49 @@ import java.util.Optional;
 public class MenuItemService {
 
     private final MenuItemRepository menuItemRepository;
+    private final MenuCatalogService menuCatalogService;
+    private final ChangeCounter changes = new ChangeCounter("menu-items");
 
     @Autowired
-    public MenuItemService(MenuItemRepository menuItemRepository) {
+    public MenuItemService(MenuItemRepository menuItemRepository, MenuCatalogService menuCatalogService) {
         this.menuItemRepository = menuItemRepository;
+        this.menuCatalogService = menuCatalogService;
+    }
+
+    public String getMenuItemsETag() {                  // Changes whenever any menu item is written
+        return changes.etag();
     }
 
     public List<MenuItem> getAllMenuItems() {       // Get all menu items (including inactive)
-        return menuItemRepository.findAll();
+        return menuCatalogService.current().getMenuItems();
     }
 
     public List<MenuItem> getActiveMenuItems() {            // Get all ACTIVE menu items
-        return menuItemRepository.findByIsActive(true);
+        return menuCatalogService.current().getActiveMenuItems();
     }
 
     public Optional<MenuItem> getMenuItemById(Long id) {        // Get menu item by ID
-        return menuItemRepository.findById(id);
+        return menuCatalogService.current().getMenuItem(id);
     }
     
     public Optional<MenuItem> getMenuItemByName(String name) {  // Get menu item by name
-        return menuItemRepository.findByName(name);
+        return menuCatalogService.current().getMenuItemByName(name);
     }
 
     public List<MenuItem> getMenuItemsByCategory(String category) {     // Get all items in a category
-        return menuItemRepository.findByCategory(category);
+        return menuCatalogService.current().getMenuItemsByCategory(category);
     }
 
     public List<MenuItem> getActiveMenuItemsByCategory(String category) {       // Get all active items in a category
-        return menuItemRepository.findByCategoryAndIsActive(category, true);
+        return MenuCatalog.active(menuCatalogService.current().getMenuItemsByCategory(category), MenuItem::getIsActive);
     }
 
     public List<MenuItem> getMenuItemsByPrepStation(Long prepStationId) {       // Get all items for that prep station
-        return menuItemRepository.findByPrepStationId(prepStationId);
+        return menuCatalogService.current().getMenuItemsByPrepStation(prepStationId);
     }
 
     public MenuItem createMenuItem(MenuItem menuItem) {             // Create a new menu item
-        return menuItemRepository.save(menuItem);
+        return bumped(menuItemRepository.save(menuItem));
     }
 
     public MenuItem updateMenuItem(Long id, MenuItem updatedItem) {     // Update existing menu item
@@ -70,7 +79,8 @@ public class MenuItemService {
         existing.setPrepStationId(updatedItem.getPrepStationId());
         existing.setIsActive(updatedItem.getIsActive());
 
-        return menuItemRepository.save(existing);
+        MenuItem saved = menuItemRepository.save(existing);
+        return bumped(saved);
     }
 
     public MenuItem deactivateMenuItem(Long id) {                       // "Soft delete" a menu item (turns it inactive)
@@ -78,7 +88,7 @@ public class MenuItemService {
                 .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + id));
 
         menuItem.setIsActive(false);
-        return menuItemRepository.save(menuItem);
+        return bumped(menuItemRepository.save(menuItem));
     }
 
     public MenuItem activateMenuItem(Long id) {                         // Reactivate an inactive menu item
@@ -86,10 +96,18 @@ public class MenuItemService {
                 .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + id));
 
         menuItem.setIsActive(true);
-        return menuItemRepository.save(menuItem);
+        return bumped(menuItemRepository.save(menuItem));
     }
 
     public void deleteMenuItem(Long id) {           // Completely delete item from repository (not reccomended, use deativateMenuItem() instead to preserve history)
         menuItemRepository.deleteById(id);
+        menuCatalogService.refresh();
+        changes.bump();
+    }
+
+    private MenuItem bumped(MenuItem saved) {
+        menuCatalogService.refresh();
+        changes.bump();
+        return saved;
     }
 }
@@ -0,0 +1,168 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable search index over active menu items.
+ *
+ * Every word of an item's name, category and description goes into a prefix
+ * trie ("chi" finds "Chicken Cutty") and a trigram index ("chiken" still
+ * finds it). A query matches an item when every query word matches one of
+ * its words; name matches beat category matches beat description matches,
+ * prefix matches beat typo matches, and ties go to the item ordered most.
+ *
+ * Built once per MenuCatalog version by MenuSearchService; lookups only
+ * touch these maps.
+ *
+ * @author CJ
+ */
+
+public final class MenuSearchIndex {
+
+    static final double MIN_SIMILARITY = 0.4;                       // Trigram overlap needed for a typo match
+
+    private static final int NAME = 3;                              // Field weights
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 1;
+
+    private final Map<Long, MenuItem> itemsById = new HashMap<>();
+    private final Map<Long, Long> popularity;
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Map<Long, Integer>> itemsByWord = new HashMap<>();       // word -> item -> best field weight
+    private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final Map<Long, Integer> items = new HashMap<>();           // Every item with a word under this prefix
+    }
+
+    public MenuSearchIndex(List<MenuItem> activeItems, Map<Long, Long> popularity) {
+        this.popularity = Map.copyOf(popularity);
+
+        for (MenuItem item : activeItems) {
+            itemsById.put(item.getMenuItemId(), item);
+            addWords(item.getMenuItemId(), item.getName(), NAME);
+            addWords(item.getMenuItemId(), item.getCategory(), CATEGORY);
+            addWords(item.getMenuItemId(), item.getDescription(), DESCRIPTION);
+        }
+    }
+
+    public List<MenuItem> search(String query, int limit) {         // Best matches first, at most limit
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        for (String queryWord : queryWords) {
+            Map<Long, Double> wordScores = match(queryWord);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<Long, Double> both = new HashMap<>();           // Every query word has to match
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double score = wordScores.get(entry.getKey());
+                    if (score != null) {
+                        both.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Double> ranked = scores;
+        return ranked.keySet().stream()
+                .sorted(Comparator.<Long>comparingDouble(id -> -ranked.get(id))
+                        .thenComparing(id -> -popularity.getOrDefault(id, 0L))
+                        .thenComparing(id -> itemsById.get(id).getName(), Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(limit)
+                .map(itemsById::get)
+                .toList();
+    }
+
+    private Map<Long, Double> match(String queryWord) {             // item -> score for one query word
+        Map<Long, Double> scores = new HashMap<>();
+
+        TrieNode node = root;
+        for (int i = 0; i < queryWord.length() && node != null; i++) {
+            node = node.children.get(queryWord.charAt(i));
+        }
+        if (node != null) {
+            node.items.forEach((id, weight) -> scores.put(id, (double) weight));
+        }
+
+        for (Map.Entry<String, Double> similar : similarWords(queryWord).entrySet()) {
+            itemsByWord.get(similar.getKey()).forEach((id, weight) ->
+                    scores.merge(id, weight * similar.getValue() * 0.5, Math::max));    // Typo match ranks below a real prefix match
+        }
+        return scores;
+    }
+
+    private Map<String, Double> similarWords(String queryWord) {    // word -> trigram similarity
+        Set<String> queryGrams = trigrams(queryWord);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String word : wordsByTrigram.getOrDefault(gram, Set.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+
+        Map<String, Double> similar = new HashMap<>();
+        shared.forEach((word, common) -> {
+            double similarity = (double) common / (queryGrams.size() + trigrams(word).size() - common);
+            if (similarity >= MIN_SIMILARITY) {
+                similar.put(word, similarity);
+            }
+        });
+        return similar;
+    }
+
+    private void addWords(Long itemId, String text, int weight) {
+        for (String word : words(text)) {
+            itemsByWord.computeIfAbsent(word, w -> new HashMap<>()).merge(itemId, weight, Math::max);
+            for (String gram : trigrams(word)) {
+                wordsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(word);
+            }
+
+            TrieNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+                node.items.merge(itemId, weight, Math::max);
+            }
+        }
+    }
+
+    static List<String> words(String text) {                        // Lower-case letters/digits runs
+        if (text == null) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static Set<String> trigrams(String word) {                      // "fry" -> " fr", "fry", "ry "
+        String padded = " " + word + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
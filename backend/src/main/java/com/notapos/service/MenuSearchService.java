@@ -0,0 +1,75 @@
+package com.notapos.service;
+
+import com.notapos.dto.MenuItemPopularity;
+import com.notapos.entity.MenuItem;
+import com.notapos.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Menu item search for the order screen.
+ *
+ * Keeps a MenuSearchIndex for the current MenuCatalog version. A menu write
+ * refreshes the catalog, which bumps its version, and the next search
+ * rebuilds the index. Popularity (units ordered per item) is re-counted on a
+ * schedule - it drifts slowly and isn't worth a query per search.
+ *
+ * @author CJ
+ */
+
+@Service
+public class MenuSearchService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final long POPULARITY_REFRESH_MILLIS = 10 * 60 * 1000;
+
+    private final MenuCatalogService menuCatalogService;
+    private final OrderItemRepository orderItemRepository;
+
+    private volatile IndexedVersion indexed;
+    private volatile Map<Long, Long> popularity;
+
+    private record IndexedVersion(long catalogVersion, Map<Long, Long> popularity, MenuSearchIndex index) {}
+
+    @Autowired
+    public MenuSearchService(MenuCatalogService menuCatalogService, OrderItemRepository orderItemRepository) {
+        this.menuCatalogService = menuCatalogService;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    public List<MenuItem> search(String query, Integer limit) {            // Active items matching query, best first
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return currentIndex().search(query, max);
+    }
+
+    @Scheduled(fixedRate = POPULARITY_REFRESH_MILLIS, initialDelay = POPULARITY_REFRESH_MILLIS)
+    public void refreshPopularity() {                                        // Re-rank with tonight's orders
+        Map<Long, Long> counts = new HashMap<>();
+        for (MenuItemPopularity row : orderItemRepository.countOrderedByMenuItem()) {
+            counts.put(row.menuItemId(), row.timesOrdered());
+        }
+        popularity = counts;
+    }
+
+    private MenuSearchIndex currentIndex() {
+        MenuCatalog catalog = menuCatalogService.current();
+        if (popularity == null) {
+            refreshPopularity();
+        }
+
+        IndexedVersion current = indexed;
+        Map<Long, Long> counts = popularity;
+        if (current == null || current.catalogVersion() != catalog.getVersion() || current.popularity() != counts) {
+            current = new IndexedVersion(catalog.getVersion(), counts,
+                    new MenuSearchIndex(catalog.getActiveMenuItems(), counts));
+            indexed = current;
+        }
+        return current.index();
+    }
+}
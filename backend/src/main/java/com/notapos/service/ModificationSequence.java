@@ -0,0 +1,90 @@
+package com.notapos.service;
+
+import com.notapos.repository.ChangeTombstoneRepository;
+import com.notapos.repository.OrderItemRepository;
+import com.notapos.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic modification sequence behind the order / order item change feeds.
+ *
+ * Every write is stamped with the next value (the mod_seq column). Values are
+ * handed out before the write commits, so a later value can become visible
+ * before an earlier one. cursor() only goes as far as the oldest write still
+ * in flight - a client that polls with it can never skip a slow commit.
+ *
+ * Continues from the highest value already stored after a restart - archived
+ * rows included, they keep the mod_seq they had.
+ *
+ * @author CJ
+ */
+
+@Component
+public class ModificationSequence {
+
+    private final LongSupplier highestPersisted;
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long lastIssued = -1;                                   // -1 = not loaded from the database yet
+
+    @Autowired
+    public ModificationSequence(OrderItemRepository orderItemRepository, OrderRepository orderRepository,
+                                ChangeTombstoneRepository changeTombstoneRepository, OrderArchiveService orderArchiveService) {
+        this(() -> Math.max(Math.max(orderItemRepository.findHighestModSeq(), orderArchiveService.findHighestModSeq()),
+                Math.max(orderRepository.findHighestModSeq(), changeTombstoneRepository.findHighestModSeq())));
+    }
+
+    public ModificationSequence(LongSupplier highestPersisted) {
+        this.highestPersisted = highestPersisted;
+    }
+
+    public <T> T stamp(LongFunction<T> write) {             // Run one write with a fresh sequence value
+        long modSeq = reserve();
+        boolean releaseOnCompletion = TransactionSynchronizationManager.isSynchronizationActive();
+
+        if (releaseOnCompletion) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {           // Committed or rolled back, either way it's settled
+                    release(modSeq);
+                }
+            });
+        }
+
+        try {
+            return write.apply(modSeq);
+        } finally {
+            if (!releaseOnCompletion) {                             // Repository call already committed on its own
+                release(modSeq);
+            }
+        }
+    }
+
+    public synchronized long cursor() {                     // Highest value with nothing older still uncommitted
+        load();
+        return inFlight.isEmpty() ? lastIssued : inFlight.first() - 1;
+    }
+
+    private synchronized long reserve() {
+        load();
+        long modSeq = ++lastIssued;
+        inFlight.add(modSeq);
+        return modSeq;
+    }
+
+    private synchronized void release(long modSeq) {
+        inFlight.remove(modSeq);
+    }
+
+    private void load() {
+        if (lastIssued < 0) {
+            lastIssued = highestPersisted.getAsLong();
+        }
+    }
+}
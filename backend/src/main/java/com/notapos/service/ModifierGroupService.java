@@ -10,6 +10,8 @@ import java.util.Optional;
 /**
  * Service layer for ModifierGroup operations.
  * 
+ * Reads come from the in-memory MenuCatalog, writes refresh it.
+ * 
  * @author CJ
  */
 
@@ -17,30 +19,32 @@ import java.util.Optional;
 public class ModifierGroupService {
     
     private final ModifierGroupRepository modifierGroupRepository;
+    private final MenuCatalogService menuCatalogService;
 
     @Autowired
-    public ModifierGroupService(ModifierGroupRepository modifierGroupRepository) {
+    public ModifierGroupService(ModifierGroupRepository modifierGroupRepository, MenuCatalogService menuCatalogService) {
         this.modifierGroupRepository = modifierGroupRepository;
+        this.menuCatalogService = menuCatalogService;
     }
 
     public List<ModifierGroup> getAllModifierGroups() {                         // Get all ModifierGroups
-        return modifierGroupRepository.findAll();
+        return menuCatalogService.current().getModifierGroups();
     }
 
     public List<ModifierGroup> getActiveModifierGroups() {                      // Get all active ModifierGroups
-        return modifierGroupRepository.findByIsActive(true);
+        return MenuCatalog.active(menuCatalogService.current().getModifierGroups(), ModifierGroup::getIsActive);
     }
 
     public Optional<ModifierGroup> getModifierGroupById(Long id) {              // Get ModifierGroup by ID
-        return modifierGroupRepository.findById(id);
+        return menuCatalogService.current().getModifierGroup(id);
     }
 
     public Optional<ModifierGroup> getModifierGroupByName(String name) {        // Get ModifierGroup by name
-        return modifierGroupRepository.findByName(name);
+        return menuCatalogService.current().getModifierGroupByName(name);
     }
 
     public ModifierGroup createModifierGroup(ModifierGroup modifierGroup) {     // Create new ModififerGroup
-        return modifierGroupRepository.save(modifierGroup);
+        return refreshed(modifierGroupRepository.save(modifierGroup));
     }
 
     public ModifierGroup updateModifierGroup(Long id, ModifierGroup updatedGroup) {             // Update existing ModififerGroup
@@ -53,10 +57,16 @@ public class ModifierGroupService {
                 existing.setMaxSelections(updatedGroup.getMaxSelections());
                 existing.setIsActive(updatedGroup.getIsActive());
 
-                return modifierGroupRepository.save(existing);
+                return refreshed(modifierGroupRepository.save(existing));
     }
 
     public void deleteModifierGroup(Long id) {                              // Delete existing ModifierGroup
         modifierGroupRepository.deleteById(id);
+        menuCatalogService.refresh();
+    }
+
+    private ModifierGroup refreshed(ModifierGroup saved) {
+        menuCatalogService.refresh();
+        return saved;
     }
 }
@@ -10,6 +10,8 @@ import java.util.Optional;
 /**
  * Service layer for Modifier operations.
  * 
+ * Reads come from the in-memory MenuCatalog, writes refresh it.
+ * 
  * @author CJ
  */
 
@@ -17,34 +19,36 @@ import java.util.Optional;
 public class ModifierService {
     
     private final ModifierRepository modifierRepository;
+    private final MenuCatalogService menuCatalogService;
 
     @Autowired
-    public ModifierService(ModifierRepository modifierRepository) {
+    public ModifierService(ModifierRepository modifierRepository, MenuCatalogService menuCatalogService) {
         this.modifierRepository = modifierRepository;
+        this.menuCatalogService = menuCatalogService;
     }
 
     public List<Modifier> getAllModifiers() {                           // Get all Modififers
-        return modifierRepository.findAll();
+        return menuCatalogService.current().getModifiers();
     }
 
     public List<Modifier> getActiveModifiers() {                        // Get all active Modifiers
-        return modifierRepository.findByIsActive(true);
+        return MenuCatalog.active(menuCatalogService.current().getModifiers(), Modifier::getIsActive);
     }
 
     public Optional<Modifier> getModifierById(Long id) {                // Get all Modifers 
-        return modifierRepository.findById(id);
+        return menuCatalogService.current().getModifier(id);
     }
 
     public List<Modifier> getModifiersByGroup(Long modifierGroupId) {               // Get modifiers by group
-        return modifierRepository.findByModifierGroupId(modifierGroupId);
+        return menuCatalogService.current().getModifiersByGroup(modifierGroupId);
     }
 
     public List<Modifier> getActiveModifiersByGroup(Long modifierGroupId) {                     // Get active Modifiers by group
-        return modifierRepository.findByModifierGroupIdAndIsActive(modifierGroupId, true);
+        return MenuCatalog.active(menuCatalogService.current().getModifiersByGroup(modifierGroupId), Modifier::getIsActive);
     }
 
     public Modifier createModifier(Modifier modifier) {                                             // Create new modifier
-        return modifierRepository.save(modifier);
+        return refreshed(modifierRepository.save(modifier));
     }
 
     public Modifier updateModifier(Long id, Modifier updatedModifier) {                             // Update existing Modifier
@@ -55,10 +59,16 @@ public class ModifierService {
         existing.setPriceAdjustment(updatedModifier.getPriceAdjustment());
         existing.setIsActive(updatedModifier.getIsActive());
 
-        return modifierRepository.save(existing);
+        return refreshed(modifierRepository.save(existing));
     }
 
     public void deleteModifier(Long id) {                                           // Delete existing modifier
         modifierRepository.deleteById(id);
+        menuCatalogService.refresh();
+    }
+
+    private Modifier refreshed(Modifier saved) {
+        menuCatalogService.refresh();
+        return saved;
     }
 }
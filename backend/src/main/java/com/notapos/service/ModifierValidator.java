@@ -0,0 +1,110 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modifier rules compiled from one MenuCatalog version.
+ *
+ * For every menu item the active modifier groups it offers are numbered
+ * 0..n and turned into a rule table: which modifier ids are allowed (and
+ * which group slot each one counts against), the max selections per slot
+ * and a bitset of required slots. Checking a selection is then one map
+ * lookup per modifier plus a bitset compare - no repository calls.
+ *
+ * @author CJ
+ */
+
+public final class ModifierValidator {
+
+    private static final ItemRules NO_MODIFIERS = new ItemRules(Map.of(), new int[0], new BitSet(), new String[0]);
+
+    private final Map<Long, ItemRules> rulesByMenuItem;
+
+    private record ItemRules(Map<Long, Integer> slotByModifier, int[] maxSelections, BitSet requiredSlots,
+                             String[] groupNames) {}
+
+    private ModifierValidator(Map<Long, ItemRules> rulesByMenuItem) {
+        this.rulesByMenuItem = rulesByMenuItem;
+    }
+
+    static ModifierValidator compile(MenuCatalog catalog) {
+        Map<Long, ItemRules> rules = new HashMap<>();
+
+        for (MenuItem item : catalog.getMenuItems()) {
+            List<MenuCatalog.ModifierGroupTree> groups = catalog.getModifierTree(item.getMenuItemId());
+            if (groups.isEmpty()) {
+                continue;
+            }
+
+            Map<Long, Integer> slotByModifier = new HashMap<>();
+            int[] maxSelections = new int[groups.size()];
+            BitSet requiredSlots = new BitSet(groups.size());
+            String[] groupNames = new String[groups.size()];
+
+            for (int slot = 0; slot < groups.size(); slot++) {
+                MenuCatalog.ModifierGroupTree group = groups.get(slot);
+                Integer max = group.group().getMaxSelections();
+
+                maxSelections[slot] = max != null && max > 0 ? max : Integer.MAX_VALUE;
+                groupNames[slot] = group.group().getName();
+                if (Boolean.TRUE.equals(group.group().getIsRequired())) {
+                    requiredSlots.set(slot);
+                }
+                for (Modifier modifier : group.modifiers()) {
+                    slotByModifier.putIfAbsent(modifier.getModifierId(), slot);
+                }
+            }
+            rules.put(item.getMenuItemId(), new ItemRules(Collections.unmodifiableMap(slotByModifier), maxSelections, requiredSlots, groupNames));
+        }
+        return new ModifierValidator(Collections.unmodifiableMap(rules));
+    }
+
+    public List<String> validate(Long menuItemId, Collection<Long> modifierIds) {     // Complete selection: allowed, max, required
+        return check(menuItemId, modifierIds, true);
+    }
+
+    public List<String> validatePartial(Long menuItemId, Collection<Long> modifierIds) {  // Selection still being built: allowed, max
+        return check(menuItemId, modifierIds, false);
+    }
+
+    private List<String> check(Long menuItemId, Collection<Long> modifierIds, boolean complete) {
+        ItemRules rules = rulesByMenuItem.getOrDefault(menuItemId, NO_MODIFIERS);
+        List<String> problems = new ArrayList<>();
+
+        int[] counts = new int[rules.maxSelections().length];
+        BitSet chosen = new BitSet(counts.length);
+        for (Long modifierId : modifierIds) {
+            Integer slot = rules.slotByModifier().get(modifierId);
+            if (slot == null) {
+                problems.add("Modifier " + modifierId + " is not offered on menu item " + menuItemId);
+                continue;
+            }
+            counts[slot]++;
+            chosen.set(slot);
+        }
+
+        for (int slot = chosen.nextSetBit(0); slot >= 0; slot = chosen.nextSetBit(slot + 1)) {
+            if (counts[slot] > rules.maxSelections()[slot]) {
+                problems.add(rules.groupNames()[slot] + " allows at most " + rules.maxSelections()[slot]
+                        + " selection(s), got " + counts[slot]);
+            }
+        }
+
+        if (complete) {
+            BitSet missing = (BitSet) rules.requiredSlots().clone();
+            missing.andNot(chosen);
+            for (int slot = missing.nextSetBit(0); slot >= 0; slot = missing.nextSetBit(slot + 1)) {
+                problems.add(rules.groupNames()[slot] + " is required");
+            }
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,226 @@
+package com.notapos.service;
+
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.repository.OrderItemRepository;
+import com.notapos.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory working set of the open orders and their items.
+ *
+ * Almost every read during service is about a check that is still open, so
+ * those reads are answered from here instead of scanning the orders table.
+ * Open orders are indexed by orderId and by tableId, their items by orderId.
+ *
+ * Write-through: OrderService and OrderItemService hand every row they write
+ * to this cache, applied once the transaction commits (a rolled back write
+ * never shows up). Completing or deleting an order evicts it along with its
+ * items. Updates only replace what is already here and never an entry with
+ * a newer mod_seq, so a late commit callback can't bring back a closed
+ * order or an older copy of a row.
+ *
+ * Loaded from the database once the application is ready; until then
+ * isLoaded() is false and callers read the database as before. Writes that
+ * commit before the load is in are held back and replayed on top of it, so
+ * an order completed while the load queries run is still evicted. Cached
+ * rows are shared - callers must treat them as read-only.
+ *
+ * @author CJ
+ */
+
+@Service
+public class OpenOrderCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenOrderCache.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final Map<Long, Order> ordersById = new TreeMap<>();                      // Oldest order first
+    private final Map<Long, Set<Long>> orderIdsByTable = new HashMap<>();
+    private final Map<Long, Map<Long, OrderItem>> itemsByOrder = new TreeMap<>();     // orderId -> (orderItemId -> item), in id order
+    private final List<Runnable> writesDuringLoad = new ArrayList<>();                // Guarded by this, replayed by load()
+    private volatile boolean loaded;
+
+    @Autowired
+    public OpenOrderCache(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)                     // Two queries: open orders, then their items
+    public void load() {
+        List<Order> openOrders = orderRepository.findByStatus("open");
+        List<OrderItem> openItems = orderItemRepository.findItemsOfOpenOrders();
+
+        synchronized (this) {
+            for (Order order : openOrders) {
+                putOrder(order, true);
+            }
+            for (OrderItem item : openItems) {
+                putItem(item, true);
+            }
+            writesDuringLoad.forEach(Runnable::run);                // Newer mod_seq wins, so these only replace stale loaded rows
+            writesDuringLoad.clear();
+            loaded = true;
+        }
+
+        log.info("Open order cache loaded with {} order(s), {} item(s)", openOrders.size(), openItems.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized List<Order> getOpenOrders() {
+        return new ArrayList<>(ordersById.values());
+    }
+
+    public synchronized List<Order> getOpenOrdersByTable(Long tableId) {
+        Set<Long> orderIds = orderIdsByTable.getOrDefault(tableId, Set.of());
+
+        List<Order> orders = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            orders.add(ordersById.get(orderId));
+        }
+        return orders;
+    }
+
+    public synchronized Optional<List<OrderItem>> getItemsOfOpenOrder(Long orderId) {      // Empty when the order isn't open (caller reads the database)
+        if (!ordersById.containsKey(orderId)) {
+            return Optional.empty();
+        }
+        return Optional.of(new ArrayList<>(itemsByOrder.getOrDefault(orderId, Map.of()).values()));
+    }
+
+    public synchronized List<OrderItem> getItemsOfOpenOrders() {
+        List<OrderItem> items = new ArrayList<>();
+        for (Map<Long, OrderItem> orderItems : itemsByOrder.values()) {
+            items.addAll(orderItems.values());
+        }
+        return items;
+    }
+
+    public void orderCreated(Order order) {                         // Inside a transaction, each of these waits for the commit
+        afterCommit(() -> putOrder(order, true));
+    }
+
+    public void orderWritten(Order order) {
+        afterCommit(() -> putOrder(order, false));
+    }
+
+    public void orderDeleted(Long orderId) {
+        afterCommit(() -> evict(orderId));
+    }
+
+    public void itemCreated(OrderItem item) {
+        afterCommit(() -> putItem(item, true));
+    }
+
+    public void itemWritten(OrderItem item) {
+        afterCommit(() -> putItem(item, false));
+    }
+
+    public void itemDeleted(OrderItem item) {
+        afterCommit(() -> removeItem(item));
+    }
+
+    private synchronized void putOrder(Order order, boolean created) {
+        Order cached = ordersById.get(order.getOrderId());
+
+        if (!"open".equals(order.getStatus())) {                    // Completed (or anything else) - no longer part of the working set
+            if (cached == null || !isOlder(order.getModSeq(), cached.getModSeq())) {
+                evict(order.getOrderId());
+            }
+            return;
+        }
+        if (cached == null ? !created : isOlder(order.getModSeq(), cached.getModSeq())) {
+            return;
+        }
+        if (cached != null && !cached.getTableId().equals(order.getTableId())) {     // Moved to another table, items stay
+            unindexTable(cached);
+        }
+
+        ordersById.put(order.getOrderId(), order);
+        orderIdsByTable.computeIfAbsent(order.getTableId(), id -> new TreeSet<>()).add(order.getOrderId());
+    }
+
+    private synchronized void putItem(OrderItem item, boolean created) {
+        if (!ordersById.containsKey(item.getOrderId())) {           // Items of closed orders aren't kept
+            return;
+        }
+
+        Map<Long, OrderItem> items = itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new TreeMap<>());
+        OrderItem cached = items.get(item.getOrderItemId());
+
+        if (cached == null ? !created : isOlder(item.getModSeq(), cached.getModSeq())) {
+            return;
+        }
+        items.put(item.getOrderItemId(), item);
+    }
+
+    private synchronized void removeItem(OrderItem item) {
+        Map<Long, OrderItem> items = itemsByOrder.get(item.getOrderId());
+        if (items != null) {
+            items.remove(item.getOrderItemId());
+        }
+    }
+
+    private synchronized void evict(Long orderId) {
+        Order removed = ordersById.remove(orderId);
+        itemsByOrder.remove(orderId);
+
+        if (removed != null) {
+            unindexTable(removed);
+        }
+    }
+
+    private void unindexTable(Order order) {
+        Set<Long> tableOrders = orderIdsByTable.get(order.getTableId());
+        tableOrders.remove(order.getOrderId());
+        if (tableOrders.isEmpty()) {
+            orderIdsByTable.remove(order.getTableId());
+        }
+    }
+
+    private static boolean isOlder(Long modSeq, Long cachedModSeq) {
+        return modSeq != null && cachedModSeq != null && modSeq < cachedModSeq;
+    }
+
+    private void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyOrHold(apply);
+                }
+            });
+            return;
+        }
+        applyOrHold(apply);
+    }
+
+    private synchronized void applyOrHold(Runnable apply) {       // Before the load, non-create writes would be dropped for rows not cached yet
+        if (!loaded) {
+            writesDuringLoad.add(apply);
+            return;
+        }
+        apply.run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.notapos.service;
+
+import com.notapos.dto.OrderAggregate;
+import com.notapos.dto.TableSession;
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.Payment;
+import com.notapos.repository.OrderItemModifierRepository;
+import com.notapos.repository.OrderItemRepository;
+import com.notapos.repository.OrderRepository;
+import com.notapos.repository.PaymentRepository;
+import com.notapos.repository.TableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Builds order aggregates (order + items + modifiers + payments) for the
+ * order screen.
+ *
+ * Loading is level by level, never per row: one query for the orders, then
+ * one IN-list query each for all their items, all those items' modifiers and
+ * all the orders' payments. The statement count depends on how many levels
+ * there are, not on how many items a check has. IN-lists are split at
+ * IN_LIST_BATCH ids so a huge party still stays under SQLite's bound
+ * parameter limit.
+ *
+ * @author CJ
+ */
+
+@Service
+public class OrderAggregateService {
+
+    static final int IN_LIST_BATCH = 500;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderItemModifierRepository orderItemModifierRepository;
+    private final PaymentRepository paymentRepository;
+    private final TableRepository tableRepository;
+
+    @Autowired
+    public OrderAggregateService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                                 OrderItemModifierRepository orderItemModifierRepository,
+                                 PaymentRepository paymentRepository, TableRepository tableRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderItemModifierRepository = orderItemModifierRepository;
+        this.paymentRepository = paymentRepository;
+        this.tableRepository = tableRepository;
+    }
+
+    public Optional<OrderAggregate> getFullOrder(Long orderId) {                // 4 queries: order, items, modifiers, payments
+        return orderRepository.findById(orderId)
+                .map(order -> assemble(List.of(order)).get(0));
+    }
+
+    public Optional<TableSession> getTableSession(Long tableId) {               // 5 queries: table, open orders, items, modifiers, payments
+        return tableRepository.findById(tableId)
+                .map(table -> new TableSession(table,
+                        assemble(orderRepository.findByTableIdAndStatus(tableId, "open"))));
+    }
+
+    private List<OrderAggregate> assemble(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getOrderId).toList();
+        List<OrderItem> items = inBatches(orderIds, orderItemRepository::findByOrderIdInOrderByOrderItemIdAsc);
+        List<Long> itemIds = items.stream().map(OrderItem::getOrderItemId).toList();
+
+        Map<Long, List<OrderItemModifier>> modifiersByItem = groupBy(
+                inBatches(itemIds, orderItemModifierRepository::findByOrderItemIdIn), OrderItemModifier::getOrderItemId);
+        Map<Long, List<Payment>> paymentsByOrder = groupBy(
+                inBatches(orderIds, paymentRepository::findByOrderIdIn), Payment::getOrderId);
+
+        Map<Long, List<OrderAggregate.Item>> itemsByOrder = new HashMap<>();
+        for (OrderItem item : items) {
+            itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>())
+                    .add(new OrderAggregate.Item(item, modifiersByItem.getOrDefault(item.getOrderItemId(), List.of())));
+        }
+
+        List<OrderAggregate> aggregates = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            aggregates.add(new OrderAggregate(order,
+                    itemsByOrder.getOrDefault(order.getOrderId(), List.of()),
+                    paymentsByOrder.getOrDefault(order.getOrderId(), List.of())));
+        }
+        return aggregates;
+    }
+
+    private static <T> List<T> inBatches(List<Long> ids, Function<List<Long>, List<T>> fetch) {     // No query at all for an empty list
+        if (ids.size() <= IN_LIST_BATCH) {
+            return ids.isEmpty() ? List.of() : fetch.apply(ids);
+        }
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_BATCH) {
+            rows.addAll(fetch.apply(ids.subList(from, Math.min(from + IN_LIST_BATCH, ids.size()))));
+        }
+        return rows;
+    }
+
+    private static <K, T> Map<K, List<T>> groupBy(List<T> rows, Function<T, K> key) {
+        Map<K, List<T>> groups = new HashMap<>();
+        for (T row : rows) {
+            groups.computeIfAbsent(key.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,207 @@
+package com.notapos.service;
+
+import com.notapos.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves long-completed orders out of the hot tables into history tables.
+ *
+ * orders, order_items, order_item_modifiers and payments each get an
+ * *_archive twin in the same SQLite file. The archive tables mirror the hot
+ * ones column for column - they're created on first use from the live
+ * schema, and any column added to a hot table later (ddl-auto=update) is
+ * added to its twin too, so nothing here has to change with the entities.
+ *
+ * Orders are moved ARCHIVE_BATCH at a time, one transaction per batch: copy
+ * the order and its children across, then delete children first. A batch
+ * either moves completely or not at all.
+ *
+ * The order holding the highest id of any hot table is never moved - SQLite
+ * hands out max(id) + 1, so emptying a table's top would reuse an id that
+ * already lives in the archive.
+ *
+ * Reporting reads the archive only when the requested range reaches back
+ * before the newest archived row (see reaches()). Archived orders leave no
+ * change feed tombstones - they were completed weeks ago, so any screen
+ * still holding them already has their final state.
+ *
+ * @author CJ
+ */
+
+@Service
+public class OrderArchiveService {
+
+    static final int ARCHIVE_BATCH = 200;                           // Orders per transaction
+
+    private static final String ORDERS = "orders";
+    private static final String ORDER_ITEMS = "order_items";
+    private static final String ORDER_ITEM_MODIFIERS = "order_item_modifiers";
+    private static final String PAYMENTS = "payments";
+    private static final List<String> ARCHIVED_TABLES = List.of(ORDERS, ORDER_ITEMS, ORDER_ITEM_MODIFIERS, PAYMENTS);
+
+    private static final List<String> ARCHIVE_INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_orders_archive_created_at ON orders_archive (created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive (order_id)",
+            "CREATE INDEX IF NOT EXISTS idx_order_item_modifiers_archive_item ON order_item_modifiers_archive (order_item_id)",
+            "CREATE INDEX IF NOT EXISTS idx_payments_archive_created_at ON payments_archive (created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_payments_archive_order ON payments_archive (order_id)");
+
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean schemaReady;
+    private volatile LocalDateTime horizon;                        // Newest timestamp in the archive, null = empty
+
+    @Autowired
+    public OrderArchiveService(OrderRepository orderRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)                     // Archive tables exist before anything reads them
+    public void prepare() {
+        ensureSchema();
+    }
+
+    public int archiveCompletedBefore(LocalDateTime cutoff) {       // Orders completed before the cutoff, returns how many were moved
+        ensureSchema();
+        int archived = 0;
+
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> {
+                    List<Long> orderIds = orderRepository.findArchivableOrderIds(cutoff, Limit.of(ARCHIVE_BATCH));
+                    if (!orderIds.isEmpty()) {
+                        moveOrders(orderIds);
+                    }
+                    return orderIds.size();
+                });
+
+                archived += moved;
+                if (moved < ARCHIVE_BATCH) {
+                    return archived;
+                }
+            }
+        } finally {
+            if (archived > 0) {                                     // Even if a later batch failed, the committed ones are in the archive
+                horizon = loadHorizon();
+            }
+        }
+    }
+
+    public boolean reaches(LocalDateTime start) {                   // Does a range starting here need the archive?
+        ensureSchema();
+        LocalDateTime newest = horizon;
+        return newest != null && (start == null || !start.isAfter(newest));
+    }
+
+    public long findHighestModSeq() {                               // Archived rows keep their mod_seq, the sequence must stay above them
+        ensureSchema();
+        Long orders = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(mod_seq), 0) FROM orders_archive", Long.class);
+        Long items = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(mod_seq), 0) FROM order_items_archive", Long.class);
+        return Math.max(orders, items);
+    }
+
+    private void moveOrders(List<Long> orderIds) {
+        String ids = orderIds.stream().map(String::valueOf).collect(Collectors.joining(","));    // Longs from our own query, safe to inline
+        String itemsOfOrders = "SELECT order_item_id FROM order_items WHERE order_id IN (" + ids + ")";
+
+        copy(ORDERS, "order_id IN (" + ids + ")");
+        copy(ORDER_ITEMS, "order_id IN (" + ids + ")");
+        copy(ORDER_ITEM_MODIFIERS, "order_item_id IN (" + itemsOfOrders + ")");
+        copy(PAYMENTS, "order_id IN (" + ids + ")");
+
+        jdbcTemplate.update("DELETE FROM order_item_modifiers WHERE order_item_id IN (" + itemsOfOrders + ")");
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (" + ids + ")");
+        jdbcTemplate.update("DELETE FROM payments WHERE order_id IN (" + ids + ")");
+        jdbcTemplate.update("DELETE FROM orders WHERE order_id IN (" + ids + ")");
+    }
+
+    private void copy(String table, String where) {
+        String columns = columnsOf(table).stream().map(Column::name).collect(Collectors.joining(", "));
+        jdbcTemplate.update("INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns
+                + " FROM " + table + " WHERE " + where);
+    }
+
+    private synchronized void ensureSchema() {                      // Create / widen the archive tables to match the hot ones
+        if (schemaReady) {
+            return;
+        }
+
+        for (String table : ARCHIVED_TABLES) {
+            List<Column> hotColumns = columnsOf(table);
+            Set<String> archiveColumns = columnsOf(table + "_archive").stream()
+                    .map(Column::name)
+                    .collect(Collectors.toSet());
+
+            if (archiveColumns.isEmpty()) {
+                jdbcTemplate.execute(createArchiveTable(table, hotColumns));
+                continue;
+            }
+            for (Column column : hotColumns) {
+                if (!archiveColumns.contains(column.name())) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + "_archive ADD COLUMN " + column.name() + " " + column.type());
+                }
+            }
+        }
+        ARCHIVE_INDEXES.forEach(jdbcTemplate::execute);
+
+        horizon = loadHorizon();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {        // DDL rolls back with the caller's transaction, only trust it once committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schemaReady = true;
+                }
+            });
+            return;
+        }
+        schemaReady = true;
+    }
+
+    private static String createArchiveTable(String table, List<Column> columns) {    // Same columns and types, no NOT NULLs - rows were valid when they were hot
+        List<String> definitions = new ArrayList<>();
+        for (Column column : columns) {
+            definitions.add(column.name() + " " + column.type());
+        }
+        definitions.add("primary key (" + columns.stream().filter(Column::primaryKey).map(Column::name)
+                .collect(Collectors.joining(", ")) + ")");
+        return "CREATE TABLE " + table + "_archive (" + String.join(", ", definitions) + ")";
+    }
+
+    private List<Column> columnsOf(String table) {                  // In column order, empty if the table doesn't exist
+        return jdbcTemplate.query("PRAGMA table_info(" + table + ")", (row, rowNum) ->
+                new Column(row.getString("name"), row.getString("type"), row.getInt("pk") > 0));
+    }
+
+    private record Column(String name, String type, boolean primaryKey) {}
+
+    private LocalDateTime loadHorizon() {                           // Payments can land after an order was created, so check both
+        List<Timestamp> newest = new ArrayList<>();
+        newest.add(jdbcTemplate.queryForObject("SELECT MAX(completed_at) FROM orders_archive", Timestamp.class));
+        newest.add(jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM orders_archive", Timestamp.class));
+        newest.add(jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM payments_archive", Timestamp.class));
+        newest.removeIf(timestamp -> timestamp == null);
+
+        return newest.isEmpty() ? null : Collections.max(newest).toLocalDateTime();
+    }
+}
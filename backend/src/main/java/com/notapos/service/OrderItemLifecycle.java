@@ -0,0 +1,45 @@
+package com.notapos.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allowed status transitions for an OrderItem.
+ * 
+ * draft -> limbo -> pending -> fired -> completed
+ * "Send now" skips the timer: draft/limbo -> pending.
+ * 
+ * Every transition is applied as a conditional UPDATE keyed on the expected
+ * current status, so two requests racing on the same item can't both win.
+ * 
+ * @author CJ
+ */
+
+public final class OrderItemLifecycle {
+
+    public static final String DRAFT = "draft";
+    public static final String LIMBO = "limbo";
+    public static final String PENDING = "pending";
+    public static final String FIRED = "fired";
+    public static final String COMPLETED = "completed";
+
+    private static final Map<String, Set<String>> NEXT = Map.of(
+            DRAFT, Set.of(LIMBO, PENDING),
+            LIMBO, Set.of(PENDING),
+            PENDING, Set.of(FIRED),
+            FIRED, Set.of(COMPLETED),
+            COMPLETED, Set.of()
+    );
+
+    private OrderItemLifecycle() {}
+
+    public static boolean canTransition(String from, String to) {
+        return NEXT.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    public static void requireTransition(Long orderItemId, String from, String to) {
+        if (!canTransition(from, to)) {
+            throw new IllegalStateException("Cannot move order item " + orderItemId + " from " + from + " to " + to);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.notapos.service;
 
+import com.notapos.entity.OrderItem;
 import com.notapos.entity.OrderItemModifier;
 import com.notapos.repository.OrderItemModifierRepository;
+import com.notapos.repository.OrderItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +15,10 @@ import java.util.Optional;
  * Service layer for OrderItemModifier operations.
  * 
  * Contains business logic for managing order item modifiers.
+ * Selections are checked against the ModifierValidator compiled into the
+ * current MenuCatalog (allowed modifiers, max selections, required groups).
+ * Price adjustments come from the catalog too, and every change moves the
+ * order's running totals (OrderPricingService) in the same transaction.
  * 
  * @author CJ
  */
@@ -18,10 +26,18 @@ import java.util.Optional;
 @Service
 public class OrderItemModifierService {
     private final OrderItemModifierRepository orderItemModifierRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final MenuCatalogService menuCatalogService;
+    private final OrderPricingService orderPricingService;
 
     @Autowired
-    public OrderItemModifierService(OrderItemModifierRepository orderItemModifierRepository) {
+    public OrderItemModifierService(OrderItemModifierRepository orderItemModifierRepository,
+                                    OrderItemRepository orderItemRepository, MenuCatalogService menuCatalogService,
+                                    OrderPricingService orderPricingService) {
         this.orderItemModifierRepository = orderItemModifierRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.menuCatalogService = menuCatalogService;
+        this.orderPricingService = orderPricingService;
     }
 
     public List<OrderItemModifier> getAllOrderItemModifiers() {                                     // Get all order item modifiers
@@ -40,11 +56,75 @@ public class OrderItemModifierService {
         return orderItemModifierRepository.findByModifierId(modifierId);
     }
 
-    public OrderItemModifier createOrderItemModifier(OrderItemModifier orderItemModifier) {         // Create a new order item modifier
-        return orderItemModifierRepository.save(orderItemModifier);
+    @Transactional
+    public OrderItemModifier createOrderItemModifier(OrderItemModifier orderItemModifier) {         // Add one modifier (must be offered, group not full)
+        OrderItem orderItem = findOrderItem(orderItemModifier.getOrderItemId());
+
+        List<Long> selected = new ArrayList<>();
+        for (OrderItemModifier existing : orderItemModifierRepository.findByOrderItemId(orderItem.getOrderItemId())) {
+            selected.add(existing.getModifierId());
+        }
+        selected.add(orderItemModifier.getModifierId());
+
+        requireValid(menuCatalogService.current().getModifierValidator()
+                .validatePartial(orderItem.getMenuItemId(), selected));
+
+        orderItemModifier.setPriceAdjustment(orderPricingService.modifierPrice(orderItemModifier.getModifierId()));    // Price at time of order
+        OrderItemModifier saved = orderItemModifierRepository.save(orderItemModifier);
+        orderPricingService.modifiersChanged(orderItem, PricingEngine.toCents(saved.getPriceAdjustment()));
+        return saved;
+    }
+
+    @Transactional
+    public List<OrderItemModifier> replaceModifiers(Long orderItemId, List<Long> modifierIds) {    // Set an item's whole selection (all rules incl. required groups)
+        OrderItem orderItem = findOrderItem(orderItemId);
+        requireValid(menuCatalogService.current().getModifierValidator()
+                .validate(orderItem.getMenuItemId(), modifierIds));
+
+        List<OrderItemModifier> selection = new ArrayList<>(modifierIds.size());
+        for (Long modifierId : modifierIds) {
+            OrderItemModifier chosen = new OrderItemModifier();
+            chosen.setOrderItemId(orderItemId);
+            chosen.setModifierId(modifierId);
+            chosen.setPriceAdjustment(orderPricingService.modifierPrice(modifierId));        // Price at time of order
+            selection.add(chosen);
+        }
+
+        long previousCents = adjustmentCents(orderItemModifierRepository.findByOrderItemId(orderItemId));
+        orderItemModifierRepository.deleteByOrderItemId(orderItemId);
+        List<OrderItemModifier> saved = orderItemModifierRepository.saveAll(selection);
+        orderPricingService.modifiersChanged(orderItem, adjustmentCents(saved) - previousCents);
+        return saved;
     }
 
+    @Transactional
     public void deleteOrderItemModifier(Long id) {                                                  // Delete an order item modifier
+        Optional<OrderItemModifier> existing = orderItemModifierRepository.findById(id);
         orderItemModifierRepository.deleteById(id);
+        existing.ifPresent(modifier -> orderItemRepository.findById(modifier.getOrderItemId())
+                .ifPresent(orderItem -> orderPricingService.modifiersChanged(orderItem,
+                        -PricingEngine.toCents(modifier.getPriceAdjustment()))));
+    }
+
+    private OrderItem findOrderItem(Long orderItemId) {
+        if (orderItemId == null) {
+            throw new IllegalArgumentException("Order item id is required");
+        }
+        return orderItemRepository.findById(orderItemId)
+                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + orderItemId));
+    }
+
+    private static long adjustmentCents(List<OrderItemModifier> modifiers) {
+        long cents = 0;
+        for (OrderItemModifier modifier : modifiers) {
+            cents += PricingEngine.toCents(modifier.getPriceAdjustment());
+        }
+        return cents;
+    }
+
+    private static void requireValid(List<String> problems) {
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
     }
 }
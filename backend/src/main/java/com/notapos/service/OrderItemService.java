@@ -1,10 +1,22 @@
 package com.notapos.service;
 
+import com.notapos.dto.ChangeFeed;
+import com.notapos.entity.ChangeTombstone;
 import com.notapos.entity.OrderItem;
+import com.notapos.events.OrderItemChangedEvent;
+import com.notapos.metrics.DelayTimerMetrics;
+import com.notapos.repository.ChangeTombstoneRepository;
 import com.notapos.repository.OrderItemRepository;
+import com.notapos.scheduled.DelayTimerWheel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,18 +24,56 @@ import java.util.Optional;
  * Service layer for OrderItem operations.
  * 
  * Contains all business logic for the 15-second delay timer feature.
+ * Items in limbo are registered in the DelayTimerWheel, which tells the
+ * scheduler exactly when each one needs to be locked.
+ * 
+ * Status changes follow OrderItemLifecycle and are applied as conditional
+ * updates, edits are guarded by the @Version column - no lost updates when
+ * "send now", the timer and an edit race each other.
+ * 
+ * Every write is stamped by the ModificationSequence (mod_seq) and deletes
+ * leave a tombstone, which is what the /changes feed reads.
+ * 
+ * Prices come from OrderPricingService: the menu price is stamped on create
+ * (whatever the client sent is ignored) and every create, edit and delete
+ * moves the order's running totals in the same transaction.
+ * 
+ * Items of open orders are written through to the OpenOrderCache, so the
+ * order screen and the active orders board read them from memory.
  * 
  * @author CJ
  */
 
 @Service
 public class OrderItemService {
+
+    private static final int MAX_ATTEMPTS = 3;                  // Bounded retry for compare-and-set transitions
     
     private final OrderItemRepository orderItemRepository;
+    private final DelayTimerWheel delayTimerWheel;
+    private final DelayTimerMetrics delayTimerMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ModificationSequence modificationSequence;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+    private final OrderPricingService orderPricingService;
+    private final TransactionTemplate transactionTemplate;
+    private final OpenOrderCache openOrderCache;
 
     @Autowired
-    public OrderItemService(OrderItemRepository orderItemRepository) {
+    public OrderItemService(OrderItemRepository orderItemRepository, DelayTimerWheel delayTimerWheel,
+                            DelayTimerMetrics delayTimerMetrics, ApplicationEventPublisher eventPublisher,
+                            ModificationSequence modificationSequence, ChangeTombstoneRepository changeTombstoneRepository,
+                            OrderPricingService orderPricingService, PlatformTransactionManager transactionManager,
+                            OpenOrderCache openOrderCache) {
         this.orderItemRepository = orderItemRepository;
+        this.delayTimerWheel = delayTimerWheel;
+        this.delayTimerMetrics = delayTimerMetrics;
+        this.eventPublisher = eventPublisher;
+        this.modificationSequence = modificationSequence;
+        this.changeTombstoneRepository = changeTombstoneRepository;
+        this.orderPricingService = orderPricingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.openOrderCache = openOrderCache;
     }
 
     public List<OrderItem> getAllOrderItems() {                 // Get all order items
@@ -34,10 +84,23 @@ public class OrderItemService {
         return orderItemRepository.findById(id);
     }
 
-    public List<OrderItem> getItemsByOrder(Long orderId) {      // Get all items for a specific order
+    public List<OrderItem> getItemsByOrder(Long orderId) {      // Get all items for a specific order (open orders from memory)
+        if (openOrderCache.isLoaded()) {
+            Optional<List<OrderItem>> cached = openOrderCache.getItemsOfOpenOrder(orderId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
         return orderItemRepository.findByOrderId(orderId);
     }
 
+    public List<OrderItem> getItemsOfOpenOrders() {             // Every item on an open check (active orders board)
+        if (openOrderCache.isLoaded()) {
+            return openOrderCache.getItemsOfOpenOrders();
+        }
+        return orderItemRepository.findItemsOfOpenOrders();
+    }
+
     public List<OrderItem> getDraftItemsByOrder(Long orderId) {                 // Get draft items for an order (not sent yet)
         return orderItemRepository.findByOrderIdAndStatus(orderId, "draft");
     }
@@ -54,102 +117,234 @@ public class OrderItemService {
         return orderItemRepository.findByStatus(status);
     }
 
+    public ChangeFeed<OrderItem> getChangesSince(long since) {          // Items written / deleted after the caller's cursor
+        long cursor = modificationSequence.cursor();                    // Read first - anything newer waits for the next poll
+
+        if (since >= cursor) {
+            return new ChangeFeed<>(cursor, List.of(), List.of());
+        }
+
+        return new ChangeFeed<>(cursor,
+                orderItemRepository.findChangedBetween(since, cursor),
+                changeTombstoneRepository.findDeletedIdsBetween(ChangeTombstone.ORDER_ITEM, since, cursor));
+    }
+
+    @Transactional
     public OrderItem createOrderItem(OrderItem orderItem) {             // Create a new order item (add item to order, starts as draft, no timer)
         orderItem.setStatus("draft");
         orderItem.setIsLocked(false);
+        orderItem.setPrice(orderPricingService.menuItemPrice(orderItem.getMenuItemId()));     // Menu price at time of order, never the client's
+
+        OrderItem created = modificationSequence.stamp(modSeq -> {
+            orderItem.setModSeq(modSeq);
+            return orderItemRepository.save(orderItem);
+        });
+        orderPricingService.itemAdded(created);                         // Order totals move in the same transaction
+        publish(OrderItemChangedEvent.CREATED, created);
+        return created;
+    }
 
-        return orderItemRepository.save(orderItem);
+    public OrderItem updateOrderItem(Long id, OrderItem updatedItem) {          // Update order item (only if not locked, @Version guards against lost updates)
+        for (int attempt = 1; ; attempt++) {
+            try {
+                OrderItem saved = transactionTemplate.execute(status -> applyUpdate(id, updatedItem));     // Item and order totals commit together
+
+                if (saved.getDelayExpiresAt() != null) {
+                    delayTimerWheel.schedule(saved.getOrderItemId(), saved.getDelayExpiresAt());
+                }
+                publish(OrderItemChangedEvent.UPDATED, saved);
+                return saved;
+            } catch (ObjectOptimisticLockingFailureException e) {                   // Timer/send-now got there first - re-read and try again
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Order item " + id + " is changing too fast, please retry.", e);
+                }
+            }
+        }
     }
 
-    public OrderItem updateOrderItem(Long id, OrderItem updatedItem) {          // Update order item (only if not locked)
-        OrderItem existing = orderItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
+    private OrderItem applyUpdate(Long id, OrderItem updatedItem) {             // One attempt, run inside its own transaction
+        OrderItem existing = findOrThrow(id);
 
         if (existing.getIsLocked()) {
             throw new RuntimeException("Cannot update locked item. Item has been sent to kitchen.");
         }
+        if (updatedItem.getVersion() != null && !updatedItem.getVersion().equals(existing.getVersion())) {     // Client edited a stale copy
+            throw new IllegalStateException("Order item " + id + " was changed by someone else. Reload and try again.");
+        }
 
+        int previousQuantity = existing.getQuantity() != null ? existing.getQuantity() : 0;
         existing.setQuantity(updatedItem.getQuantity());
-        existing.setPrice(updatedItem.getPrice());
         existing.setSpecialInstructions(updatedItem.getSpecialInstructions());
 
-        if (existing.getStatus().equals("pending")) {
+        if (existing.getDelayExpiresAt() != null) {                             // Editing an item in limbo restarts its timer
             existing.setDelayExpiresAt(LocalDateTime.now().plusSeconds(existing.getDelaySeconds()));
         }
 
-        return orderItemRepository.save(existing);
+        OrderItem saved = modificationSequence.stamp(modSeq -> {
+            existing.setModSeq(modSeq);
+            return orderItemRepository.save(existing);
+        });
+        orderPricingService.itemResized(saved, previousQuantity);
+        return saved;
     }
 
+    @Transactional
     public List<OrderItem> sendItemsForOrder(Long orderId) {                                            // Send items to kitchen/bar (STARTS THE TIMER WHEN SERVER HITS SEND)
         List<OrderItem> draftItems = orderItemRepository.findByOrderIdAndStatus(orderId, "draft");
 
         LocalDateTime now = LocalDateTime.now();
 
         for (OrderItem item : draftItems) {
+            OrderItemLifecycle.requireTransition(item.getOrderItemId(), item.getStatus(), OrderItemLifecycle.LIMBO);
             item.setStatus("limbo");
             item.setDelayExpiresAt(now.plusSeconds(item.getDelaySeconds()));
             item.setSentAt(now);
-            orderItemRepository.save(item);
         }
 
-        return draftItems;
+        List<OrderItem> sentItems = modificationSequence.stamp(modSeq -> {
+            draftItems.forEach(item -> item.setModSeq(modSeq));
+            return orderItemRepository.saveAll(draftItems);                                 // Flushed as one JDBC batch on commit
+        });
+        for (OrderItem item : sentItems) {
+            delayTimerWheel.schedule(item.getOrderItemId(), item.getDelayExpiresAt());
+            publish(OrderItemChangedEvent.SENT, item);
+        }
+
+        return sentItems;
     }
 
-    public List<OrderItem> lockAndSendExpiredItems() {                                  // Lock and fire all items whos delay has expired
-        List<OrderItem> expiredItems = orderItemRepository.findExpiredUnlockedItems(
-                LocalDateTime.now(),
-                false
-        );
+    @Transactional
+    public List<OrderItem> sendOrderNow(Long orderId) {                                 // Send every draft/limbo item on an order now (bypass timer)
+        List<OrderItem> sentItems = modificationSequence.stamp(
+                modSeq -> orderItemRepository.sendOrderNow(orderId, LocalDateTime.now(), modSeq));
 
-        LocalDateTime now = LocalDateTime.now();
+        for (OrderItem item : sentItems) {
+            delayTimerWheel.cancel(item.getOrderItemId());
+            publish(OrderItemChangedEvent.LOCKED, item);
+        }
+
+        return sentItems;
+    }
+
+    @Transactional
+    public List<OrderItem> lockAndSendExpiredItems() {                                  // Lock and send all items whose delay has expired (one set-based UPDATE)
+        long started = System.nanoTime();
+        List<Long> lockedIds = modificationSequence.stamp(
+                modSeq -> orderItemRepository.lockExpiredLimboItems(LocalDateTime.now(), modSeq));
 
-        for (OrderItem item : expiredItems) {
-            item.setIsLocked(true);
-            item.setStatus("pending");
-            orderItemRepository.save(item);
+        return loadLockedItems(lockedIds, System.nanoTime() - started);
+    }
+
+    @Transactional
+    public List<OrderItem> lockExpiredItems(Collection<Long> ids) {                     // Lock specific items the timer wheel says have expired
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        return expiredItems;
+        long started = System.nanoTime();
+        List<Long> lockedIds = modificationSequence.stamp(                                  // Items sent now or deleted since they were scheduled are skipped
+                modSeq -> orderItemRepository.lockExpiredLimboItems(ids, LocalDateTime.now(), modSeq));
+
+        return loadLockedItems(lockedIds, System.nanoTime() - started);
     }
 
-    public OrderItem sendItemNow(Long id) {                             // Send order now (Bypass timer)
-        OrderItem item = orderItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
+    private List<OrderItem> loadLockedItems(List<Long> lockedIds, long lockStatementNanos) {
+        LocalDateTime lockedAt = LocalDateTime.now();
+
+        if (lockedIds.isEmpty()) {
+            delayTimerMetrics.recordLockTick(List.of(), lockedAt, lockStatementNanos, 0);
+            return List.of();
+        }
+
+        for (Long id : lockedIds) {
+            delayTimerWheel.cancel(id);
+        }
+
+        long started = System.nanoTime();
+        List<OrderItem> lockedItems = orderItemRepository.findAllById(lockedIds);
+
+        delayTimerMetrics.recordLockTick(lockedItems, lockedAt, lockStatementNanos, System.nanoTime() - started);
 
-        item.setIsLocked(true);
-        item.setStatus("pending");
+        for (OrderItem item : lockedItems) {
+            publish(OrderItemChangedEvent.LOCKED, item);
+        }
+        return lockedItems;
+    }
 
-        return orderItemRepository.save(item);
+    public OrderItem sendItemNow(Long id) {                             // Send order now (Bypass timer - draft/limbo ---> pending)
+        OrderItem sent = transition(id, OrderItemLifecycle.PENDING,
+                (current, modSeq) -> orderItemRepository.compareAndSendNow(id, current.getStatus(), LocalDateTime.now(), modSeq));
+
+        delayTimerWheel.cancel(id);
+        publish(OrderItemChangedEvent.LOCKED, sent);
+        return sent;
     }
 
     public OrderItem startItem(Long id) {                                       // Start item (kitchen function - Pending ---> Fired)
-        OrderItem item = orderItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
-        
-                item.setStatus("fired");
-                item.setFiredAt(LocalDateTime.now());
+        OrderItem started = transition(id, OrderItemLifecycle.FIRED,
+                (current, modSeq) -> orderItemRepository.compareAndFire(id, LocalDateTime.now(), modSeq));
 
-                return orderItemRepository.save(item);
+        publish(OrderItemChangedEvent.FIRED, started);
+        return started;
     }
 
-    public OrderItem completeItem(Long id) {                            // Mark item as completed
-        OrderItem item = orderItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
-
-        item.setStatus("completed");
-        item.setCompletedAt(LocalDateTime.now());
+    public OrderItem completeItem(Long id) {                            // Mark item as completed (Fired ---> Completed)
+        OrderItem completed = transition(id, OrderItemLifecycle.COMPLETED,
+                (current, modSeq) -> orderItemRepository.compareAndComplete(id, LocalDateTime.now(), modSeq));
 
-        return orderItemRepository.save(item);
+        publish(OrderItemChangedEvent.COMPLETED, completed);
+        return completed;
     }
 
+    @Transactional
     public void deleteOrderItem(Long id) {                              // Delete an order item (only if not locked)
-        OrderItem item = orderItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
+        OrderItem item = findOrThrow(id);
 
         if (item.getIsLocked()) {
             throw new RuntimeException("Cannot delete locked item. Item has been sent to kitchen.");
         }
 
-        orderItemRepository.deleteById(id);
+        modificationSequence.stamp(modSeq -> {
+            if (orderItemRepository.deleteIfUnlocked(id) == 0) {                    // Locked in between
+                throw new RuntimeException("Cannot delete locked item. Item has been sent to kitchen.");
+            }
+            return changeTombstoneRepository.save(new ChangeTombstone(ChangeTombstone.ORDER_ITEM, id, modSeq));
+        });
+
+        delayTimerWheel.cancel(id);
+        orderPricingService.itemRemoved(item);
+        publish(OrderItemChangedEvent.DELETED, item);
+    }
+
+    private OrderItem transition(Long id, String targetStatus, CompareAndSet compareAndSet) {      // Conditional UPDATE keyed on the status we just read, bounded retry
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            OrderItem current = findOrThrow(id);
+            OrderItemLifecycle.requireTransition(id, current.getStatus(), targetStatus);
+
+            if (modificationSequence.stamp(modSeq -> compareAndSet.apply(current, modSeq)) == 1) {
+                return findOrThrow(id);
+            }
+        }
+
+        throw new IllegalStateException("Order item " + id + " is changing too fast, please retry.");
+    }
+
+    @FunctionalInterface
+    private interface CompareAndSet {
+        int apply(OrderItem current, long modSeq);                  // Rows updated (0 = someone else moved it first)
+    }
+
+    private void publish(String type, OrderItem item) {                    // Written through to the cache and streamed to screens once the change commits
+        switch (type) {
+            case OrderItemChangedEvent.CREATED -> openOrderCache.itemCreated(item);
+            case OrderItemChangedEvent.DELETED -> openOrderCache.itemDeleted(item);
+            default -> openOrderCache.itemWritten(item);
+        }
+        eventPublisher.publishEvent(OrderItemChangedEvent.of(type, item));
+    }
+
+    private OrderItem findOrThrow(Long id) {
+        return orderItemRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Order item not found with id: " + id));
     }
 }
@@ -0,0 +1,166 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.repository.OrderItemModifierRepository;
+import com.notapos.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side pricing for orders.
+ *
+ * The client no longer decides what anything costs: an item's unit price and
+ * a modifier's price adjustment are copied from the MenuCatalog when they're
+ * added (price at time of order).
+ *
+ * Order totals are running totals. Every item or modifier change hands its
+ * effect on the subtotal (a delta in cents) to the order inside the caller's
+ * transaction, so reading a check never re-sums its items. priceOrder() is
+ * the full recompute - used by PUT /api/orders/{id}/totals and by the
+ * reconciliation job to prove the running totals haven't drifted.
+ *
+ * The tax rate is notapos.pricing.tax-rate (a fraction, default 0.03).
+ *
+ * @author CJ
+ */
+
+@Service
+public class OrderPricingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPricingService.class);
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderItemModifierRepository orderItemModifierRepository;
+    private final MenuCatalogService menuCatalogService;
+    private final OrderService orderService;
+    private final long taxRatePpm;
+
+    @Autowired
+    public OrderPricingService(OrderItemRepository orderItemRepository,
+                               OrderItemModifierRepository orderItemModifierRepository,
+                               MenuCatalogService menuCatalogService, OrderService orderService,
+                               @Value("${notapos.pricing.tax-rate:0.03}") BigDecimal taxRate) {      // Defaults to the 3% the order screen shows
+        this.orderItemRepository = orderItemRepository;
+        this.orderItemModifierRepository = orderItemModifierRepository;
+        this.menuCatalogService = menuCatalogService;
+        this.orderService = orderService;
+        this.taxRatePpm = PricingEngine.toPpm(taxRate);
+    }
+
+    public BigDecimal menuItemPrice(Long menuItemId) {                          // Current menu price for a new order item
+        return menuCatalogService.current().getMenuItem(menuItemId)
+                .map(MenuItem::getPrice)
+                .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + menuItemId));
+    }
+
+    public BigDecimal modifierPrice(Long modifierId) {                          // Current adjustment for a new order item modifier
+        return menuCatalogService.current().getModifier(modifierId)
+                .map(Modifier::getPriceAdjustment)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    // ----- Running totals (call inside the transaction that made the change) -----
+
+    public void itemAdded(OrderItem item) {                                     // New items have no modifiers yet
+        applyDelta(item.getOrderId(), PricingEngine.lineCents(PricingEngine.toCents(item.getPrice()), 0, quantity(item)));
+    }
+
+    public void itemResized(OrderItem item, int previousQuantity) {             // Quantity edit: (unit + modifiers) x the difference
+        int difference = quantity(item) - previousQuantity;
+        if (difference != 0) {
+            applyDelta(item.getOrderId(), PricingEngine.lineCents(
+                    PricingEngine.toCents(item.getPrice()), modifierCents(item.getOrderItemId()), difference));
+        }
+    }
+
+    public void itemRemoved(OrderItem item) {                                   // Takes its modifiers with it
+        applyDelta(item.getOrderId(), -PricingEngine.lineCents(
+                PricingEngine.toCents(item.getPrice()), modifierCents(item.getOrderItemId()), quantity(item)));
+    }
+
+    public void modifiersChanged(OrderItem item, long adjustmentDeltaCents) {   // Per-unit adjustment delta x quantity
+        applyDelta(item.getOrderId(), PricingEngine.lineCents(0, adjustmentDeltaCents, quantity(item)));
+    }
+
+    // ----- Full recompute -----
+
+    public PricingEngine.Totals priceOrder(Long orderId) {                      // Two queries: the items, then all their modifiers
+        List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
+        int count = items.size();
+
+        long[] unitCents = new long[count];
+        long[] modifierCents = new long[count];
+        int[] quantities = new int[count];
+        Map<Long, Integer> slotByItem = new HashMap<>(count * 2);
+
+        for (int i = 0; i < count; i++) {
+            OrderItem item = items.get(i);
+            unitCents[i] = PricingEngine.toCents(item.getPrice());
+            quantities[i] = quantity(item);
+            slotByItem.put(item.getOrderItemId(), i);
+        }
+
+        if (count > 0) {
+            for (OrderItemModifier modifier : orderItemModifierRepository.findByOrderItemIdIn(slotByItem.keySet())) {
+                Integer slot = slotByItem.get(modifier.getOrderItemId());
+                if (slot != null) {
+                    modifierCents[slot] += PricingEngine.toCents(modifier.getPriceAdjustment());
+                }
+            }
+        }
+        return PricingEngine.price(unitCents, modifierCents, quantities, count, taxRatePpm);
+    }
+
+    public Order repriceOrder(Long orderId) {                                   // Recompute and store subtotal/tax/total
+        return orderService.applyTotals(orderId, priceOrder(orderId));
+    }
+
+    @Transactional
+    public boolean reconcileOrder(Long orderId) {                               // Running totals vs a full recompute, repaired if they differ
+        Order order = orderService.getOrderById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        PricingEngine.Totals expected = priceOrder(orderId);
+
+        if (PricingEngine.toCents(order.getSubtotal()) == expected.subtotalCents()
+                && PricingEngine.toCents(order.getTax()) == expected.taxCents()
+                && PricingEngine.toCents(order.getTotal()) == expected.totalCents()) {
+            return false;
+        }
+
+        log.warn("Order {} totals drifted: stored {}/{}/{}, recomputed {}/{}/{}", orderId,
+                order.getSubtotal(), order.getTax(), order.getTotal(),
+                expected.subtotal(), expected.tax(), expected.total());
+        orderService.applyTotals(orderId, expected);
+        return true;
+    }
+
+    private void applyDelta(Long orderId, long deltaCents) {
+        if (deltaCents != 0) {
+            orderService.applySubtotalDelta(orderId, deltaCents, taxRatePpm);
+        }
+    }
+
+    private long modifierCents(Long orderItemId) {                              // Sum of one item's per-unit adjustments
+        long cents = 0;
+        for (OrderItemModifier modifier : orderItemModifierRepository.findByOrderItemId(orderItemId)) {
+            cents += PricingEngine.toCents(modifier.getPriceAdjustment());
+        }
+        return cents;
+    }
+
+    private static int quantity(OrderItem item) {
+        return item.getQuantity() != null ? item.getQuantity() : 0;
+    }
+}
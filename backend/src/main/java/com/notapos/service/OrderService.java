@@ -1,20 +1,34 @@
 package com.notapos.service;
 
+import com.notapos.analytics.OrderItemAnalytics;
+import com.notapos.dto.ChangeFeed;
+import com.notapos.entity.ChangeTombstone;
 import com.notapos.entity.Order;
+import com.notapos.repository.ChangeTombstoneRepository;
 import com.notapos.repository.OrderRepository;
+import com.notapos.repository.TableRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.math.RoundingMode;
 
 /**
  * Service layer for Order operations.
  * 
  * Orders represent the entire check/tab for a table.
  * They stay open throughout the meal - OrderItems handle the delay timer.
+ * Writes are stamped with the ModificationSequence for the /changes feed.
+ * Open orders are also written through to the OpenOrderCache, which answers
+ * the open-order reads without touching the database.
+ * Long-completed orders are moved to history tables by OrderArchiveService;
+ * getOrdersBetween() reads both when the range reaches back that far.
+ * Closing a check adds it to the sales rollups in the same transaction, and
+ * to the item analytics once it has committed.
+ * A new order records its table's server and section, so reports keep
+ * crediting the right server after the floor is reassigned.
  * 
  * @author CJ
  */
@@ -23,10 +37,32 @@ import java.math.RoundingMode;
 public class OrderService {
     
     private final OrderRepository orderRepository;
+    private final ChangeCounter changes = new ChangeCounter("orders");
+    private final ModificationSequence modificationSequence;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+    private final OpenOrderCache openOrderCache;
+    private final OrderArchiveService orderArchiveService;
+    private final SalesRollupService salesRollupService;
+    private final TableRepository tableRepository;
+    private final OrderItemAnalytics orderItemAnalytics;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, ModificationSequence modificationSequence,
+                        ChangeTombstoneRepository changeTombstoneRepository, OpenOrderCache openOrderCache,
+                        OrderArchiveService orderArchiveService, SalesRollupService salesRollupService,
+                        TableRepository tableRepository, OrderItemAnalytics orderItemAnalytics) {
         this.orderRepository = orderRepository;
+        this.modificationSequence = modificationSequence;
+        this.changeTombstoneRepository = changeTombstoneRepository;
+        this.openOrderCache = openOrderCache;
+        this.orderArchiveService = orderArchiveService;
+        this.salesRollupService = salesRollupService;
+        this.tableRepository = tableRepository;
+        this.orderItemAnalytics = orderItemAnalytics;
+    }
+
+    public String getOrdersETag() {                     // Changes whenever any order is written
+        return changes.etag();
     }
 
     public List<Order> getAllOrders() {                 // Get all orders
@@ -41,52 +77,129 @@ public class OrderService {
         return orderRepository.findByTableId(tableId);
     }
 
-    public List<Order> getOpenOrdersByTable(Long tableId) {                 // Get open orders for a table
+    public List<Order> getOpenOrdersByTable(Long tableId) {                 // Get open orders for a table (from memory once the cache is loaded)
+        if (openOrderCache.isLoaded()) {
+            return openOrderCache.getOpenOrdersByTable(tableId);
+        }
         return orderRepository.findByTableIdAndStatus(tableId, "open");
     }
 
-    public List<Order> getOrdersByStatus(String status) {           // Get orders by status
+    public List<Order> getOrdersByStatus(String status) {           // Get orders by status ("open" from memory once the cache is loaded)
+        if ("open".equals(status) && openOrderCache.isLoaded()) {
+            return openOrderCache.getOpenOrders();
+        }
         return orderRepository.findByStatus(status);
     }
 
+    public ChangeFeed<Order> getChangesSince(long since) {          // Orders written / deleted after the caller's cursor
+        long cursor = modificationSequence.cursor();                // Read first - anything newer waits for the next poll
+
+        if (since >= cursor) {
+            return new ChangeFeed<>(cursor, List.of(), List.of());
+        }
+
+        return new ChangeFeed<>(cursor,
+                orderRepository.findChangedBetween(since, cursor),
+                changeTombstoneRepository.findDeletedIdsBetween(ChangeTombstone.ORDER, since, cursor));
+    }
+
     public Order createOrder(Order order) {                 // create new order
         order.setStatus("open");
-        return orderRepository.save(order);
+        if (order.getServerName() == null && order.getTableId() != null) {      // Who's serving it, as of now
+            tableRepository.findById(order.getTableId()).ifPresent(table -> {
+                order.setServerName(table.getServerName());
+                order.setSection(table.getSection());
+            });
+        }
+
+        Order created = save(order);
+        openOrderCache.orderCreated(created);
+        return created;
     }
 
-    public Order updateOrderTotals(Long id, BigDecimal subtotal, BigDecimal taxRate) {          // Update order totals as we add items
+    public Order applyTotals(Long id, PricingEngine.Totals totals) {             // Store totals computed by OrderPricingService
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id)); 
 
-        BigDecimal tax = subtotal.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal total = subtotal.add(tax);
+        order.setSubtotal(totals.subtotal());
+        order.setTax(totals.tax());
+        order.setTotal(totals.total());
 
-        order.setSubtotal(subtotal);
-        order.setTax(tax);
-        order.setTotal(total);
+        return save(order);
+    }
 
-        return orderRepository.save(order);
+    public Order applySubtotalDelta(Long id, long deltaCents, long taxRatePpm) {     // Running totals: shift the subtotal, re-derive tax and total
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+
+        long subtotal = Math.addExact(PricingEngine.toCents(order.getSubtotal()), deltaCents);
+        PricingEngine.Totals totals = PricingEngine.totals(subtotal, taxRatePpm);
+
+        order.setSubtotal(totals.subtotal());
+        order.setTax(totals.tax());
+        order.setTotal(totals.total());
+
+        return save(order);
     }
 
+    @Transactional
     public Order completeOrder(Long id) {                                       // Complete (close out) an order
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        boolean alreadyCompleted = "completed".equals(order.getStatus());
         
         order.setStatus("completed");
         order.setCompletedAt(LocalDateTime.now());
 
-        return orderRepository.save(order);
+        Order saved = save(order);
+        if (!alreadyCompleted) {                                                // A check counts once, however often it's closed
+            salesRollupService.orderCompleted(saved);
+            orderItemAnalytics.orderCompleted(saved.getOrderId());
+        }
+        return saved;
+    }
+
+    @Transactional
+    public List<Order> getOrdersBetween(LocalDateTime start, LocalDateTime end) {       // get all orders in a certain time frame (hot + archive, one snapshot)
+        List<Order> orders = orderRepository.findOrdersBetween(start, end);
+
+        if (orderArchiveService.reaches(start)) {
+            List<Order> archived = new ArrayList<>(orderRepository.findArchivedOrdersBetween(start, end));
+            archived.addAll(orders);
+            return archived;
+        }
+        return orders;
     }
 
-    public List<Order> getOrdersBetween(LocalDateTime start, LocalDateTime end) {       // get all orders in a certain time frame
-        return orderRepository.findOrdersBetween(start, end);
+    public int archiveCompletedOrders(LocalDateTime completedBefore) {      // Move old completed orders to the history tables
+        int archived = orderArchiveService.archiveCompletedBefore(completedBefore);
+        if (archived > 0) {
+            changes.bump();                                     // They drop out of GET /api/orders
+        }
+        return archived;
     }
 
+    @Transactional
     public void deleteOrder(Long id) {                          // delete an order
-        orderRepository.deleteById(id);
+        modificationSequence.stamp(modSeq -> {
+            orderRepository.deleteById(id);
+            return changeTombstoneRepository.save(new ChangeTombstone(ChangeTombstone.ORDER, id, modSeq));
+        });
+        changes.bump();
+        openOrderCache.orderDeleted(id);
     }
 
     public List<Order> getOrdersByTableId(Long tableId) {
         return orderRepository.findByTableId(tableId);
     }
+
+    private Order save(Order order) {                           // Every write: stamp the change feed sequence, bump the ETag, write through
+        Order saved = modificationSequence.stamp(modSeq -> {
+            order.setModSeq(modSeq);
+            return orderRepository.save(order);
+        });
+        changes.bump();
+        openOrderCache.orderWritten(saved);                     // Completed orders are evicted
+        return saved;
+    }
 }
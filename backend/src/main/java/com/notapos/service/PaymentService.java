@@ -3,28 +3,71 @@ package com.notapos.service;
 import com.notapos.entity.Payment;
 import com.notapos.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Service layer for Payment operations.
  * 
  * Handles payment processing, tips, and split checks.
+ * Payments of archived orders live in payments_archive; the reporting reads
+ * include it when the range reaches back that far (OrderArchiveService).
+ * Every write also updates the sales rollups (SalesRollupService) in the
+ * same transaction, so the Financials totals never drift from the payments.
+ * Edits and deletes also drop the payment's hour from the per-server report
+ * cache (ServerSalesReportService).
+ *
+ * A terminal retrying a POST sends the same Idempotency-Key, and gets the
+ * payment its first attempt created instead of a second charge. Keys are
+ * honored for IDEMPOTENCY_WINDOW_HOURS; replays are answered from a small
+ * LRU of recent keys, then from the unique-indexed column. Editing or
+ * deleting a payment drops its key from the LRU, so a replay never answers
+ * with the row as it was before.
  * 
  * @author CJ
  */
 
 @Service
 public class PaymentService {
+
+    public static final int IDEMPOTENCY_WINDOW_HOURS = 24;
+    static final int RECENT_KEYS = 512;
     
     private final PaymentRepository paymentRepository; 
+    private final OrderArchiveService orderArchiveService;
+    private final SalesRollupService salesRollupService;
+    private final ServerSalesReportService serverSalesReportService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Payment> recentKeys = new LinkedHashMap<>(64, 0.75f, true) {     // LRU, guarded by itself
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Payment> eldest) {
+            return size() > RECENT_KEYS;
+        }
+    };
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderArchiveService orderArchiveService,
+                          SalesRollupService salesRollupService, ServerSalesReportService serverSalesReportService,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.salesRollupService = salesRollupService;
+        this.serverSalesReportService = serverSalesReportService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<Payment> getAllPayments() {                         // Get all payments
@@ -47,31 +90,138 @@ public class PaymentService {
         return paymentRepository.findByStatus(status);
     }
 
-    public List<Payment> getPaymentsBetween(LocalDateTime start, LocalDateTime end) {           // Get payments between certain times
-        return paymentRepository.findPaymentsBetween(start, end);
+    @Transactional
+    public List<Payment> getPaymentsBetween(LocalDateTime start, LocalDateTime end) {           // Get payments between certain times (hot + archive, one snapshot)
+        List<Payment> payments = paymentRepository.findPaymentsBetween(start, end);
+
+        if (orderArchiveService.reaches(start)) {
+            List<Payment> archived = new ArrayList<>(paymentRepository.findArchivedPaymentsBetween(start, end));
+            archived.addAll(payments);
+            return archived;
+        }
+        return payments;
     }
 
+    @Transactional
     public BigDecimal calculateTotalTips(LocalDateTime start, LocalDateTime end) {              // Get total tips between certain times
-        BigDecimal total = paymentRepository.calculateTotalTips(start, end);
-        return total != null ? total : BigDecimal.ZERO;
+        BigDecimal total = orZero(paymentRepository.calculateTotalTips(start, end));
+
+        if (orderArchiveService.reaches(start)) {
+            total = total.add(orZero(paymentRepository.calculateArchivedTips(start, end)));
+        }
+        return total;
     }
 
+    @Transactional
     public Payment createPayment(Payment payment) {                                         // Create new payment
-        return paymentRepository.save(payment);
+        return insert(payment);
     }
 
+    public Payment createPayment(Payment payment, String idempotencyKey) {                  // Create new payment, or replay the one this key already created
+        Optional<Payment> original = findByIdempotencyKey(idempotencyKey);
+        if (original.isPresent()) {
+            return replay(original.get(), payment, idempotencyKey);
+        }
+
+        payment.setIdempotencyKey(idempotencyKey);
+        try {
+            Payment created = transactionTemplate.execute(status -> insert(payment));      // Own transaction, so a lost race below is a clean rollback
+            remember(created);
+            return created;
+        } catch (DataAccessException e) {                   // Same key committed by a concurrent retry - it wins (SQLite's dialect reports the unique index as a generic JpaSystemException)
+            Payment winner = findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+            return replay(winner, payment, idempotencyKey);
+        }
+    }
+
+    public int expireIdempotencyKeys() {                                                    // Free keys older than the window (IdempotencyKeyCleanupTask)
+        return paymentRepository.clearIdempotencyKeysBefore(LocalDateTime.now().minusHours(IDEMPOTENCY_WINDOW_HOURS));
+    }
+
+    @Transactional
     public Payment updatePayment(Long id, Payment updatedPayment) {                                     // Update existing payment
         Payment existing = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
+        SalesRollupService.PaymentTotals before = SalesRollupService.PaymentTotals.of(existing);      // Rollups take the difference
 
         existing.setAmount(updatedPayment.getAmount());
         existing.setTipAmount(updatedPayment.getTipAmount());
         existing.setStatus(updatedPayment.getStatus());
 
-        return paymentRepository.save(existing);
+        Payment saved = paymentRepository.save(existing);
+        salesRollupService.paymentChanged(saved, before);
+        serverSalesReportService.paymentWritten(saved.getCreatedAt());
+        forget(saved);
+        return saved;
     }
 
+    @Transactional
     public void deletePayment(Long id) {                                                        // Delete existing payment
+        Optional<Payment> existing = paymentRepository.findById(id);
         paymentRepository.deleteById(id);
+        existing.ifPresent(payment -> {
+            salesRollupService.paymentRemoved(payment);
+            serverSalesReportService.paymentWritten(payment.getCreatedAt());
+            forget(payment);
+        });
+    }
+
+    private Payment insert(Payment payment) {
+        Payment saved = paymentRepository.save(payment);
+        salesRollupService.paymentChanged(saved, SalesRollupService.PaymentTotals.NONE);
+        return saved;
+    }
+
+    private Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        LocalDateTime since = LocalDateTime.now().minusHours(IDEMPOTENCY_WINDOW_HOURS);
+
+        synchronized (recentKeys) {
+            Payment recent = recentKeys.get(idempotencyKey);
+            if (recent != null && recent.getCreatedAt().isAfter(since)) {
+                return Optional.of(recent);
+            }
+        }
+
+        Optional<Payment> stored = paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(idempotencyKey, since);
+        stored.ifPresent(this::remember);
+        return stored;
+    }
+
+    private void remember(Payment payment) {
+        synchronized (recentKeys) {
+            recentKeys.put(payment.getIdempotencyKey(), payment);
+        }
+    }
+
+    private void forget(Payment payment) {                                                  // An edited or deleted payment is re-read on the next replay
+        String idempotencyKey = payment.getIdempotencyKey();
+        if (idempotencyKey == null) {
+            return;
+        }
+        synchronized (recentKeys) {
+            recentKeys.remove(idempotencyKey);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {                  // A replay before commit may have cached the old row again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (recentKeys) {
+                        recentKeys.remove(idempotencyKey);
+                    }
+                }
+            });
+        }
+    }
+
+    private static Payment replay(Payment original, Payment retry, String idempotencyKey) {     // A key reused for a different check is a client bug, not a retry
+        if (!Objects.equals(original.getOrderId(), retry.getOrderId())
+                || PricingEngine.toCents(original.getAmount()) != PricingEngine.toCents(retry.getAmount())) {
+            throw new IllegalStateException("Idempotency key already used for a different payment: " + idempotencyKey);
+        }
+        return original;
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
     }
 }
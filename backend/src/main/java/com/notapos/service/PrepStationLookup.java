@@ -0,0 +1,58 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * menuItemId -> prepStationId lookup.
+ *
+ * Order items only carry a menuItemId, but metrics and the kitchen streams
+ * need to know which station an item goes to. Answered from the current
+ * MenuCatalog, which MenuItemService refreshes on every menu item write, so
+ * there's no cache of its own to keep in step.
+ *
+ * @author CJ
+ */
+
+@Component
+public class PrepStationLookup {
+
+    public static final Long UNASSIGNED_STATION = 0L;
+
+    private final MenuCatalogService menuCatalogService;
+
+    @Autowired
+    public PrepStationLookup(MenuCatalogService menuCatalogService) {
+        this.menuCatalogService = menuCatalogService;
+    }
+
+    public Long stationFor(Long menuItemId) {                       // Prep station for one menu item (UNASSIGNED_STATION if none)
+        if (menuItemId == null) {
+            return UNASSIGNED_STATION;
+        }
+        return stationIn(menuCatalogService.current(), menuItemId);
+    }
+
+    public Map<Long, Long> stationsFor(Collection<OrderItem> items) {          // Every item's menu item, read from one catalog version
+        MenuCatalog catalog = menuCatalogService.current();
+        Map<Long, Long> stations = new HashMap<>();
+
+        for (OrderItem item : items) {
+            if (item.getMenuItemId() != null) {
+                stations.computeIfAbsent(item.getMenuItemId(), menuItemId -> stationIn(catalog, menuItemId));
+            }
+        }
+        return stations;
+    }
+
+    private static Long stationIn(MenuCatalog catalog, Long menuItemId) {
+        return catalog.getMenuItem(menuItemId)
+                .map(MenuItem::getPrepStationId)
+                .orElse(UNASSIGNED_STATION);
+    }
+}
@@ -0,0 +1,82 @@
+package com.notapos.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order pricing in whole cents.
+ *
+ * Money comes in and goes out as BigDecimal (that's what the entities store),
+ * but everything in between is long cents: line = (unit + modifiers) x qty,
+ * subtotal = sum of lines, tax = subtotal x rate rounded half-up, total =
+ * subtotal + tax. The only object a priced order allocates is its Totals.
+ *
+ * Tax rates are carried as parts per million so rates like 8.875% stay exact.
+ *
+ * @author CJ
+ */
+
+public final class PricingEngine {
+
+    static final long PPM = 1_000_000L;
+
+    public record Totals(long subtotalCents, long taxCents, long totalCents) {
+
+        public BigDecimal subtotal() {
+            return fromCents(subtotalCents);
+        }
+
+        public BigDecimal tax() {
+            return fromCents(taxCents);
+        }
+
+        public BigDecimal total() {
+            return fromCents(totalCents);
+        }
+    }
+
+    private PricingEngine() {}
+
+    public static Totals price(long[] unitCents, long[] modifierCents, int[] quantities, int count, long taxRatePpm) {
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            subtotal = Math.addExact(subtotal, lineCents(unitCents[i], modifierCents[i], quantities[i]));
+        }
+        return totals(subtotal, taxRatePpm);
+    }
+
+    public static Totals totals(long subtotalCents, long taxRatePpm) {                  // Tax and total for a known subtotal
+        long tax = taxCents(subtotalCents, taxRatePpm);
+        return new Totals(subtotalCents, tax, Math.addExact(subtotalCents, tax));
+    }
+
+    public static long lineCents(long unitCents, long modifierCents, int quantity) {     // (unit + modifiers) x qty
+        return Math.multiplyExact(Math.addExact(unitCents, modifierCents), (long) quantity);
+    }
+
+    public static long taxCents(long subtotalCents, long taxRatePpm) {                  // Rounded half-up (away from zero for refunds)
+        if (subtotalCents < 0) {
+            return -taxCents(-subtotalCents, taxRatePpm);
+        }
+        return (Math.multiplyExact(subtotalCents, taxRatePpm) + PPM / 2) / PPM;
+    }
+
+    public static long toCents(BigDecimal amount) {                 // null counts as $0.00
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static BigDecimal toMoney(Object value) {               // Raw JDBC value of a money column or SUM() - String, Long, Double or BigDecimal; null counts as $0.00
+        return fromCents(value == null ? 0L : toCents(new BigDecimal(value.toString())));
+    }
+
+    public static long toPpm(BigDecimal rate) {                     // 0.08 -> 80,000
+        return rate.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
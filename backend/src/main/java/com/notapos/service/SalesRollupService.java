@@ -0,0 +1,177 @@
+package com.notapos.service;
+
+import com.notapos.dto.SalesSummary;
+import com.notapos.entity.Order;
+import com.notapos.entity.Payment;
+import com.notapos.entity.SalesRollup;
+import com.notapos.repository.OrderRepository;
+import com.notapos.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains and reads the sales rollups behind the Financials screen.
+ *
+ * Writes: PaymentService and OrderService report every payment create /
+ * update / delete and every check closed, inside their own transaction, and
+ * the change is added to its 15-minute bucket with one upsert. Updates add
+ * the difference, so a bucket always equals the sum of what's in it.
+ *
+ * Reads: a shift or business day summary folds that range's buckets - at
+ * most 96 per day per method and server, however many payments there were.
+ *
+ * A business day starts at BUSINESS_DAY_START_HOUR, so the 1am close still
+ * belongs to the night before. The server is the one recorded on the order.
+ * Money is summed in integer cents.
+ *
+ * @author CJ
+ */
+
+@Service
+public class SalesRollupService {
+
+    static final int BUCKET_MINUTES = 15;
+    static final int BUSINESS_DAY_START_HOUR = 4;
+
+    private static final String UNASSIGNED = "unassigned";
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+
+    public record PaymentTotals(long salesCents, long tipsCents, int count) {     // What one payment contributes to its bucket
+
+        public static final PaymentTotals NONE = new PaymentTotals(0, 0, 0);
+
+        public static PaymentTotals of(Payment payment) {           // Only completed payments count as sales
+            if (!"completed".equals(payment.getStatus())) {
+                return NONE;
+            }
+            return new PaymentTotals(PricingEngine.toCents(payment.getAmount()), PricingEngine.toCents(payment.getTipAmount()), 1);
+        }
+    }
+
+    @Autowired
+    public SalesRollupService(SalesRollupRepository salesRollupRepository, OrderRepository orderRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    public void paymentChanged(Payment payment, PaymentTotals before) {     // before = NONE for a new payment
+        PaymentTotals after = PaymentTotals.of(payment);
+        long salesDelta = after.salesCents() - before.salesCents();
+        long tipsDelta = after.tipsCents() - before.tipsCents();
+        int countDelta = after.count() - before.count();
+
+        if (salesDelta == 0 && tipsDelta == 0 && countDelta == 0) {
+            return;
+        }
+        add(payment.getCreatedAt(), payment.getPaymentMethod(), serverOf(payment), salesDelta, tipsDelta, countDelta, 0, 0);
+    }
+
+    public void paymentRemoved(Payment payment) {
+        PaymentTotals removed = PaymentTotals.of(payment);
+        if (removed.count() > 0) {
+            add(payment.getCreatedAt(), payment.getPaymentMethod(), serverOf(payment), -removed.salesCents(), -removed.tipsCents(), -1, 0, 0);
+        }
+    }
+
+    public void orderCompleted(Order order) {                       // Once per check, bucketed by when it was closed
+        add(order.getCompletedAt(), SalesRollup.CHECKS, serverOf(order), 0, 0, 0, 1, PricingEngine.toCents(order.getTotal()));
+    }
+
+    public SalesSummary getBusinessDaySummary(LocalDate businessDay) {
+        LocalDateTime from = businessDay.atTime(BUSINESS_DAY_START_HOUR, 0);
+        return summarize(from, from.plusDays(1), salesRollupRepository.findByBusinessDayOrderByBucketStartAsc(businessDay));
+    }
+
+    public SalesSummary getSummary(LocalDateTime from, LocalDateTime to) {      // Rounded out to whole buckets
+        LocalDateTime firstBucket = bucketStart(from);
+        return summarize(firstBucket, to, salesRollupRepository.findBucketsBetween(firstBucket, to));
+    }
+
+    public static LocalDate businessDay(LocalDateTime at) {
+        return at.minusHours(BUSINESS_DAY_START_HOUR).toLocalDate();
+    }
+
+    public static LocalDateTime bucketStart(LocalDateTime at) {
+        LocalDateTime hour = at.truncatedTo(ChronoUnit.HOURS);
+        return hour.plusMinutes(at.getMinute() / BUCKET_MINUTES * BUCKET_MINUTES);
+    }
+
+    private String serverOf(Payment payment) {                          // One lookup by primary key, same transaction
+        if (payment.getOrderId() == null) {
+            return SalesRollup.NO_SERVER;
+        }
+        return orderRepository.findById(payment.getOrderId()).map(SalesRollupService::serverOf).orElse(SalesRollup.NO_SERVER);
+    }
+
+    private static String serverOf(Order order) {
+        return order.getServerName() != null ? order.getServerName() : SalesRollup.NO_SERVER;
+    }
+
+    private void add(LocalDateTime at, String paymentMethod, String serverName, long salesCents, long tipsCents,
+                     int paymentCount, int ordersClosed, long checkTotalCents) {
+        LocalDateTime when = at != null ? at : LocalDateTime.now();
+        salesRollupRepository.add(businessDay(when), bucketStart(when), paymentMethod, serverName,
+                salesCents, tipsCents, paymentCount, ordersClosed, checkTotalCents);
+    }
+
+    private static SalesSummary summarize(LocalDateTime from, LocalDateTime to, List<SalesRollup> rows) {
+        long sales = 0;
+        long tips = 0;
+        int payments = 0;
+        int ordersClosed = 0;
+        long checkTotal = 0;
+        Map<String, Long> byMethod = new TreeMap<>();
+        Map<String, Long> byServer = new TreeMap<>();
+        Map<LocalDateTime, long[]> byInterval = new TreeMap<>();           // sales, tips, orders closed
+
+        for (SalesRollup row : rows) {
+            sales += row.getSalesCents();
+            tips += row.getTipsCents();
+            payments += row.getPaymentCount();
+            ordersClosed += row.getOrdersClosed();
+            checkTotal += row.getCheckTotalCents();
+
+            if (!SalesRollup.CHECKS.equals(row.getPaymentMethod())) {
+                byMethod.merge(row.getPaymentMethod(), row.getSalesCents(), Long::sum);
+                byServer.merge(row.getServerName().isEmpty() ? UNASSIGNED : row.getServerName(), row.getSalesCents(), Long::sum);
+            }
+
+            long[] interval = byInterval.computeIfAbsent(row.getBucketStart(), start -> new long[3]);
+            interval[0] += row.getSalesCents();
+            interval[1] += row.getTipsCents();
+            interval[2] += row.getOrdersClosed();
+        }
+
+        List<SalesSummary.Interval> intervals = new ArrayList<>(byInterval.size());
+        byInterval.forEach((start, totals) -> intervals.add(new SalesSummary.Interval(start,
+                PricingEngine.fromCents(totals[0]), PricingEngine.fromCents(totals[1]), (int) totals[2])));
+
+        BigDecimal averageCheck = ordersClosed > 0
+                ? PricingEngine.fromCents(checkTotal).divide(BigDecimal.valueOf(ordersClosed), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        BigDecimal averageTipPercent = sales > 0
+                ? BigDecimal.valueOf(tips * 100).divide(BigDecimal.valueOf(sales), 1, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+
+        return new SalesSummary(from, to, PricingEngine.fromCents(sales), PricingEngine.fromCents(tips),
+                payments, ordersClosed, averageCheck, averageTipPercent,
+                toMoney(byMethod), toMoney(byServer), intervals);
+    }
+
+    private static Map<String, BigDecimal> toMoney(Map<String, Long> cents) {
+        Map<String, BigDecimal> money = new TreeMap<>();
+        cents.forEach((key, value) -> money.put(key, PricingEngine.fromCents(value)));
+        return money;
+    }
+}
@@ -0,0 +1,173 @@
+package com.notapos.service;
+
+import com.notapos.dto.ServerSales;
+import com.notapos.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tip and sales report per server and section.
+ *
+ * The range is whole hours. An hour that has ended doesn't change, so its
+ * rows are kept - the next report over the same shift only queries the
+ * current hour. Whatever isn't cached is read in ONE GROUP BY server,
+ * section and hour over payments joined to their orders (hot and history
+ * tables together once the archive is reached), and every completed hour
+ * it covers goes into the cache, empty ones included. Editing or deleting
+ * a payment drops its hour from the cache after commit, and hours are only
+ * stored if nothing was dropped while they were being read.
+ *
+ * @author CJ
+ */
+
+@Service
+public class ServerSalesReportService {
+
+    static final int CACHED_HOURS = 24 * 90;                            // About a quarter of closed hours
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final PaymentRepository paymentRepository;
+    private final OrderArchiveService orderArchiveService;
+
+    private final Map<LocalDateTime, List<ServerSales>> completedHours = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDateTime, List<ServerSales>> eldest) {
+            return size() > CACHED_HOURS;
+        }
+    };
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Key(String serverName, String section) {}
+
+    @Autowired
+    public ServerSalesReportService(PaymentRepository paymentRepository, OrderArchiveService orderArchiveService) {
+        this.paymentRepository = paymentRepository;
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    public List<ServerSales> getReport(LocalDateTime from, LocalDateTime to) {     // from and to must be on the hour
+        if (!isWholeHour(from) || !isWholeHour(to)) {
+            throw new IllegalArgumentException("Report range must start and end on the hour");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Key, long[]> totals = new LinkedHashMap<>();               // sales cents, tips cents, payments
+        List<LocalDateTime> uncached = new ArrayList<>();
+
+        for (LocalDateTime hour = from; hour.isBefore(to) && !hour.isAfter(now); hour = hour.plusHours(1)) {
+            List<ServerSales> cached = isCompleted(hour, now) ? cachedHour(hour) : null;
+            if (cached != null) {
+                add(totals, cached);
+            } else {
+                uncached.add(hour);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            queryHours(uncached, now).values().forEach(rows -> add(totals, rows));
+        }
+
+        List<ServerSales> report = new ArrayList<>(totals.size());
+        totals.forEach((key, sum) -> report.add(new ServerSales(key.serverName(), key.section(),
+                PricingEngine.fromCents(sum[0]), PricingEngine.fromCents(sum[1]), sum[2])));
+        report.sort(Comparator.comparing(ServerSales::serverName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(ServerSales::section, Comparator.nullsLast(Comparator.naturalOrder())));
+        return report;
+    }
+
+    public static boolean isWholeHour(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS).equals(time);
+    }
+
+    public void paymentWritten(LocalDateTime createdAt) {              // Called by PaymentService on update / delete
+        if (createdAt == null) {
+            return;
+        }
+        LocalDateTime hour = createdAt.truncatedTo(ChronoUnit.HOURS);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(hour);
+                }
+            });
+            return;
+        }
+        evict(hour);
+    }
+
+    int cachedHours() {
+        synchronized (completedHours) {
+            return completedHours.size();
+        }
+    }
+
+    private static boolean isCompleted(LocalDateTime hour, LocalDateTime now) {
+        return !hour.plusHours(1).isAfter(now);
+    }
+
+    private List<ServerSales> cachedHour(LocalDateTime hour) {
+        synchronized (completedHours) {
+            return completedHours.get(hour);
+        }
+    }
+
+    private Map<LocalDateTime, List<ServerSales>> queryHours(List<LocalDateTime> hours, LocalDateTime now) {     // One statement from the first to the last uncached hour
+        LocalDateTime start = hours.get(0);
+        LocalDateTime end = hours.get(hours.size() - 1).plusHours(1);
+        Map<LocalDateTime, List<ServerSales>> rowsByHour = new LinkedHashMap<>();
+        hours.forEach(hour -> rowsByHour.put(hour, new ArrayList<>()));
+
+        long evictionsBefore = evictions.get();
+        List<Object[]> rows = orderArchiveService.reaches(start)
+                ? paymentRepository.sumWithArchiveByServerSectionAndHour(start, end)
+                : paymentRepository.sumByServerSectionAndHour(start, end);
+
+        long origin = Timestamp.valueOf(start).getTime();               // created_at is stored as epoch millis, bucketed from here
+        for (Object[] row : rows) {
+            LocalDateTime hour = new Timestamp(origin + ((Number) row[2]).longValue() * HOUR_MILLIS).toLocalDateTime();
+            List<ServerSales> hourRows = rowsByHour.get(hour);
+            if (hourRows != null) {                                     // Cached hours in between are already counted
+                hourRows.add(new ServerSales((String) row[0], (String) row[1],
+                        PricingEngine.toMoney(row[3]), PricingEngine.toMoney(row[4]), ((Number) row[5]).longValue()));
+            }
+        }
+        rowsByHour.replaceAll((hour, hourRows) -> List.copyOf(hourRows));
+
+        synchronized (completedHours) {
+            if (evictions.get() == evictionsBefore) {                  // A payment in this range changed meanwhile - don't keep what we read
+                rowsByHour.forEach((hour, hourRows) -> {
+                    if (isCompleted(hour, now)) {
+                        completedHours.put(hour, hourRows);
+                    }
+                });
+            }
+        }
+        return rowsByHour;
+    }
+
+    private static void add(Map<Key, long[]> totals, List<ServerSales> rows) {
+        for (ServerSales row : rows) {
+            long[] sum = totals.computeIfAbsent(new Key(row.serverName(), row.section()), key -> new long[3]);
+            sum[0] += PricingEngine.toCents(row.sales());
+            sum[1] += PricingEngine.toCents(row.tips());
+            sum[2] += row.paymentCount();
+        }
+    }
+
+    private void evict(LocalDateTime hour) {
+        synchronized (completedHours) {
+            evictions.incrementAndGet();
+            completedHours.remove(hour);
+        }
+    }
+}
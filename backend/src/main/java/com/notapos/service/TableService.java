@@ -4,9 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.notapos.entity.RestaurantTable;
+import com.notapos.events.TableChangedEvent;
 import com.notapos.repository.TableRepository;
 
 /**
@@ -14,6 +16,7 @@ import com.notapos.repository.TableRepository;
  * 
  * Contains business logic for managing restaurant tables.
  * Sits between the Controller (REST API) and Repository (database).
+ * Every change is published as a TableChangedEvent for the floor map stream.
  * 
  * @author CJ
  */
@@ -22,10 +25,17 @@ import com.notapos.repository.TableRepository;
 public class TableService {
     
     private final TableRepository tableRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeCounter changes = new ChangeCounter("tables");
 
     @Autowired                                              // Dependency Injection of the TableRepository
-    public TableService(TableRepository tableRepository) {
+    public TableService(TableRepository tableRepository, ApplicationEventPublisher eventPublisher) {
         this.tableRepository = tableRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public String getTablesETag() {                                 // Changes whenever any table is written
+        return changes.etag();
     }
 
     public List<RestaurantTable> getAllTables() {                   // Get all tables in the restaurant
@@ -49,7 +59,10 @@ public class TableService {
     }
 
     public RestaurantTable createTable(RestaurantTable table) {             // Create new table
-        return tableRepository.save(table);
+        RestaurantTable created = tableRepository.save(table);
+        changes.bump();
+        eventPublisher.publishEvent(TableChangedEvent.of(created));
+        return created;
     }
 
     public RestaurantTable updateTableStatus(Long tableId, String newStatus) {          // Log status changes for tables
@@ -57,11 +70,16 @@ public class TableService {
                 .orElseThrow(() -> new RuntimeException("Table not found with id: " + tableId));
 
         table.setStatus(newStatus);
-        return tableRepository.save(table);
+        RestaurantTable saved = tableRepository.save(table);
+        changes.bump();
+        eventPublisher.publishEvent(TableChangedEvent.of(saved));
+        return saved;
     }
 
     public void deleteTable(Long id) {                  // Delete table (not recommended, use is_active flag instead)
         tableRepository.deleteById(id);
+        changes.bump();
+        eventPublisher.publishEvent(TableChangedEvent.deleted(id));
     }
 
     public RestaurantTable updateTable(Long id, RestaurantTable tableUpdate) {
@@ -71,6 +89,9 @@ public class TableService {
         if (tableUpdate.getStatus() != null) {
             table.setStatus(tableUpdate.getStatus());
         }
-        return tableRepository.save(table);
+        RestaurantTable saved = tableRepository.save(table);
+        changes.bump();
+        eventPublisher.publishEvent(TableChangedEvent.of(saved));
+        return saved;
     }
 }
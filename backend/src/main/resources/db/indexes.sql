@@ -0,0 +1,28 @@
+-- ============================================================================
+-- Nota-POS managed indexes
+--
+-- Runs after Hibernate has created/updated the tables
+-- (spring.jpa.defer-datasource-initialization=true), so it only has to hold
+-- the indexes JPA's @Index can't express. Every statement must be idempotent.
+-- ============================================================================
+
+-- Delay timer: partial index on UNLOCKED rows only. Locked history never
+-- enters the index, so the expiry sweep stays tiny no matter how many
+-- months of order_items pile up.
+CREATE INDEX IF NOT EXISTS idx_order_items_unlocked_expiry
+    ON order_items (delay_expires_at)
+    WHERE is_locked = 0;
+
+-- Sales rollups: one row per (15-minute bucket, payment method, server).
+-- SalesRollupRepository.add() upserts with ON CONFLICT on exactly these
+-- columns, which SQLite only accepts against a unique index. The SQLite
+-- dialect doesn't emit @UniqueConstraint, so it lives here.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_sales_rollups_bucket
+    ON sales_rollups (bucket_start, payment_method, server_name);
+
+-- Payments: Idempotency-Key replay lookup and duplicate guard. Partial, so
+-- the index only holds the keys still inside the replay window - older ones
+-- are cleared by IdempotencyKeyCleanupTask.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_payments_idempotency_key
+    ON payments (idempotency_key)
+    WHERE idempotency_key IS NOT NULL;
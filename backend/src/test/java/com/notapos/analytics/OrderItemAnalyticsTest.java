@@ -0,0 +1,216 @@
+package com.notapos.analytics;
+
+import com.notapos.dto.ItemMixRow;
+import com.notapos.dto.ModifierAttachRate;
+import com.notapos.dto.StationTicketTime;
+import com.notapos.service.OrderArchiveService;
+import com.notapos.service.PricingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderItemAnalytics.
+ *
+ * Rows are appended straight into the column store, so these cover the
+ * scans - filters, group-bys and the chunk merge - without a database.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class OrderItemAnalyticsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    private OrderItemAnalytics analytics;
+
+    private final LocalDateTime night = LocalDateTime.of(2025, 6, 14, 18, 0);
+
+    @BeforeEach
+    void setUp() {
+        analytics = new OrderItemAnalytics(jdbcTemplate, orderArchiveService);
+    }
+
+    private void item(long orderId, long menuItemId, String category, Long station, String status, int quantity,
+                      String price, int modifiers, String modifierTotal, LocalDateTime createdAt, int ticketSeconds) {
+        LocalDateTime firedAt = createdAt.plusMinutes(1);
+        analytics.append(new OrderItemColumns.Row(orderId, menuItemId, category, station, status, quantity,
+                new BigDecimal(price).movePointRight(2).longValueExact(), modifiers,
+                new BigDecimal(modifierTotal).movePointRight(2).longValueExact(), createdAt, firedAt,
+                firedAt.plusSeconds(ticketSeconds), createdAt.plusHours(1)));
+    }
+
+    @Test
+    void testItemMix_ShouldGroupByHourAndMenuItem() {
+        // WHAT: Test item mix groups quantity and sales by hour of day x menu item
+        // WHY: "What sells at 6pm vs 9pm" is the question behind the menu layout
+
+        // Given - Two burgers at 18:xx on different days, one at 21:xx, one draft
+        item(1, 10, "Entrees", 1L, "completed", 2, "15.00", 1, "1.50", night, 300);
+        item(2, 10, "Entrees", 1L, "completed", 1, "15.00", 0, "0", night.plusDays(1).plusMinutes(20), 300);
+        item(3, 10, "Entrees", 1L, "completed", 1, "15.00", 0, "0", night.plusHours(3), 300);
+        item(3, 20, "Drinks", 2L, "draft", 5, "4.00", 0, "0", night.plusHours(3), 60);
+
+        // When
+        List<ItemMixRow> mix = analytics.itemMix(OrderItemAnalytics.Filter.ALL);
+
+        // Then - Modifiers count toward sales, the draft never left the table
+        assertEquals(List.of(
+                new ItemMixRow(18, 10L, 3, new BigDecimal("48.00")),
+                new ItemMixRow(21, 10L, 1, new BigDecimal("15.00"))), mix);
+    }
+
+    @Test
+    void testTicketTimes_ShouldAveragePerStation() {
+        // WHAT: Test ticket time = fired -> completed, per prep station
+        // WHY: Which station is slowing the line down
+
+        // Given
+        item(1, 10, "Entrees", 1L, "completed", 1, "15.00", 0, "0", night, 300);
+        item(1, 11, "Entrees", 1L, "completed", 1, "12.00", 0, "0", night, 600);
+        item(1, 20, "Drinks", 2L, "completed", 1, "4.00", 0, "0", night, 60);
+        item(1, 30, "Retail", null, "completed", 1, "9.00", 0, "0", night, 10);
+
+        // When
+        List<StationTicketTime> times = analytics.ticketTimes(OrderItemAnalytics.Filter.ALL);
+
+        // Then - No-station items come last
+        assertEquals(List.of(
+                new StationTicketTime(1L, 2, 450.0, 600),
+                new StationTicketTime(2L, 1, 60.0, 60),
+                new StationTicketTime(null, 1, 10.0, 10)), times);
+    }
+
+    @Test
+    void testModifierAttach_ShouldReportRatePerCategory() {
+        // WHAT: Test attach rate = items with a modifier / items
+        // WHY: Upsell tracking ("add bacon") per category
+
+        // Given
+        item(1, 10, "Entrees", 1L, "completed", 1, "15.00", 2, "3.00", night, 300);
+        item(1, 11, "Entrees", 1L, "completed", 1, "12.00", 0, "0", night, 300);
+        item(2, 10, "Entrees", 1L, "completed", 1, "15.00", 1, "1.50", night, 300);
+        item(2, 11, "Entrees", 1L, "completed", 1, "12.00", 0, "0", night, 300);
+        item(2, 20, "Drinks", 2L, "completed", 1, "4.00", 0, "0", night, 60);
+
+        // When
+        List<ModifierAttachRate> rates = analytics.modifierAttach(OrderItemAnalytics.Filter.ALL);
+
+        // Then
+        assertEquals(List.of(
+                new ModifierAttachRate("Drinks", 1, 0, 0, 0.0, 0.0),
+                new ModifierAttachRate("Entrees", 4, 2, 3, 0.5, 0.75)), rates);
+    }
+
+    @Test
+    void testFilter_ShouldNarrowByRangeCategoryAndStation() {
+        // WHAT: Test the close-time range, category and station filters
+        // WHY: Same questions for last Friday, or just the bar
+
+        // Given - Checks close an hour after the item was ordered
+        item(1, 10, "Entrees", 1L, "completed", 1, "15.00", 0, "0", night, 300);
+        item(2, 10, "Entrees", 1L, "completed", 1, "15.00", 0, "0", night.plusDays(1), 300);
+        item(2, 20, "Drinks", 2L, "completed", 3, "4.00", 0, "0", night.plusDays(1), 60);
+
+        // When / Then - Second night only
+        OrderItemAnalytics.Filter secondNight = new OrderItemAnalytics.Filter(night.plusHours(12), night.plusDays(2), null, null);
+        assertEquals(List.of(
+                new ItemMixRow(18, 20L, 3, new BigDecimal("12.00")),
+                new ItemMixRow(18, 10L, 1, new BigDecimal("15.00"))), analytics.itemMix(secondNight));
+
+        // When / Then - One category, one station
+        assertEquals(List.of(new ItemMixRow(18, 20L, 3, new BigDecimal("12.00"))),
+                analytics.itemMix(new OrderItemAnalytics.Filter(null, null, "Drinks", null)));
+        assertEquals(2, analytics.ticketTimes(new OrderItemAnalytics.Filter(null, null, null, 1L)).get(0).items());
+
+        // When / Then - A category that was never sold matches nothing
+        assertTrue(analytics.itemMix(new OrderItemAnalytics.Filter(null, null, "Desserts", null)).isEmpty());
+    }
+
+    @Test
+    void testScan_ShouldMergeChunks() {
+        // WHAT: Test a scan spanning several parallel chunks
+        // WHY: Each chunk aggregates on its own - the merged totals must match a single pass
+
+        // Given - Three and a half chunks of one-item checks, every 10th with a modifier
+        int rows = OrderItemAnalytics.CHUNK_ROWS * 7 / 2;
+        for (int i = 0; i < rows; i++) {
+            item(i + 1, 10 + i % 3, "Entrees", 1L, "completed", 1, "10.00", i % 10 == 0 ? 1 : 0,
+                    i % 10 == 0 ? "1.00" : "0", night.plusMinutes(i % 60), 100 + i % 200);
+        }
+
+        // When
+        List<ItemMixRow> mix = analytics.itemMix(OrderItemAnalytics.Filter.ALL);
+        ModifierAttachRate rate = analytics.modifierAttach(OrderItemAnalytics.Filter.ALL).get(0);
+        StationTicketTime time = analytics.ticketTimes(OrderItemAnalytics.Filter.ALL).get(0);
+
+        // Then
+        assertEquals(rows, mix.stream().mapToLong(ItemMixRow::quantity).sum());
+        long withModifier = (rows + 9) / 10;
+        assertEquals(PricingEngine.fromCents(rows * 1000L + withModifier * 100),
+                mix.stream().map(ItemMixRow::sales).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertEquals(rows, rate.items());
+        assertEquals(withModifier, rate.itemsWithModifiers());
+        assertEquals(rows, time.items());
+        assertEquals(299, time.maxSeconds());
+    }
+
+    @Test
+    void testOrderCompleted_DuringLoad_ShouldAppendOnceAfterLoad() {
+        // WHAT: Test a check closed while the startup load is running
+        // WHY: It's appended after the load, and not twice if the load already had it
+
+        // Given - The load sees order 1; order 2 closes meanwhile
+        doAnswer(invocation -> {
+            analytics.orderCompleted(1L);
+            analytics.orderCompleted(2L);
+            analytics.append(new OrderItemColumns.Row(1L, 10L, "Entrees", 1L, "completed", 1, 1500, 0, 0,
+                    night, null, null, night.plusHours(1)));
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<OrderItemColumns.Row>>any(), eq(2L), eq(2L))).thenReturn(List.of(
+                new OrderItemColumns.Row(2L, 20L, "Drinks", 2L, "completed", 2, 400, 0, 0, night, null, null, night.plusHours(1))));
+
+        // When
+        analytics.load();
+
+        // Then - Only order 2 was queried, once
+        assertTrue(analytics.isLoaded());
+        assertEquals(2, analytics.modifierAttach(OrderItemAnalytics.Filter.ALL).size());
+        verify(jdbcTemplate, times(1)).query(anyString(), ArgumentMatchers.<RowMapper<OrderItemColumns.Row>>any(), any(Object[].class));
+    }
+
+    @Test
+    void testOrderCompleted_AfterLoad_ShouldIgnoreKnownCheck() {
+        // WHAT: Test closing an order that's already in the store
+        // WHY: completeOrder only reports the first close, but a reload may have raced it
+
+        // Given
+        analytics.load();
+        analytics.append(new OrderItemColumns.Row(1L, 10L, "Entrees", 1L, "completed", 1, 1500, 0, 0,
+                night, null, null, night.plusHours(1)));
+
+        // When
+        analytics.orderCompleted(1L);
+
+        // Then
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<OrderItemColumns.Row>>any(), any(Object[].class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.notapos.benchmark;
+
+import com.notapos.service.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the long-cents PricingEngine and the BigDecimal math
+ * OrderService.updateOrderTotals used to do.
+ *
+ * Not picked up by mvn test. Run it with:
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.notapos.benchmark.PricingBenchmark
+ *
+ * @author CJ
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.03");
+    private static final long TAX_RATE_PPM = PricingEngine.toPpm(TAX_RATE);
+
+    @Param({"4", "40"})                                             // A two-top vs a big party
+    private int items;
+
+    private BigDecimal[] prices;
+    private BigDecimal[] adjustments;
+    private long[] unitCents;
+    private long[] modifierCents;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[items];
+        adjustments = new BigDecimal[items];
+        unitCents = new long[items];
+        modifierCents = new long[items];
+        quantities = new int[items];
+
+        for (int i = 0; i < items; i++) {
+            prices[i] = BigDecimal.valueOf(500 + random.nextInt(2500), 2);
+            adjustments[i] = BigDecimal.valueOf(random.nextInt(4) * 100L, 2);
+            unitCents[i] = PricingEngine.toCents(prices[i]);
+            modifierCents[i] = PricingEngine.toCents(adjustments[i]);
+            quantities[i] = 1 + random.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {                   // The old path, end to end in BigDecimal
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            subtotal = subtotal.add(prices[i].add(adjustments[i]).multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+        blackhole.consume(subtotal.add(tax));
+    }
+
+    @Benchmark
+    public PricingEngine.Totals cents() {                           // Engine on cents already in hand
+        return PricingEngine.price(unitCents, modifierCents, quantities, items, TAX_RATE_PPM);
+    }
+
+    @Benchmark
+    public PricingEngine.Totals centsFromEntities() {               // What OrderPricingService does: convert stored prices, then price
+        long[] units = new long[items];
+        long[] modifiers = new long[items];
+        for (int i = 0; i < items; i++) {
+            units[i] = PricingEngine.toCents(prices[i]);
+            modifiers[i] = PricingEngine.toCents(adjustments[i]);
+        }
+        return PricingEngine.price(units, modifiers, quantities, items, TAX_RATE_PPM);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
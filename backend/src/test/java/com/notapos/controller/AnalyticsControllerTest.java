@@ -0,0 +1,97 @@
+package com.notapos.controller;
+
+import com.notapos.analytics.OrderItemAnalytics;
+import com.notapos.dto.ItemMixRow;
+import com.notapos.dto.ModifierAttachRate;
+import com.notapos.dto.StationTicketTime;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for AnalyticsController.
+ *
+ * Tests the item mix, ticket time and modifier attach endpoints.
+ * Uses MockMvc to simulate HTTP requests without starting full server.
+ *
+ * @author CJ
+ */
+
+@WebMvcTest(AnalyticsController.class)
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderItemAnalytics orderItemAnalytics;
+
+    @Test
+    void testGetItemMix_ShouldPassFiltersThrough() throws Exception {
+        // WHAT: Test GET /api/analytics/item-mix?from=...&to=...&category=...
+        // WHY: Menu mix for one category over one week
+
+        LocalDateTime from = LocalDateTime.of(2025, 6, 9, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 6, 16, 0, 0);
+        when(orderItemAnalytics.itemMix(new OrderItemAnalytics.Filter(from, to, "Entrees", null)))
+                .thenReturn(List.of(new ItemMixRow(18, 10L, 42, new BigDecimal("630.00"))));
+
+        mockMvc.perform(get("/api/analytics/item-mix")
+                        .param("from", "2025-06-09T00:00:00")
+                        .param("to", "2025-06-16T00:00:00")
+                        .param("category", "Entrees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].hour").value(18))
+                .andExpect(jsonPath("$[0].quantity").value(42))
+                .andExpect(jsonPath("$[0].sales").value(630.00));
+    }
+
+    @Test
+    void testGetTicketTimes_WithoutFilters_ShouldCoverAllHistory() throws Exception {
+        // WHAT: Test GET /api/analytics/ticket-times
+        // WHY: No filters = every completed check on record
+
+        when(orderItemAnalytics.ticketTimes(OrderItemAnalytics.Filter.ALL))
+                .thenReturn(List.of(new StationTicketTime(1L, 120, 312.5, 900)));
+
+        mockMvc.perform(get("/api/analytics/ticket-times"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].prepStationId").value(1))
+                .andExpect(jsonPath("$[0].averageSeconds").value(312.5));
+    }
+
+    @Test
+    void testGetModifierAttach_ShouldFilterByStation() throws Exception {
+        // WHAT: Test GET /api/analytics/modifier-attach?station=2
+        // WHY: Attach rate for what one station makes
+
+        when(orderItemAnalytics.modifierAttach(new OrderItemAnalytics.Filter(null, null, null, 2L)))
+                .thenReturn(List.of(new ModifierAttachRate("Drinks", 40, 10, 12, 0.25, 0.3)));
+
+        mockMvc.perform(get("/api/analytics/modifier-attach").param("station", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Drinks"))
+                .andExpect(jsonPath("$[0].attachRate").value(0.25));
+    }
+
+    @Test
+    void testGetItemMix_WhenRangeBackwards_ShouldReturnBadRequest() throws Exception {
+        // WHAT: Test a range that ends before it starts
+        // WHY: Nothing sensible to report
+
+        mockMvc.perform(get("/api/analytics/item-mix")
+                        .param("from", "2025-06-16T00:00:00")
+                        .param("to", "2025-06-09T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderItemAnalytics);
+    }
+}
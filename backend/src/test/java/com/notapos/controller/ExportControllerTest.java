@@ -0,0 +1,96 @@
+package com.notapos.controller;
+
+import com.notapos.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for ExportController.
+ *
+ * Tests the streaming export endpoints (async dispatch, content types).
+ * Uses MockMvc to simulate HTTP requests without starting full server.
+ *
+ * @author CJ
+ */
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    private final LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2025, 12, 31, 23, 59);
+
+    @Test
+    void testExportPayments_ShouldStreamCsv() throws Exception {
+        // WHAT: Test GET /api/exports/payments
+        // WHY: Year-end export for the accountant
+
+        when(exportService.exportPayments(eq(from), eq(to), eq(ExportService.Format.CSV), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(3, OutputStream.class).write("paymentId\n1\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/exports/payments")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-12-31T23:59:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"payments.csv\""))
+                .andExpect(content().string("paymentId\n1\n"));
+    }
+
+    @Test
+    void testExportOrders_Ndjson_ShouldUseNdjsonContentType() throws Exception {
+        // WHAT: Test GET /api/exports/orders?format=ndjson
+        // WHY: Loaders that want one JSON object per line
+
+        MvcResult result = mockMvc.perform(get("/api/exports/orders")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-12-31T23:59:00")
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"));
+
+        verify(exportService).exportOrders(eq(from), eq(to), eq(ExportService.Format.NDJSON), any(OutputStream.class));
+    }
+
+    @Test
+    void testExportPayments_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        // WHAT: Test an unsupported format
+        // WHY: Fail before streaming starts, not halfway through
+
+        mockMvc.perform(get("/api/exports/payments")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-12-31T23:59:00")
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+}
@@ -0,0 +1,100 @@
+package com.notapos.controller;
+
+import com.notapos.service.MenuBundleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for MenuController.
+ *
+ * Tests the menu version endpoint and the cached, gzipped menu bundle.
+ * Uses MockMvc to simulate HTTP requests without starting full server.
+ *
+ * @author CJ
+ */
+
+@WebMvcTest(MenuController.class)
+class MenuControllerTest {
+
+    private static final String JSON = "{\"version\":7,\"items\":[]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MenuBundleService menuBundleService;
+
+    @Test
+    void testGetMenuVersion_ShouldReturnVersionAndBundleUrl() throws Exception {
+        // WHAT: Test GET /api/menu/version
+        // WHY: Terminals poll this to know when to refetch the menu
+
+        when(menuBundleService.getVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/menu/version"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.version").value(7))
+                .andExpect(jsonPath("$.bundleUrl").value("/api/menu/bundle/7"));
+    }
+
+    @Test
+    void testGetMenuBundle_WithGzip_ShouldServeCompressedBytesWithLongCache() throws Exception {
+        // WHAT: Test GET /api/menu/bundle/{version} for a gzip client
+        // WHY: The bundle is stored compressed and never changes, browsers can keep it
+
+        byte[] gzipped = gzip(JSON);
+        when(menuBundleService.getBundle()).thenReturn(new MenuBundleService.CompressedBundle(7L, gzipped));
+
+        mockMvc.perform(get("/api/menu/bundle/7").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")))
+                .andExpect(content().bytes(gzipped));
+    }
+
+    @Test
+    void testGetMenuBundle_WithoutGzip_ShouldServePlainJson() throws Exception {
+        // WHAT: Test the bundle for a client that can't take gzip
+        // WHY: Still has to work, just without the compression
+
+        when(menuBundleService.getBundle()).thenReturn(new MenuBundleService.CompressedBundle(7L, gzip(JSON)));
+
+        mockMvc.perform(get("/api/menu/bundle/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.version").value(7));
+    }
+
+    @Test
+    void testGetMenuBundle_WhenVersionIsStale_ShouldRedirectToCurrent() throws Exception {
+        // WHAT: Test asking for an old bundle version
+        // WHY: Old URLs must never be answered with new content under a year-long cache
+
+        when(menuBundleService.getBundle()).thenReturn(new MenuBundleService.CompressedBundle(7L, gzip(JSON)));
+
+        mockMvc.perform(get("/api/menu/bundle/6"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/menu/bundle/7"));
+    }
+
+    private static byte[] gzip(String json) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
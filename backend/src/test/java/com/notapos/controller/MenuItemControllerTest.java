@@ -2,6 +2,7 @@ package com.notapos.controller;
 
 import com.notapos.entity.MenuItem;
 import com.notapos.service.MenuItemService;
+import com.notapos.service.MenuSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,9 @@ class MenuItemControllerTest {
     @MockBean
     private MenuItemService menuItemService;
 
+    @MockBean
+    private MenuSearchService menuSearchService;
+
     private MenuItem testItem;
 
     @BeforeEach
@@ -270,4 +274,34 @@ class MenuItemControllerTest {
 
         verify(menuItemService).deleteMenuItem(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMenuItemsByPrepStation_WhenETagMatches_ShouldReturn304WithoutQuery() throws Exception {
+        // WHAT: Test GET /api/menu-items/prep-station/{id} with If-None-Match
+        // WHY: The menu barely changes during service
+        
+        // Given
+        when(menuItemService.getMenuItemsETag()).thenReturn("\"menu-items-x-1\"");
+
+        // When/Then
+        mockMvc.perform(get("/api/menu-items/prep-station/1").header("If-None-Match", "\"menu-items-x-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(menuItemService, never()).getMenuItemsByPrepStation(any());
+    }
+
+    @Test
+    void testSearchMenuItems_ShouldReturnMatches() throws Exception {
+        // WHAT: Test GET /api/menu-items/search?q=
+        // WHY: Servers type a few letters instead of scrolling the menu
+        
+        when(menuSearchService.search("chick", null)).thenReturn(List.of(testItem));
+
+        mockMvc.perform(get("/api/menu-items/search").param("q", "chick"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Chicken Cutty"));
+
+        verify(menuSearchService).search("chick", null);
+        verifyNoInteractions(menuItemService);
+    }
+}
@@ -0,0 +1,65 @@
+package com.notapos.controller;
+
+import com.notapos.metrics.DelayTimerMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for MetricsController.
+ * 
+ * Tests the delay timer metrics endpoint.
+ * Uses MockMvc to simulate HTTP requests without starting full server.
+ * 
+ * @author CJ
+ */
+
+@WebMvcTest(MetricsController.class)
+class MetricsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DelayTimerMetrics delayTimerMetrics;
+
+    @Test
+    void testGetDelayTimerMetrics_ShouldReturnSnapshot() throws Exception {
+        // WHAT: Test GET /api/metrics/delay-timer
+        // WHY: Managers need to see how late "15 seconds" really is
+        
+        Map<String, Object> lateness = new LinkedHashMap<>();
+        lateness.put("count", 12L);
+        lateness.put("p99", 140L);
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("itemsFired", 12L);
+        snapshot.put("latenessMillis", lateness);
+        when(delayTimerMetrics.snapshot()).thenReturn(snapshot);
+
+        mockMvc.perform(get("/api/metrics/delay-timer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemsFired").value(12))
+                .andExpect(jsonPath("$.latenessMillis.p99").value(140));
+
+        verify(delayTimerMetrics).snapshot();
+    }
+
+    @Test
+    void testResetDelayTimerMetrics_ShouldReturnNoContent() throws Exception {
+        // WHAT: Test DELETE /api/metrics/delay-timer
+        // WHY: Start a fresh window before a rush
+        
+        mockMvc.perform(delete("/api/metrics/delay-timer"))
+                .andExpect(status().isNoContent());
+
+        verify(delayTimerMetrics).reset();
+    }
+}
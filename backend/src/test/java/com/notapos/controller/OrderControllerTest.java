@@ -1,6 +1,12 @@
 package com.notapos.controller;
 
+import com.notapos.dto.OrderAggregate;
 import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.Payment;
+import com.notapos.service.OrderAggregateService;
+import com.notapos.service.OrderPricingService;
 import com.notapos.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +20,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +42,12 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderPricingService orderPricingService;
+
+    @MockBean
+    private OrderAggregateService orderAggregateService;
+
     private Order testOrder;
 
     @BeforeEach
@@ -119,6 +130,43 @@ class OrderControllerTest {
         verify(orderService, times(1)).getOrderById(999L);
     }
 
+    @Test
+    void testGetFullOrder_ShouldReturnNestedAggregate() throws Exception {
+        // WHAT: Test GET /api/orders/{id}/full
+        // WHY: The check screen needs items, their modifiers and payments in one round trip
+
+        // Given - One item with one modifier, one payment
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(5L);
+        item.setOrderId(1L);
+        OrderItemModifier bacon = new OrderItemModifier();
+        bacon.setOrderItemId(5L);
+        bacon.setModifierId(2L);
+        Payment payment = new Payment();
+        payment.setOrderId(1L);
+        payment.setAmount(new BigDecimal("54.00"));
+        when(orderAggregateService.getFullOrder(1L)).thenReturn(Optional.of(new OrderAggregate(testOrder,
+                List.of(new OrderAggregate.Item(item, List.of(bacon))), List.of(payment))));
+
+        // When/Then
+        mockMvc.perform(get("/api/orders/1/full"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order.orderId").value(1))
+                .andExpect(jsonPath("$.items[0].orderItem.orderItemId").value(5))
+                .andExpect(jsonPath("$.items[0].modifiers[0].modifierId").value(2))
+                .andExpect(jsonPath("$.payments[0].amount").value(54.00));
+    }
+
+    @Test
+    void testGetFullOrder_WhenNotExists_ShouldReturn404() throws Exception {
+        // Given
+        when(orderAggregateService.getFullOrder(999L)).thenReturn(Optional.empty());
+
+        // When/Then
+        mockMvc.perform(get("/api/orders/999/full"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetOrdersByTable_ShouldReturnTableOrders() throws Exception {
         // WHAT: Test GET /api/orders/table/{tableId}
@@ -175,24 +223,21 @@ class OrderControllerTest {
     @Test
     void testUpdateOrderTotals_ShouldReturnUpdated() throws Exception {
         // WHAT: Test PUT /api/orders/{id}/totals to update order totals
-        // WHY: Recalculate totals when items are added/removed
+        // WHY: Recalculate totals server-side, the client no longer sends a subtotal
         
-        // Given - Service returns updated order
+        // Given - Pricing service returns repriced order
         testOrder.setSubtotal(new BigDecimal("60.00"));
         testOrder.setTax(new BigDecimal("4.80"));
         testOrder.setTotal(new BigDecimal("64.80"));
-        when(orderService.updateOrderTotals(eq(1L), any(BigDecimal.class), any(BigDecimal.class)))
-                .thenReturn(testOrder);
+        when(orderPricingService.repriceOrder(1L)).thenReturn(testOrder);
 
         // When/Then - PUT request should return 200 OK
-        mockMvc.perform(put("/api/orders/1/totals")
-                .param("subtotal", "60.00")
-                .param("taxRate", "0.08"))
+        mockMvc.perform(put("/api/orders/1/totals"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.subtotal").value(60.00))
                 .andExpect(jsonPath("$.total").value(64.80));
 
-        verify(orderService, times(1)).updateOrderTotals(eq(1L), any(BigDecimal.class), any(BigDecimal.class));
+        verify(orderPricingService, times(1)).repriceOrder(1L);
     }
 
     @Test
@@ -226,4 +271,20 @@ class OrderControllerTest {
 
         verify(orderService, times(1)).deleteOrder(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllOrders_WhenETagMatches_ShouldReturn304WithoutQuery() throws Exception {
+        // WHAT: Test GET /api/orders with If-None-Match
+        // WHY: ActiveOrders polls this - most polls see no change
+        
+        // Given
+        when(orderService.getOrdersETag()).thenReturn("\"orders-x-3\"");
+
+        // When/Then
+        mockMvc.perform(get("/api/orders").param("status", "open").header("If-None-Match", "\"orders-x-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(orderService, never()).getOrdersByStatus(any());
+        verify(orderService, never()).getAllOrders();
+    }
+}
@@ -1,6 +1,8 @@
 package com.notapos.controller;
 
+import com.notapos.dto.ChangeFeed;
 import com.notapos.entity.OrderItem;
+import com.notapos.events.OrderItemEventStream;
 import com.notapos.service.OrderItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -38,6 +41,9 @@ class OrderItemControllerTest {
     @MockBean
     private OrderItemService orderItemService;
 
+    @MockBean
+    private OrderItemEventStream orderItemEventStream;
+
     private OrderItem testItem;
 
     @BeforeEach
@@ -246,24 +252,44 @@ class OrderItemControllerTest {
     }
 
     @Test
-    void testFireItemNow_ShouldBypassTimer() throws Exception {
-        // WHAT: Test PUT /api/order-items/{id}/fire-now
+    void testSendItemNow_ShouldBypassTimer() throws Exception {
+        // WHAT: Test PUT /api/order-items/{id}/send-now
         // WHY: Manager override to send immediately
         
-        // Given - Service fires item immediately
-        testItem.setStatus("fired");
+        // Given - Service sends item straight to the kitchen
+        testItem.setStatus("pending");
         testItem.setIsLocked(true);
         when(orderItemService.sendItemNow(1L)).thenReturn(testItem);
 
         // When/Then - PUT request should return 200 OK
-        mockMvc.perform(put("/api/order-items/1/fire-now"))
+        mockMvc.perform(put("/api/order-items/1/send-now"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.status").value("fired"))
+                .andExpect(jsonPath("$.status").value("pending"))
                 .andExpect(jsonPath("$.isLocked").value(true));
 
         verify(orderItemService, times(1)).sendItemNow(1L);
     }
 
+    @Test
+    void testSendOrderNow_ShouldSendWholeOrderInOneCall() throws Exception {
+        // WHAT: Test POST /api/order-items/order/{orderId}/send-now
+        // WHY: One bulk service call per order, not a findById + save per item
+        
+        // Given - Service sends every draft/limbo item on the order
+        testItem.setStatus("pending");
+        testItem.setIsLocked(true);
+        when(orderItemService.sendOrderNow(1L)).thenReturn(Arrays.asList(testItem));
+
+        // When/Then - POST request should return 200 OK
+        mockMvc.perform(post("/api/order-items/order/1/send-now"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("pending"))
+                .andExpect(jsonPath("$[0].isLocked").value(true));
+
+        verify(orderItemService, times(1)).sendOrderNow(1L);
+        verify(orderItemService, never()).sendItemNow(any());
+    }
+
     @Test
     void testCompleteItem_ShouldMarkCompleted() throws Exception {
         // WHAT: Test PUT /api/order-items/{id}/complete
@@ -280,4 +306,52 @@ class OrderItemControllerTest {
 
         verify(orderItemService, times(1)).completeItem(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStartItem_WhenWrongStatus_ShouldReturnConflict() throws Exception {
+        // WHAT: Test PUT /api/order-items/{id}/start on an item that isn't pending
+        // WHY: Illegal moves (or losing a race) are a conflict, not a missing item
+        
+        // Given - Service rejects the transition
+        when(orderItemService.startItem(1L))
+                .thenThrow(new IllegalStateException("Cannot move order item 1 from draft to fired"));
+
+        // When/Then - PUT request should return 409 Conflict
+        mockMvc.perform(put("/api/order-items/1/start"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testStreamOrderItemEvents_ShouldResumeFromLastEventId() throws Exception {
+        // WHAT: Test GET /api/order-items/stream
+        // WHY: Screens get pushed deltas instead of polling every 3 seconds
+        
+        // Given - Stream hub hands back an open emitter
+        when(orderItemEventStream.subscribe(2L, null, 41L)).thenReturn(new SseEmitter());
+
+        // When/Then - Kitchen display reconnects after missing events
+        mockMvc.perform(get("/api/order-items/stream")
+                        .param("prepStationId", "2")
+                        .header("Last-Event-ID", "41"))
+                .andExpect(request().asyncStarted());
+
+        verify(orderItemEventStream, times(1)).subscribe(2L, null, 41L);
+    }
+
+    @Test
+    void testGetChanges_ShouldReturnFeedWithNextCursor() throws Exception {
+        // WHAT: Test GET /api/order-items/changes?since=
+        // WHY: Terminals sync only what changed instead of every item ever created
+        
+        // Given
+        when(orderItemService.getChangesSince(10L))
+                .thenReturn(new ChangeFeed<>(12L, List.of(testItem), List.of(7L)));
+
+        // When/Then
+        mockMvc.perform(get("/api/order-items/changes").param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cursor").value(12))
+                .andExpect(jsonPath("$.changed[0].orderItemId").value(1))
+                .andExpect(jsonPath("$.deleted[0]").value(7));
+    }
+}
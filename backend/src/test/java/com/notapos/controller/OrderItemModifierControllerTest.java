@@ -138,6 +138,36 @@ class OrderItemModifierControllerTest {
         verify(orderItemModifierService).createOrderItemModifier(any(OrderItemModifier.class));
     }
 
+    @Test
+    void testCreateOrderItemModifier_WhenRuleBroken_ShouldReturn400() throws Exception {
+        // WHAT: Test POST /api/order-item-modifiers with a modifier the item doesn't offer
+        // WHY: Invalid selections are rejected before they reach the kitchen
+        
+        when(orderItemModifierService.createOrderItemModifier(any(OrderItemModifier.class)))
+                .thenThrow(new IllegalArgumentException("Modifier 9 is not offered on menu item 1"));
+
+        mockMvc.perform(post("/api/order-item-modifiers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderItemId\":1,\"modifierId\":9}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testReplaceModifiers_ShouldReturnSavedSelection() throws Exception {
+        // WHAT: Test PUT /api/order-item-modifiers/order-item/{orderItemId}
+        // WHY: The order screen submits an item's whole selection at once
+        
+        when(orderItemModifierService.replaceModifiers(1L, List.of(1L, 2L))).thenReturn(List.of(testModifier));
+
+        mockMvc.perform(put("/api/order-item-modifiers/order-item/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderItemId").value(1));
+
+        verify(orderItemModifierService).replaceModifiers(1L, List.of(1L, 2L));
+    }
+
     @Test
     void testDeleteOrderItemModifier_ShouldReturn204() throws Exception {
         // WHAT: Test DELETE /api/order-item-modifiers/{id}
@@ -182,4 +182,50 @@ class PaymentControllerTest {
 
         verify(paymentService).deletePayment(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreatePayment_WithIdempotencyKey_ShouldUseKeyedCreate() throws Exception {
+        // WHAT: Test POST /api/payments with an Idempotency-Key header
+        // WHY: Terminal retries must not charge twice
+
+        when(paymentService.createPayment(any(Payment.class), eq("term-3-0042"))).thenReturn(testPayment);
+
+        mockMvc.perform(post("/api/payments")
+                        .header("Idempotency-Key", "term-3-0042")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderId\":1,\"amount\":54.00,\"paymentMethod\":\"credit_card\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.paymentId").value(1));
+
+        verify(paymentService, never()).createPayment(any(Payment.class));
+    }
+
+    @Test
+    void testCreatePayment_WithKeyUsedForDifferentPayment_ShouldReturnUnprocessable() throws Exception {
+        // WHAT: Test a key reused with a different body
+        // WHY: Client bug - tell it, don't replay the wrong payment
+
+        when(paymentService.createPayment(any(Payment.class), eq("term-3-0042")))
+                .thenThrow(new IllegalStateException("Idempotency key already used for a different payment: term-3-0042"));
+
+        mockMvc.perform(post("/api/payments")
+                        .header("Idempotency-Key", "term-3-0042")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderId\":1,\"amount\":20.00,\"paymentMethod\":\"cash\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testCreatePayment_WithBlankIdempotencyKey_ShouldReturnBadRequest() throws Exception {
+        // WHAT: Test an empty Idempotency-Key header
+        // WHY: An empty key would make every payment a replay of the first
+
+        mockMvc.perform(post("/api/payments")
+                        .header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderId\":1,\"amount\":20.00,\"paymentMethod\":\"cash\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(paymentService);
+    }
+}
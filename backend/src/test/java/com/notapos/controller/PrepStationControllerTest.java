@@ -1,6 +1,8 @@
 package com.notapos.controller;
 
+import com.notapos.dto.KitchenTicket;
 import com.notapos.entity.PrepStation;
+import com.notapos.service.KitchenTicketService;
 import com.notapos.service.PrepStationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -37,6 +40,9 @@ class PrepStationControllerTest {
     @MockBean
     private PrepStationService prepStationService;
 
+    @MockBean
+    private KitchenTicketService kitchenTicketService;
+
     private PrepStation testStation;
 
     @BeforeEach
@@ -149,4 +155,23 @@ class PrepStationControllerTest {
 
         verify(prepStationService).deletePrepStation(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetKitchenTickets_ShouldReturnTicketsForStation() throws Exception {
+        // WHAT: Test GET /api/prep-stations/{id}/tickets
+        // WHY: The KDS screen loads everything for its station in one call
+        
+        KitchenTicket ticket = new KitchenTicket(10L, 1L, "T1", "Burger", 1, "fired",
+                List.of("Medium Rare"), "No onions", LocalDateTime.now(), LocalDateTime.now(), 42);
+        when(kitchenTicketService.getTickets(1L)).thenReturn(List.of(ticket));
+
+        mockMvc.perform(get("/api/prep-stations/1/tickets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemName").value("Burger"))
+                .andExpect(jsonPath("$[0].tableNumber").value("T1"))
+                .andExpect(jsonPath("$[0].modifiers[0]").value("Medium Rare"))
+                .andExpect(jsonPath("$[0].ageSeconds").value(42));
+
+        verify(kitchenTicketService).getTickets(1L);
+    }
+}
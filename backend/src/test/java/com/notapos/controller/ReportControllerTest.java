@@ -0,0 +1,141 @@
+package com.notapos.controller;
+
+import com.notapos.dto.SalesSummary;
+import com.notapos.dto.ServerSales;
+import com.notapos.service.SalesRollupService;
+import com.notapos.service.ServerSalesReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for ReportController.
+ *
+ * Tests the sales report endpoints behind the Financials screen.
+ * Uses MockMvc to simulate HTTP requests without starting full server.
+ *
+ * @author CJ
+ */
+
+@WebMvcTest(ReportController.class)
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SalesRollupService salesRollupService;
+
+    @MockBean
+    private ServerSalesReportService serverSalesReportService;
+
+    private SalesSummary summary(LocalDateTime from, LocalDateTime to) {
+        return new SalesSummary(from, to, new BigDecimal("847.50"), new BigDecimal("152.75"), 20, 18,
+                new BigDecimal("47.08"), new BigDecimal("18.0"),
+                Map.of("credit_card", new BigDecimal("620.25"), "cash", new BigDecimal("227.25")),
+                Map.of("unassigned", new BigDecimal("847.50")), List.of());
+    }
+
+    @Test
+    void testGetBusinessDay_ShouldReturnSummary() throws Exception {
+        // WHAT: Test GET /api/reports/day?date=2025-06-14
+        // WHY: Financials screen for a given night
+
+        LocalDate day = LocalDate.of(2025, 6, 14);
+        when(salesRollupService.getBusinessDaySummary(day))
+                .thenReturn(summary(day.atTime(4, 0), day.plusDays(1).atTime(4, 0)));
+
+        mockMvc.perform(get("/api/reports/day").param("date", "2025-06-14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSales").value(847.50))
+                .andExpect(jsonPath("$.ordersClosed").value(18))
+                .andExpect(jsonPath("$.salesByPaymentMethod.cash").value(227.25));
+    }
+
+    @Test
+    void testGetBusinessDay_WithoutDate_ShouldUseCurrentBusinessDay() throws Exception {
+        // WHAT: Test GET /api/reports/day
+        // WHY: The screen just asks for "tonight"
+
+        LocalDate today = SalesRollupService.businessDay(LocalDateTime.now());
+        when(salesRollupService.getBusinessDaySummary(any(LocalDate.class)))
+                .thenReturn(summary(today.atTime(4, 0), today.plusDays(1).atTime(4, 0)));
+
+        mockMvc.perform(get("/api/reports/day"))
+                .andExpect(status().isOk());
+
+        verify(salesRollupService).getBusinessDaySummary(any(LocalDate.class));
+    }
+
+    @Test
+    void testGetSummary_ShouldReturnShiftFigures() throws Exception {
+        // WHAT: Test GET /api/reports/summary?from=...&to=...
+        // WHY: Figures for one shift
+
+        LocalDateTime from = LocalDateTime.of(2025, 6, 14, 16, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 6, 14, 22, 0);
+        when(salesRollupService.getSummary(from, to)).thenReturn(summary(from, to));
+
+        mockMvc.perform(get("/api/reports/summary")
+                        .param("from", "2025-06-14T16:30:00")
+                        .param("to", "2025-06-14T22:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageTipPercent").value(18.0));
+    }
+
+    @Test
+    void testGetSummary_WhenRangeBackwards_ShouldReturnBadRequest() throws Exception {
+        // WHAT: Test a range that ends before it starts
+        // WHY: Nothing sensible to report
+
+        mockMvc.perform(get("/api/reports/summary")
+                        .param("from", "2025-06-14T22:00:00")
+                        .param("to", "2025-06-14T16:30:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void testGetServerSales_ShouldReturnRowPerServerAndSection() throws Exception {
+        // WHAT: Test GET /api/reports/servers?from=...&to=...
+        // WHY: Tip-out at the end of the night
+
+        LocalDateTime from = LocalDateTime.of(2025, 6, 14, 16, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 6, 14, 23, 0);
+        when(serverSalesReportService.getReport(from, to)).thenReturn(List.of(
+                new ServerSales("Sarah", "patio", new BigDecimal("420.00"), new BigDecimal("80.00"), 9)));
+
+        mockMvc.perform(get("/api/reports/servers")
+                        .param("from", "2025-06-14T16:00:00")
+                        .param("to", "2025-06-14T23:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serverName").value("Sarah"))
+                .andExpect(jsonPath("$[0].section").value("patio"))
+                .andExpect(jsonPath("$[0].tips").value(80.00));
+    }
+
+    @Test
+    void testGetServerSales_WhenNotOnTheHour_ShouldReturnBadRequest() throws Exception {
+        // WHAT: Test a range that doesn't start and end on the hour
+        // WHY: The report is built from whole hours; a half-hour edge would count payments outside it
+
+        mockMvc.perform(get("/api/reports/servers")
+                        .param("from", "2025-06-14T16:30:00")
+                        .param("to", "2025-06-14T23:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(serverSalesReportService);
+    }
+}
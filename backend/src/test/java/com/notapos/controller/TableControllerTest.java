@@ -1,6 +1,11 @@
 package com.notapos.controller;
 
+import com.notapos.dto.OrderAggregate;
+import com.notapos.dto.TableSession;
+import com.notapos.entity.Order;
 import com.notapos.entity.RestaurantTable;
+import com.notapos.events.FloorMapStream;
+import com.notapos.service.OrderAggregateService;
 import com.notapos.service.TableService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +41,12 @@ class TableControllerTest {
     @MockBean
     private TableService tableService;
 
+    @MockBean
+    private FloorMapStream floorMapStream;
+
+    @MockBean
+    private OrderAggregateService orderAggregateService;
+
     private RestaurantTable testTable;
 
     @BeforeEach
@@ -99,6 +110,35 @@ class TableControllerTest {
         verify(tableService).getTableById(999L);
     }
 
+    @Test
+    void testGetTableSession_ShouldReturnTableWithOpenChecks() throws Exception {
+        // WHAT: Test GET /api/tables/{id}/session
+        // WHY: Opening a table on the order screen should be one request, not one per check
+
+        // Given - One open check on the table
+        Order order = new Order();
+        order.setOrderId(7L);
+        order.setTableId(1L);
+        when(orderAggregateService.getTableSession(1L)).thenReturn(Optional.of(
+                new TableSession(testTable, List.of(new OrderAggregate(order, List.of(), List.of())))));
+
+        // When/Then
+        mockMvc.perform(get("/api/tables/1/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.table.tableNumber").value(101))
+                .andExpect(jsonPath("$.orders[0].order.orderId").value(7));
+    }
+
+    @Test
+    void testGetTableSession_WhenNotExists_ShouldReturn404() throws Exception {
+        // Given
+        when(orderAggregateService.getTableSession(999L)).thenReturn(Optional.empty());
+
+        // When/Then
+        mockMvc.perform(get("/api/tables/999/session"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testCreateTable_ShouldReturnCreated() throws Exception {
         // WHAT: Test POST /api/tables to create new table
@@ -152,4 +192,50 @@ class TableControllerTest {
 
         verify(tableService).updateTableStatus(999L, "occupied");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFloorSnapshot_ShouldReturnTablesWithFloorVersion() throws Exception {
+        // WHAT: Test GET /api/tables/floor
+        // WHY: Floor map loads this once, then only follows deltas from /stream
+        
+        // Given
+        when(floorMapStream.getFloorVersion()).thenReturn(42L);
+        when(tableService.getAllTables()).thenReturn(Arrays.asList(testTable));
+
+        // When/Then
+        mockMvc.perform(get("/api/tables/floor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.floorVersion").value(42))
+                .andExpect(jsonPath("$.tables[0].status").value(testTable.getStatus()));
+    }
+
+    @Test
+    void testGetAllTables_WhenETagMatches_ShouldReturn304WithoutQuery() throws Exception {
+        // WHAT: Test GET /api/tables with If-None-Match
+        // WHY: Unchanged polls shouldn't touch the database or build JSON
+        
+        // Given - Nothing changed since the client's last fetch
+        when(tableService.getTablesETag()).thenReturn("\"tables-x-7\"");
+
+        // When/Then
+        mockMvc.perform(get("/api/tables").header("If-None-Match", "\"tables-x-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"tables-x-7\""))
+                .andExpect(content().string(""));
+
+        verify(tableService, never()).getAllTables();
+    }
+
+    @Test
+    void testGetAllTables_WhenETagStale_ShouldReturnListWithNewETag() throws Exception {
+        // Given - A table changed since the client's copy
+        when(tableService.getTablesETag()).thenReturn("\"tables-x-8\"");
+        when(tableService.getAllTables()).thenReturn(Arrays.asList(testTable));
+
+        // When/Then
+        mockMvc.perform(get("/api/tables").header("If-None-Match", "\"tables-x-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"tables-x-8\""))
+                .andExpect(jsonPath("$[0].status").value("available"));
+    }
+}
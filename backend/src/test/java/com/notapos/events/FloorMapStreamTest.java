@@ -0,0 +1,72 @@
+package com.notapos.events;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FloorMapStream.
+ * 
+ * The floor version must go up by exactly one per table change so clients can spot gaps,
+ * and the deltas are sent off the caller's thread.
+ * 
+ * @author CJ
+ */
+
+class FloorMapStreamTest {
+
+    private FloorMapStream floorMapStream;
+
+    @BeforeEach
+    void setUp() {
+        floorMapStream = new FloorMapStream();
+    }
+
+    @Test
+    void testOnTableChanged_ShouldBumpFloorVersionOncePerChange() {
+        // Given - A screen is watching the floor
+        floorMapStream.subscribe();
+
+        // When - Two tables change
+        floorMapStream.onTableChanged(new TableChangedEvent(1L, "occupied", "Alex"));
+        floorMapStream.onTableChanged(new TableChangedEvent(2L, "needs-cleaning", null));
+
+        // Then
+        assertEquals(2, floorMapStream.getFloorVersion());
+        assertEquals(1, floorMapStream.getSubscriberCount());
+    }
+
+    @Test
+    void testOnTableChanged_ShouldSendOnSenderNotInCaller() {
+        // WHAT: Test deltas are handed to the sender instead of written by the committing thread
+        // WHY: A host stand on a bad connection must not hold up every table change
+
+        // Given - A sender that only runs when told to, and a screen whose connection is gone
+        List<Runnable> queued = new ArrayList<>();
+        floorMapStream = new FloorMapStream(queued::add);
+        SseEmitter emitter = floorMapStream.subscribe();
+        emitter.complete();
+
+        // When
+        floorMapStream.onTableChanged(new TableChangedEvent(1L, "occupied", "Alex"));
+
+        // Then - Version bumped and the send queued, screen still subscribed
+        assertEquals(1, floorMapStream.getFloorVersion());
+        assertEquals(1, queued.size());
+        assertEquals(1, floorMapStream.getSubscriberCount());
+
+        // When - The sender runs
+        queued.forEach(Runnable::run);
+
+        // Then - The failed send dropped the screen
+        assertEquals(0, floorMapStream.getSubscriberCount());
+    }
+
+    @Test
+    void testFloorVersion_ShouldStartAtZero() {
+        assertEquals(0, floorMapStream.getFloorVersion());
+    }
+}
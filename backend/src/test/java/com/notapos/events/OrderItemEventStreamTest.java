@@ -0,0 +1,128 @@
+package com.notapos.events;
+
+import com.notapos.service.PrepStationLookup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderItemEventStream.
+ * 
+ * Covers event numbering, the replay buffer behind Last-Event-ID, the resync fallback
+ * and sending off the caller's thread.
+ * 
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class OrderItemEventStreamTest {
+
+    @Mock
+    private PrepStationLookup prepStationLookup;
+
+    private OrderItemEventStream orderItemEventStream;
+
+    @BeforeEach
+    void setUp() {
+        orderItemEventStream = new OrderItemEventStream(prepStationLookup);
+    }
+
+    @Test
+    void testOnOrderItemChanged_ShouldNumberEventsInOrder() {
+        // Given
+        when(prepStationLookup.stationFor(any())).thenReturn(1L);
+
+        // When
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.SENT, 1L));
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.LOCKED, 1L));
+
+        // Then
+        assertEquals(2, orderItemEventStream.getLastEventId());
+    }
+
+    @Test
+    void testEventsAfter_ShouldReplayOnlyWhatWasMissed() {
+        // Given - Three events, client saw the first one
+        when(prepStationLookup.stationFor(any())).thenReturn(1L);
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.SENT, 1L));
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.LOCKED, 1L));
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.FIRED, 1L));
+
+        // When
+        Optional<List<OrderItemEventStream.StreamedEvent>> missed = orderItemEventStream.eventsAfter(1);
+
+        // Then
+        assertTrue(missed.isPresent());
+        assertEquals(List.of(2L, 3L), missed.get().stream().map(OrderItemEventStream.StreamedEvent::id).toList());
+        assertEquals(OrderItemChangedEvent.FIRED, missed.get().get(1).change().type());
+    }
+
+    @Test
+    void testEventsAfter_WhenGapFellOutOfBuffer_ShouldAskForResync() {
+        // Given - More events than the buffer holds
+        when(prepStationLookup.stationFor(any())).thenReturn(1L);
+        for (int i = 0; i < OrderItemEventStream.BUFFER_SIZE + 10; i++) {
+            orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.UPDATED, 1L));
+        }
+
+        // When & Then - Too old to replay, and an id from before a restart
+        assertTrue(orderItemEventStream.eventsAfter(3).isEmpty());
+        assertTrue(orderItemEventStream.eventsAfter(99_999).isEmpty());
+        assertTrue(orderItemEventStream.eventsAfter(orderItemEventStream.getLastEventId()).get().isEmpty());
+    }
+
+    @Test
+    void testSubscribe_WithResumableLastEventId_ShouldRegisterSubscriber() {
+        // Given
+        when(prepStationLookup.stationFor(any())).thenReturn(1L);
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.SENT, 1L));
+
+        // When - One station-filtered screen and one order-filtered screen connect
+        orderItemEventStream.subscribe(1L, null, 0L);
+        orderItemEventStream.subscribe(null, 7L, null);
+
+        // Then
+        assertEquals(2, orderItemEventStream.getSubscriberCount());
+    }
+
+    @Test
+    void testOnOrderItemChanged_ShouldSendOnSenderNotInCaller() {
+        // WHAT: Test events are handed to the sender instead of written by the committing thread
+        // WHY: One stalled kitchen screen must not hold the lock every commit and the heartbeat wait on
+
+        // Given - A sender that only runs when told to, and a screen whose connection is gone
+        List<Runnable> queued = new ArrayList<>();
+        orderItemEventStream = new OrderItemEventStream(prepStationLookup, queued::add);
+        when(prepStationLookup.stationFor(any())).thenReturn(1L);
+        SseEmitter emitter = orderItemEventStream.subscribe(1L, null, null);
+        emitter.complete();
+
+        // When
+        orderItemEventStream.onOrderItemChanged(change(OrderItemChangedEvent.SENT, 1L));
+
+        // Then - Buffered and queued, nothing sent yet
+        assertEquals(1, orderItemEventStream.getLastEventId());
+        assertEquals(1, queued.size());
+        assertEquals(1, orderItemEventStream.getSubscriberCount());
+
+        // When - The sender runs
+        queued.forEach(Runnable::run);
+
+        // Then - The failed send dropped the screen
+        assertEquals(0, orderItemEventStream.getSubscriberCount());
+    }
+
+    private OrderItemChangedEvent change(String type, Long orderItemId) {
+        return new OrderItemChangedEvent(type, orderItemId, 7L, 3L, 1, "pending", true, 1L, LocalDateTime.now());
+    }
+}
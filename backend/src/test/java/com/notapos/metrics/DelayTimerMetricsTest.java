@@ -0,0 +1,109 @@
+package com.notapos.metrics;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.OrderItem;
+import com.notapos.service.MenuCatalog;
+import com.notapos.service.MenuCatalogService;
+import com.notapos.service.PrepStationLookup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DelayTimerMetrics.
+ * 
+ * Verifies lateness is measured against delayExpiresAt and broken down per prep station.
+ * 
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class DelayTimerMetricsTest {
+
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    private DelayTimerMetrics delayTimerMetrics;
+
+    private MenuItem burger;
+    private MenuItem margarita;
+
+    @BeforeEach
+    void setUp() {
+        delayTimerMetrics = new DelayTimerMetrics(new PrepStationLookup(menuCatalogService));
+
+        burger = new MenuItem();
+        burger.setMenuItemId(1L);
+        burger.setPrepStationId(10L);               // Kitchen
+
+        margarita = new MenuItem();
+        margarita.setMenuItemId(2L);
+        margarita.setPrepStationId(20L);            // Bar
+
+        lenient().when(menuCatalogService.current())
+                .thenReturn(MenuCatalog.of(1L, List.of(burger, margarita), List.of(), List.of(), List.of()));
+    }
+
+    @Test
+    void testRecordLockTick_ShouldMeasureLatenessPerPrepStation() {
+        // Given - Kitchen item locked 300ms late, bar item 1200ms late
+        LocalDateTime lockedAt = LocalDateTime.now();
+        OrderItem kitchenItem = item(1L, lockedAt.minusNanos(300_000_000));
+        OrderItem barItem = item(2L, lockedAt.minusNanos(1_200_000_000));
+
+        // When
+        delayTimerMetrics.recordLockTick(List.of(kitchenItem, barItem), lockedAt, 2_000_000, 500_000);
+
+        // Then
+        assertEquals(2, delayTimerMetrics.getLateness().getCount());
+        assertEquals(1_200, delayTimerMetrics.getLateness().getMax());
+        assertEquals(300, delayTimerMetrics.getLatenessForStation(10L).getMax());
+        assertEquals(1_200, delayTimerMetrics.getLatenessForStation(20L).getMax());
+
+        Map<String, Object> snapshot = delayTimerMetrics.snapshot();
+        assertEquals(2L, snapshot.get("itemsFired"));
+        assertEquals(1L, snapshot.get("lockTicks"));
+    }
+
+    @Test
+    void testRecordLockTick_WhenMenuItemNotInCatalog_ShouldCountAsUnassigned() {
+        // Given - Menu item 99 was deleted after it was ordered
+        LocalDateTime lockedAt = LocalDateTime.now();
+
+        // When
+        delayTimerMetrics.recordLockTick(List.of(item(99L, lockedAt.minusNanos(100_000_000))), lockedAt, 0, 0);
+
+        // Then
+        assertEquals(100, delayTimerMetrics.getLatenessForStation(DelayTimerMetrics.UNASSIGNED_STATION).getMax());
+    }
+
+    @Test
+    void testReset_ShouldClearEverything() {
+        // Given
+        delayTimerMetrics.recordWheelTick(1, 1_000);
+        delayTimerMetrics.recordLockTick(List.of(item(1L, LocalDateTime.now())), LocalDateTime.now(), 0, 0);
+
+        // When
+        delayTimerMetrics.reset();
+
+        // Then
+        assertEquals(0, delayTimerMetrics.getLateness().getCount());
+        assertEquals(0L, delayTimerMetrics.snapshot().get("wheelTicks"));
+    }
+
+    private OrderItem item(Long menuItemId, LocalDateTime expiresAt) {
+        OrderItem item = new OrderItem();
+        item.setMenuItemId(menuItemId);
+        item.setDelayExpiresAt(expiresAt);
+        item.setStatus("pending");
+        item.setIsLocked(true);
+        return item;
+    }
+}
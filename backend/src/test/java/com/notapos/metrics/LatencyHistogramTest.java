@@ -0,0 +1,78 @@
+package com.notapos.metrics;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram.
+ * 
+ * Verifies percentiles stay within the histogram's precision
+ * across the exact and log-linear ranges.
+ * 
+ * @author CJ
+ */
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogram_ShouldReportZeros() {
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void testSmallValues_ShouldBeExact() {
+        // Given - Lateness of 0..99 ms
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(i);
+        }
+
+        // Then
+        assertEquals(100, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(99, histogram.getMax());
+        assertEquals(49, histogram.getValueAtPercentile(50));
+        assertEquals(98, histogram.getValueAtPercentile(99));
+        assertEquals(49.5, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    void testLargeValues_ShouldStayWithinPrecision() {
+        // Given - 1 ms .. 10 s
+        LatencyHistogram histogram = new LatencyHistogram(60_000);
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        // Then - Within ~1.5% of the true percentile
+        assertEquals(5_000, histogram.getValueAtPercentile(50), 5_000 * 0.016);
+        assertEquals(9_900, histogram.getValueAtPercentile(99), 9_900 * 0.016);
+        assertEquals(10_000, histogram.getMax());
+    }
+
+    @Test
+    void testRecord_NegativeOrHuge_ShouldClamp() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000);
+
+        histogram.record(-5);
+        histogram.record(5_000);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(1_000, histogram.getMax());
+    }
+
+    @Test
+    void testBucketIndex_ShouldBeContinuousAndMonotonic() {
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index == previous || index == previous + 1, "gap at " + value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+            previous = index;
+        }
+    }
+}
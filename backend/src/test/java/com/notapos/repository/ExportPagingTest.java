@@ -0,0 +1,143 @@
+package com.notapos.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.notapos.entity.Order;
+import com.notapos.entity.Payment;
+import com.notapos.service.ExportService;
+import com.notapos.service.OrderArchiveService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the export paging against a real SQLite schema.
+ *
+ * Exports more rows than fit in one page and checks that every row in the
+ * range comes out exactly once, in id order, and nothing outside it does.
+ *
+ * @author CJ
+ */
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+class ExportPagingTest {
+
+    private static final int ROWS = 1_201;                          // Two full pages of 500 and a partial one
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderArchiveService orderArchiveService;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderArchiveService = new OrderArchiveService(orderRepository, jdbcTemplate, transactionManager);
+        exportService = new ExportService(paymentRepository, orderRepository, orderArchiveService, objectMapper);
+    }
+
+    @Test
+    void testExportPayments_AcrossPages_ShouldWriteEveryRowOnce() throws Exception {
+        // WHAT: Test a payments export spanning several pages
+        // WHY: A page boundary must neither drop nor repeat a row
+
+        // Given - ROWS payments in range, one moved to last year
+        Order order = new Order();
+        order.setTableId(1L);
+        order = orderRepository.save(order);
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < ROWS + 1; i++) {
+            Payment payment = new Payment();
+            payment.setOrderId(order.getOrderId());
+            payment.setAmount(new BigDecimal("10.00"));
+            payment.setPaymentMethod("cash");
+            payments.add(payment);
+        }
+        payments = paymentRepository.saveAll(payments);
+        entityManager.flush();
+        Long outside = payments.get(ROWS / 2).getPaymentId();
+        entityManager.createQuery("UPDATE Payment p SET p.createdAt = :createdAt WHERE p.paymentId = :id")
+                .setParameter("createdAt", LocalDateTime.now().minusYears(1))
+                .setParameter("id", outside)
+                .executeUpdate();
+        entityManager.clear();
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.exportPayments(LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1),
+                ExportService.Format.CSV, out);
+
+        // Then - Header + ROWS lines, ascending ids, the old one left out
+        List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+        List<Long> ids = lines.subList(1, lines.size()).stream()
+                .map(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                .toList();
+        assertEquals(ROWS, written);
+        assertEquals(ROWS, ids.size());
+        assertEquals(ROWS, ids.stream().distinct().count());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertFalse(ids.contains(outside));
+    }
+
+    @Test
+    void testExportOrders_ReachingArchive_ShouldWriteArchivedPageFirst() throws Exception {
+        // WHAT: Test the orders export over a range that reaches the history tables
+        // WHY: The archive side is a native page query of its own
+
+        // Given - Two checks archived, the newest one still hot
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> orderIds = new ArrayList<>();
+        for (LocalDateTime completedAt : List.of(now.minusDays(40), now.minusDays(39), now)) {
+            Order order = new Order();
+            order.setTableId(1L);
+            order.setStatus("completed");
+            order.setCompletedAt(completedAt);
+            orderIds.add(orderRepository.save(order).getOrderId());
+        }
+        entityManager.flush();
+        assertEquals(2, orderArchiveService.archiveCompletedBefore(now.minusDays(30)));
+        entityManager.clear();
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.exportOrders(now.minusDays(1), now.plusHours(1), ExportService.Format.CSV, out);
+
+        // Then - created_at is today for all three, so the archive is read too
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertTrue(lines[1].startsWith(orderIds.get(0) + ","));
+        assertTrue(lines[2].startsWith(orderIds.get(1) + ","));
+        assertTrue(lines[3].startsWith(orderIds.get(2) + ","));
+    }
+}
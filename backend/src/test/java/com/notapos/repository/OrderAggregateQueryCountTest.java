@@ -0,0 +1,156 @@
+package com.notapos.repository;
+
+import com.notapos.dto.OrderAggregate;
+import com.notapos.dto.TableSession;
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.Payment;
+import com.notapos.entity.RestaurantTable;
+import com.notapos.service.OrderAggregateService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-count test for OrderAggregateService.
+ *
+ * Counts the JDBC statements Hibernate prepares while loading an aggregate
+ * and checks the count is the same for a 2-item check as for a 60-item
+ * check - i.e. nothing is loaded per item (no N+1).
+ *
+ * @author CJ
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+class OrderAggregateQueryCountTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderItemModifierRepository orderItemModifierRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderAggregateService orderAggregateService;
+    private Statistics statistics;
+    private RestaurantTable table;
+
+    @BeforeEach
+    void setUp() {
+        orderAggregateService = new OrderAggregateService(orderRepository, orderItemRepository,
+                orderItemModifierRepository, paymentRepository, tableRepository);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        table = new RestaurantTable();
+        table.setTableNumber("Q1");
+        table.setSection("Main Dining");
+        table.setSeatCount(4);
+        table.setStatus("occupied");
+        table = tableRepository.save(table);
+    }
+
+    private Order checkWithItems(int itemCount) {                   // Each item gets two modifiers, the check gets two payments
+        Order order = new Order();
+        order.setTableId(table.getTableId());
+        order = orderRepository.save(order);
+
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(order.getOrderId());
+            item.setMenuItemId(1L);
+            item.setPrice(new BigDecimal("17.00"));
+            item = orderItemRepository.save(item);
+
+            for (long modifierId = 1; modifierId <= 2; modifierId++) {
+                OrderItemModifier modifier = new OrderItemModifier();
+                modifier.setOrderItemId(item.getOrderItemId());
+                modifier.setModifierId(modifierId);
+                orderItemModifierRepository.save(modifier);
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+            Payment payment = new Payment();
+            payment.setOrderId(order.getOrderId());
+            payment.setAmount(new BigDecimal("10.00"));
+            payment.setPaymentMethod("card");
+            paymentRepository.save(payment);
+        }
+        return order;
+    }
+
+    private long statementsFor(Runnable load) {
+        entityManager.flush();
+        entityManager.clear();                                      // Nothing served from the persistence context
+        statistics.clear();
+        load.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testGetFullOrder_StatementCountShouldNotDependOnItemCount() {
+        // WHAT: Test /api/orders/{id}/full loads level by level
+        // WHY: A big party's check must not cost one query per item
+
+        // Given - A 2-item check and a 60-item check
+        Order small = checkWithItems(2);
+        Order large = checkWithItems(60);
+
+        // When
+        long smallStatements = statementsFor(() -> orderAggregateService.getFullOrder(small.getOrderId()));
+        long largeStatements = statementsFor(() -> {
+            OrderAggregate aggregate = orderAggregateService.getFullOrder(large.getOrderId()).orElseThrow();
+            assertEquals(60, aggregate.items().size());
+            assertEquals(2, aggregate.items().get(59).modifiers().size());
+            assertEquals(2, aggregate.payments().size());
+        });
+
+        // Then - Order, items, modifiers, payments
+        assertEquals(4, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void testGetTableSession_StatementCountShouldNotDependOnCheckCount() {
+        // WHAT: Test /api/tables/{id}/session with several open checks
+        // WHY: Opening a table used to cost one request per check
+
+        // Given - Three open checks, 1 + 10 + 25 items
+        checkWithItems(1);
+        checkWithItems(10);
+        checkWithItems(25);
+
+        // When
+        long statements = statementsFor(() -> {
+            TableSession session = orderAggregateService.getTableSession(table.getTableId()).orElseThrow();
+            assertEquals(3, session.orders().size());
+            assertEquals(36, session.orders().stream().mapToInt(order -> order.items().size()).sum());
+        });
+
+        // Then - Table, open orders, items, modifiers, payments
+        assertEquals(5, statements);
+    }
+}
@@ -0,0 +1,173 @@
+package com.notapos.repository;
+
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.Payment;
+import com.notapos.service.OrderArchiveService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for archiving completed orders into the history tables.
+ *
+ * Runs OrderArchiveService against a real SQLite schema: which orders move,
+ * that their children move with them, and that the archive queries used by
+ * the reports find them afterwards.
+ *
+ * @author CJ
+ */
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+class OrderArchiveTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderItemModifierRepository orderItemModifierRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveService(orderRepository, jdbcTemplate, transactionManager);
+    }
+
+    private Order check(String status, LocalDateTime completedAt) {    // One item with a modifier, one payment with a $5.00 tip
+        Order order = new Order();
+        order.setTableId(1L);
+        order.setStatus(status);
+        order.setCompletedAt(completedAt);
+        order.setTotal(new BigDecimal("17.51"));
+        order = orderRepository.save(order);
+
+        OrderItem item = new OrderItem();
+        item.setOrderId(order.getOrderId());
+        item.setMenuItemId(1L);
+        item.setPrice(new BigDecimal("17.00"));
+        item = orderItemRepository.save(item);
+
+        OrderItemModifier modifier = new OrderItemModifier();
+        modifier.setOrderItemId(item.getOrderItemId());
+        modifier.setModifierId(1L);
+        orderItemModifierRepository.save(modifier);
+
+        Payment payment = new Payment();
+        payment.setOrderId(order.getOrderId());
+        payment.setAmount(new BigDecimal("17.51"));
+        payment.setTipAmount(new BigDecimal("5.00"));
+        payment.setPaymentMethod("card");
+        paymentRepository.save(payment);
+        return order;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    @Test
+    void testArchiveCompletedBefore_ShouldMoveOldChecksWithTheirChildren() {
+        // WHAT: Test one archival run
+        // WHY: Hot tables should only hold what service still needs
+
+        // Given - A check closed 40 days ago, one closed yesterday, one still open
+        LocalDateTime now = LocalDateTime.now();
+        Order old = check("completed", now.minusDays(40));
+        Order recent = check("completed", now.minusDays(1));
+        Order open = check("open", null);
+        entityManager.flush();
+
+        // When
+        int archived = orderArchiveService.archiveCompletedBefore(now.minusDays(30));
+        entityManager.clear();
+
+        // Then - Only the old check moved, all four of its rows with it
+        assertEquals(1, archived);
+        assertTrue(orderRepository.findById(old.getOrderId()).isEmpty());
+        assertTrue(orderRepository.findById(recent.getOrderId()).isPresent());
+        assertTrue(orderRepository.findById(open.getOrderId()).isPresent());
+        assertEquals(1, count("orders_archive"));
+        assertEquals(1, count("order_items_archive"));
+        assertEquals(1, count("order_item_modifiers_archive"));
+        assertEquals(1, count("payments_archive"));
+        assertTrue(orderItemRepository.findByOrderId(old.getOrderId()).isEmpty());
+        assertTrue(paymentRepository.findByOrderId(old.getOrderId()).isEmpty());
+    }
+
+    @Test
+    void testArchivedRows_ShouldStillBeFoundByReportQueries() {
+        // WHAT: Test the archive side of findOrdersBetween / findPaymentsBetween
+        // WHY: Reports union hot and archive, the archived half must come back intact
+
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Order old = check("completed", now.minusDays(40));
+        check("open", null);
+        entityManager.flush();
+        orderArchiveService.archiveCompletedBefore(now.minusDays(30));
+        entityManager.clear();
+
+        // When
+        LocalDateTime start = now.minusHours(1);
+        LocalDateTime end = now.plusHours(1);
+        List<Order> orders = orderRepository.findArchivedOrdersBetween(start, end);
+        List<Payment> payments = paymentRepository.findArchivedPaymentsBetween(start, end);
+
+        // Then
+        assertTrue(orderArchiveService.reaches(start));
+        assertFalse(orderArchiveService.reaches(now.plusDays(1)));
+        assertEquals(1, orders.size());
+        assertEquals(old.getOrderId(), orders.get(0).getOrderId());
+        assertEquals(0, new BigDecimal("17.51").compareTo(orders.get(0).getTotal()));
+        assertEquals(1, payments.size());
+        assertEquals(0, new BigDecimal("5.00").compareTo(paymentRepository.calculateArchivedTips(start, end)));
+    }
+
+    @Test
+    void testArchiveCompletedBefore_ShouldKeepTheNewestIds() {
+        // WHAT: Test the check holding the highest ids stays hot
+        // WHY: SQLite reuses max(id) + 1 - archiving the top row would hand out an archived id again
+
+        // Given - The only check is old and completed
+        Order only = check("completed", LocalDateTime.now().minusDays(40));
+        entityManager.flush();
+
+        // When
+        int archived = orderArchiveService.archiveCompletedBefore(LocalDateTime.now().minusDays(30));
+
+        // Then
+        assertEquals(0, archived);
+        assertTrue(orderRepository.findById(only.getOrderId()).isPresent());
+        assertFalse(orderArchiveService.reaches(null));
+    }
+}
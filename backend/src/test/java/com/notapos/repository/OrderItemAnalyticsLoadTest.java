@@ -0,0 +1,154 @@
+package com.notapos.repository;
+
+import com.notapos.analytics.OrderItemAnalytics;
+import com.notapos.dto.ItemMixRow;
+import com.notapos.dto.ModifierAttachRate;
+import com.notapos.dto.StationTicketTime;
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.service.OrderArchiveService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for loading OrderItemAnalytics from the database.
+ *
+ * Runs the startup load against a real SQLite schema: only completed checks
+ * come in, with their menu category, prep station and modifiers, from both
+ * the hot and the archive tables.
+ *
+ * @author CJ
+ */
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+class OrderItemAnalyticsLoadTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderItemModifierRepository orderItemModifierRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderArchiveService orderArchiveService;
+    private MenuItem burger;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveService(orderRepository, jdbcTemplate, transactionManager);
+
+        burger = new MenuItem();
+        burger.setName("Burger");
+        burger.setPrice(new BigDecimal("15.00"));
+        burger.setCategory("Entrees");
+        burger.setPrepStationId(3L);
+        burger = menuItemRepository.save(burger);
+    }
+
+    private OrderItem check(String status, LocalDateTime completedAt, boolean withModifier) {    // One burger, fired and completed 5 minutes apart
+        Order order = new Order();
+        order.setTableId(1L);
+        order.setStatus(status);
+        order.setCompletedAt(completedAt);
+        order = orderRepository.save(order);
+
+        OrderItem item = new OrderItem();
+        item.setOrderId(order.getOrderId());
+        item.setMenuItemId(burger.getMenuItemId());
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("15.00"));
+        item.setStatus("completed");
+        item.setFiredAt(LocalDateTime.of(2025, 6, 14, 18, 0));
+        item.setCompletedAt(LocalDateTime.of(2025, 6, 14, 18, 5));
+        item = orderItemRepository.save(item);
+
+        if (withModifier) {
+            OrderItemModifier modifier = new OrderItemModifier();
+            modifier.setOrderItemId(item.getOrderItemId());
+            modifier.setModifierId(1L);
+            modifier.setPriceAdjustment(new BigDecimal("1.50"));
+            orderItemModifierRepository.save(modifier);
+        }
+        return item;
+    }
+
+    @Test
+    void testLoad_ShouldReadCompletedChecksWithMenuAndModifiers() {
+        // WHAT: Test the startup load
+        // WHY: The columns are only as good as the join that fills them
+
+        // Given - A closed check with a modifier, a closed one without, an open one
+        OrderItem item = check("completed", LocalDateTime.now(), true);
+        check("completed", LocalDateTime.now(), false);
+        check("open", null, true);
+        entityManager.flush();
+
+        // When
+        OrderItemAnalytics analytics = new OrderItemAnalytics(jdbcTemplate, orderArchiveService);
+        analytics.load();
+
+        // Then - Open check left out, modifier priced in, station from the menu
+        assertTrue(analytics.isLoaded());
+        assertEquals(List.of(new ItemMixRow(item.getCreatedAt().getHour(), burger.getMenuItemId(), 4, new BigDecimal("63.00"))),
+                analytics.itemMix(OrderItemAnalytics.Filter.ALL));
+        assertEquals(List.of(new ModifierAttachRate("Entrees", 2, 1, 1, 0.5, 0.5)),
+                analytics.modifierAttach(OrderItemAnalytics.Filter.ALL));
+        assertEquals(List.of(new StationTicketTime(3L, 2, 300.0, 300)),
+                analytics.ticketTimes(OrderItemAnalytics.Filter.ALL));
+    }
+
+    @Test
+    void testLoad_ShouldIncludeArchivedChecks() {
+        // WHAT: Test archived checks are loaded alongside hot ones
+        // WHY: Menu mix over a year reaches well past the archive cutoff
+
+        // Given - One check archived, two still hot
+        LocalDateTime now = LocalDateTime.now();
+        check("completed", now.minusDays(40), true);
+        check("completed", now.minusDays(1), false);
+        check("completed", now, true);                           // Holds the top ids so the old one can move
+        entityManager.flush();
+        assertEquals(1, orderArchiveService.archiveCompletedBefore(now.minusDays(30)));
+        entityManager.clear();
+
+        // When
+        OrderItemAnalytics analytics = new OrderItemAnalytics(jdbcTemplate, orderArchiveService);
+        analytics.load();
+
+        // Then
+        assertEquals(List.of(new ModifierAttachRate("Entrees", 3, 2, 2, 2.0 / 3, 2.0 / 3)),
+                analytics.modifierAttach(OrderItemAnalytics.Filter.ALL));
+        assertEquals(2, analytics.modifierAttach(new OrderItemAnalytics.Filter(now.minusDays(2), null, null, null))
+                .get(0).items());
+    }
+}
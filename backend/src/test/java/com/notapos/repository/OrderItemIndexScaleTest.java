@@ -0,0 +1,126 @@
+package com.notapos.repository;
+
+import com.notapos.entity.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scale test for the order_items indexes.
+ *
+ * Loads locked/completed history plus a handful of live items and checks
+ * that the hot queries use their indexes - i.e. they don't get slower as
+ * history grows. The timing over 1M rows is OrderItemTimerSweepPerfTest
+ * (@Tag("perf"), not part of mvn test).
+ *
+ * @author CJ
+ */
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OrderItemIndexScaleTest {
+
+    private static final int HISTORY_ROWS = 20_000;
+    private static final int LIVE_ROWS = 50;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);            // Joins the test transaction, rolled back afterwards
+        insertItems(jdbcTemplate, HISTORY_ROWS, LIVE_ROWS);
+    }
+
+    static void insertItems(JdbcTemplate jdbcTemplate, int historyRows, int liveRows) {    // Also used by OrderItemTimerSweepPerfTest
+        long longAgo = storedMillis(LocalDateTime.now().minusDays(90));
+        long inTenMinutes = storedMillis(LocalDateTime.now().plusMinutes(10));
+        String insert = "INSERT INTO order_items (order_id, menu_item_id, quantity, price, status, delay_seconds, "
+                + "delay_expires_at, is_locked, created_at) VALUES (?, ?, 1, 12.99, ?, 15, ?, ?, ?)";
+
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < historyRows; i++) {                                         // Months of closed checks
+            batch.add(new Object[] { (long) i / 4, (long) i % 40, "completed", longAgo, true, longAgo });
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        }
+        for (int i = 0; i < liveRows; i++) {                                            // Tonight's items still counting down
+            batch.add(new Object[] { 900_000L + i, 1L, "limbo", inTenMinutes, false, inTenMinutes });
+        }
+        jdbcTemplate.batchUpdate(insert, batch);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static long storedMillis(LocalDateTime time) {             // What Hibernate writes for a LocalDateTime on SQLite: INTEGER epoch millis
+        return Timestamp.valueOf(time).getTime();
+    }
+
+    @Test
+    void testHotQueries_ShouldUseIndexes() {
+        String timerSweep = queryPlan("SELECT order_item_id FROM order_items "
+                + "WHERE delay_expires_at <= ? AND is_locked = 0 AND status = 'limbo'");
+        String byOrder = queryPlan("SELECT * FROM order_items WHERE order_id = ? AND status = ?");
+        String byStatus = queryPlan("SELECT * FROM order_items WHERE status = ?");
+
+        assertTrue(timerSweep.contains("idx_order_items_unlocked_expiry"), timerSweep);
+        assertTrue(byOrder.contains("idx_order_items_order_status"), byOrder);
+        assertTrue(byStatus.contains("idx_order_items_status"), byStatus);
+    }
+
+    @Test
+    void testInsertedRows_ShouldStoreTimestampsLikeHibernate() {
+        // WHAT: Test the fixture's timestamps are in the format the app writes
+        // WHY: A TEXT created_at next to INTEGER ones would sort and compare differently, and the plan above would mean nothing
+
+        // Given - One item saved through JPA
+        OrderItem item = new OrderItem();
+        item.setOrderId(1L);
+        item.setMenuItemId(1L);
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("12.99"));
+        item.setDelayExpiresAt(LocalDateTime.now().plusMinutes(10));
+        orderItemRepository.saveAndFlush(item);
+
+        // When
+        List<String> createdAtTypes = jdbcTemplate.queryForList("SELECT DISTINCT typeof(created_at) FROM order_items", String.class);
+        List<String> expiryTypes = jdbcTemplate.queryForList("SELECT DISTINCT typeof(delay_expires_at) FROM order_items", String.class);
+
+        // Then
+        assertEquals(List.of("integer"), createdAtTypes);
+        assertEquals(List.of("integer"), expiryTypes);
+    }
+
+    private String queryPlan(String sql) {
+        List<String> rows = jdbcTemplate.query("EXPLAIN QUERY PLAN " + sql,
+                (rs, rowNum) -> rs.getString("detail"), sampleArgs(sql));
+        return String.join(" | ", rows);
+    }
+
+    private Object[] sampleArgs(String sql) {
+        long params = sql.chars().filter(c -> c == '?').count();
+        Object[] args = new Object[(int) params];
+        Arrays.fill(args, "limbo");
+        return args;
+    }
+}
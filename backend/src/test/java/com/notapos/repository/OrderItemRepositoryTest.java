@@ -1,12 +1,21 @@
 package com.notapos.repository;
 
+import com.notapos.dto.KitchenTicketRow;
+import com.notapos.dto.MenuItemPopularity;
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.Order;
 import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.entity.PrepStation;
+import com.notapos.entity.RestaurantTable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +37,9 @@ class OrderItemRepositoryTest {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private OrderItem draftItem;
     private OrderItem pendingItem;
     private OrderItem firedItem;
@@ -311,4 +323,272 @@ class OrderItemRepositoryTest {
         assertEquals(5, reloaded.getQuantity());
         assertEquals("No onions please", reloaded.getSpecialInstructions());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLockExpiredLimboItems_ShouldLockOnlyExpiredLimboItemsInOneStatement() {
+        // WHAT: Test the set-based lock transition used by the delay timer
+        // WHY: One UPDATE per tick instead of a SELECT plus one save per item
+        
+        // Given - One expired limbo item, one limbo item still counting down
+        OrderItem expiredLimbo = limboItem(LocalDateTime.now().minusSeconds(2));
+        OrderItem waitingLimbo = limboItem(LocalDateTime.now().plusSeconds(10));
+
+        // When - Lock everything that has expired
+        List<Long> lockedIds = orderItemRepository.lockExpiredLimboItems(LocalDateTime.now(), 1L);
+        entityManager.clear();
+
+        // Then - Only the expired limbo item was locked and moved to pending
+        assertEquals(List.of(expiredLimbo.getOrderItemId()), lockedIds);
+
+        OrderItem locked = orderItemRepository.findById(expiredLimbo.getOrderItemId()).orElseThrow();
+        assertEquals("pending", locked.getStatus());
+        assertTrue(locked.getIsLocked());
+
+        OrderItem waiting = orderItemRepository.findById(waitingLimbo.getOrderItemId()).orElseThrow();
+        assertEquals("limbo", waiting.getStatus());
+        assertFalse(waiting.getIsLocked());
+    }
+
+    @Test
+    void testLockExpiredLimboItems_ById_ShouldSkipItemsNoLongerInLimbo() {
+        // WHAT: Test locking the ids handed over by the timer wheel
+        // WHY: An item sent early (or deleted) must not be transitioned twice
+        
+        // Given - Two expired limbo items, one already sent by the server
+        OrderItem first = limboItem(LocalDateTime.now().minusSeconds(1));
+        OrderItem sentEarly = limboItem(LocalDateTime.now().minusSeconds(1));
+        sentEarly.setStatus("pending");
+        sentEarly.setIsLocked(true);
+        orderItemRepository.save(sentEarly);
+
+        // When
+        List<Long> lockedIds = orderItemRepository.lockExpiredLimboItems(
+                List.of(first.getOrderItemId(), sentEarly.getOrderItemId()), LocalDateTime.now(), 1L);
+
+        // Then - Only the item still in limbo comes back
+        assertEquals(List.of(first.getOrderItemId()), lockedIds);
+    }
+
+    @Test
+    void testCompareAndSendNow_ShouldOnlyApplyFromExpectedStatus() {
+        // WHAT: Test the conditional send-now UPDATE
+        // WHY: "Send now" racing the timer must move the item exactly once
+        
+        // Given - Item in limbo
+        OrderItem item = limboItem(LocalDateTime.now().plusSeconds(10));
+        entityManager.flush();
+        Long startVersion = item.getVersion();
+
+        // When - Two callers both read "limbo" and try to send it
+        int first = orderItemRepository.compareAndSendNow(item.getOrderItemId(), "limbo", LocalDateTime.now(), 1L);
+        int second = orderItemRepository.compareAndSendNow(item.getOrderItemId(), "limbo", LocalDateTime.now(), 1L);
+
+        // Then - Only one wins, and the version moved on
+        assertEquals(1, first);
+        assertEquals(0, second);
+
+        OrderItem sent = orderItemRepository.findById(item.getOrderItemId()).orElseThrow();
+        assertEquals("pending", sent.getStatus());
+        assertTrue(sent.getIsLocked());
+        assertEquals(startVersion + 1, sent.getVersion());
+    }
+
+    @Test
+    void testCompareAndSendNow_ShouldStampSentAtOnlyIfUnset() {
+        // WHAT: Test sent_at on the single-item send-now path
+        // WHY: Same as sendOrderNow - a draft gets sent now, a limbo item keeps when it was first sent
+
+        // Given - A draft, and a limbo item sent an hour ago
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime hourAgo = now.minusHours(1);
+        OrderItem limbo = limboItem(now.plusSeconds(10));
+        limbo.setSentAt(hourAgo);
+        orderItemRepository.save(limbo);
+        entityManager.flush();
+
+        // When
+        orderItemRepository.compareAndSendNow(draftItem.getOrderItemId(), "draft", now, 1L);
+        orderItemRepository.compareAndSendNow(limbo.getOrderItemId(), "limbo", now, 1L);
+
+        // Then
+        assertEquals(now, orderItemRepository.findById(draftItem.getOrderItemId()).orElseThrow().getSentAt());
+        assertEquals(hourAgo, orderItemRepository.findById(limbo.getOrderItemId()).orElseThrow().getSentAt());
+    }
+
+    @Test
+    void testSendOrderNow_ShouldSendDraftAndLimboItemsInOneStatement() {
+        // WHAT: Test the bulk send-now UPDATE ... RETURNING
+        // WHY: A 12-top sending 40 items should be one statement, not 80+
+        
+        // Given - One limbo and one draft item on order 4, plus an item already fired
+        OrderItem limbo = limboItem(LocalDateTime.now().plusSeconds(10));
+        OrderItem draft = limboItem(null);
+        draft.setStatus("draft");
+        OrderItem fired = limboItem(null);
+        fired.setStatus("fired");
+        fired.setIsLocked(true);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<OrderItem> sent = orderItemRepository.sendOrderNow(4L, LocalDateTime.now(), 1L);
+
+        // Then - Both unsent items come back locked and pending, the fired one is untouched
+        assertEquals(2, sent.size());
+        assertTrue(sent.stream().allMatch(item -> "pending".equals(item.getStatus()) && item.getIsLocked()));
+        assertTrue(sent.stream().allMatch(item -> item.getSentAt() != null));
+        assertTrue(sent.stream().noneMatch(item -> item.getOrderItemId().equals(fired.getOrderItemId())));
+        assertTrue(sent.stream().anyMatch(item -> item.getOrderItemId().equals(draft.getOrderItemId())));
+        assertTrue(sent.stream().anyMatch(item -> item.getOrderItemId().equals(limbo.getOrderItemId())));
+    }
+
+    @Test
+    void testFindChangedBetween_ShouldReturnOnlyRowsInWindow() {
+        // WHAT: Test the change feed query
+        // WHY: Polling terminals only download what changed since their cursor
+        
+        // Given - Rows written at sequence 3, 5 and 8
+        OrderItem old = limboItem(null);
+        old.setModSeq(3L);
+        OrderItem inWindow = limboItem(null);
+        inWindow.setModSeq(5L);
+        OrderItem tooNew = limboItem(null);
+        tooNew.setModSeq(8L);
+        entityManager.flush();
+
+        // When - Client synced up to 3, cursor is 7
+        List<OrderItem> changed = orderItemRepository.findChangedBetween(3L, 7L);
+
+        // Then
+        assertEquals(List.of(inWindow.getOrderItemId()), changed.stream().map(OrderItem::getOrderItemId).toList());
+        assertTrue(orderItemRepository.findHighestModSeq() >= 8L);
+    }
+
+    @Test
+    void testFindKitchenTicketRows_ShouldJoinNameTableAndModifiersForStation() {
+        // WHAT: Test the KDS projection query
+        // WHY: One query has to give the line everything it shows on a ticket
+        
+        // Given - A fired burger with two modifiers on table K1, plus a draft and a completed item
+        PrepStation grill = new PrepStation();
+        grill.setName("Test Grill");
+        grill = entityManager.persist(grill);
+
+        MenuItem burger = new MenuItem();
+        burger.setName("Test Burger");
+        burger.setPrice(new BigDecimal("14.99"));
+        burger.setCategory("Entrees");
+        burger.setPrepStationId(grill.getPrepStationId());
+        burger = entityManager.persist(burger);
+
+        RestaurantTable table = new RestaurantTable();
+        table.setTableNumber("K1");
+        table.setSeatCount(4);
+        table = entityManager.persist(table);
+
+        Order order = new Order();
+        order.setTableId(table.getTableId());
+        order = entityManager.persist(order);
+
+        OrderItem fired = kitchenItem(order.getOrderId(), burger.getMenuItemId(), "fired");
+        fired.setSpecialInstructions("No onions");
+        kitchenItem(order.getOrderId(), burger.getMenuItemId(), "draft");
+        kitchenItem(order.getOrderId(), burger.getMenuItemId(), "completed");
+
+        for (String name : List.of("Medium Rare", "Add Bacon")) {
+            Modifier modifier = new Modifier();
+            modifier.setModifierGroupId(1L);
+            modifier.setName(name);
+            modifier = entityManager.persist(modifier);
+
+            OrderItemModifier chosen = new OrderItemModifier();
+            chosen.setOrderItemId(fired.getOrderItemId());
+            chosen.setModifierId(modifier.getModifierId());
+            entityManager.persist(chosen);
+        }
+        entityManager.flush();
+
+        // When
+        List<KitchenTicketRow> rows = orderItemRepository.findKitchenTicketRows(grill.getPrepStationId());
+
+        // Then - One row per modifier of the fired item, nothing else
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.orderItemId().equals(fired.getOrderItemId())));
+        assertEquals("Test Burger", rows.get(0).itemName());
+        assertEquals("K1", rows.get(0).tableNumber());
+        assertEquals("No onions", rows.get(0).specialInstructions());
+        assertEquals(List.of("Medium Rare", "Add Bacon"), rows.stream().map(KitchenTicketRow::modifierName).toList());
+    }
+
+    @Test
+    void testCountOrderedByMenuItem_ShouldSumQuantities() {
+        // WHAT: Test the popularity count used to rank search results
+        // WHY: Two of one item on one ticket counts as two sold
+
+        // Given - setUp has menu item 2 x2; add another 3 of it
+        OrderItem more = limboItem(null);
+        more.setMenuItemId(2L);
+        more.setQuantity(3);
+        entityManager.flush();
+
+        // When
+        List<MenuItemPopularity> counts = orderItemRepository.countOrderedByMenuItem();
+
+        // Then
+        MenuItemPopularity item2 = counts.stream().filter(row -> row.menuItemId().equals(2L)).findFirst().orElseThrow();
+        assertTrue(item2.timesOrdered() >= 5L);
+    }
+
+    @Test
+    void testFindItemsOfOpenOrders_ShouldSkipItemsOfCompletedOrders() {
+        // WHAT: Test the query that loads the open order cache
+        // WHY: Only checks still being served belong in the working set
+
+        // Given - One open check and one completed check, an item on each
+        Order open = new Order();
+        open.setTableId(1L);
+        open = entityManager.persist(open);
+
+        Order completed = new Order();
+        completed.setTableId(1L);
+        completed.setStatus("completed");
+        completed = entityManager.persist(completed);
+
+        OrderItem openItem = kitchenItem(open.getOrderId(), 1L, "draft");
+        OrderItem completedItem = kitchenItem(completed.getOrderId(), 1L, "completed");
+
+        // When
+        List<Long> ids = orderItemRepository.findItemsOfOpenOrders().stream()
+                .map(OrderItem::getOrderItemId)
+                .toList();
+
+        // Then
+        assertTrue(ids.contains(openItem.getOrderItemId()));
+        assertFalse(ids.contains(completedItem.getOrderItemId()));
+    }
+
+    private OrderItem kitchenItem(Long orderId, Long menuItemId, String status) {
+        OrderItem item = new OrderItem();
+        item.setOrderId(orderId);
+        item.setMenuItemId(menuItemId);
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("14.99"));
+        item.setStatus(status);
+        item.setDelaySeconds(15);
+        item.setIsLocked(!"draft".equals(status));
+        return orderItemRepository.save(item);
+    }
+
+    private OrderItem limboItem(LocalDateTime expiresAt) {
+        OrderItem item = new OrderItem();
+        item.setOrderId(4L);
+        item.setMenuItemId(1L);
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("9.99"));
+        item.setStatus("limbo");
+        item.setDelaySeconds(15);
+        item.setDelayExpiresAt(expiresAt);
+        item.setIsLocked(false);
+        return orderItemRepository.save(item);
+    }
+}
@@ -0,0 +1,67 @@
+package com.notapos.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Timing of the delay timer sweep over 1M rows of order item history.
+ *
+ * Wall-clock, so it's tagged "perf" and left out of mvn test - run it with
+ * mvn test -Pperf on a quiet machine. The index choice it depends on is
+ * checked in the unit suite (OrderItemIndexScaleTest).
+ *
+ * @author CJ
+ */
+
+@Tag("perf")
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OrderItemTimerSweepPerfTest {
+
+    private static final int HISTORY_ROWS = 1_000_000;
+    private static final int LIVE_ROWS = 50;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        OrderItemIndexScaleTest.insertItems(new JdbcTemplate(dataSource), HISTORY_ROWS, LIVE_ROWS);
+    }
+
+    @Test
+    void testTimerSweep_WithMillionRowsOfHistory_ShouldStaySubMillisecond() {
+        // Warm up (statement cache, JIT)
+        for (int i = 0; i < 200; i++) {
+            orderItemRepository.lockExpiredLimboItems(LocalDateTime.now(), 1L);
+        }
+
+        long[] samples = new long[500];
+        for (int i = 0; i < samples.length; i++) {
+            long started = System.nanoTime();
+            List<Long> locked = orderItemRepository.lockExpiredLimboItems(LocalDateTime.now(), 1L);
+            samples[i] = System.nanoTime() - started;
+            assertTrue(locked.isEmpty());
+        }
+
+        Arrays.sort(samples);
+        long medianMicros = samples[samples.length / 2] / 1000;
+        assertTrue(medianMicros < 1_000, "timer sweep median was " + medianMicros + "us");
+    }
+}
@@ -1,15 +1,22 @@
 package com.notapos.repository;
 
+import com.notapos.entity.Order;
 import com.notapos.entity.Payment;
+import com.notapos.service.OrderArchiveService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +37,15 @@ class PaymentRepositoryTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Payment cashPayment;
     private Payment cardPayment;
     private Payment refundedPayment;
@@ -227,6 +243,130 @@ class PaymentRepositoryTest {
         assertEquals(3, paymentsInRange.size());
     }
 
+    @Test
+    void testFindPaymentPageBetween_ShouldPickUpAfterLastId() {
+        // WHAT: Test the export keyset page over a time range
+        // WHY: Exports read the range a page at a time, each starting after the last id written
+
+        // Given - 3 payments in database (from setUp)
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        LocalDateTime end = LocalDateTime.now().plusHours(1);
+
+        // When
+        List<Payment> first = paymentRepository.findPaymentPageBetween(start, end, 0L, Limit.of(2));
+        List<Payment> second = paymentRepository.findPaymentPageBetween(start, end, first.get(1).getPaymentId(), Limit.of(2));
+
+        // Then - Id order, no overlap
+        assertEquals(List.of(cashPayment.getPaymentId(), cardPayment.getPaymentId()), first.stream().map(Payment::getPaymentId).toList());
+        assertEquals(List.of(refundedPayment.getPaymentId()), second.stream().map(Payment::getPaymentId).toList());
+    }
+
+    @Test
+    void testSumByServerSectionAndHour_ShouldGroupCompletedPaymentsByOrdersServerAndHour() {
+        // WHAT: Test the per-server, per-hour GROUP BY over payments joined to orders
+        // WHY: A tip report over any number of hours is one query, split back into hours for the cache
+
+        // Given - A patio order of Sarah's paid twice, a refund on it, and a payment whose order has no server
+        paymentRepository.deleteAll();
+        Order order = new Order();
+        order.setTableId(1L);
+        order.setServerName("Sarah");
+        order.setSection("patio");
+        order = orderRepository.save(order);
+        Order unassigned = new Order();
+        unassigned.setTableId(2L);
+        unassigned = orderRepository.save(unassigned);
+        savePayment(order.getOrderId(), "30.00", "completed");
+        savePayment(order.getOrderId(), "20.00", "completed");
+        savePayment(order.getOrderId(), "99.00", "refunded");
+        savePayment(unassigned.getOrderId(), "15.00", "completed");
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+
+        // When
+        List<Object[]> rows = paymentRepository.sumByServerSectionAndHour(start, start.plusHours(2));
+
+        // Then - Sarah's row in the second hour (refund excluded), and one for the order with no server
+        Object[] sarah = rows.stream().filter(row -> "Sarah".equals(row[0])).findFirst().orElseThrow();
+        assertEquals("patio", sarah[1]);
+        assertEquals(1L, ((Number) sarah[2]).longValue());
+        assertEquals(50.0, ((Number) sarah[3]).doubleValue());
+        assertEquals(8.0, ((Number) sarah[4]).doubleValue());
+        assertEquals(2L, ((Number) sarah[5]).longValue());
+        assertEquals(2, rows.size());
+        assertEquals(1L, ((Number) rows.stream().filter(row -> row[0] == null).findFirst().orElseThrow()[5]).longValue());
+    }
+
+    @Test
+    void testSumWithArchiveByServerSectionAndHour_ShouldAddHistoryTablesInSameGroup() {
+        // WHAT: Test the hot + history UNION ALL variant
+        // WHY: An archived check and a hot one of the same server and hour are one row, not two
+
+        // Given - Two of Sarah's checks paid this hour; the older one archived
+        paymentRepository.deleteAll();
+        OrderArchiveService orderArchiveService = new OrderArchiveService(orderRepository, jdbcTemplate, transactionManager);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        for (LocalDateTime completedAt : List.of(LocalDateTime.now().minusDays(40), LocalDateTime.now())) {
+            Order order = new Order();
+            order.setTableId(1L);
+            order.setServerName("Sarah");
+            order.setSection("patio");
+            order.setStatus("completed");
+            order.setCompletedAt(completedAt);
+            order = orderRepository.save(order);
+            savePayment(order.getOrderId(), "30.00", "completed");
+        }
+        paymentRepository.flush();
+        assertEquals(1, orderArchiveService.archiveCompletedBefore(LocalDateTime.now().minusDays(30)));
+
+        // When
+        List<Object[]> rows = paymentRepository.sumWithArchiveByServerSectionAndHour(start, start.plusHours(1));
+
+        // Then
+        assertEquals(1, rows.size());
+        assertEquals("Sarah", rows.get(0)[0]);
+        assertEquals(0L, ((Number) rows.get(0)[2]).longValue());
+        assertEquals(60.0, ((Number) rows.get(0)[3]).doubleValue());
+        assertEquals(2L, ((Number) rows.get(0)[5]).longValue());
+    }
+
+    @Test
+    void testIdempotencyKey_ShouldBeUnique() {
+        // WHAT: Test the unique index on idempotency_key
+        // WHY: It's the last line against a double charge when two retries race
+
+        // Given - cashPayment carries a key
+        cashPayment.setIdempotencyKey("term-1-0001");
+        paymentRepository.saveAndFlush(cashPayment);
+        Payment duplicate = new Payment();
+        duplicate.setOrderId(1L);
+        duplicate.setAmount(new BigDecimal("50.00"));
+        duplicate.setPaymentMethod("cash");
+        duplicate.setIdempotencyKey("term-1-0001");
+
+        // When/Then - Second insert with the key is rejected
+        DataAccessException rejected = assertThrows(DataAccessException.class, () -> paymentRepository.saveAndFlush(duplicate));
+        assertTrue(rejected.getMessage().contains("UNIQUE"));
+    }
+
+    @Test
+    void testIdempotencyKey_ShouldBeFoundInWindowAndClearedAfter() {
+        // WHAT: Test the replay lookup and the window cleanup
+        // WHY: Keys are honored for the window, then freed
+
+        // Given
+        cashPayment.setIdempotencyKey("term-1-0001");
+        paymentRepository.saveAndFlush(cashPayment);
+        LocalDateTime windowStart = LocalDateTime.now().minusHours(1);
+
+        // When/Then - Found while in the window
+        assertEquals(cashPayment.getPaymentId(),
+                paymentRepository.findByIdempotencyKeyAndCreatedAtAfter("term-1-0001", windowStart).orElseThrow().getPaymentId());
+
+        // When/Then - A cleanup with a later cutoff clears it
+        assertEquals(1, paymentRepository.clearIdempotencyKeysBefore(LocalDateTime.now().plusMinutes(1)));
+        assertTrue(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter("term-1-0001", windowStart).isEmpty());
+    }
+
     @Test
     void testCalculateTotalTips_ShouldSumTipAmounts() {
         // WHAT: Test calculating total tips in a time range
@@ -277,4 +417,14 @@ class PaymentRepositoryTest {
         assertEquals(new BigDecimal("12.00"), reloaded.getTipAmount());
         assertEquals("adjusted", reloaded.getStatus());
     }
-}
\ No newline at end of file
+
+    private void savePayment(Long orderId, String amount, String status) {
+        Payment payment = new Payment();
+        payment.setOrderId(orderId);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setTipAmount(new BigDecimal("4.00"));
+        payment.setPaymentMethod("credit_card");
+        payment.setStatus(status);
+        paymentRepository.save(payment);
+    }
+}
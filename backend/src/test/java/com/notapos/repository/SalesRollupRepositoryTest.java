@@ -0,0 +1,74 @@
+package com.notapos.repository;
+
+import com.notapos.entity.SalesRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Repository tests for SalesRollupRepository.
+ *
+ * Tests the bucket upsert and the day / range reads against SQLite.
+ *
+ * @author CJ
+ */
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+class SalesRollupRepositoryTest {
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    private final LocalDate day = LocalDate.of(2025, 6, 14);
+    private final LocalDateTime sevenPm = LocalDateTime.of(2025, 6, 14, 19, 0);
+
+    @BeforeEach
+    void setUp() {
+        salesRollupRepository.deleteAll();
+    }
+
+    @Test
+    void testAdd_SameBucket_ShouldAccumulateIntoOneRow() {
+        // WHAT: Test two payments landing in the same 15-minute bucket
+        // WHY: The bucket must hold the sum, not the last write
+
+        // Given/When - $50.00 + $10.00 tip, then $20.00 + $4.00 tip, then a $10.00 correction
+        salesRollupRepository.add(day, sevenPm, "cash", SalesRollup.NO_SERVER, 5000, 1000, 1, 0, 0);
+        salesRollupRepository.add(day, sevenPm, "cash", SalesRollup.NO_SERVER, 2000, 400, 1, 0, 0);
+        salesRollupRepository.add(day, sevenPm, "cash", SalesRollup.NO_SERVER, -1000, 0, 0, 0, 0);
+
+        // Then
+        List<SalesRollup> rows = salesRollupRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(6000, rows.get(0).getSalesCents());
+        assertEquals(1400, rows.get(0).getTipsCents());
+        assertEquals(2, rows.get(0).getPaymentCount());
+    }
+
+    @Test
+    void testAdd_DifferentMethodOrBucket_ShouldKeepSeparateRows() {
+        // WHAT: Test the bucket key (interval, method, server)
+        // WHY: The payment breakdown and the interval chart read these apart
+
+        // Given/When
+        salesRollupRepository.add(day, sevenPm, "cash", SalesRollup.NO_SERVER, 5000, 0, 1, 0, 0);
+        salesRollupRepository.add(day, sevenPm, "credit_card", SalesRollup.NO_SERVER, 3000, 0, 1, 0, 0);
+        salesRollupRepository.add(day, sevenPm.plusMinutes(15), "cash", SalesRollup.NO_SERVER, 1000, 0, 1, 0, 0);
+        salesRollupRepository.add(day, sevenPm, SalesRollup.CHECKS, SalesRollup.NO_SERVER, 0, 0, 0, 1, 8000);
+
+        // Then
+        assertEquals(4, salesRollupRepository.findByBusinessDayOrderByBucketStartAsc(day).size());
+        assertTrue(salesRollupRepository.findByBusinessDayOrderByBucketStartAsc(day.plusDays(1)).isEmpty());
+        assertEquals(3, salesRollupRepository.findBucketsBetween(sevenPm, sevenPm.plusMinutes(15)).size());
+    }
+}
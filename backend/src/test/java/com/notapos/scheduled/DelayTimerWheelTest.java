@@ -0,0 +1,148 @@
+package com.notapos.scheduled;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DelayTimerWheel.
+ * 
+ * Drives the wheel with a fake clock to verify items fire on their tick -
+ * never early, never more than one tick late - across every level.
+ * 
+ * @author CJ
+ */
+
+class DelayTimerWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    private DelayTimerWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new DelayTimerWheel(TICK, START);
+    }
+
+    @Test
+    void testAdvance_BeforeDeadline_ShouldNotFire() {
+        // Given - Item expires in 15 seconds
+        wheel.schedule(1L, START + 15_000);
+
+        // When - 14.9 seconds pass
+        List<Long> expired = wheel.advance(START + 14_900);
+
+        // Then
+        assertTrue(expired.isEmpty());
+        assertTrue(wheel.isScheduled(1L));
+    }
+
+    @Test
+    void testAdvance_AtDeadline_ShouldFireOnce() {
+        // Given
+        wheel.schedule(1L, START + 15_000);
+
+        // When/Then - Fires exactly at 15 seconds, then never again
+        assertEquals(List.of(1L), wheel.advance(START + 15_000));
+        assertTrue(wheel.advance(START + 30_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testAdvance_TickByTick_ShouldFireWithinOneTick() {
+        // WHAT: Walk the clock 1 tick at a time across level boundaries
+        // WHY: Cascading between levels must not make items late or early
+        long[] delays = {50, 6_300, 6_400, 15_000, 409_600, 500_000};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.schedule((long) i, START + delays[i]);
+        }
+
+        for (long now = START; now <= START + 600_000; now += TICK) {
+            for (Long id : wheel.advance(now)) {
+                long deadline = START + delays[id.intValue()];
+                assertTrue(now >= deadline, "item " + id + " fired early");
+                assertTrue(now - deadline < TICK, "item " + id + " fired late");
+            }
+        }
+
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testSchedule_AlreadyExpired_ShouldFireOnNextAdvance() {
+        // Given - Item expired while the server was restarting
+        wheel.schedule(1L, START - 5_000);
+
+        // When/Then
+        assertEquals(List.of(1L), wheel.advance(START));
+    }
+
+    @Test
+    void testCancel_ShouldNeverFire() {
+        // Given
+        wheel.schedule(1L, START + 15_000);
+
+        // When - Server hits "send now"
+        assertTrue(wheel.cancel(1L));
+
+        // Then
+        assertTrue(wheel.advance(START + 20_000).isEmpty());
+        assertFalse(wheel.cancel(1L));
+    }
+
+    @Test
+    void testCancel_WhenAlreadyDue_ShouldNeverFire() {
+        // Given - Expired, not yet handed out
+        wheel.schedule(1L, START - 5_000);
+
+        // When
+        assertTrue(wheel.cancel(1L));
+
+        // Then
+        assertTrue(wheel.advance(START).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testSchedule_Again_WhenAlreadyDue_ShouldUseNewDeadline() {
+        // Given - Expired, then edited before the next tick handed it out
+        wheel.schedule(1L, START - 5_000);
+        wheel.schedule(1L, START + 15_000);
+
+        // When/Then - No stale copy fires now, the new deadline fires once
+        assertTrue(wheel.advance(START).isEmpty());
+        assertTrue(wheel.isScheduled(1L));
+        assertEquals(List.of(1L), wheel.advance(START + 15_000));
+        assertTrue(wheel.advance(START + 30_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testSchedule_Again_ShouldReplaceOldDeadline() {
+        // Given - Item edited during limbo, timer restarts
+        wheel.schedule(1L, START + 15_000);
+        wheel.schedule(1L, START + 25_000);
+
+        // When/Then
+        assertTrue(wheel.advance(START + 20_000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START + 25_000));
+    }
+
+    @Test
+    void testAdvance_LargeJump_ShouldFireEverythingDue() {
+        // Given
+        wheel.schedule(1L, START + 1_000);
+        wheel.schedule(2L, START + 60_000);
+        wheel.schedule(3L, START + 3_600_000);
+
+        // When - Scheduler stalls for 2 minutes
+        List<Long> expired = wheel.advance(START + 120_000);
+
+        // Then
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of(1L, 2L)));
+        assertTrue(wheel.isScheduled(3L));
+    }
+}
@@ -0,0 +1,61 @@
+package com.notapos.scheduled;
+
+import com.notapos.entity.Order;
+import com.notapos.service.OrderPricingService;
+import com.notapos.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for OrderTotalsReconciliationTask.
+ *
+ * Verifies every open order is checked and one failing order doesn't stop
+ * the rest.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class OrderTotalsReconciliationTaskTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderPricingService orderPricingService;
+
+    @InjectMocks
+    private OrderTotalsReconciliationTask reconciliationTask;
+
+    private Order order(Long id) {
+        Order order = new Order();
+        order.setOrderId(id);
+        return order;
+    }
+
+    @Test
+    void testReconcileOpenOrders_ShouldCheckEachOpenOrderAndCountRepairs() {
+        // WHAT: Test the job walks the open orders
+        // WHY: Running totals are only trusted because this keeps proving them
+
+        // Given - Order 2 has drifted, order 3 is being written and fails
+        when(orderService.getOrdersByStatus("open")).thenReturn(List.of(order(1L), order(2L), order(3L), order(4L)));
+        when(orderPricingService.reconcileOrder(1L)).thenReturn(false);
+        when(orderPricingService.reconcileOrder(2L)).thenReturn(true);
+        when(orderPricingService.reconcileOrder(3L)).thenThrow(new RuntimeException("database is locked"));
+        when(orderPricingService.reconcileOrder(4L)).thenReturn(false);
+
+        // When
+        int drifted = reconciliationTask.reconcileOpenOrders();
+
+        // Then - One repaired, order 4 still checked after order 3 failed
+        assertEquals(1, drifted);
+        verify(orderPricingService, times(1)).reconcileOrder(4L);
+    }
+}
@@ -1,5 +1,7 @@
 package com.notapos.scheduled;
 
+import com.notapos.entity.OrderItem;
+import com.notapos.metrics.DelayTimerMetrics;
 import com.notapos.service.OrderItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,13 +9,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests for TimerScheduledTask.
  * 
- * Verifies that the background job correctly calls the service layer
- * to lock and fire expired order items.
+ * Verifies that the background job turns the timer wheel and only calls
+ * the service layer when an item's delay has actually expired.
  * 
  * @author CJ
  */
@@ -24,56 +32,97 @@ class TimerScheduledTaskTest {
     @Mock
     private OrderItemService orderItemService;
 
+    @Mock
+    private DelayTimerWheel delayTimerWheel;
+
+    @Mock
+    private DelayTimerMetrics delayTimerMetrics;
+
     @InjectMocks
     private TimerScheduledTask timerScheduledTask;
 
     @BeforeEach
     void setUp() {
-        // Mock is set up by Mockito annotations
+        // Mocks are set up by Mockito annotations
     }
 
     @Test
-    void testCheckExpiredTimers_ShouldCallServiceMethod() {
-        // WHAT: Test that the scheduled task calls the service
+    void testCheckExpiredTimers_WhenTimersExpire_ShouldLockThoseItems() {
+        // WHAT: Test that expired timers are handed to the service
         // WHY: Ensure the background job is wired correctly
         
-        // Given - Service is mocked (from @Mock annotation)
+        // Given - Wheel reports two expired items
+        when(delayTimerWheel.advance(anyLong())).thenReturn(List.of(1L, 2L));
         
         // When - Scheduled task runs
         timerScheduledTask.checkExpiredTimers();
 
-        // Then - Service method should be called exactly once
-        verify(orderItemService, times(1)).lockAndSendExpiredItems();
+        // Then - Service locks exactly those items
+        verify(orderItemService, times(1)).lockExpiredItems(List.of(1L, 2L));
+    }
+
+    @Test
+    void testCheckExpiredTimers_WhenLockFails_ShouldPutItemsBackOnWheel() {
+        // WHAT: Test a failed lock statement re-arms the timers
+        // WHY: advance() already dropped them - without this they'd sit in limbo until a restart
+
+        // Given - Database busy
+        when(delayTimerWheel.advance(anyLong())).thenReturn(List.of(1L, 2L));
+        when(delayTimerWheel.getTickMillis()).thenReturn(DelayTimerWheel.DEFAULT_TICK_MILLIS);
+        when(orderItemService.lockExpiredItems(List.of(1L, 2L)))
+                .thenThrow(new CannotAcquireLockException("[SQLITE_BUSY] The database file is locked"));
+
+        // When
+        timerScheduledTask.checkExpiredTimers();
+
+        // Then - Both rescheduled for the next tick
+        verify(delayTimerWheel).schedule(eq(1L), anyLong());
+        verify(delayTimerWheel).schedule(eq(2L), anyLong());
+    }
+
+    @Test
+    void testSweepExpiredItems_ShouldLockWhatTheWheelMissed() {
+        // WHAT: Test the fallback sweep
+        // WHY: A lost timer must never strand an item in limbo
+
+        // Given
+        OrderItem missed = new OrderItem();
+        missed.setOrderItemId(7L);
+        when(orderItemService.lockAndSendExpiredItems()).thenReturn(List.of(missed));
+
+        // When/Then
+        assertEquals(1, timerScheduledTask.sweepExpiredItems());
     }
 
     @Test
-    void testCheckExpiredTimers_RunsMultipleTimes_ShouldCallServiceMultipleTimes() {
-        // WHAT: Test that multiple scheduler executions call service multiple times
-        // WHY: Verify the scheduler can run repeatedly (simulating real-world usage)
+    void testCheckExpiredTimers_WhenNothingExpired_ShouldNotTouchDatabase() {
+        // WHAT: Test that an idle tick doesn't call the service
+        // WHY: The whole point of the wheel - no polling the order_items table
         
-        // Given - Service is mocked
+        // Given - Nothing due
+        when(delayTimerWheel.advance(anyLong())).thenReturn(List.of());
         
-        // When - Scheduled task runs 5 times (simulating 5 seconds)
+        // When - Scheduled task runs 5 times
         for (int i = 0; i < 5; i++) {
             timerScheduledTask.checkExpiredTimers();
         }
 
-        // Then - Service should be called 5 times
-        verify(orderItemService, times(5)).lockAndSendExpiredItems();
+        // Then - Service never called
+        verify(orderItemService, never()).lockExpiredItems(anyList());
+        verify(orderItemService, never()).lockAndSendExpiredItems();
     }
 
     @Test
-    void testCheckExpiredTimers_WhenServiceThrowsException_ShouldNotCrash() {
-        // WHAT: Test that scheduler handles exceptions gracefully
-        // WHY: If one execution fails, the scheduler should keep running
+    void testCheckExpiredTimers_WhenServiceThrowsException_ShouldPropagate() {
+        // WHAT: Test that scheduler surfaces service failures
+        // WHY: Spring's @Scheduled logs the exception and keeps running
         
         // Given - Service throws exception
+        when(delayTimerWheel.advance(anyLong())).thenReturn(List.of(1L));
         doThrow(new RuntimeException("Database connection lost"))
-                .when(orderItemService).lockAndSendExpiredItems();
+                .when(orderItemService).lockExpiredItems(anyList());
 
-        // When/Then - Should not throw exception (scheduler catches it)
-        // In production, Spring's @Scheduled handles exceptions gracefully
-        // This test just verifies the call happens
+        // When/Then
         try {
             timerScheduledTask.checkExpiredTimers();
         } catch (RuntimeException e) {
@@ -81,6 +130,34 @@ class TimerScheduledTaskTest {
         }
 
         // Verify the service was still called
-        verify(orderItemService, times(1)).lockAndSendExpiredItems();
+        verify(orderItemService, times(1)).lockExpiredItems(List.of(1L));
+    }
+
+    @Test
+    void testRebuildTimers_ShouldScheduleUnlockedLimboItems() {
+        // WHAT: Test that the wheel is rebuilt from the database on startup
+        // WHY: Timers must survive a restart mid-rush
+        
+        // Given - One limbo item waiting, one already locked
+        OrderItem waiting = new OrderItem();
+        waiting.setOrderItemId(1L);
+        waiting.setStatus("limbo");
+        waiting.setIsLocked(false);
+        waiting.setDelayExpiresAt(LocalDateTime.now().plusSeconds(10));
+
+        OrderItem locked = new OrderItem();
+        locked.setOrderItemId(2L);
+        locked.setStatus("limbo");
+        locked.setIsLocked(true);
+        locked.setDelayExpiresAt(LocalDateTime.now().minusSeconds(10));
+
+        when(orderItemService.getItemsByStatus("limbo")).thenReturn(Arrays.asList(waiting, locked));
+
+        // When
+        timerScheduledTask.rebuildTimers();
+
+        // Then - Only the unlocked item is scheduled
+        verify(delayTimerWheel, times(1)).schedule(1L, waiting.getDelayExpiresAt());
+        verify(delayTimerWheel, never()).schedule(eq(2L), any(LocalDateTime.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.notapos.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChangeCounter.
+ * 
+ * @author CJ
+ */
+
+class ChangeCounterTest {
+
+    @Test
+    void testBump_ShouldChangeETag() {
+        // Given
+        ChangeCounter counter = new ChangeCounter("tables");
+        String before = counter.etag();
+
+        // When
+        counter.bump();
+
+        // Then - New ETag, still a quoted strong validator for this aggregate
+        assertNotEquals(before, counter.etag());
+        assertEquals(1, counter.get());
+        assertTrue(counter.etag().startsWith("\"tables-"));
+        assertTrue(counter.etag().endsWith("-1\""));
+    }
+
+    @Test
+    void testETag_WithoutWrites_ShouldStayTheSame() {
+        ChangeCounter counter = new ChangeCounter("orders");
+        assertEquals(counter.etag(), counter.etag());
+    }
+}
@@ -0,0 +1,154 @@
+package com.notapos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.notapos.entity.Order;
+import com.notapos.entity.Payment;
+import com.notapos.repository.OrderRepository;
+import com.notapos.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExportService.
+ *
+ * Tests the CSV / NDJSON output and the keyset paging (archive first, each
+ * page picking up after the last id written).
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    private ExportService exportService;
+
+    private final LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private final LocalDateTime end = LocalDateTime.of(2025, 12, 31, 23, 59);
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(paymentRepository, orderRepository, orderArchiveService, objectMapper);
+    }
+
+    private Payment payment(Long id, String amount, String reference) {
+        Payment payment = new Payment();
+        payment.setPaymentId(id);
+        payment.setOrderId(1L);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setTipAmount(new BigDecimal("2.00"));
+        payment.setPaymentMethod("cash");
+        payment.setTransactionReference(reference);
+        return payment;
+    }
+
+    private String export(ExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportPayments(start, end, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testExportPayments_Csv_ShouldWriteHeaderAndEscapedRows() throws Exception {
+        // WHAT: Test the CSV layout
+        // WHY: Accountants open these in a spreadsheet - commas and quotes must survive
+
+        // Given - One plain row, one with a reference that needs quoting
+        when(paymentRepository.findPaymentPageBetween(start, end, 0L, Limit.of(ExportService.PAGE_ROWS))).thenReturn(List.of(
+                payment(1L, "10.00", null), payment(2L, "20.00", "gift \"A\", 50")));
+
+        // When
+        String[] lines = export(ExportService.Format.CSV).split("\n");
+
+        // Then
+        assertEquals(3, lines.length);
+        assertEquals("paymentId,orderId,amount,tipAmount,paymentMethod,status,transactionReference,createdAt", lines[0]);
+        assertEquals("1,1,10.00,2.00,cash,completed,,", lines[1]);
+        assertEquals("2,1,20.00,2.00,cash,completed,\"gift \"\"A\"\", 50\",", lines[2]);
+    }
+
+    @Test
+    void testExportPayments_Ndjson_ShouldWriteOneObjectPerLine() throws Exception {
+        // WHAT: Test the NDJSON layout
+        // WHY: Each line must parse on its own for line-by-line loaders
+
+        when(paymentRepository.findPaymentPageBetween(start, end, 0L, Limit.of(ExportService.PAGE_ROWS))).thenReturn(List.of(
+                payment(1L, "10.00", null), payment(2L, "20.00", null)));
+
+        String[] lines = export(ExportService.Format.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"paymentId\":1,"));
+        assertTrue(lines[1].startsWith("{\"paymentId\":2,"));
+    }
+
+    @Test
+    void testExportPayments_ShouldPageByIdArchiveFirst() throws Exception {
+        // WHAT: Test the keyset paging across the archive and the hot table
+        // WHY: Each page is a short query of its own - none may skip or repeat a row
+
+        // Given - Range reaches the archive, which holds exactly one full page
+        List<Payment> archivedPage = new ArrayList<>();
+        for (long id = 1; id <= ExportService.PAGE_ROWS; id++) {
+            archivedPage.add(payment(id, "10.00", null));
+        }
+        long lastArchived = ExportService.PAGE_ROWS;
+        when(orderArchiveService.reaches(start)).thenReturn(true);
+        when(paymentRepository.findArchivedPaymentPageBetween(start, end, 0L, ExportService.PAGE_ROWS)).thenReturn(archivedPage);
+        when(paymentRepository.findArchivedPaymentPageBetween(start, end, lastArchived, ExportService.PAGE_ROWS)).thenReturn(List.of());
+        when(paymentRepository.findPaymentPageBetween(start, end, 0L, Limit.of(ExportService.PAGE_ROWS)))
+                .thenReturn(List.of(payment(lastArchived + 1, "20.00", null)));
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportPayments(start, end, ExportService.Format.CSV, out);
+
+        // Then - Archived first, the short hot page ends the export
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ExportService.PAGE_ROWS + 1, rows);
+        assertTrue(lines[1].startsWith("1,"));
+        assertTrue(lines[lines.length - 1].startsWith((lastArchived + 1) + ","));
+        verify(paymentRepository, never()).findPaymentPageBetween(start, end, lastArchived + 1, Limit.of(ExportService.PAGE_ROWS));
+    }
+
+    @Test
+    void testExportOrders_Csv_ShouldLeaveOpenCompletedAtEmpty() throws Exception {
+        // WHAT: Test the orders export
+        // WHY: Open checks have no completedAt - an empty cell, not "null"
+
+        Order order = new Order();
+        order.setOrderId(5L);
+        order.setTableId(3L);
+        order.setTotal(new BigDecimal("17.51"));
+        when(orderRepository.findOrderPageBetween(start, end, 0L, Limit.of(ExportService.PAGE_ROWS))).thenReturn(List.of(order));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportOrders(start, end, ExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("5,3,dine_in,open,0,0,17.51,,", lines[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package com.notapos.service;
+
+import com.notapos.dto.KitchenTicket;
+import com.notapos.dto.KitchenTicketRow;
+import com.notapos.events.OrderItemChangedEvent;
+import com.notapos.repository.OrderItemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KitchenTicketService.
+ *
+ * Tests folding the KDS query rows into tickets and the short-lived cache.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class KitchenTicketServiceTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PrepStationLookup prepStationLookup;
+
+    @InjectMocks
+    private KitchenTicketService kitchenTicketService;
+
+    @Test
+    void testGetTickets_ShouldFoldModifierRowsIntoOneTicket() {
+        // WHAT: Test rows -> tickets
+        // WHY: The join returns one row per modifier, the line wants one ticket per item
+
+        // Given - Burger with two modifiers sent a minute ago, fries with none
+        LocalDateTime sentAt = LocalDateTime.now().minusMinutes(1);
+        when(orderItemRepository.findKitchenTicketRows(1L)).thenReturn(List.of(
+                row(10L, "Burger", sentAt, "Medium Rare"),
+                row(10L, "Burger", sentAt, "Add Bacon"),
+                row(11L, "Fries", null, null)));
+
+        // When
+        List<KitchenTicket> tickets = kitchenTicketService.getTickets(1L);
+
+        // Then
+        assertEquals(2, tickets.size());
+        assertEquals(List.of("Medium Rare", "Add Bacon"), tickets.get(0).modifiers());
+        assertTrue(tickets.get(0).ageSeconds() >= 59);
+        assertTrue(tickets.get(1).modifiers().isEmpty());
+        assertNotNull(tickets.get(1).receivedAt());                     // Falls back to createdAt
+    }
+
+    @Test
+    void testGetTickets_ShouldServeRepeatPollsFromCache() {
+        // WHAT: Test the short cache
+        // WHY: Several screens poll the same station every few seconds
+
+        // Given
+        when(orderItemRepository.findKitchenTicketRows(1L)).thenReturn(List.of());
+
+        // When - Three polls back to back
+        kitchenTicketService.getTickets(1L);
+        kitchenTicketService.getTickets(1L);
+        kitchenTicketService.getTickets(1L);
+
+        // Then - One query
+        verify(orderItemRepository, times(1)).findKitchenTicketRows(1L);
+    }
+
+    @Test
+    void testOnOrderItemChanged_ShouldEvictThatStation() {
+        // WHAT: Test invalidation on a transition
+        // WHY: A fired/completed item must show up (or leave) on the next poll, not after the cache expires
+
+        // Given - Station 1 cached, then an item for a station 1 menu item is fired
+        when(orderItemRepository.findKitchenTicketRows(1L)).thenReturn(List.of());
+        when(prepStationLookup.stationFor(5L)).thenReturn(1L);
+        kitchenTicketService.getTickets(1L);
+
+        // When
+        kitchenTicketService.onOrderItemChanged(new OrderItemChangedEvent(OrderItemChangedEvent.FIRED,
+                10L, 1L, 5L, 1, "fired", true, 2L, LocalDateTime.now()));
+        kitchenTicketService.getTickets(1L);
+
+        // Then - Reloaded
+        verify(orderItemRepository, times(2)).findKitchenTicketRows(1L);
+    }
+
+    private KitchenTicketRow row(Long orderItemId, String name, LocalDateTime sentAt, String modifier) {
+        return new KitchenTicketRow(orderItemId, 1L, "T1", name, 1, "pending", null,
+                sentAt, null, LocalDateTime.now().minusMinutes(2), modifier);
+    }
+}
@@ -0,0 +1,117 @@
+package com.notapos.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.MenuItemModifierGroup;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.ModifierGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MenuBundleService.
+ *
+ * Tests building the full menu document and compressing it once per version.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class MenuBundleServiceTest {
+
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    private MenuBundleService menuBundleService;
+
+    private MenuItem burger;
+    private MenuItem retired;
+    private ModifierGroup sides;
+    private Modifier fries;
+    private MenuItemModifierGroup link;
+
+    @BeforeEach
+    void setUp() {
+        menuBundleService = new MenuBundleService(menuCatalogService, new ObjectMapper());
+
+        burger = new MenuItem();
+        burger.setMenuItemId(1L);
+        burger.setName("Burger");
+        burger.setPrice(new BigDecimal("14.99"));
+        burger.setCategory("Savory");
+        burger.setIsActive(true);
+
+        retired = new MenuItem();
+        retired.setMenuItemId(2L);
+        retired.setName("Old Special");
+        retired.setIsActive(false);
+
+        sides = new ModifierGroup();
+        sides.setModifierGroupId(10L);
+        sides.setName("Choose a Side");
+        sides.setIsRequired(true);
+        sides.setIsActive(true);
+
+        fries = new Modifier();
+        fries.setModifierId(100L);
+        fries.setModifierGroupId(10L);
+        fries.setName("Fries");
+        fries.setIsActive(true);
+
+        link = new MenuItemModifierGroup();
+        link.setMenuItemModifierGroupId(1000L);
+        link.setMenuItemId(1L);
+        link.setModifierGroupId(10L);
+    }
+
+    @Test
+    void testGetBundle_ShouldContainActiveItemsWithModifierTrees() throws Exception {
+        // WHAT: Test the bundle contents
+        // WHY: One download has to give the order screen everything it needs
+
+        // Given
+        when(menuCatalogService.current()).thenReturn(catalog(5L));
+
+        // When
+        MenuBundleService.CompressedBundle bundle = menuBundleService.getBundle();
+        JsonNode json = new ObjectMapper().readTree(bundle.json());
+
+        // Then - Inactive item left out, burger carries its side choices
+        assertEquals(5L, bundle.version());
+        assertEquals(1, json.get("items").size());
+        assertEquals("Burger", json.at("/items/0/name").asText());
+        assertEquals("Choose a Side", json.at("/items/0/modifierGroups/0/name").asText());
+        assertEquals("Fries", json.at("/items/0/modifierGroups/0/modifiers/0/name").asText());
+    }
+
+    @Test
+    void testGetBundle_ShouldCompressOncePerVersion() {
+        // WHAT: Test the bundle is built once per catalog version
+        // WHY: Serving the menu should be a byte copy, not a serialization
+
+        // Given - Same version twice, then a menu write
+        when(menuCatalogService.current()).thenReturn(catalog(5L), catalog(5L), catalog(6L));
+
+        // When
+        byte[] first = menuBundleService.getBundle().gzippedJson();
+        byte[] second = menuBundleService.getBundle().gzippedJson();
+        MenuBundleService.CompressedBundle afterWrite = menuBundleService.getBundle();
+
+        // Then - Same bytes reused, rebuilt for the new version
+        assertSame(first, second);
+        assertEquals(6L, afterWrite.version());
+        assertNotSame(first, afterWrite.gzippedJson());
+    }
+
+    private MenuCatalog catalog(long version) {
+        return MenuCatalog.of(version, List.of(burger, retired), List.of(sides), List.of(fries), List.of(link));
+    }
+}
@@ -0,0 +1,147 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.MenuItemModifierGroup;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.ModifierGroup;
+import com.notapos.repository.MenuItemModifierGroupRepository;
+import com.notapos.repository.MenuItemRepository;
+import com.notapos.repository.ModifierGroupRepository;
+import com.notapos.repository.ModifierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MenuCatalogService.
+ *
+ * Tests loading the menu snapshot once, the modifier trees and copy-on-write
+ * refreshes.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class MenuCatalogServiceTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private ModifierGroupRepository modifierGroupRepository;
+
+    @Mock
+    private ModifierRepository modifierRepository;
+
+    @Mock
+    private MenuItemModifierGroupRepository menuItemModifierGroupRepository;
+
+    @InjectMocks
+    private MenuCatalogService menuCatalogService;
+
+    private MenuItem burger;
+
+    @BeforeEach
+    void setUp() {
+        // Burger (Savory, Kitchen) with "Choose a Side" -> Fries, Salad (inactive)
+        burger = new MenuItem();
+        burger.setMenuItemId(1L);
+        burger.setName("Burger");
+        burger.setCategory("Savory");
+        burger.setPrepStationId(1L);
+        burger.setIsActive(true);
+
+        ModifierGroup sides = new ModifierGroup();
+        sides.setModifierGroupId(10L);
+        sides.setName("Choose a Side");
+        sides.setIsActive(true);
+
+        Modifier fries = new Modifier();
+        fries.setModifierId(100L);
+        fries.setModifierGroupId(10L);
+        fries.setName("Fries");
+        fries.setIsActive(true);
+
+        Modifier salad = new Modifier();
+        salad.setModifierId(101L);
+        salad.setModifierGroupId(10L);
+        salad.setName("Salad");
+        salad.setIsActive(false);
+
+        MenuItemModifierGroup link = new MenuItemModifierGroup();
+        link.setMenuItemModifierGroupId(1000L);
+        link.setMenuItemId(1L);
+        link.setModifierGroupId(10L);
+
+        when(menuItemRepository.findAll()).thenReturn(List.of(burger));
+        when(modifierGroupRepository.findAll()).thenReturn(List.of(sides));
+        when(modifierRepository.findAll()).thenReturn(List.of(fries, salad));
+        when(menuItemModifierGroupRepository.findAll()).thenReturn(List.of(link));
+    }
+
+    @Test
+    void testCurrent_ShouldLoadOnceAndIndexTheMenu() {
+        // WHAT: Test the snapshot and its indexes
+        // WHY: Order entry reads the menu constantly, the database should only be hit once
+
+        // When - Read the catalog three times
+        menuCatalogService.current();
+        menuCatalogService.current();
+        MenuCatalog catalog = menuCatalogService.current();
+
+        // Then - One load, every index answers from memory
+        verify(menuItemRepository, times(1)).findAll();
+        assertEquals("Burger", catalog.getMenuItem(1L).orElseThrow().getName());
+        assertEquals(List.of(burger), catalog.getMenuItemsByCategory("Savory"));
+        assertEquals(List.of(burger), catalog.getMenuItemsByPrepStation(1L));
+        assertEquals(2, catalog.getModifiersByGroup(10L).size());
+        assertTrue(catalog.getMenuItemsByCategory("Sweet").isEmpty());
+    }
+
+    @Test
+    void testGetModifierTree_ShouldOnlyOfferActiveModifiers() {
+        // WHAT: Test menuItemId -> group -> modifier trees
+        // WHY: The order screen shows a burger's side choices without extra lookups
+
+        // When
+        List<MenuCatalog.ModifierGroupTree> tree = menuCatalogService.current().getModifierTree(1L);
+
+        // Then - One group, inactive Salad left out
+        assertEquals(1, tree.size());
+        assertEquals("Choose a Side", tree.get(0).group().getName());
+        assertEquals(List.of("Fries"), tree.get(0).modifiers().stream().map(Modifier::getName).toList());
+        assertTrue(menuCatalogService.current().getModifierTree(2L).isEmpty());
+    }
+
+    @Test
+    void testRefresh_ShouldSwapInNewSnapshotAndLeaveOldOneUntouched() {
+        // WHAT: Test copy-on-write rebuild
+        // WHY: A reader holding the old snapshot must never see a half-applied menu change
+
+        // Given - A reader holds the current snapshot
+        MenuCatalog before = menuCatalogService.current();
+
+        MenuItem fries = new MenuItem();
+        fries.setMenuItemId(2L);
+        fries.setName("Side Fries");
+        fries.setCategory("Sides");
+        fries.setIsActive(true);
+        when(menuItemRepository.findAll()).thenReturn(List.of(burger, fries));
+
+        // When - A menu write refreshes the catalog
+        menuCatalogService.refresh();
+        MenuCatalog after = menuCatalogService.current();
+
+        // Then - New version with the new item, old snapshot unchanged
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(2, after.getMenuItems().size());
+        assertEquals(1, before.getMenuItems().size());
+        assertTrue(before.getMenuItem(2L).isEmpty());
+    }
+}
@@ -29,6 +29,9 @@ class MenuItemModifierGroupServiceTest {
     @Mock
     private MenuItemModifierGroupRepository menuItemModifierGroupRepository;
 
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
     @InjectMocks
     private MenuItemModifierGroupService menuItemModifierGroupService;
 
@@ -59,6 +62,7 @@ class MenuItemModifierGroupServiceTest {
         assertEquals(1L, created.getMenuItemId());
         assertEquals(1L, created.getModifierGroupId());
         verify(menuItemModifierGroupRepository, times(1)).save(testLink);
+        verify(menuCatalogService).refresh();                           // Snapshot rebuilt after the write
     }
 
     @Test
@@ -66,19 +70,19 @@ class MenuItemModifierGroupServiceTest {
         // WHAT: Test retrieving all menu item to modifier group links
         // WHY: Admin needs to see all configured relationships
         
-        // Given - Mock returns 2 links
+        // Given - Catalog holds 2 links
         MenuItemModifierGroup link2 = new MenuItemModifierGroup();
         link2.setMenuItemId(2L);
         link2.setModifierGroupId(1L);
         List<MenuItemModifierGroup> links = Arrays.asList(testLink, link2);
-        when(menuItemModifierGroupRepository.findAll()).thenReturn(links);
+        when(menuCatalogService.current()).thenReturn(catalogOf(links));
 
         // When - Get all links
         List<MenuItemModifierGroup> result = menuItemModifierGroupService.getAllLinks();
 
         // Then - Should get both links
         assertEquals(2, result.size());
-        verify(menuItemModifierGroupRepository, times(1)).findAll();
+        verifyNoInteractions(menuItemModifierGroupRepository);
     }
 
     @Test
@@ -86,8 +90,8 @@ class MenuItemModifierGroupServiceTest {
         // WHAT: Test finding a specific link by ID
         // WHY: Need to load link details
         
-        // Given - Mock returns the link
-        when(menuItemModifierGroupRepository.findById(1L)).thenReturn(Optional.of(testLink));
+        // Given - Link is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testLink)));
 
         // When - Get link by ID
         Optional<MenuItemModifierGroup> result = menuItemModifierGroupService.getLinkById(1L);
@@ -95,7 +99,7 @@ class MenuItemModifierGroupServiceTest {
         // Then - Should find the link
         assertTrue(result.isPresent());
         assertEquals(1L, result.get().getMenuItemId());
-        verify(menuItemModifierGroupRepository, times(1)).findById(1L);
+        verifyNoInteractions(menuItemModifierGroupRepository);
     }
 
     @Test
@@ -103,13 +107,13 @@ class MenuItemModifierGroupServiceTest {
         // WHAT: Test getting all modifier groups for a menu item
         // WHY: Show which customization options apply (Chicken Cutty has Choose a Side + Add Protein)
         
-        // Given - Mock returns modifier groups for menu item
+        // Given - Catalog holds two links for the menu item
         MenuItemModifierGroup link2 = new MenuItemModifierGroup();
         link2.setMenuItemId(1L);
         link2.setModifierGroupId(2L);
         
         List<MenuItemModifierGroup> itemGroups = Arrays.asList(testLink, link2);
-        when(menuItemModifierGroupRepository.findByMenuItemId(1L)).thenReturn(itemGroups);
+        when(menuCatalogService.current()).thenReturn(catalogOf(itemGroups));
 
         // When - Get modifier groups for Chicken Cutty (menu item 1)
         List<MenuItemModifierGroup> result = menuItemModifierGroupService.getModifierGroupsForMenuItem(1L);
@@ -118,7 +122,7 @@ class MenuItemModifierGroupServiceTest {
         assertEquals(2, result.size());
         assertEquals(1L, result.get(0).getMenuItemId());
         assertEquals(1L, result.get(1).getMenuItemId());
-        verify(menuItemModifierGroupRepository, times(1)).findByMenuItemId(1L);
+        verifyNoInteractions(menuItemModifierGroupRepository);
     }
 
     @Test
@@ -126,13 +130,13 @@ class MenuItemModifierGroupServiceTest {
         // WHAT: Test getting all menu items that use a modifier group
         // WHY: See which items have "Choose a Side" option
         
-        // Given - Mock returns menu items for modifier group
+        // Given - Catalog holds two links for the modifier group
         MenuItemModifierGroup link2 = new MenuItemModifierGroup();
         link2.setMenuItemId(2L);
         link2.setModifierGroupId(1L);
         
         List<MenuItemModifierGroup> groupItems = Arrays.asList(testLink, link2);
-        when(menuItemModifierGroupRepository.findByModifierGroupId(1L)).thenReturn(groupItems);
+        when(menuCatalogService.current()).thenReturn(catalogOf(groupItems));
 
         // When - Get menu items with "Choose a Side" group (modifier group 1)
         List<MenuItemModifierGroup> result = menuItemModifierGroupService.getMenuItemsForModifierGroup(1L);
@@ -141,7 +145,7 @@ class MenuItemModifierGroupServiceTest {
         assertEquals(2, result.size());
         assertEquals(1L, result.get(0).getModifierGroupId());
         assertEquals(1L, result.get(1).getModifierGroupId());
-        verify(menuItemModifierGroupRepository, times(1)).findByModifierGroupId(1L);
+        verifyNoInteractions(menuItemModifierGroupRepository);
     }
 
     @Test
@@ -158,4 +162,8 @@ class MenuItemModifierGroupServiceTest {
         // Then - Repository delete should be called
         verify(menuItemModifierGroupRepository, times(1)).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    private MenuCatalog catalogOf(List<MenuItemModifierGroup> links) {
+        return MenuCatalog.of(1L, List.of(), List.of(), List.of(), links);
+    }
+}
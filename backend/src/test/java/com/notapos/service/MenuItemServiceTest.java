@@ -20,6 +20,7 @@ import static org.mockito.Mockito.*;
  * Unit tests for MenuItemService.
  * 
  * Tests menu item management functionality.
+ * Reads come from the MenuCatalog snapshot, never the repository.
  * 
  * @author CJ
  */
@@ -30,6 +31,9 @@ class MenuItemServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
 
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
     @InjectMocks
     private MenuItemService menuItemService;
 
@@ -64,6 +68,7 @@ class MenuItemServiceTest {
         assertEquals("Chicken Cutty", created.getName());
         assertEquals(new BigDecimal("17.00"), created.getPrice());
         verify(menuItemRepository, times(1)).save(testMenuItem);
+        verify(menuCatalogService).refresh();                           // Snapshot rebuilt after the write
     }
 
     @Test
@@ -71,18 +76,18 @@ class MenuItemServiceTest {
         // WHAT: Test retrieving all menu items (including inactive)
         // WHY: Admin needs to see full menu for management
         
-        // Given - Mock returns 2 items
+        // Given - Catalog holds 2 items
         MenuItem item2 = new MenuItem();
         item2.setIsActive(false);
         List<MenuItem> items = Arrays.asList(testMenuItem, item2);
-        when(menuItemRepository.findAll()).thenReturn(items);
+        when(menuCatalogService.current()).thenReturn(catalogOf(items));
 
         // When - Get all items
         List<MenuItem> result = menuItemService.getAllMenuItems();
 
         // Then - Should get both active and inactive items
         assertEquals(2, result.size());
-        verify(menuItemRepository, times(1)).findAll();
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -90,9 +95,11 @@ class MenuItemServiceTest {
         // WHAT: Test getting only active menu items
         // WHY: Customer-facing menu should only show available items
         
-        // Given - Mock returns only active items
-        List<MenuItem> activeItems = Arrays.asList(testMenuItem);
-        when(menuItemRepository.findByIsActive(true)).thenReturn(activeItems);
+        // Given - Catalog holds an active and an inactive item
+        MenuItem inactive = new MenuItem();
+        inactive.setMenuItemId(2L);
+        inactive.setIsActive(false);
+        when(menuCatalogService.current()).thenReturn(catalogOf(Arrays.asList(testMenuItem, inactive)));
 
         // When - Get active items
         List<MenuItem> result = menuItemService.getActiveMenuItems();
@@ -100,7 +107,7 @@ class MenuItemServiceTest {
         // Then - Should only get active items
         assertEquals(1, result.size());
         assertTrue(result.get(0).getIsActive());
-        verify(menuItemRepository, times(1)).findByIsActive(true);
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -108,8 +115,8 @@ class MenuItemServiceTest {
         // WHAT: Test finding a specific menu item by ID
         // WHY: Need to load item details for orders
         
-        // Given - Mock returns the item
-        when(menuItemRepository.findById(1L)).thenReturn(Optional.of(testMenuItem));
+        // Given - Item is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testMenuItem)));
 
         // When - Get item by ID
         Optional<MenuItem> result = menuItemService.getMenuItemById(1L);
@@ -117,7 +124,7 @@ class MenuItemServiceTest {
         // Then - Should find the item
         assertTrue(result.isPresent());
         assertEquals("Chicken Cutty", result.get().getName());
-        verify(menuItemRepository, times(1)).findById(1L);
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -125,8 +132,8 @@ class MenuItemServiceTest {
         // WHAT: Test finding menu item by name
         // WHY: Search functionality for servers
         
-        // Given - Mock returns item by name
-        when(menuItemRepository.findByName("Chicken Cutty")).thenReturn(Optional.of(testMenuItem));
+        // Given - Item is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testMenuItem)));
 
         // When - Search by name
         Optional<MenuItem> result = menuItemService.getMenuItemByName("Chicken Cutty");
@@ -134,7 +141,7 @@ class MenuItemServiceTest {
         // Then - Should find the item
         assertTrue(result.isPresent());
         assertEquals("Chicken Cutty", result.get().getName());
-        verify(menuItemRepository, times(1)).findByName("Chicken Cutty");
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -142,9 +149,8 @@ class MenuItemServiceTest {
         // WHAT: Test filtering items by category
         // WHY: Menu organized by categories (Savory, Sweet, etc.)
         
-        // Given - Mock returns savory items
-        List<MenuItem> savoryItems = Arrays.asList(testMenuItem);
-        when(menuItemRepository.findByCategory("Savory")).thenReturn(savoryItems);
+        // Given - Catalog holds a savory item
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testMenuItem)));
 
         // When - Get savory items
         List<MenuItem> result = menuItemService.getMenuItemsByCategory("Savory");
@@ -152,7 +158,7 @@ class MenuItemServiceTest {
         // Then - Should get items in that category
         assertEquals(1, result.size());
         assertEquals("Savory", result.get(0).getCategory());
-        verify(menuItemRepository, times(1)).findByCategory("Savory");
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -160,9 +166,12 @@ class MenuItemServiceTest {
         // WHAT: Test getting active items in a specific category
         // WHY: Customer menu shows active items organized by category
         
-        // Given - Mock returns active savory items
-        List<MenuItem> activeItems = Arrays.asList(testMenuItem);
-        when(menuItemRepository.findByCategoryAndIsActive("Savory", true)).thenReturn(activeItems);
+        // Given - Catalog holds an active and an inactive savory item
+        MenuItem inactive = new MenuItem();
+        inactive.setMenuItemId(2L);
+        inactive.setCategory("Savory");
+        inactive.setIsActive(false);
+        when(menuCatalogService.current()).thenReturn(catalogOf(Arrays.asList(testMenuItem, inactive)));
 
         // When - Get active savory items
         List<MenuItem> result = menuItemService.getActiveMenuItemsByCategory("Savory");
@@ -171,7 +180,7 @@ class MenuItemServiceTest {
         assertEquals(1, result.size());
         assertEquals("Savory", result.get(0).getCategory());
         assertTrue(result.get(0).getIsActive());
-        verify(menuItemRepository, times(1)).findByCategoryAndIsActive("Savory", true);
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -254,9 +263,8 @@ class MenuItemServiceTest {
         // WHAT: Test getting items for specific prep station
         // WHY: Kitchen vs Bar items go to different stations
         
-        // Given - Mock returns kitchen items
-        List<MenuItem> kitchenItems = Arrays.asList(testMenuItem);
-        when(menuItemRepository.findByPrepStationId(1L)).thenReturn(kitchenItems);
+        // Given - Catalog holds a kitchen item
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testMenuItem)));
 
         // When - Get items for kitchen (station 1)
         List<MenuItem> result = menuItemService.getMenuItemsByPrepStation(1L);
@@ -264,7 +272,7 @@ class MenuItemServiceTest {
         // Then - Should get items for that station
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getPrepStationId());
-        verify(menuItemRepository, times(1)).findByPrepStationId(1L);
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
@@ -280,5 +288,10 @@ class MenuItemServiceTest {
 
         // Then - Repository delete should be called
         verify(menuItemRepository, times(1)).deleteById(1L);
+        verify(menuCatalogService).refresh();
+    }
+
+    private MenuCatalog catalogOf(List<MenuItem> items) {
+        return MenuCatalog.of(1L, items, List.of(), List.of(), List.of());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MenuSearchIndex.
+ *
+ * Tests prefix matches, typo tolerance, field and popularity ranking, and
+ * that lookups stay sub-millisecond on a large menu.
+ *
+ * @author CJ
+ */
+
+class MenuSearchIndexTest {
+
+    private List<MenuItem> menu;
+
+    @BeforeEach
+    void setUp() {
+        menu = List.of(
+                item(1L, "Chicken Cutty", "Savory", "Buttermilk fried chicken"),
+                item(2L, "Chicken Caesar", "Salads", "Romaine, parmesan"),
+                item(3L, "Cheese Fries", "Sides", "Hand cut fries"),
+                item(4L, "Chocolate Cake", "Sweet", "With chicory cream"));
+    }
+
+    @Test
+    void testSearch_ByPrefix_ShouldFindNameMatches() {
+        // WHAT: Test prefix search
+        // WHY: Servers type the first few letters of an item
+
+        MenuSearchIndex index = new MenuSearchIndex(menu, Map.of());
+
+        List<Long> ids = ids(index.search("chi", 10));
+
+        // Then - Both chickens (tie broken by name), then the description-only match (chicory)
+        assertEquals(List.of(2L, 1L, 4L), ids);
+    }
+
+    @Test
+    void testSearch_WithTypo_ShouldStillFindItem() {
+        // WHAT: Test typo tolerance
+        // WHY: Fast typing on a busy night - "chiken" should still find chicken
+
+        MenuSearchIndex index = new MenuSearchIndex(menu, Map.of());
+
+        List<Long> ids = ids(index.search("chiken cuty", 10));
+
+        assertEquals(List.of(1L), ids);
+    }
+
+    @Test
+    void testSearch_ShouldRankEqualMatchesByPopularity() {
+        // WHAT: Test popularity ranking
+        // WHY: The item people actually order should be first in the list
+
+        // Given - Cutty outsells Caesar (which would win alphabetically)
+        MenuSearchIndex index = new MenuSearchIndex(menu, Map.of(1L, 40L, 2L, 5L));
+
+        List<Long> ids = ids(index.search("chicken", 10));
+
+        assertEquals(List.of(1L, 2L), ids.subList(0, 2));
+    }
+
+    @Test
+    void testSearch_ByCategory_AndBlankQuery() {
+        // WHAT: Test category words and empty input
+        // WHY: "sides" should list the sides, an empty box lists nothing
+
+        MenuSearchIndex index = new MenuSearchIndex(menu, Map.of());
+
+        assertEquals(List.of(3L), ids(index.search("Sides", 10)));
+        assertTrue(index.search("   ", 10).isEmpty());
+        assertTrue(index.search("zzzz", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_OnLargeMenu_ShouldStaySubMillisecond() {
+        // WHAT: Test lookup speed
+        // WHY: Results update on every keystroke
+
+        // Given - 5,000 items
+        List<MenuItem> bigMenu = new ArrayList<>();
+        Map<Long, Long> popularity = new HashMap<>();
+        String[] words = { "chicken", "burger", "salad", "fries", "cake", "soup", "taco", "pasta", "steak", "wings" };
+        for (long id = 1; id <= 5_000; id++) {
+            bigMenu.add(item(id, words[(int) (id % 10)] + " " + words[(int) ((id / 10) % 10)] + " " + id,
+                    "Category " + (id % 25), "House " + words[(int) ((id / 100) % 10)]));
+            popularity.put(id, id % 97);
+        }
+        MenuSearchIndex index = new MenuSearchIndex(bigMenu, popularity);
+
+        for (int i = 0; i < 200; i++) {                                 // Warm up (JIT)
+            index.search("chi bur", 10);
+            index.search("stek", 10);
+        }
+
+        long[] samples = new long[200];
+        for (int i = 0; i < samples.length; i++) {
+            long started = System.nanoTime();
+            index.search(i % 2 == 0 ? "chi bur" : "stek", 10);
+            samples[i] = System.nanoTime() - started;
+        }
+
+        Arrays.sort(samples);
+        long medianMicros = samples[samples.length / 2] / 1000;
+        assertTrue(medianMicros < 1_000, "search median was " + medianMicros + "us");
+    }
+
+    private static List<Long> ids(List<MenuItem> items) {
+        return items.stream().map(MenuItem::getMenuItemId).toList();
+    }
+
+    private static MenuItem item(Long id, String name, String category, String description) {
+        MenuItem item = new MenuItem();
+        item.setMenuItemId(id);
+        item.setName(name);
+        item.setCategory(category);
+        item.setDescription(description);
+        item.setIsActive(true);
+        return item;
+    }
+}
@@ -0,0 +1,62 @@
+package com.notapos.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModificationSequence.
+ * 
+ * The cursor must never move past a write that hasn't finished yet,
+ * otherwise a change feed client could skip it forever.
+ * 
+ * @author CJ
+ */
+
+class ModificationSequenceTest {
+
+    @Test
+    void testStamp_ShouldContinueFromHighestPersistedValue() {
+        // Given - Database already holds changes up to 41
+        ModificationSequence sequence = new ModificationSequence(() -> 41L);
+
+        // When
+        long stamped = sequence.stamp(modSeq -> modSeq);
+
+        // Then
+        assertEquals(42, stamped);
+        assertEquals(42, sequence.cursor());
+    }
+
+    @Test
+    void testCursor_WhileOlderWriteInFlight_ShouldStopBeforeIt() {
+        // Given
+        ModificationSequence sequence = new ModificationSequence(() -> 0L);
+        AtomicLong cursorWhileSlowWriteRuns = new AtomicLong(-1);
+
+        // When - Write 1 is slow, write 2 starts and finishes inside it
+        sequence.stamp(slow -> {
+            sequence.stamp(fast -> fast);
+            cursorWhileSlowWriteRuns.set(sequence.cursor());
+            return slow;
+        });
+
+        // Then - Cursor held at 0 until write 1 finished, then jumps to 2
+        assertEquals(0, cursorWhileSlowWriteRuns.get());
+        assertEquals(2, sequence.cursor());
+    }
+
+    @Test
+    void testStamp_WhenWriteFails_ShouldStillReleaseCursor() {
+        // Given
+        ModificationSequence sequence = new ModificationSequence(() -> 5L);
+
+        // When
+        assertThrows(RuntimeException.class, () -> sequence.stamp(modSeq -> {
+            throw new RuntimeException("Cannot delete locked item");
+        }));
+
+        // Then - A failed write doesn't pin the cursor
+        assertEquals(6, sequence.cursor());
+    }
+}
@@ -29,6 +29,9 @@ class ModifierGroupServiceTest {
     @Mock
     private ModifierGroupRepository modifierGroupRepository;
 
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
     @InjectMocks
     private ModifierGroupService modifierGroupService;
 
@@ -63,6 +66,7 @@ class ModifierGroupServiceTest {
         assertTrue(created.getIsRequired());
         assertEquals(1, created.getMaxSelections());
         verify(modifierGroupRepository, times(1)).save(testGroup);
+        verify(menuCatalogService).refresh();                           // Snapshot rebuilt after the write
     }
 
     @Test
@@ -70,18 +74,18 @@ class ModifierGroupServiceTest {
         // WHAT: Test retrieving all modifier groups (active and inactive)
         // WHY: Admin needs to see all configured groups
         
-        // Given - Mock returns 2 groups
+        // Given - Catalog holds 2 groups
         ModifierGroup group2 = new ModifierGroup();
         group2.setName("Add Protein");
         List<ModifierGroup> groups = Arrays.asList(testGroup, group2);
-        when(modifierGroupRepository.findAll()).thenReturn(groups);
+        when(menuCatalogService.current()).thenReturn(catalogOf(groups));
 
         // When - Get all groups
         List<ModifierGroup> result = modifierGroupService.getAllModifierGroups();
 
         // Then - Should get both groups
         assertEquals(2, result.size());
-        verify(modifierGroupRepository, times(1)).findAll();
+        verifyNoInteractions(modifierGroupRepository);
     }
 
     @Test
@@ -89,9 +93,11 @@ class ModifierGroupServiceTest {
         // WHAT: Test getting only active modifier groups
         // WHY: Only show active customization options to servers
         
-        // Given - Mock returns only active groups
-        List<ModifierGroup> activeGroups = Arrays.asList(testGroup);
-        when(modifierGroupRepository.findByIsActive(true)).thenReturn(activeGroups);
+        // Given - Catalog holds an active and an inactive group
+        ModifierGroup inactive = new ModifierGroup();
+        inactive.setModifierGroupId(2L);
+        inactive.setIsActive(false);
+        when(menuCatalogService.current()).thenReturn(catalogOf(Arrays.asList(testGroup, inactive)));
 
         // When - Get active groups
         List<ModifierGroup> result = modifierGroupService.getActiveModifierGroups();
@@ -99,7 +105,7 @@ class ModifierGroupServiceTest {
         // Then - Should get only active groups
         assertEquals(1, result.size());
         assertTrue(result.get(0).getIsActive());
-        verify(modifierGroupRepository, times(1)).findByIsActive(true);
+        verifyNoInteractions(modifierGroupRepository);
     }
 
     @Test
@@ -107,8 +113,8 @@ class ModifierGroupServiceTest {
         // WHAT: Test finding a specific modifier group by ID
         // WHY: Need to load group details
         
-        // Given - Mock returns the group
-        when(modifierGroupRepository.findById(1L)).thenReturn(Optional.of(testGroup));
+        // Given - Group is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testGroup)));
 
         // When - Get group by ID
         Optional<ModifierGroup> result = modifierGroupService.getModifierGroupById(1L);
@@ -116,7 +122,7 @@ class ModifierGroupServiceTest {
         // Then - Should find the group
         assertTrue(result.isPresent());
         assertEquals("Choose a Side", result.get().getName());
-        verify(modifierGroupRepository, times(1)).findById(1L);
+        verifyNoInteractions(modifierGroupRepository);
     }
 
     @Test
@@ -124,8 +130,8 @@ class ModifierGroupServiceTest {
         // WHAT: Test finding modifier group by name
         // WHY: Look up group by name
         
-        // Given - Mock returns group by name
-        when(modifierGroupRepository.findByName("Choose a Side")).thenReturn(Optional.of(testGroup));
+        // Given - Group is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testGroup)));
 
         // When - Find group by name
         Optional<ModifierGroup> result = modifierGroupService.getModifierGroupByName("Choose a Side");
@@ -133,7 +139,7 @@ class ModifierGroupServiceTest {
         // Then - Should find the group
         assertTrue(result.isPresent());
         assertEquals("Choose a Side", result.get().getName());
-        verify(modifierGroupRepository, times(1)).findByName("Choose a Side");
+        verifyNoInteractions(modifierGroupRepository);
     }
 
     @Test
@@ -191,4 +197,8 @@ class ModifierGroupServiceTest {
         // Then - Repository delete should be called
         verify(modifierGroupRepository, times(1)).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    private MenuCatalog catalogOf(List<ModifierGroup> groups) {
+        return MenuCatalog.of(1L, List.of(), groups, List.of(), List.of());
+    }
+}
@@ -30,6 +30,9 @@ class ModifierServiceTest {
     @Mock
     private ModifierRepository modifierRepository;
 
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
     @InjectMocks
     private ModifierService modifierService;
 
@@ -63,6 +66,7 @@ class ModifierServiceTest {
         assertEquals(BigDecimal.ZERO, created.getPriceAdjustment());
         assertTrue(created.getIsActive());
         verify(modifierRepository, times(1)).save(testModifier);
+        verify(menuCatalogService).refresh();                           // Snapshot rebuilt after the write
     }
 
     @Test
@@ -70,18 +74,18 @@ class ModifierServiceTest {
         // WHAT: Test retrieving all modifiers (active and inactive)
         // WHY: Admin needs to see all configured modifiers
         
-        // Given - Mock returns 2 modifiers
+        // Given - Catalog holds 2 modifiers
         Modifier modifier2 = new Modifier();
         modifier2.setName("Salad");
         List<Modifier> modifiers = Arrays.asList(testModifier, modifier2);
-        when(modifierRepository.findAll()).thenReturn(modifiers);
+        when(menuCatalogService.current()).thenReturn(catalogOf(modifiers));
 
         // When - Get all modifiers
         List<Modifier> result = modifierService.getAllModifiers();
 
         // Then - Should get both modifiers
         assertEquals(2, result.size());
-        verify(modifierRepository, times(1)).findAll();
+        verifyNoInteractions(modifierRepository);
     }
 
     @Test
@@ -89,9 +93,11 @@ class ModifierServiceTest {
         // WHAT: Test getting only active modifiers
         // WHY: Only show available options to servers
         
-        // Given - Mock returns only active modifiers
-        List<Modifier> activeModifiers = Arrays.asList(testModifier);
-        when(modifierRepository.findByIsActive(true)).thenReturn(activeModifiers);
+        // Given - Catalog holds an active and an inactive modifier
+        Modifier inactive = new Modifier();
+        inactive.setModifierId(2L);
+        inactive.setIsActive(false);
+        when(menuCatalogService.current()).thenReturn(catalogOf(Arrays.asList(testModifier, inactive)));
 
         // When - Get active modifiers
         List<Modifier> result = modifierService.getActiveModifiers();
@@ -99,7 +105,7 @@ class ModifierServiceTest {
         // Then - Should get only active modifiers
         assertEquals(1, result.size());
         assertTrue(result.get(0).getIsActive());
-        verify(modifierRepository, times(1)).findByIsActive(true);
+        verifyNoInteractions(modifierRepository);
     }
 
     @Test
@@ -107,8 +113,8 @@ class ModifierServiceTest {
         // WHAT: Test finding a specific modifier by ID
         // WHY: Need to load modifier details
         
-        // Given - Mock returns the modifier
-        when(modifierRepository.findById(1L)).thenReturn(Optional.of(testModifier));
+        // Given - Modifier is in the catalog
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testModifier)));
 
         // When - Get modifier by ID
         Optional<Modifier> result = modifierService.getModifierById(1L);
@@ -116,7 +122,7 @@ class ModifierServiceTest {
         // Then - Should find the modifier
         assertTrue(result.isPresent());
         assertEquals("Fries", result.get().getName());
-        verify(modifierRepository, times(1)).findById(1L);
+        verifyNoInteractions(modifierRepository);
     }
 
     @Test
@@ -124,9 +130,8 @@ class ModifierServiceTest {
         // WHAT: Test getting all modifiers for a specific group
         // WHY: Show all options in "Choose a Side" group
         
-        // Given - Mock returns modifiers for group 1
-        List<Modifier> groupModifiers = Arrays.asList(testModifier);
-        when(modifierRepository.findByModifierGroupId(1L)).thenReturn(groupModifiers);
+        // Given - Catalog holds a modifier in group 1
+        when(menuCatalogService.current()).thenReturn(catalogOf(List.of(testModifier)));
 
         // When - Get modifiers for group 1
         List<Modifier> result = modifierService.getModifiersByGroup(1L);
@@ -134,7 +139,7 @@ class ModifierServiceTest {
         // Then - Should get that group's modifiers
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getModifierGroupId());
-        verify(modifierRepository, times(1)).findByModifierGroupId(1L);
+        verifyNoInteractions(modifierRepository);
     }
 
     @Test
@@ -142,9 +147,12 @@ class ModifierServiceTest {
         // WHAT: Test getting active modifiers for a specific group
         // WHY: Show only available options in a group
         
-        // Given - Mock returns active modifiers for group 1
-        List<Modifier> activeModifiers = Arrays.asList(testModifier);
-        when(modifierRepository.findByModifierGroupIdAndIsActive(1L, true)).thenReturn(activeModifiers);
+        // Given - Catalog holds an active and an inactive modifier in group 1
+        Modifier inactive = new Modifier();
+        inactive.setModifierId(2L);
+        inactive.setModifierGroupId(1L);
+        inactive.setIsActive(false);
+        when(menuCatalogService.current()).thenReturn(catalogOf(Arrays.asList(testModifier, inactive)));
 
         // When - Get active modifiers for group 1
         List<Modifier> result = modifierService.getActiveModifiersByGroup(1L);
@@ -153,7 +161,7 @@ class ModifierServiceTest {
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getModifierGroupId());
         assertTrue(result.get(0).getIsActive());
-        verify(modifierRepository, times(1)).findByModifierGroupIdAndIsActive(1L, true);
+        verifyNoInteractions(modifierRepository);
     }
 
     @Test
@@ -228,4 +236,8 @@ class ModifierServiceTest {
         // Then - Repository delete should be called
         verify(modifierRepository, times(1)).deleteById(1L);
     }
+
+    private MenuCatalog catalogOf(List<Modifier> modifiers) {
+        return MenuCatalog.of(1L, List.of(), List.of(), modifiers, List.of());
+    }
 }
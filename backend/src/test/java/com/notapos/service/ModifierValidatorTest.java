@@ -0,0 +1,126 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.MenuItemModifierGroup;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.ModifierGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModifierValidator.
+ *
+ * Tests the rule tables compiled from the catalog: allowed modifiers, max
+ * selections per group and required groups.
+ *
+ * @author CJ
+ */
+
+class ModifierValidatorTest {
+
+    private ModifierValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        // Chicken Cutty (1): "Choose a Side" required, pick 1 (Fries 10, Salad 11)
+        //                    "Add Protein" optional, up to 2 (Bacon 20, Egg 21, Retired 22 inactive)
+        // Dessert (2): no modifier groups
+        MenuItem cutty = menuItem(1L);
+        MenuItem dessert = menuItem(2L);
+
+        ModifierGroup sides = group(100L, "Choose a Side", true, 1);
+        ModifierGroup protein = group(200L, "Add Protein", false, 2);
+
+        Modifier retired = modifier(22L, 200L);
+        retired.setIsActive(false);
+
+        MenuCatalog catalog = MenuCatalog.of(1L, List.of(cutty, dessert), List.of(sides, protein),
+                List.of(modifier(10L, 100L), modifier(11L, 100L), modifier(20L, 200L), modifier(21L, 200L), retired),
+                List.of(link(1L, 1L, 100L), link(2L, 1L, 200L)));
+        validator = catalog.getModifierValidator();
+    }
+
+    @Test
+    void testValidate_WithValidSelection_ShouldPass() {
+        // WHAT: Test a complete, valid selection
+        // WHY: Side picked, two proteins is within the limit
+
+        assertTrue(validator.validate(1L, List.of(10L, 20L, 21L)).isEmpty());
+    }
+
+    @Test
+    void testValidate_WithoutRequiredGroup_ShouldFail() {
+        // WHAT: Test a missing required group
+        // WHY: The kitchen can't make a Cutty without knowing the side
+
+        List<String> problems = validator.validate(1L, List.of(20L));
+
+        assertEquals(List.of("Choose a Side is required"), problems);
+    }
+
+    @Test
+    void testValidate_OverMaxSelections_ShouldFail() {
+        // WHAT: Test picking more than a group allows
+        // WHY: "Choose a Side" is pick one
+
+        List<String> problems = validator.validate(1L, List.of(10L, 11L));
+
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).startsWith("Choose a Side allows at most 1"));
+    }
+
+    @Test
+    void testValidate_WithModifierNotOffered_ShouldFail() {
+        // WHAT: Test modifiers that don't belong to the item (or are inactive)
+        // WHY: Bacon on a dessert, or a retired modifier, shouldn't reach the kitchen
+
+        assertEquals(1, validator.validate(2L, List.of(20L)).size());
+        assertEquals(1, validator.validate(1L, List.of(10L, 22L)).size());
+    }
+
+    @Test
+    void testValidatePartial_ShouldSkipRequiredCheck() {
+        // WHAT: Test a selection that's still being built
+        // WHY: Modifiers are added one at a time, the side may come next
+
+        assertTrue(validator.validatePartial(1L, List.of(20L)).isEmpty());
+        assertFalse(validator.validatePartial(1L, List.of(20L, 21L, 20L)).isEmpty());      // Still capped at 2
+    }
+
+    private static MenuItem menuItem(Long id) {
+        MenuItem item = new MenuItem();
+        item.setMenuItemId(id);
+        item.setName("Item " + id);
+        item.setIsActive(true);
+        return item;
+    }
+
+    private static ModifierGroup group(Long id, String name, boolean required, int maxSelections) {
+        ModifierGroup group = new ModifierGroup();
+        group.setModifierGroupId(id);
+        group.setName(name);
+        group.setIsRequired(required);
+        group.setMaxSelections(maxSelections);
+        group.setIsActive(true);
+        return group;
+    }
+
+    private static Modifier modifier(Long id, Long groupId) {
+        Modifier modifier = new Modifier();
+        modifier.setModifierId(id);
+        modifier.setModifierGroupId(groupId);
+        modifier.setName("Modifier " + id);
+        modifier.setIsActive(true);
+        return modifier;
+    }
+
+    private static MenuItemModifierGroup link(Long id, Long menuItemId, Long groupId) {
+        MenuItemModifierGroup link = new MenuItemModifierGroup();
+        link.setMenuItemModifierGroupId(id);
+        link.setMenuItemId(menuItemId);
+        link.setModifierGroupId(groupId);
+        return link;
+    }
+}
@@ -0,0 +1,166 @@
+package com.notapos.service;
+
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.repository.OrderItemRepository;
+import com.notapos.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OpenOrderCache.
+ *
+ * Tests loading the working set, write-through of order and item writes,
+ * eviction on completion, and that late (older) writes are ignored.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class OpenOrderCacheTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @InjectMocks
+    private OpenOrderCache openOrderCache;
+
+    private Order order(Long id, Long tableId, String status, long modSeq) {
+        Order order = new Order();
+        order.setOrderId(id);
+        order.setTableId(tableId);
+        order.setStatus(status);
+        order.setModSeq(modSeq);
+        return order;
+    }
+
+    private OrderItem item(Long id, Long orderId, String status, long modSeq) {
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(id);
+        item.setOrderId(orderId);
+        item.setStatus(status);
+        item.setModSeq(modSeq);
+        return item;
+    }
+
+    @Test
+    void testLoad_ShouldIndexOpenOrdersByTableAndItemsByOrder() {
+        // WHAT: Test the startup load
+        // WHY: Checks left open across a restart must still be served from memory
+
+        // Given - Table 1 has orders 1 and 3, table 2 has order 2
+        when(orderRepository.findByStatus("open")).thenReturn(List.of(
+                order(1L, 1L, "open", 1), order(2L, 2L, "open", 2), order(3L, 1L, "open", 3)));
+        when(orderItemRepository.findItemsOfOpenOrders()).thenReturn(List.of(
+                item(10L, 1L, "draft", 4), item(11L, 3L, "pending", 5)));
+
+        // When
+        assertFalse(openOrderCache.isLoaded());
+        openOrderCache.load();
+
+        // Then
+        assertTrue(openOrderCache.isLoaded());
+        assertEquals(List.of(1L, 3L), openOrderCache.getOpenOrdersByTable(1L).stream().map(Order::getOrderId).toList());
+        assertEquals(3, openOrderCache.getOpenOrders().size());
+        assertEquals(1, openOrderCache.getItemsOfOpenOrder(3L).orElseThrow().size());
+        assertEquals(List.of(), openOrderCache.getItemsOfOpenOrder(2L).orElseThrow());
+        assertEquals(Optional.empty(), openOrderCache.getItemsOfOpenOrder(99L));
+        assertEquals(2, openOrderCache.getItemsOfOpenOrders().size());
+    }
+
+    @Test
+    void testWriteThrough_ShouldFollowOrderLifecycle() {
+        // WHAT: Test create, item writes and completion of one check
+        // WHY: Reads come from here, so every write has to land here too
+
+        // Given - A new check with one item
+        openOrderCache.load();                                      // Empty database
+        openOrderCache.orderCreated(order(1L, 5L, "open", 1));
+        openOrderCache.itemCreated(item(10L, 1L, "draft", 2));
+        openOrderCache.itemWritten(item(10L, 1L, "limbo", 3));
+        openOrderCache.itemCreated(item(11L, 1L, "draft", 4));
+        openOrderCache.itemDeleted(item(11L, 1L, "draft", 4));
+
+        // Then - Latest copy of the item, the deleted one gone
+        List<OrderItem> items = openOrderCache.getItemsOfOpenOrder(1L).orElseThrow();
+        assertEquals(1, items.size());
+        assertEquals("limbo", items.get(0).getStatus());
+
+        // When - The check is paid and closed
+        openOrderCache.orderWritten(order(1L, 5L, "completed", 5));
+
+        // Then - Order and items evicted
+        assertEquals(List.of(), openOrderCache.getOpenOrdersByTable(5L));
+        assertEquals(Optional.empty(), openOrderCache.getItemsOfOpenOrder(1L));
+        assertEquals(List.of(), openOrderCache.getItemsOfOpenOrders());
+    }
+
+    @Test
+    void testLateWrites_ShouldNotOverwriteNewerOrReviveClosedOrders() {
+        // WHAT: Test commit callbacks arriving out of order
+        // WHY: Two writers can commit in one order and reach the cache in the other
+
+        // Given
+        openOrderCache.load();                                      // Empty database
+        openOrderCache.orderCreated(order(1L, 5L, "open", 1));
+        openOrderCache.itemCreated(item(10L, 1L, "fired", 7));
+
+        // When - An older copy of the item, and an older open copy after the order was completed
+        openOrderCache.itemWritten(item(10L, 1L, "pending", 6));
+        openOrderCache.orderWritten(order(1L, 5L, "completed", 9));
+        openOrderCache.orderWritten(order(1L, 5L, "open", 8));
+        openOrderCache.itemCreated(item(12L, 1L, "draft", 10));
+
+        // Then - Nothing came back
+        assertEquals(List.of(), openOrderCache.getOpenOrders());
+        assertEquals(Optional.empty(), openOrderCache.getItemsOfOpenOrder(1L));
+    }
+
+    @Test
+    void testOrderDeleted_ShouldEvict() {
+        // WHAT: Test deleting a check
+        // WHY: A deleted order must not linger on the table
+
+        // Given
+        openOrderCache.load();                                      // Empty database
+        openOrderCache.orderCreated(order(1L, 5L, "open", 1));
+
+        // When
+        openOrderCache.orderDeleted(1L);
+
+        // Then
+        assertEquals(List.of(), openOrderCache.getOpenOrdersByTable(5L));
+    }
+
+    @Test
+    void testLoad_ShouldApplyWritesThatCommitWhileLoading() {
+        // WHAT: Test a check being closed and another opened between the load queries
+        // WHY: The loaded open copy is stale by then and must not be served for the rest of the day
+
+        // Given - Order 1 is read as open, then completed (and order 2 created) before the items query
+        when(orderRepository.findByStatus("open")).thenAnswer(invocation -> {
+            openOrderCache.orderWritten(order(1L, 5L, "completed", 3));
+            openOrderCache.orderCreated(order(2L, 6L, "open", 4));
+            return List.of(order(1L, 5L, "open", 1));
+        });
+        when(orderItemRepository.findItemsOfOpenOrders()).thenReturn(List.of(item(10L, 1L, "fired", 2)));
+
+        // When
+        openOrderCache.load();
+
+        // Then - Only the order opened meanwhile is left
+        assertEquals(List.of(2L), openOrderCache.getOpenOrders().stream().map(Order::getOrderId).toList());
+        assertEquals(Optional.empty(), openOrderCache.getItemsOfOpenOrder(1L));
+        assertEquals(List.of(), openOrderCache.getItemsOfOpenOrders());
+    }
+}
@@ -1,7 +1,13 @@
 package com.notapos.service;
 
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.MenuItemModifierGroup;
+import com.notapos.entity.Modifier;
+import com.notapos.entity.ModifierGroup;
+import com.notapos.entity.OrderItem;
 import com.notapos.entity.OrderItemModifier;
 import com.notapos.repository.OrderItemModifierRepository;
+import com.notapos.repository.OrderItemRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,12 +20,14 @@ import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for OrderItemModifierService.
  * 
- * Tests tracking which modifiers were selected for order items.
+ * Tests tracking which modifiers were selected for order items, and that
+ * selections follow the modifier group rules.
  * 
  * @author CJ
  */
@@ -30,6 +38,15 @@ class OrderItemModifierServiceTest {
     @Mock
     private OrderItemModifierRepository orderItemModifierRepository;
 
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    @Mock
+    private OrderPricingService orderPricingService;
+
     @InjectMocks
     private OrderItemModifierService orderItemModifierService;
 
@@ -45,12 +62,58 @@ class OrderItemModifierServiceTest {
         testOrderItemModifier.setPriceAdjustment(BigDecimal.ZERO);
     }
 
+    private void givenChickenCuttyOnOrderItem1() {
+        // Order item 1 is a Chicken Cutty (menu item 1):
+        // "Choose a Side" required, pick 1 -> Fries (1); "Add Protein" up to 2 -> Bacon (2, +$2.00)
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrderItemId(1L);
+        orderItem.setOrderId(1L);
+        orderItem.setMenuItemId(1L);
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem));
+
+        MenuItem cutty = new MenuItem();
+        cutty.setMenuItemId(1L);
+        cutty.setIsActive(true);
+
+        ModifierGroup sides = new ModifierGroup();
+        sides.setModifierGroupId(1L);
+        sides.setName("Choose a Side");
+        sides.setIsRequired(true);
+        sides.setMaxSelections(1);
+        ModifierGroup protein = new ModifierGroup();
+        protein.setModifierGroupId(2L);
+        protein.setName("Add Protein");
+        protein.setMaxSelections(2);
+
+        Modifier fries = new Modifier();
+        fries.setModifierId(1L);
+        fries.setModifierGroupId(1L);
+        Modifier bacon = new Modifier();
+        bacon.setModifierId(2L);
+        bacon.setModifierGroupId(2L);
+        bacon.setPriceAdjustment(new BigDecimal("2.00"));
+
+        MenuItemModifierGroup sidesLink = new MenuItemModifierGroup();
+        sidesLink.setMenuItemModifierGroupId(1L);
+        sidesLink.setMenuItemId(1L);
+        sidesLink.setModifierGroupId(1L);
+        MenuItemModifierGroup proteinLink = new MenuItemModifierGroup();
+        proteinLink.setMenuItemModifierGroupId(2L);
+        proteinLink.setMenuItemId(1L);
+        proteinLink.setModifierGroupId(2L);
+
+        when(menuCatalogService.current()).thenReturn(MenuCatalog.of(1L, List.of(cutty), List.of(sides, protein),
+                List.of(fries, bacon), List.of(sidesLink, proteinLink)));
+    }
+
     @Test
     void testCreateOrderItemModifier_ShouldSaveModifier() {
         // WHAT: Test creating a new order item modifier
         // WHY: Track which modifiers customer selected (Fries, Add Bacon, etc.)
         
         // Given - Mock returns saved modifier
+        givenChickenCuttyOnOrderItem1();
+        when(orderPricingService.modifierPrice(1L)).thenReturn(BigDecimal.ZERO);
         when(orderItemModifierRepository.save(any(OrderItemModifier.class))).thenReturn(testOrderItemModifier);
 
         // When - Create order item modifier
@@ -62,26 +125,70 @@ class OrderItemModifierServiceTest {
         assertEquals(1L, created.getModifierId());
         assertEquals(BigDecimal.ZERO, created.getPriceAdjustment());
         verify(orderItemModifierRepository, times(1)).save(testOrderItemModifier);
+        verify(orderPricingService, times(1)).modifiersChanged(any(OrderItem.class), eq(0L));
     }
 
     @Test
     void testCreateOrderItemModifier_WithPriceAdjustment_ShouldCapturePricing() {
         // WHAT: Test creating modifier with price adjustment
-        // WHY: Track historical pricing (Add Bacon was +$2 at time of order)
+        // WHY: Track historical pricing (Add Bacon was +$2 at time of order), whatever the client sent
         
-        // Given - Modifier with price adjustment
+        // Given - Menu says +$2.00, client claims +$0.01
+        givenChickenCuttyOnOrderItem1();
+        when(orderPricingService.modifierPrice(2L)).thenReturn(new BigDecimal("2.00"));
         OrderItemModifier baconModifier = new OrderItemModifier();
         baconModifier.setOrderItemId(1L);
         baconModifier.setModifierId(2L);
-        baconModifier.setPriceAdjustment(new BigDecimal("2.00"));
+        baconModifier.setPriceAdjustment(new BigDecimal("0.01"));
         
         when(orderItemModifierRepository.save(any(OrderItemModifier.class))).thenReturn(baconModifier);
 
         // When - Create modifier
         OrderItemModifier created = orderItemModifierService.createOrderItemModifier(baconModifier);
 
-        // Then - Should save with price adjustment
+        // Then - Saved with the menu's price adjustment, order total moves +$2.00 per unit
         assertEquals(new BigDecimal("2.00"), created.getPriceAdjustment());
+        verify(orderPricingService, times(1)).modifiersChanged(any(OrderItem.class), eq(200L));
+    }
+
+    @Test
+    void testCreateOrderItemModifier_WhenGroupIsFull_ShouldReject() {
+        // WHAT: Test max selections is enforced on add
+        // WHY: "Choose a Side" is pick one - a second side is a mistake
+        
+        // Given - Fries already chosen
+        givenChickenCuttyOnOrderItem1();
+        when(orderItemModifierRepository.findByOrderItemId(1L)).thenReturn(List.of(testOrderItemModifier));
+
+        OrderItemModifier secondSide = new OrderItemModifier();
+        secondSide.setOrderItemId(1L);
+        secondSide.setModifierId(1L);
+
+        // When/Then - Rejected, nothing saved
+        assertThrows(IllegalArgumentException.class, () -> orderItemModifierService.createOrderItemModifier(secondSide));
+        verify(orderItemModifierRepository, never()).save(any());
+    }
+
+    @Test
+    void testReplaceModifiers_ShouldValidateWholeSelectionAndPriceFromCatalog() {
+        // WHAT: Test setting an item's full selection
+        // WHY: A complete selection must include required groups; prices come from the menu, not the client
+        
+        // Given
+        givenChickenCuttyOnOrderItem1();
+        when(orderPricingService.modifierPrice(1L)).thenReturn(BigDecimal.ZERO);
+        when(orderPricingService.modifierPrice(2L)).thenReturn(new BigDecimal("2.00"));
+        when(orderItemModifierRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When - Bacon without a side is rejected, Fries + Bacon is accepted
+        assertThrows(IllegalArgumentException.class, () -> orderItemModifierService.replaceModifiers(1L, List.of(2L)));
+        List<OrderItemModifier> saved = orderItemModifierService.replaceModifiers(1L, List.of(1L, 2L));
+
+        // Then - Old selection cleared once, bacon priced at +$2.00
+        verify(orderItemModifierRepository, times(1)).deleteByOrderItemId(1L);
+        assertEquals(2, saved.size());
+        assertEquals(new BigDecimal("2.00"), saved.get(1).getPriceAdjustment());
+        verify(orderPricingService, times(1)).modifiersChanged(any(OrderItem.class), eq(200L));      // Nothing before, +$2.00 after
     }
 
     @Test
@@ -1,13 +1,20 @@
 package com.notapos.service;
 
+import com.notapos.dto.ChangeFeed;
 import com.notapos.entity.OrderItem;
+import com.notapos.metrics.DelayTimerMetrics;
+import com.notapos.repository.ChangeTombstoneRepository;
 import com.notapos.repository.OrderItemRepository;
+import com.notapos.scheduled.DelayTimerWheel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,6 +24,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +41,30 @@ class OrderItemServiceTest {
     @Mock
     private OrderItemRepository orderItemRepository;
 
+    @Mock
+    private DelayTimerWheel delayTimerWheel;
+
+    @Mock
+    private DelayTimerMetrics delayTimerMetrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ChangeTombstoneRepository changeTombstoneRepository;
+
+    @Mock
+    private OrderPricingService orderPricingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OpenOrderCache openOrderCache;
+
+    @Spy
+    private ModificationSequence modificationSequence = new ModificationSequence(() -> 0L);
+
     @InjectMocks
     private OrderItemService orderItemService;
 
@@ -53,14 +85,18 @@ class OrderItemServiceTest {
 
     @Test
     void testCreateOrderItem_ShouldStartAsDraft() {
-        // Given
+        // Given - Client claims the item costs $0.01, the menu says $17.00
+        testItem.setPrice(new BigDecimal("0.01"));
+        when(orderPricingService.menuItemPrice(1L)).thenReturn(new BigDecimal("17.00"));
         when(orderItemRepository.save(any(OrderItem.class))).thenReturn(testItem);
 
         // When
         OrderItem created = orderItemService.createOrderItem(testItem);
 
-        // Then
+        // Then - Menu price stamped, order running totals moved
         assertEquals("draft", created.getStatus());
+        assertEquals(new BigDecimal("17.00"), created.getPrice());
+        verify(orderPricingService, times(1)).itemAdded(testItem);
         assertFalse(created.getIsLocked());
         verify(orderItemRepository, times(1)).save(testItem);
     }
@@ -70,18 +106,20 @@ class OrderItemServiceTest {
         // Given
         List<OrderItem> draftItems = Arrays.asList(testItem);
         when(orderItemRepository.findByOrderIdAndStatus(1L, "draft")).thenReturn(draftItems);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(testItem);
+        when(orderItemRepository.saveAll(draftItems)).thenReturn(draftItems);
 
         // When
         List<OrderItem> sentItems = orderItemService.sendItemsForOrder(1L);
 
-        // Then
+        // Then - Items wait in limbo, saved together in one batch
         assertEquals(1, sentItems.size());
         OrderItem sent = sentItems.get(0);
-        assertEquals("pending", sent.getStatus());
+        assertEquals("limbo", sent.getStatus());
         assertNotNull(sent.getDelayExpiresAt());
+        assertNotNull(sent.getSentAt());
         assertFalse(sent.getIsLocked());
-        verify(orderItemRepository, times(1)).save(testItem);
+        verify(orderItemRepository, times(1)).saveAll(draftItems);
+        verify(orderItemRepository, never()).save(any());
     }
 
     @Test
@@ -104,6 +142,7 @@ class OrderItemServiceTest {
         assertEquals("pending", result.getStatus());
         assertTrue(result.getDelayExpiresAt().isAfter(LocalDateTime.now().plusSeconds(10)));
         verify(orderItemRepository, times(1)).save(testItem);
+        verify(orderPricingService, times(1)).itemResized(testItem, 1);        // 1 -> 2, totals move by one more line
     }
 
     @Test
@@ -122,45 +161,217 @@ class OrderItemServiceTest {
     }
 
     @Test
-    void testLockAndFireExpiredItems_ShouldLockExpiredItems() {
-        // Given
+    void testLockAndSendExpiredItems_ShouldLockExpiredItemsInOneUpdate() {
+        // Given - The bulk UPDATE locks one expired item
         testItem.setStatus("pending");
         testItem.setDelayExpiresAt(LocalDateTime.now().minusSeconds(5)); // Already expired
-        testItem.setIsLocked(false);
+        testItem.setIsLocked(true);
         
-        List<OrderItem> expiredItems = Arrays.asList(testItem);
-        when(orderItemRepository.findExpiredUnlockedItems(any(LocalDateTime.class), eq(false)))
-                .thenReturn(expiredItems);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(testItem);
+        when(orderItemRepository.lockExpiredLimboItems(any(LocalDateTime.class), anyLong())).thenReturn(List.of(1L));
+        when(orderItemRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(testItem));
 
         // When
         List<OrderItem> lockedItems = orderItemService.lockAndSendExpiredItems();
 
-        // Then
+        // Then - No per-row saves, and the wheel forgets the item
         assertEquals(1, lockedItems.size());
         OrderItem locked = lockedItems.get(0);
         assertTrue(locked.getIsLocked());
-        assertEquals("fired", locked.getStatus());
-        assertNotNull(locked.getFiredAt());
-        verify(orderItemRepository, times(1)).save(testItem);
+        assertEquals("pending", locked.getStatus());
+        verify(orderItemRepository, never()).save(any());
+        verify(delayTimerWheel, times(1)).cancel(1L);
     }
 
     @Test
-    void testFireItemNow_ShouldBypassTimer() {
+    void testLockAndSendExpiredItems_WhenNothingExpired_ShouldNotReload() {
+        // Given
+        when(orderItemRepository.lockExpiredLimboItems(any(LocalDateTime.class), anyLong())).thenReturn(List.of());
+
+        // When
+        List<OrderItem> lockedItems = orderItemService.lockAndSendExpiredItems();
+
+        // Then
+        assertTrue(lockedItems.isEmpty());
+        verify(orderItemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetChangesSince_ShouldReturnRowsAndDeletesUpToCursor() {
+        // Given - Sequence is at 5, client last synced at 2
+        ModificationSequence atFive = new ModificationSequence(() -> 5L);
+        orderItemService = new OrderItemService(orderItemRepository, delayTimerWheel, delayTimerMetrics,
+                eventPublisher, atFive, changeTombstoneRepository, orderPricingService, transactionManager, openOrderCache);
+
+        when(orderItemRepository.findChangedBetween(2L, 5L)).thenReturn(List.of(testItem));
+        when(changeTombstoneRepository.findDeletedIdsBetween("order_item", 2L, 5L)).thenReturn(List.of(9L));
+
+        // When
+        ChangeFeed<OrderItem> feed = orderItemService.getChangesSince(2L);
+
+        // Then
+        assertEquals(5L, feed.cursor());
+        assertEquals(List.of(testItem), feed.changed());
+        assertEquals(List.of(9L), feed.deleted());
+    }
+
+    @Test
+    void testGetChangesSince_WhenUpToDate_ShouldNotQuery() {
+        // When - Client already has everything
+        ChangeFeed<OrderItem> feed = orderItemService.getChangesSince(0L);
+
+        // Then
+        assertTrue(feed.changed().isEmpty());
+        verify(orderItemRepository, never()).findChangedBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    void testSendItemNow_ShouldBypassTimer() {
+        // Given - Item is still a draft, the conditional UPDATE wins
+        OrderItem sentCopy = copyOf(testItem, "pending");
+        sentCopy.setIsLocked(true);
+
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(testItem)).thenReturn(Optional.of(sentCopy));
+        when(orderItemRepository.compareAndSendNow(eq(1L), eq("draft"), any(LocalDateTime.class), anyLong())).thenReturn(1);
+
+        // When
+        OrderItem sent = orderItemService.sendItemNow(1L);
+
+        // Then - Straight to the kitchen, no timer left behind
+        assertTrue(sent.getIsLocked());
+        assertEquals("pending", sent.getStatus());
+        verify(orderItemRepository, never()).save(any());
+        verify(delayTimerWheel, times(1)).cancel(1L);
+    }
+
+    @Test
+    void testSendOrderNow_ShouldMoveWholeOrderInOneStatement() {
+        // Given - The bulk UPDATE sends a draft and a limbo item
+        OrderItem draftSent = copyOf(testItem, "pending");
+        OrderItem limboSent = copyOf(testItem, "pending");
+        limboSent.setOrderItemId(2L);
+
+        when(orderItemRepository.sendOrderNow(eq(1L), any(LocalDateTime.class), anyLong())).thenReturn(List.of(draftSent, limboSent));
+
+        // When
+        List<OrderItem> sentItems = orderItemService.sendOrderNow(1L);
+
+        // Then - Returned straight from the UPDATE, no per-item reads or saves
+        assertEquals(2, sentItems.size());
+        verify(orderItemRepository, never()).findById(any());
+        verify(orderItemRepository, never()).save(any());
+        verify(delayTimerWheel, times(1)).cancel(1L);
+        verify(delayTimerWheel, times(1)).cancel(2L);
+    }
+
+    @Test
+    void testSendItemNow_WhenTimerLocksItFirst_ShouldRetryAndRejectMove() {
+        // Given - We read limbo, but the timer locked the item before our UPDATE ran
+        OrderItem limboCopy = copyOf(testItem, "limbo");
+        OrderItem lockedCopy = copyOf(testItem, "pending");
+
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(limboCopy)).thenReturn(Optional.of(lockedCopy));
+        when(orderItemRepository.compareAndSendNow(eq(1L), eq("limbo"), any(LocalDateTime.class), anyLong())).thenReturn(0);
+
+        // When & Then - Re-read sees pending, which can't be sent again
+        assertThrows(IllegalStateException.class, () -> orderItemService.sendItemNow(1L));
+        verify(orderItemRepository, times(1)).compareAndSendNow(eq(1L), eq("limbo"), any(LocalDateTime.class), anyLong());
+        verify(orderItemRepository, never()).compareAndSendNow(eq(1L), eq("pending"), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void testStartItem_WhenStillDraft_ShouldRejectMove() {
         // Given
         when(orderItemRepository.findById(1L)).thenReturn(Optional.of(testItem));
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(testItem);
+
+        // When & Then - Kitchen can't fire something that was never sent
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> orderItemService.startItem(1L));
+
+        assertTrue(exception.getMessage().contains("draft to fired"));
+        verify(orderItemRepository, never()).compareAndFire(any(), any(), anyLong());
+    }
+
+    @Test
+    void testCompleteItem_WhenConditionalUpdateKeepsLosing_ShouldGiveUp() {
+        // Given - Item looks fired every time, but someone else always changes it first
+        testItem.setStatus("fired");
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+        when(orderItemRepository.compareAndComplete(eq(1L), any(LocalDateTime.class), anyLong())).thenReturn(0);
+
+        // When & Then - Bounded retry, not a spin
+        assertThrows(IllegalStateException.class, () -> orderItemService.completeItem(1L));
+        verify(orderItemRepository, times(3)).compareAndComplete(eq(1L), any(LocalDateTime.class), anyLong());
+    }
+
+    @Test
+    void testUpdateOrderItem_WithStaleVersion_ShouldThrowException() {
+        // Given - Client edited version 0, the row is already at version 2
+        testItem.setVersion(2L);
+        OrderItem staleEdit = new OrderItem();
+        staleEdit.setVersion(0L);
+        staleEdit.setQuantity(3);
+
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> orderItemService.updateOrderItem(1L, staleEdit));
+        verify(orderItemRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateOrderItem_WithoutVersion_ShouldSkipStaleCheck() {
+        // WHAT: Test a PUT body that doesn't send "version"
+        // WHY: The stale-copy check is opt-in - older clients never sent a version
+
+        // Given - The row has been saved a few times, the edit carries no version
+        testItem.setVersion(2L);
+        OrderItem edit = new OrderItem();
+        edit.setQuantity(3);
+
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(testItem));
+        when(orderItemRepository.save(testItem)).thenReturn(testItem);
 
         // When
-        OrderItem fired = orderItemService.sendItemNow(1L);
+        OrderItem result = orderItemService.updateOrderItem(1L, edit);
 
         // Then
-        assertTrue(fired.getIsLocked());
-        assertEquals("fired", fired.getStatus());
-        assertNotNull(fired.getFiredAt());
+        assertNull(edit.getVersion());
+        assertEquals(3, result.getQuantity());
         verify(orderItemRepository, times(1)).save(testItem);
     }
 
+    @Test
+    void testSendItemsForOrder_ShouldRegisterTimerInWheel() {
+        // Given
+        List<OrderItem> draftItems = Arrays.asList(testItem);
+        when(orderItemRepository.findByOrderIdAndStatus(1L, "draft")).thenReturn(draftItems);
+        when(orderItemRepository.saveAll(draftItems)).thenReturn(draftItems);
+
+        // When
+        orderItemService.sendItemsForOrder(1L);
+
+        // Then - the wheel knows exactly when to lock the item
+        verify(delayTimerWheel, times(1)).schedule(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testLockExpiredItems_ShouldReturnOnlyItemsTheUpdateLocked() {
+        // Given - Wheel hands over items 1 and 2, but item 2 was already sent early
+        testItem.setStatus("pending");
+        testItem.setIsLocked(true);
+
+        when(orderItemRepository.lockExpiredLimboItems(eq(List.of(1L, 2L)), any(LocalDateTime.class), anyLong()))
+                .thenReturn(List.of(1L));
+        when(orderItemRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(testItem));
+
+        // When
+        List<OrderItem> locked = orderItemService.lockExpiredItems(List.of(1L, 2L));
+
+        // Then
+        assertEquals(1, locked.size());
+        assertEquals("pending", locked.get(0).getStatus());
+        verify(orderItemRepository, never()).save(any());
+    }
+
     @Test
     void testDeleteOrderItem_WhenLocked_ShouldThrowException() {
         // Given
@@ -175,4 +386,14 @@ class OrderItemServiceTest {
         assertTrue(exception.getMessage().contains("Cannot delete locked item"));
         verify(orderItemRepository, never()).deleteById(any());
     }
-}
\ No newline at end of file
+
+    private OrderItem copyOf(OrderItem item, String status) {
+        OrderItem copy = new OrderItem();
+        copy.setOrderItemId(item.getOrderItemId());
+        copy.setOrderId(item.getOrderId());
+        copy.setMenuItemId(item.getMenuItemId());
+        copy.setStatus(status);
+        copy.setIsLocked(false);
+        return copy;
+    }
+}
@@ -0,0 +1,217 @@
+package com.notapos.service;
+
+import com.notapos.entity.MenuItem;
+import com.notapos.entity.Order;
+import com.notapos.entity.OrderItem;
+import com.notapos.entity.OrderItemModifier;
+import com.notapos.repository.OrderItemModifierRepository;
+import com.notapos.repository.OrderItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderPricingService.
+ *
+ * Tests the running-total deltas, pricing an order from scratch, reconciling
+ * the two, and looking up menu prices from the catalog.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class OrderPricingServiceTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderItemModifierRepository orderItemModifierRepository;
+
+    @Mock
+    private MenuCatalogService menuCatalogService;
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderPricingService orderPricingService;
+
+    @BeforeEach
+    void setUp() {
+        orderPricingService = new OrderPricingService(orderItemRepository, orderItemModifierRepository,
+                menuCatalogService, orderService, new BigDecimal("0.03"));
+    }
+
+    private OrderItem item(Long id, String price, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(id);
+        item.setOrderId(1L);
+        item.setPrice(new BigDecimal(price));
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private OrderItemModifier modifier(Long orderItemId, String adjustment) {
+        OrderItemModifier modifier = new OrderItemModifier();
+        modifier.setOrderItemId(orderItemId);
+        modifier.setPriceAdjustment(adjustment != null ? new BigDecimal(adjustment) : null);
+        return modifier;
+    }
+
+    @Test
+    void testRepriceOrder_ShouldPriceItemsAndModifiersInTwoQueries() {
+        // WHAT: Test order totals from stored prices
+        // WHY: The server decides what a check costs, not the client
+
+        // Given - 2x Cutty $17.00 with Bacon +$2.00 and a null adjustment, 1x Fries $5.50
+        when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of(item(1L, "17.00", 2), item(2L, "5.50", 1)));
+        when(orderItemModifierRepository.findByOrderItemIdIn(anyCollection()))
+                .thenReturn(List.of(modifier(1L, "2.00"), modifier(1L, null)));
+        when(orderService.applyTotals(eq(1L), any())).thenReturn(new Order());
+
+        // When
+        orderPricingService.repriceOrder(1L);
+
+        // Then - $43.50 + 3% tax
+        verify(orderService).applyTotals(1L, new PricingEngine.Totals(4350, 131, 4481));
+        verify(orderItemModifierRepository, times(1)).findByOrderItemIdIn(anyCollection());
+    }
+
+    @Test
+    void testRepriceOrder_ShouldUseConfiguredTaxRate() {
+        // WHAT: Test a tax rate other than the default
+        // WHY: The rate is notapos.pricing.tax-rate, not a constant in the code
+
+        // Given - 8.25% and one $43.50 item
+        orderPricingService = new OrderPricingService(orderItemRepository, orderItemModifierRepository,
+                menuCatalogService, orderService, new BigDecimal("0.0825"));
+        when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of(item(1L, "43.50", 1)));
+        when(orderItemModifierRepository.findByOrderItemIdIn(anyCollection())).thenReturn(List.of());
+        when(orderService.applyTotals(eq(1L), any())).thenReturn(new Order());
+
+        // When
+        orderPricingService.repriceOrder(1L);
+
+        // Then - $3.59 tax (3.58875 rounded half-up)
+        verify(orderService).applyTotals(1L, new PricingEngine.Totals(4350, 359, 4709));
+    }
+
+    @Test
+    void testItemDeltas_ShouldMoveRunningTotalsWithoutResumming() {
+        // WHAT: Test each change becomes one subtotal delta
+        // WHY: Adding an item to a 40-item check shouldn't re-read all 40
+
+        // Given - Cutty $17.00 with Bacon +$2.00 on it
+        OrderItem cutty = item(1L, "17.00", 1);
+        when(orderItemModifierRepository.findByOrderItemId(1L)).thenReturn(List.of(modifier(1L, "2.00")));
+
+        // When - Added (no modifiers yet), Bacon added, resized 1 -> 3, then removed
+        orderPricingService.itemAdded(cutty);
+        orderPricingService.modifiersChanged(cutty, 200);
+        cutty.setQuantity(3);
+        orderPricingService.itemResized(cutty, 1);
+        orderPricingService.itemRemoved(cutty);
+
+        // Then - +17.00, +2.00, +2 x 19.00, -3 x 19.00
+        verify(orderService).applySubtotalDelta(1L, 1700, 30_000);
+        verify(orderService).applySubtotalDelta(1L, 200, 30_000);
+        verify(orderService).applySubtotalDelta(1L, 3800, 30_000);
+        verify(orderService).applySubtotalDelta(1L, -5700, 30_000);
+        verify(orderItemRepository, never()).findByOrderId(any());
+    }
+
+    @Test
+    void testItemResized_WhenQuantityUnchanged_ShouldNotTouchOrder() {
+        // WHAT: Test a notes-only edit
+        // WHY: Editing special instructions doesn't change the price
+
+        // When
+        orderPricingService.itemResized(item(1L, "17.00", 2), 2);
+
+        // Then
+        verifyNoInteractions(orderService, orderItemModifierRepository);
+    }
+
+    @Test
+    void testReconcileOrder_WhenDrifted_ShouldRepairFromRecompute() {
+        // WHAT: Test the reconciliation check
+        // WHY: A missed delta must be caught and fixed, not live on the check forever
+
+        // Given - Stored $10.00 but the items add up to $17.00
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setSubtotal(new BigDecimal("10.00"));
+        order.setTax(new BigDecimal("0.30"));
+        order.setTotal(new BigDecimal("10.30"));
+        when(orderService.getOrderById(1L)).thenReturn(Optional.of(order));
+        when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of(item(1L, "17.00", 1)));
+
+        // When
+        boolean drifted = orderPricingService.reconcileOrder(1L);
+
+        // Then
+        assertTrue(drifted);
+        verify(orderService).applyTotals(1L, new PricingEngine.Totals(1700, 51, 1751));
+    }
+
+    @Test
+    void testReconcileOrder_WhenInSync_ShouldNotWrite() {
+        // WHAT: Test the common case
+        // WHY: The job runs over every open order, in-sync ones should cost reads only
+
+        // Given - Stored totals match the items
+        Order order = new Order();
+        order.setOrderId(1L);
+        order.setSubtotal(new BigDecimal("17.00"));
+        order.setTax(new BigDecimal("0.51"));
+        order.setTotal(new BigDecimal("17.51"));
+        when(orderService.getOrderById(1L)).thenReturn(Optional.of(order));
+        when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of(item(1L, "17.00", 1)));
+
+        // When/Then
+        assertFalse(orderPricingService.reconcileOrder(1L));
+        verify(orderService, never()).applyTotals(any(), any());
+    }
+
+    @Test
+    void testPriceOrder_WhenNoItems_ShouldSkipModifierQuery() {
+        // WHAT: Test an empty order
+        // WHY: A fresh check is $0.00 and needs no modifier lookup
+
+        // Given
+        when(orderItemRepository.findByOrderId(1L)).thenReturn(List.of());
+
+        // When
+        PricingEngine.Totals totals = orderPricingService.priceOrder(1L);
+
+        // Then
+        assertEquals(new PricingEngine.Totals(0, 0, 0), totals);
+        verifyNoInteractions(orderItemModifierRepository);
+    }
+
+    @Test
+    void testMenuItemPrice_ShouldComeFromCatalog() {
+        // WHAT: Test unit prices are read from the menu snapshot
+        // WHY: New order items are stamped with the menu price, unknown items are rejected
+
+        // Given
+        MenuItem cutty = new MenuItem();
+        cutty.setMenuItemId(1L);
+        cutty.setPrice(new BigDecimal("17.00"));
+        when(menuCatalogService.current()).thenReturn(MenuCatalog.of(1L, List.of(cutty), List.of(), List.of(), List.of()));
+
+        // When/Then
+        assertEquals(new BigDecimal("17.00"), orderPricingService.menuItemPrice(1L));
+        assertThrows(RuntimeException.class, () -> orderPricingService.menuItemPrice(99L));
+        assertEquals(BigDecimal.ZERO, orderPricingService.modifierPrice(99L));
+    }
+}
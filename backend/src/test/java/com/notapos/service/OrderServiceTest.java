@@ -1,12 +1,17 @@
 package com.notapos.service;
 
+import com.notapos.analytics.OrderItemAnalytics;
 import com.notapos.entity.Order;
+import com.notapos.entity.RestaurantTable;
+import com.notapos.repository.ChangeTombstoneRepository;
 import com.notapos.repository.OrderRepository;
+import com.notapos.repository.TableRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -32,6 +37,27 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ChangeTombstoneRepository changeTombstoneRepository;
+
+    @Mock
+    private OpenOrderCache openOrderCache;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private TableRepository tableRepository;
+
+    @Mock
+    private OrderItemAnalytics orderItemAnalytics;
+
+    @Spy
+    private ModificationSequence modificationSequence = new ModificationSequence(() -> 0L);
+
     @InjectMocks
     private OrderService orderService;
 
@@ -66,6 +92,42 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).save(testOrder);
     }
 
+    @Test
+    void testCreateOrder_ShouldRecordTablesServerAndSection() {
+        // WHAT: Test a new order copies its table's server and section
+        // WHY: Tip reports credit whoever served the check, even after the floor is reassigned
+
+        // Given - Table 1 is Sarah's, on the patio
+        RestaurantTable table = new RestaurantTable();
+        table.setServerName("Sarah");
+        table.setSection("patio");
+        when(tableRepository.findById(1L)).thenReturn(Optional.of(table));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Order created = orderService.createOrder(testOrder);
+
+        // Then
+        assertEquals("Sarah", created.getServerName());
+        assertEquals("patio", created.getSection());
+    }
+
+    @Test
+    void testCreateOrder_ShouldChangeOrdersETag() {
+        // WHAT: Test that writes bump the orders change counter
+        // WHY: GET /api/orders must stop answering 304 once something changed
+        
+        // Given
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        String before = orderService.getOrdersETag();
+
+        // When
+        orderService.createOrder(testOrder);
+
+        // Then
+        assertNotEquals(before, orderService.getOrdersETag());
+    }
+
     @Test
     void testGetAllOrders_ShouldReturnAllOrders() {
         // WHAT: Test retrieving all orders in the system
@@ -137,21 +199,18 @@ class OrderServiceTest {
     }
 
     @Test
-    void testUpdateOrderTotals_ShouldCalculateTaxAndTotal() {
-        // WHAT: Test calculating tax and total when items are added
+    void testApplyTotals_ShouldStoreComputedTotals() {
+        // WHAT: Test storing totals the pricing engine computed
         // WHY: Order totals need to update as items are added
         
-        // Given - Order exists, tax rate is 8%
+        // Given - Order exists, engine priced it at $50.00 + $4.00 tax
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
-        BigDecimal subtotal = new BigDecimal("50.00");
-        BigDecimal taxRate = new BigDecimal("0.08");
+        // When
+        Order updated = orderService.applyTotals(1L, new PricingEngine.Totals(5000, 400, 5400));
 
-        // When - Update totals with $50 subtotal and 8% tax
-        Order updated = orderService.updateOrderTotals(1L, subtotal, taxRate);
-
-        // Then - Should calculate $4.00 tax and $54.00 total
+        // Then - Cents come back as 2-decimal amounts
         assertEquals(new BigDecimal("50.00"), updated.getSubtotal());
         assertEquals(new BigDecimal("4.00"), updated.getTax());
         assertEquals(new BigDecimal("54.00"), updated.getTotal());
@@ -159,7 +218,26 @@ class OrderServiceTest {
     }
 
     @Test
-    void testUpdateOrderTotals_WhenOrderNotFound_ShouldThrowException() {
+    void testApplySubtotalDelta_ShouldShiftSubtotalAndRederiveTax() {
+        // WHAT: Test applying one item's change to the running totals
+        // WHY: Totals are maintained by deltas, not by re-summing the check
+
+        // Given - Order at $50.00 subtotal
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
+        testOrder.setSubtotal(new BigDecimal("50.00"));
+
+        // When - A $17.00 item is added at 8%
+        Order updated = orderService.applySubtotalDelta(1L, 1700, 80_000);
+
+        // Then - $67.00 + $5.36 tax
+        assertEquals(new BigDecimal("67.00"), updated.getSubtotal());
+        assertEquals(new BigDecimal("5.36"), updated.getTax());
+        assertEquals(new BigDecimal("72.36"), updated.getTotal());
+    }
+
+    @Test
+    void testApplyTotals_WhenOrderNotFound_ShouldThrowException() {
         // WHAT: Test error handling when order doesn't exist
         // WHY: Can't update totals for non-existent order
         
@@ -168,7 +246,7 @@ class OrderServiceTest {
 
         // When & Then - Should throw exception
         assertThrows(RuntimeException.class, () -> {
-            orderService.updateOrderTotals(999L, BigDecimal.TEN, new BigDecimal("0.08"));
+            orderService.applyTotals(999L, new PricingEngine.Totals(1000, 30, 1030));
         });
     }
 
@@ -190,6 +268,95 @@ class OrderServiceTest {
         verify(orderRepository, times(1)).save(testOrder);
     }
 
+    @Test
+    void testCompleteOrder_ShouldCountCheckInSalesRollupsOnce() {
+        // WHAT: Test closing a check feeds the rollups, closing it again doesn't
+        // WHY: A double-tapped "complete" must not inflate orders closed or average check
+
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(testOrder)).thenReturn(testOrder);
+
+        // When - Completed twice
+        orderService.completeOrder(1L);
+        orderService.completeOrder(1L);
+
+        // Then
+        verify(salesRollupService, times(1)).orderCompleted(testOrder);
+        verify(orderItemAnalytics, times(1)).orderCompleted(testOrder.getOrderId());
+    }
+
+    @Test
+    void testGetOpenOrdersByTable_WhenCacheLoaded_ShouldNotQueryDatabase() {
+        // WHAT: Test open-order reads are served from the OpenOrderCache
+        // WHY: The order screen and the boards ask for open checks all service long
+
+        // Given
+        when(openOrderCache.isLoaded()).thenReturn(true);
+        when(openOrderCache.getOpenOrdersByTable(1L)).thenReturn(List.of(testOrder));
+        when(openOrderCache.getOpenOrders()).thenReturn(List.of(testOrder));
+
+        // When/Then
+        assertEquals(List.of(testOrder), orderService.getOpenOrdersByTable(1L));
+        assertEquals(List.of(testOrder), orderService.getOrdersByStatus("open"));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testGetOrdersBetween_WhenRangeReachesArchive_ShouldUnionBoth() {
+        // WHAT: Test the orders report over an archived range
+        // WHY: Reports must read the same before and after the archival job ran
+
+        // Given - One order archived, one still hot
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 12, 31, 23, 59);
+        Order archived = new Order();
+        archived.setOrderId(7L);
+        when(orderRepository.findOrdersBetween(start, end)).thenReturn(List.of(testOrder));
+        when(orderArchiveService.reaches(start)).thenReturn(true);
+        when(orderRepository.findArchivedOrdersBetween(start, end)).thenReturn(List.of(archived));
+
+        // When
+        List<Order> result = orderService.getOrdersBetween(start, end);
+
+        // Then - Archived (older) first
+        assertEquals(List.of(archived, testOrder), result);
+    }
+
+    @Test
+    void testArchiveCompletedOrders_ShouldChangeOrdersETag() {
+        // WHAT: Test archiving bumps the orders change counter
+        // WHY: Archived orders drop out of GET /api/orders, a cached 304 would keep showing them
+
+        // Given
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderArchiveService.archiveCompletedBefore(cutoff)).thenReturn(3);
+        String before = orderService.getOrdersETag();
+
+        // When
+        int archived = orderService.archiveCompletedOrders(cutoff);
+
+        // Then
+        assertEquals(3, archived);
+        assertNotEquals(before, orderService.getOrdersETag());
+    }
+
+    @Test
+    void testCompleteOrder_ShouldWriteThroughToCache() {
+        // WHAT: Test completing an order hands the completed row to the cache
+        // WHY: The cache evicts it, otherwise the check would stay on the board
+
+        // Given
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(testOrder)).thenReturn(testOrder);
+
+        // When
+        orderService.completeOrder(1L);
+
+        // Then
+        verify(openOrderCache).orderWritten(argThat(order -> "completed".equals(order.getStatus())));
+    }
+
     @Test
     void testGetOrdersByStatus_ShouldFilterByStatus() {
         // WHAT: Test filtering orders by status
@@ -8,6 +8,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -15,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -31,6 +35,18 @@ class PaymentServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private ServerSalesReportService serverSalesReportService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -68,6 +84,148 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).save(testPayment);
     }
 
+    @Test
+    void testCreatePayment_WithNewIdempotencyKey_ShouldInsertWithKey() {
+        // WHAT: Test the first attempt of a keyed POST
+        // WHY: The key is stored so a retry can find this payment
+
+        // Given
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any())).thenReturn(Optional.empty());
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        Payment created = paymentService.createPayment(testPayment, "key-1");
+
+        // Then
+        assertSame(testPayment, created);
+        assertEquals("key-1", created.getIdempotencyKey());
+        verify(salesRollupService).paymentChanged(testPayment, SalesRollupService.PaymentTotals.NONE);
+    }
+
+    @Test
+    void testCreatePayment_Replay_ShouldReturnOriginalFromMemoryWithoutInserting() {
+        // WHAT: Test a terminal retrying after a slow response
+        // WHY: One charge, however many times the request is sent
+
+        // Given - The first attempt went through
+        ReflectionTestUtils.setField(testPayment, "createdAt", LocalDateTime.now());
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any())).thenReturn(Optional.empty());
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+        paymentService.createPayment(testPayment, "key-1");
+
+        // When - Retried twice with the same body
+        Payment retry = new Payment();
+        retry.setOrderId(1L);
+        retry.setAmount(new BigDecimal("50.00"));
+        Payment first = paymentService.createPayment(retry, "key-1");
+        Payment second = paymentService.createPayment(retry, "key-1");
+
+        // Then - Original both times, answered from the LRU
+        assertSame(testPayment, first);
+        assertSame(testPayment, second);
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(paymentRepository, times(1)).findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any());
+    }
+
+    @Test
+    void testCreatePayment_Replay_AfterUpdate_ShouldReturnUpdatedPayment() {
+        // WHAT: Test replaying a key after its payment was edited
+        // WHY: The LRU held the row as first created - a retry must not bring back the old tip
+
+        // Given - Created with key-1, then the tip was raised to $15.00
+        ReflectionTestUtils.setField(testPayment, "createdAt", LocalDateTime.now());
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+        paymentService.createPayment(testPayment, "key-1");
+
+        Payment stored = new Payment();                     // The row as the next transaction reads it
+        stored.setPaymentId(1L);
+        stored.setOrderId(1L);
+        stored.setAmount(new BigDecimal("50.00"));
+        stored.setTipAmount(new BigDecimal("10.00"));
+        stored.setIdempotencyKey("key-1");
+        ReflectionTestUtils.setField(stored, "createdAt", testPayment.getCreatedAt());
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(paymentRepository.save(stored)).thenReturn(stored);
+        Payment updatedData = new Payment();
+        updatedData.setAmount(new BigDecimal("50.00"));
+        updatedData.setTipAmount(new BigDecimal("15.00"));
+        updatedData.setStatus("completed");
+        paymentService.updatePayment(1L, updatedData);
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any())).thenReturn(Optional.of(stored));
+
+        // When - The original POST is retried
+        Payment retry = new Payment();
+        retry.setOrderId(1L);
+        retry.setAmount(new BigDecimal("50.00"));
+        Payment replayed = paymentService.createPayment(retry, "key-1");
+
+        // Then - Read again, with the new tip
+        assertSame(stored, replayed);
+        assertEquals(new BigDecimal("15.00"), replayed.getTipAmount());
+    }
+
+    @Test
+    void testCreatePayment_Replay_AfterRestart_ShouldFallBackToDatabase() {
+        // WHAT: Test a replay the LRU doesn't know about
+        // WHY: The key is in the database even if the server restarted in between
+
+        // Given
+        testPayment.setIdempotencyKey("key-1");
+        ReflectionTestUtils.setField(testPayment, "createdAt", LocalDateTime.now().minusMinutes(5));
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any())).thenReturn(Optional.of(testPayment));
+        Payment retry = new Payment();
+        retry.setOrderId(1L);
+        retry.setAmount(new BigDecimal("50.00"));
+
+        // When
+        Payment replayed = paymentService.createPayment(retry, "key-1");
+
+        // Then
+        assertSame(testPayment, replayed);
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void testCreatePayment_WhenConcurrentRetryWins_ShouldReturnItsPayment() {
+        // WHAT: Test two retries racing - the second insert hits the unique index
+        // WHY: The loser must answer with the winner's payment, not an error
+
+        // Given - Not there on the first lookup, there after the failed insert
+        Payment winner = new Payment();
+        winner.setOrderId(1L);
+        winner.setAmount(new BigDecimal("50.00"));
+        winner.setIdempotencyKey("key-1");
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(paymentRepository.save(testPayment)).thenThrow(new DataIntegrityViolationException("uk_payments_idempotency_key"));
+
+        // When
+        Payment result = paymentService.createPayment(testPayment, "key-1");
+
+        // Then
+        assertSame(winner, result);
+        verifyNoInteractions(salesRollupService);
+    }
+
+    @Test
+    void testCreatePayment_KeyReusedForDifferentPayment_ShouldThrow() {
+        // WHAT: Test the same key sent with a different amount
+        // WHY: That's two splits sharing a key - replaying would silently drop the second
+
+        // Given
+        testPayment.setIdempotencyKey("key-1");
+        ReflectionTestUtils.setField(testPayment, "createdAt", LocalDateTime.now());
+        when(paymentRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any())).thenReturn(Optional.of(testPayment));
+        Payment otherSplit = new Payment();
+        otherSplit.setOrderId(1L);
+        otherSplit.setAmount(new BigDecimal("25.00"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> paymentService.createPayment(otherSplit, "key-1"));
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
     @Test
     void testGetAllPayments_ShouldReturnAllPayments() {
         // WHAT: Test retrieving all payments
@@ -212,6 +370,44 @@ class PaymentServiceTest {
         assertEquals(BigDecimal.ZERO, totalTips);
     }
 
+    @Test
+    void testCalculateTotalTips_WhenRangeReachesArchive_ShouldAddArchivedTips() {
+        // WHAT: Test a report over a range that has been archived
+        // WHY: Moving old checks to history tables must not change last quarter's tip report
+
+        // Given - $100 still hot, $250 archived
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 31, 23, 59);
+        when(paymentRepository.calculateTotalTips(start, end)).thenReturn(new BigDecimal("100.00"));
+        when(orderArchiveService.reaches(start)).thenReturn(true);
+        when(paymentRepository.calculateArchivedTips(start, end)).thenReturn(new BigDecimal("250.00"));
+
+        // When
+        BigDecimal totalTips = paymentService.calculateTotalTips(start, end);
+
+        // Then
+        assertEquals(new BigDecimal("350.00"), totalTips);
+    }
+
+    @Test
+    void testGetPaymentsBetween_WhenRangeIsRecent_ShouldNotReadArchive() {
+        // WHAT: Test tonight's report skips the history table
+        // WHY: Most reports are about today, which is never archived
+
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 6, 1, 23, 59);
+        when(paymentRepository.findPaymentsBetween(start, end)).thenReturn(List.of(testPayment));
+        when(orderArchiveService.reaches(start)).thenReturn(false);
+
+        // When
+        List<Payment> result = paymentService.getPaymentsBetween(start, end);
+
+        // Then
+        assertEquals(List.of(testPayment), result);
+        verify(paymentRepository, never()).findArchivedPaymentsBetween(any(), any());
+    }
+
     @Test
     void testUpdatePayment_ShouldUpdateFields() {
         // WHAT: Test updating payment details
@@ -235,6 +431,43 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).save(testPayment);
     }
 
+    @Test
+    void testUpdatePayment_ShouldHandRollupsThePreviousTotals() {
+        // WHAT: Test an edit reports what the payment counted for before it changed
+        // WHY: The rollups add the difference - without "before" a tip edit would count twice
+
+        // Given - $50.00 + $10.00 tip, tip raised to $15.00
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+        Payment updatedData = new Payment();
+        updatedData.setAmount(new BigDecimal("50.00"));
+        updatedData.setTipAmount(new BigDecimal("15.00"));
+        updatedData.setStatus("completed");
+
+        // When
+        paymentService.updatePayment(1L, updatedData);
+
+        // Then
+        verify(salesRollupService).paymentChanged(testPayment, new SalesRollupService.PaymentTotals(5000, 1000, 1));
+    }
+
+    @Test
+    void testDeletePayment_ShouldTakeItOutOfRollups() {
+        // WHAT: Test deleting a payment subtracts it from its bucket
+        // WHY: Financials must match the payments that still exist
+
+        // Given
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+
+        // When
+        paymentService.deletePayment(1L);
+
+        // Then
+        verify(paymentRepository).deleteById(1L);
+        verify(salesRollupService).paymentRemoved(testPayment);
+        verify(serverSalesReportService).paymentWritten(testPayment.getCreatedAt());
+    }
+
     @Test
     void testUpdatePayment_WhenNotFound_ShouldThrowException() {
         // WHAT: Test error handling when payment doesn't exist
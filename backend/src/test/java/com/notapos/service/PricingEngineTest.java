@@ -0,0 +1,84 @@
+package com.notapos.service;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PricingEngine.
+ *
+ * Tests the cents arithmetic: conversions, line totals and tax rounding.
+ *
+ * @author CJ
+ */
+
+class PricingEngineTest {
+
+    @Test
+    void testPrice_ShouldAddLinesThenTax() {
+        // WHAT: Test a whole order priced in cents
+        // WHY: Subtotal, tax and total all come from the server now
+
+        // Given - 2x Chicken Cutty $17.00 with Bacon +$2.00, 1x Fries $5.50
+        long[] unitCents = {1700, 550};
+        long[] modifierCents = {200, 0};
+        int[] quantities = {2, 1};
+
+        // When - Priced at 3%
+        PricingEngine.Totals totals = PricingEngine.price(unitCents, modifierCents, quantities, 2, 30_000);
+
+        // Then - $43.50 + $1.31 (1.305 rounds up) = $44.81
+        assertEquals(4350, totals.subtotalCents());
+        assertEquals(131, totals.taxCents());
+        assertEquals(4481, totals.totalCents());
+        assertEquals(new BigDecimal("44.81"), totals.total());
+    }
+
+    @Test
+    void testTaxCents_ShouldRoundHalfUpLikeBigDecimal() {
+        // WHAT: Test the integer tax against the old BigDecimal math
+        // WHY: Switching to cents must not move any order by a penny
+
+        BigDecimal rate = new BigDecimal("0.08875");
+        long ppm = PricingEngine.toPpm(rate);
+
+        for (long cents = 0; cents < 20_000; cents++) {
+            BigDecimal expected = BigDecimal.valueOf(cents, 2).multiply(rate)
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, PricingEngine.fromCents(PricingEngine.taxCents(cents, ppm)), "subtotal " + cents);
+        }
+    }
+
+    @Test
+    void testToCents_ShouldConvertAndTreatNullAsZero() {
+        // WHAT: Test BigDecimal <-> cents conversions
+        // WHY: Entities store BigDecimal, some older rows have null adjustments
+
+        assertEquals(1700, PricingEngine.toCents(new BigDecimal("17.00")));
+        assertEquals(1700, PricingEngine.toCents(new BigDecimal("17")));
+        assertEquals(-150, PricingEngine.toCents(new BigDecimal("-1.50")));
+        assertEquals(0, PricingEngine.toCents(null));
+        assertEquals(new BigDecimal("0.05"), PricingEngine.fromCents(5));
+        assertEquals(30_000, PricingEngine.toPpm(new BigDecimal("0.03")));
+    }
+
+    @Test
+    void testToMoney_ShouldReadRawJdbcValues() {
+        // WHAT: Test money read straight off a native query
+        // WHY: SQLite returns the same column as text, integer or real depending on how it was read and stored
+
+        assertEquals(new BigDecimal("12.50"), PricingEngine.toMoney("12.5"));
+        assertEquals(new BigDecimal("12.00"), PricingEngine.toMoney(12L));
+        assertEquals(new BigDecimal("0.30"), PricingEngine.toMoney(0.1 + 0.2));
+        assertEquals(new BigDecimal("0.00"), PricingEngine.toMoney(null));
+    }
+
+    @Test
+    void testLineCents_WhenOverflowing_ShouldThrow() {
+        // WHAT: Test overflow is loud
+        // WHY: A wrapped long would silently produce a negative check
+
+        assertThrows(ArithmeticException.class, () -> PricingEngine.lineCents(Long.MAX_VALUE / 2, 0, 3));
+    }
+}
@@ -0,0 +1,210 @@
+package com.notapos.service;
+
+import com.notapos.dto.SalesSummary;
+import com.notapos.entity.Order;
+import com.notapos.entity.Payment;
+import com.notapos.entity.SalesRollup;
+import com.notapos.repository.OrderRepository;
+import com.notapos.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SalesRollupService.
+ *
+ * Tests bucketing, the deltas handed to the repository, and folding rollup
+ * rows into a SalesSummary.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    private Payment payment(String amount, String tip, String status, LocalDateTime createdAt) {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal(amount));
+        payment.setTipAmount(new BigDecimal(tip));
+        payment.setPaymentMethod("cash");
+        payment.setStatus(status);
+        ReflectionTestUtils.setField(payment, "createdAt", createdAt);      // Normally stamped by @PrePersist
+        return payment;
+    }
+
+    private SalesRollup row(LocalDateTime bucketStart, String method, long sales, long tips, int payments,
+                            int ordersClosed, long checkTotal) {
+        SalesRollup row = new SalesRollup();
+        row.setBusinessDay(SalesRollupService.businessDay(bucketStart));
+        row.setBucketStart(bucketStart);
+        row.setPaymentMethod(method);
+        row.setServerName(SalesRollup.NO_SERVER);
+        row.setSalesCents(sales);
+        row.setTipsCents(tips);
+        row.setPaymentCount(payments);
+        row.setOrdersClosed(ordersClosed);
+        row.setCheckTotalCents(checkTotal);
+        return row;
+    }
+
+    @Test
+    void testBucketStartAndBusinessDay() {
+        // WHAT: Test 15-minute buckets and the 4am business day boundary
+        // WHY: The 1am close belongs to the night before
+
+        assertEquals(LocalDateTime.of(2025, 6, 14, 19, 30), SalesRollupService.bucketStart(LocalDateTime.of(2025, 6, 14, 19, 44, 59)));
+        assertEquals(LocalDate.of(2025, 6, 14), SalesRollupService.businessDay(LocalDateTime.of(2025, 6, 15, 1, 10)));
+        assertEquals(LocalDate.of(2025, 6, 15), SalesRollupService.businessDay(LocalDateTime.of(2025, 6, 15, 4, 0)));
+    }
+
+    @Test
+    void testPaymentChanged_NewPayment_ShouldAddItsBucket() {
+        // WHAT: Test a new completed payment
+        // WHY: One upsert into the bucket it was taken in
+
+        // Given
+        LocalDateTime at = LocalDateTime.of(2025, 6, 15, 1, 10);
+
+        // When
+        salesRollupService.paymentChanged(payment("50.00", "10.00", "completed", at), SalesRollupService.PaymentTotals.NONE);
+
+        // Then
+        verify(salesRollupRepository).add(LocalDate.of(2025, 6, 14), LocalDateTime.of(2025, 6, 15, 1, 0), "cash",
+                SalesRollup.NO_SERVER, 5000L, 1000L, 1, 0, 0L);
+    }
+
+    @Test
+    void testPaymentChanged_ShouldCreditOrdersServer() {
+        // WHAT: Test the server dimension comes from the payment's order
+        // WHY: Per-server sales in the Financials breakdown
+
+        // Given - Order 1 was opened by Sarah
+        Order order = new Order();
+        order.setServerName("Sarah");
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        Payment payment = payment("50.00", "10.00", "completed", LocalDateTime.of(2025, 6, 14, 19, 5));
+        payment.setOrderId(1L);
+
+        // When
+        salesRollupService.paymentChanged(payment, SalesRollupService.PaymentTotals.NONE);
+
+        // Then
+        verify(salesRollupRepository).add(LocalDate.of(2025, 6, 14), LocalDateTime.of(2025, 6, 14, 19, 0), "cash",
+                "Sarah", 5000L, 1000L, 1, 0, 0L);
+    }
+
+    @Test
+    void testPaymentChanged_Refunded_ShouldSubtractWhatItCounted() {
+        // WHAT: Test a completed payment being refunded
+        // WHY: A refund takes the sale back out of the bucket
+
+        // Given
+        LocalDateTime at = LocalDateTime.of(2025, 6, 14, 19, 5);
+        Payment refunded = payment("50.00", "10.00", "refunded", at);
+
+        // When
+        salesRollupService.paymentChanged(refunded, new SalesRollupService.PaymentTotals(5000, 1000, 1));
+
+        // Then
+        verify(salesRollupRepository).add(LocalDate.of(2025, 6, 14), LocalDateTime.of(2025, 6, 14, 19, 0), "cash",
+                SalesRollup.NO_SERVER, -5000L, -1000L, -1, 0, 0L);
+    }
+
+    @Test
+    void testPaymentChanged_NothingChanged_ShouldNotWrite() {
+        // WHAT: Test an edit that doesn't change any total
+        // WHY: No point upserting a zero
+
+        Payment unchanged = payment("50.00", "10.00", "completed", LocalDateTime.now());
+
+        salesRollupService.paymentChanged(unchanged, SalesRollupService.PaymentTotals.of(unchanged));
+
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @Test
+    void testOrderCompleted_ShouldCountCheckAndItsTotal() {
+        // WHAT: Test closing a check
+        // WHY: Orders closed and average check come from these rows
+
+        // Given
+        Order order = new Order();
+        order.setTotal(new BigDecimal("47.08"));
+        order.setCompletedAt(LocalDateTime.of(2025, 6, 14, 20, 20));
+
+        // When
+        salesRollupService.orderCompleted(order);
+
+        // Then
+        verify(salesRollupRepository).add(eq(LocalDate.of(2025, 6, 14)), eq(LocalDateTime.of(2025, 6, 14, 20, 15)),
+                eq(SalesRollup.CHECKS), eq(SalesRollup.NO_SERVER), eq(0L), eq(0L), eq(0), eq(1), eq(4708L));
+    }
+
+    @Test
+    void testGetBusinessDaySummary_ShouldFoldBuckets() {
+        // WHAT: Test folding a day's rows into the Financials figures
+        // WHY: Totals, breakdown, averages and intervals all come from here
+
+        // Given - Two payment buckets and two checks closed
+        LocalDate day = LocalDate.of(2025, 6, 14);
+        LocalDateTime seven = LocalDateTime.of(2025, 6, 14, 19, 0);
+        LocalDateTime quarterPast = seven.plusMinutes(15);
+        when(salesRollupRepository.findByBusinessDayOrderByBucketStartAsc(day)).thenReturn(List.of(
+                row(seven, "cash", 6000, 1000, 1, 0, 0),
+                row(seven, SalesRollup.CHECKS, 0, 0, 0, 1, 6000),
+                row(quarterPast, "credit_card", 4000, 800, 1, 0, 0),
+                row(quarterPast, SalesRollup.CHECKS, 0, 0, 0, 1, 4001)));
+
+        // When
+        SalesSummary summary = salesRollupService.getBusinessDaySummary(day);
+
+        // Then
+        assertEquals(day.atTime(4, 0), summary.from());
+        assertEquals(new BigDecimal("100.00"), summary.totalSales());
+        assertEquals(new BigDecimal("18.00"), summary.totalTips());
+        assertEquals(2, summary.paymentCount());
+        assertEquals(2, summary.ordersClosed());
+        assertEquals(new BigDecimal("50.01"), summary.averageCheck());
+        assertEquals(new BigDecimal("18.0"), summary.averageTipPercent());
+        assertEquals(new BigDecimal("60.00"), summary.salesByPaymentMethod().get("cash"));
+        assertFalse(summary.salesByPaymentMethod().containsKey(SalesRollup.CHECKS));
+        assertEquals(new BigDecimal("100.00"), summary.salesByServer().get("unassigned"));
+        assertEquals(2, summary.intervals().size());
+        assertEquals(1, summary.intervals().get(1).ordersClosed());
+    }
+
+    @Test
+    void testGetSummary_ShouldRoundStartDownToBucket() {
+        // WHAT: Test a shift starting mid-bucket
+        // WHY: The 4:30 bucket holds the 4:37 shift start
+
+        LocalDateTime from = LocalDateTime.of(2025, 6, 14, 16, 37);
+        LocalDateTime to = LocalDateTime.of(2025, 6, 14, 22, 0);
+        when(salesRollupRepository.findBucketsBetween(any(), any())).thenReturn(List.of());
+
+        SalesSummary summary = salesRollupService.getSummary(from, to);
+
+        verify(salesRollupRepository).findBucketsBetween(LocalDateTime.of(2025, 6, 14, 16, 30), to);
+        assertEquals(BigDecimal.ZERO, summary.averageCheck());
+    }
+}
@@ -0,0 +1,156 @@
+package com.notapos.service;
+
+import com.notapos.dto.ServerSales;
+import com.notapos.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ServerSalesReportService.
+ *
+ * Tests merging hourly rows, one query for all uncached hours, caching of
+ * completed hours, recomputing the current hour, and invalidation when a
+ * payment changes.
+ *
+ * @author CJ
+ */
+
+@ExtendWith(MockitoExtension.class)
+class ServerSalesReportServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @InjectMocks
+    private ServerSalesReportService serverSalesReportService;
+
+    private Object[] row(String server, String section, long hourIndex, double sales, double tips) {   // As the native GROUP BY returns it
+        return new Object[] {server, section, hourIndex, sales, tips, 1L};
+    }
+
+    @Test
+    void testGetReport_ShouldSumHoursPerServerAndSection() {
+        // WHAT: Test a two-hour range folds into one row per server/section
+        // WHY: Tip-out needs the shift total, not per-hour pieces
+
+        // Given - Two closed hours, Sarah sold in both, Mike in one
+        LocalDateTime from = LocalDateTime.of(2025, 6, 14, 18, 0);
+        when(paymentRepository.sumByServerSectionAndHour(from, from.plusHours(2))).thenReturn(List.of(
+                row("Sarah", "patio", 0, 40.0, 8.0), row("Mike", "bar", 0, 12.5, 2.0), row("Sarah", "patio", 1, 60.0, 12.0)));
+
+        // When
+        List<ServerSales> report = serverSalesReportService.getReport(from, from.plusHours(2));
+
+        // Then - Sorted by server
+        assertEquals(2, report.size());
+        assertEquals("Mike", report.get(0).serverName());
+        assertEquals(new BigDecimal("100.00"), report.get(1).sales());
+        assertEquals(new BigDecimal("20.00"), report.get(1).tips());
+        assertEquals(2, report.get(1).paymentCount());
+    }
+
+    @Test
+    void testGetReport_ShouldQueryUncachedHoursInOneStatement() {
+        // WHAT: Test a cold month is one GROUP BY, not one per hour
+        // WHY: 720 statements for a 30-day report is what this replaced
+
+        // Given - A cold 30 days
+        LocalDateTime from = LocalDateTime.of(2025, 6, 1, 0, 0);
+        LocalDateTime to = from.plusDays(30);
+        when(paymentRepository.sumByServerSectionAndHour(from, to)).thenReturn(List.<Object[]>of(row("Sarah", "patio", 5, 40.0, 8.0)));
+
+        // When - Run twice
+        serverSalesReportService.getReport(from, to);
+        List<ServerSales> report = serverSalesReportService.getReport(from, to);
+
+        // Then - Every hour cached from the one query, empty ones included
+        verify(paymentRepository, times(1)).sumByServerSectionAndHour(any(), any());
+        assertEquals(24 * 30, serverSalesReportService.cachedHours());
+        assertEquals(new BigDecimal("40.00"), report.get(0).sales());
+    }
+
+    @Test
+    void testGetReport_ShouldQueryCompletedHoursOnceAndCurrentHourEveryTime() {
+        // WHAT: Test the completed-hour cache
+        // WHY: A shift report refreshed all night should only re-read the hour still in progress
+
+        // Given - Previous hour and current hour
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime previousHour = currentHour.minusHours(1);
+        when(paymentRepository.sumByServerSectionAndHour(any(), any())).thenReturn(List.of());
+
+        // When - Report run twice
+        serverSalesReportService.getReport(previousHour, currentHour.plusHours(1));
+        serverSalesReportService.getReport(previousHour, currentHour.plusHours(1));
+
+        // Then
+        verify(paymentRepository, times(1)).sumByServerSectionAndHour(previousHour, currentHour.plusHours(1));
+        verify(paymentRepository, times(1)).sumByServerSectionAndHour(currentHour, currentHour.plusHours(1));
+        assertEquals(1, serverSalesReportService.cachedHours());
+    }
+
+    @Test
+    void testPaymentWritten_ShouldDropThatHour() {
+        // WHAT: Test editing a payment from a closed hour
+        // WHY: A refund at 9pm for a 7pm check must show up in the 7pm hour
+
+        // Given - 7pm hour cached
+        LocalDateTime seven = LocalDateTime.of(2025, 6, 14, 19, 0);
+        when(paymentRepository.sumByServerSectionAndHour(seven, seven.plusHours(1)))
+                .thenReturn(List.<Object[]>of(row("Sarah", "patio", 0, 50.0, 10.0)))
+                .thenReturn(List.of());
+        serverSalesReportService.getReport(seven, seven.plusHours(1));
+
+        // When - That check's payment is refunded
+        serverSalesReportService.paymentWritten(seven.plusMinutes(40));
+
+        // Then - Recomputed
+        assertTrue(serverSalesReportService.getReport(seven, seven.plusHours(1)).isEmpty());
+        verify(paymentRepository, times(2)).sumByServerSectionAndHour(seven, seven.plusHours(1));
+    }
+
+    @Test
+    void testGetReport_WhenHourArchived_ShouldReadHistoryTablesInSameQuery() {
+        // WHAT: Test hours old enough to be archived
+        // WHY: Archiving must not change last quarter's tip report
+
+        // Given
+        LocalDateTime hour = LocalDateTime.of(2025, 1, 10, 19, 0);
+        when(orderArchiveService.reaches(hour)).thenReturn(true);
+        when(paymentRepository.sumWithArchiveByServerSectionAndHour(hour, hour.plusHours(1)))
+                .thenReturn(List.<Object[]>of(row("Sarah", "patio", 0, 50.0, 10.0)));
+
+        // When
+        List<ServerSales> report = serverSalesReportService.getReport(hour, hour.plusHours(1));
+
+        // Then
+        assertEquals(1, report.size());
+        assertEquals(new BigDecimal("50.00"), report.get(0).sales());
+        assertEquals(new BigDecimal("10.00"), report.get(0).tips());
+        verify(paymentRepository, never()).sumByServerSectionAndHour(any(), any());
+    }
+
+    @Test
+    void testGetReport_WhenNotOnTheHour_ShouldThrow() {
+        // WHAT: Test a range that doesn't start and end on the hour
+        // WHY: The report is built from whole hours - widening it silently would count payments outside the range
+
+        LocalDateTime from = LocalDateTime.of(2025, 6, 14, 16, 30);
+
+        assertThrows(IllegalArgumentException.class, () -> serverSalesReportService.getReport(from, from.plusHours(2)));
+        verifyNoInteractions(paymentRepository);
+    }
+}
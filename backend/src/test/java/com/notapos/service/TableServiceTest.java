@@ -1,6 +1,7 @@
 package com.notapos.service;
 
 import com.notapos.entity.RestaurantTable;
+import com.notapos.events.TableChangedEvent;
 import com.notapos.repository.TableRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +31,9 @@ class TableServiceTest {
     @Mock
     private TableRepository tableRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TableService tableService;
 
@@ -165,9 +170,10 @@ class TableServiceTest {
         // When - Change status to occupied
         RestaurantTable result = tableService.updateTableStatus(1L, "occupied");
 
-        // Then - Status should be updated
+        // Then - Status should be updated and pushed to the floor map
         assertEquals("occupied", result.getStatus());
         verify(tableRepository, times(1)).save(testTable);
+        verify(eventPublisher, times(1)).publishEvent(TableChangedEvent.of(testTable));
     }
 
     @Test
@@ -0,0 +1,44 @@
+import { useState, useEffect } from 'react';
+
+// Keeps a local copy of a table in sync through a "since" change feed.
+// First poll (since=-1) returns everything; after that only rows written or
+// deleted since the last cursor come back.
+function useChangeFeed(url, idKey, intervalMs = 3000) {
+  const [rows, setRows] = useState([]);
+
+  useEffect(() => {
+    let cursor = -1;
+    let cancelled = false;
+
+    const poll = () => {
+      fetch(`${url}?since=${cursor}`)
+        .then(response => response.json())
+        .then(feed => {
+          if (cancelled || feed.cursor === cursor) {
+            return;
+          }
+          cursor = feed.cursor;
+
+          setRows(current => {
+            const byId = new Map(current.map(row => [row[idKey], row]));
+            feed.changed.forEach(row => byId.set(row[idKey], row));
+            feed.deleted.forEach(id => byId.delete(id));
+            return Array.from(byId.values());
+          });
+        })
+        .catch(error => console.error(`Error syncing ${url}:`, error));
+    };
+
+    poll();
+    const interval = setInterval(poll, intervalMs);
+
+    return () => {
+      cancelled = true;
+      clearInterval(interval);
+    };
+  }, [url, idKey, intervalMs]);
+
+  return rows;
+}
+
+export default useChangeFeed;
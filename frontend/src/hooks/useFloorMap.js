@@ -0,0 +1,61 @@
+import { useState, useEffect, useRef } from 'react';
+
+// Live table list for the floor map.
+// Loads /api/tables/floor once, then applies table deltas pushed over /api/tables/stream.
+// Every delta carries the floor version; if one is skipped we reload the floor once.
+function useFloorMap() {
+  const [tables, setTables] = useState([]);
+  const tablesRef = useRef([]);
+  const floorVersionRef = useRef(-1);
+
+  useEffect(() => {
+    const applyTables = (next) => {
+      tablesRef.current = next;
+      setTables(next);
+    };
+
+    const loadFloor = () => {
+      fetch('http://localhost:8080/api/tables/floor')
+        .then(response => response.json())
+        .then(data => {
+          floorVersionRef.current = Math.max(floorVersionRef.current, data.floorVersion);
+          applyTables(data.tables);
+        })
+        .catch(error => console.error('Error fetching tables:', error));
+    };
+
+    const source = new EventSource('http://localhost:8080/api/tables/stream');
+    source.onopen = loadFloor;                                                  // (re)connected - start from a fresh snapshot
+
+    source.addEventListener('table', (event) => {
+      const delta = JSON.parse(event.data);
+      const known = floorVersionRef.current;
+
+      if (delta.floorVersion <= known) {
+        return;                                                                 // already in our snapshot
+      }
+      if (known >= 0 && delta.floorVersion !== known + 1) {
+        loadFloor();                                                            // missed something, resync
+        return;
+      }
+      floorVersionRef.current = delta.floorVersion;
+
+      const current = tablesRef.current;
+      if (delta.status === 'deleted') {
+        applyTables(current.filter(t => t.tableId !== delta.tableId));
+      } else if (current.some(t => t.tableId === delta.tableId)) {
+        applyTables(current.map(t =>
+          t.tableId === delta.tableId ? { ...t, status: delta.status, serverName: delta.serverName } : t
+        ));
+      } else {
+        loadFloor();                                                            // new table, need its layout
+      }
+    });
+
+    return () => source.close();
+  }, []);
+
+  return tables;
+}
+
+export default useFloorMap;
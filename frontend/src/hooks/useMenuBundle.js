@@ -0,0 +1,37 @@
+import { useState, useEffect } from 'react';
+
+// Full menu (active items + modifier groups) from the versioned bundle.
+// Asks /api/menu/version (tiny) and only downloads /api/menu/bundle/{version}
+// when the version changed. The bundle URL is immutable, so the browser
+// cache serves repeat downloads anyway.
+let cachedBundle = null;
+
+export function fetchMenuBundle() {
+  return fetch('http://localhost:8080/api/menu/version')
+    .then(response => response.json())
+    .then(({ version, bundleUrl }) => {
+      if (cachedBundle && cachedBundle.version === version) {
+        return cachedBundle;
+      }
+      return fetch(`http://localhost:8080${bundleUrl}`)
+        .then(response => response.json())
+        .then(bundle => {
+          cachedBundle = bundle;
+          return bundle;
+        });
+    });
+}
+
+function useMenuBundle() {
+  const [menuItems, setMenuItems] = useState([]);
+
+  useEffect(() => {
+    fetchMenuBundle()
+      .then(bundle => setMenuItems(bundle.items))
+      .catch(error => console.error('Error fetching menu:', error));
+  }, []);
+
+  return menuItems;
+}
+
+export default useMenuBundle;
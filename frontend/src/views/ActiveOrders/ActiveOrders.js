@@ -11,7 +11,7 @@ function ActiveOrders({ setCurrentView }) {
 
   
   useEffect(() => {
-    fetch('http://localhost:8080/api/orders')                     // First useEffect - loads data on mount
+    fetch('http://localhost:8080/api/orders?status=open')         // First useEffect - loads data on mount (open checks only, served from memory)
       .then(response => response.json())
       .then(data => {
         console.log('Orders:', data);
@@ -19,7 +19,7 @@ function ActiveOrders({ setCurrentView }) {
       })
       .catch(error => console.error('Error fetching orders:', error));
 
-    fetch('http://localhost:8080/api/order-items')
+    fetch('http://localhost:8080/api/order-items?openOrders=true')
       .then(response => response.json())
       .then(data => {
         console.log('Order items:', data);
@@ -41,18 +41,56 @@ function ActiveOrders({ setCurrentView }) {
   
   useEffect(() => {
     const interval = setInterval(() => {
-      fetch('http://localhost:8080/api/orders')                           // Second useEffect - polls every 3 seconds
+      fetch('http://localhost:8080/api/orders?status=open')               // Second useEffect - polls orders every 3 seconds
         .then(response => response.json())
         .then(data => setOrders(data))
         .catch(error => console.error('Error fetching orders:', error));
+    }, 3000);
+
+    return () => clearInterval(interval);
+  }, []);
 
-      fetch('http://localhost:8080/api/order-items')
+
+  useEffect(() => {
+    const source = new EventSource('http://localhost:8080/api/order-items/stream');        // Third useEffect - order item changes pushed by the server
+
+    source.onmessage = (event) => {
+      const change = JSON.parse(event.data);
+
+      setOrderItems(items => {
+        if (change.type === 'deleted') {
+          return items.filter(i => i.orderItemId !== change.orderItemId);
+        }
+
+        const patch = {
+          orderItemId: change.orderItemId,
+          orderId: change.orderId,
+          menuItemId: change.menuItemId,
+          quantity: change.quantity,
+          status: change.status,
+          isLocked: change.isLocked,
+          version: change.version
+        };
+
+        if (!items.some(i => i.orderItemId === change.orderItemId)) {
+          return [...items, patch];
+        }
+        return items.map(i =>
+          i.orderItemId === change.orderItemId && !(i.version > change.version)            // ignore anything older than what we have
+            ? { ...i, ...patch }
+            : i
+        );
+      });
+    };
+
+    source.addEventListener('resync', () => {                               // missed too much while disconnected, reload once
+      fetch('http://localhost:8080/api/order-items?openOrders=true')
         .then(response => response.json())
         .then(data => setOrderItems(data))
         .catch(error => console.error('Error fetching order items:', error));
-    }, 3000);
+    });
 
-    return () => clearInterval(interval);
+    return () => source.close();
   }, []);
 
   return (
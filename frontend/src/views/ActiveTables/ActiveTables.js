@@ -1,50 +1,12 @@
-import { useState, useEffect } from 'react';
 import NavBar from '../../components/NavBar/NavBar';
+import useFloorMap from '../../hooks/useFloorMap';
+import useChangeFeed from '../../hooks/useChangeFeed';
 import './ActiveTables.css';
 
 function ActiveTables({ setCurrentView, setSelectedTable }) {
-    const [tables, setTables] = useState([]);
-    const [orders, setOrders] = useState([]);
-    const [orderItems, setOrderItems] = useState([]);
-
-    useEffect(() => {                                                       // Load tables, orders, and order items on mount
-        fetch('http://localhost:8080/api/tables')
-            .then(response => response.json())
-            .then(data => setTables(data))
-            .catch(error => console.error('Error fetching tables:', error));
-
-        fetch('http://localhost:8080/api/orders')
-            .then(response => response.json())
-            .then(data => setOrders(data))
-            .catch(error => console.error('Error fetching orders:', error));
-
-            fetch('http://localhost:8080/api/order-items')
-                .then(response => response.json())
-                .then(data => setOrderItems(data))
-                .catch(error => console.error('Error fetching order items:', error));
-    }, []);
-
-    useEffect(() => {
-                                                                            // Auto-refresh every 3 seconds
-    const interval = setInterval(() => {
-      fetch('http://localhost:8080/api/tables')
-        .then(response => response.json())
-        .then(data => setTables(data))
-        .catch(error => console.error('Error fetching tables:', error));
-
-      fetch('http://localhost:8080/api/orders')
-        .then(response => response.json())
-        .then(data => setOrders(data))
-        .catch(error => console.error('Error fetching orders:', error));
-
-      fetch('http://localhost:8080/api/order-items')
-        .then(response => response.json())
-        .then(data => setOrderItems(data))
-        .catch(error => console.error('Error fetching order items:', error));
-    }, 3000);
-
-    return () => clearInterval(interval);
-  }, []);
+    const tables = useFloorMap();                                           // table status pushed from the server
+    const orders = useChangeFeed('http://localhost:8080/api/orders/changes', 'orderId');                // only what changed since the last poll
+    const orderItems = useChangeFeed('http://localhost:8080/api/order-items/changes', 'orderItemId');
 
                                                                             // Filter to only occupied tables with open orders
   const occupiedTables = tables.filter(table => table.status === 'occupied');
@@ -1,11 +1,12 @@
 import { useState, useEffect, useRef } from 'react';
 import NavBar from '../../components/NavBar';
+import useMenuBundle, { fetchMenuBundle } from '../../hooks/useMenuBundle';
 import { Lock } from 'lucide-react';
 import './CreateOrder.css';
 
 
 function CreateOrder({ setCurrentView, selectedTable }) {
-  const [menuItems, setMenuItems] = useState([]);
+  const menuItems = useMenuBundle();                                        // one versioned bundle instead of /api/menu-items per step
   const [selectedCategory, setSelectedCategory] = useState('Savory');
   const [orderItems, setOrderItems] = useState([])
   const [currentTableId, setCurrentTableId] = useState(selectedTable?.tableId || 1);
@@ -17,61 +18,35 @@ function CreateOrder({ setCurrentView, selectedTable }) {
 
 useEffect(() => {
   if (selectedTable && selectedTable.status === 'occupied') {
-    fetch(`http://localhost:8080/api/orders?tableId=${selectedTable.tableId}`)
-      .then(response => response.json())
-      .then(orders => {
-        if (orders.length > 0) {
-          const openOrders = orders.filter(o => o.status === 'open');
-          
-          if (openOrders.length > 0) {
+    Promise.all([                                                                         // One request for every open check on the table
+      fetch(`http://localhost:8080/api/tables/${selectedTable.tableId}/session`).then(response => response.json()),
+      fetchMenuBundle()
+    ])
+      .then(([session, { items: menuData }]) => {
+        if (session.orders.length > 0) {
                                                                                           // Use the FIRST order as the "current" order for adding new items
-            setCurrentOrderId(openOrders[0].orderId);
-
-                                                                                          // Fetch menu items first
-            fetch('http://localhost:8080/api/menu-items')
-              .then(response => response.json())
-              .then(menuData => {
-                                                                                          // Fetch items from ALL open orders
-                const itemPromises = openOrders.map(order =>
-                  fetch(`http://localhost:8080/api/order-items/order/${order.orderId}`)
-                    .then(response => response.json())
-                );
-
-                                                                                          // Wait for all item fetches to complete
-                Promise.all(itemPromises).then(allItemArrays => {
-                                                                                          // Flatten all items into one array
-                  const allItems = allItemArrays.flat();
-                  
-                  const formattedItems = allItems.map(item => ({
-                    orderItemId: item.orderItemId,
-                    menuItemId: item.menuItemId,
-                    name: menuData.find(m => m.menuItemId === item.menuItemId)?.name,
-                    price: item.price,
-                    quantity: item.quantity,
-                    status: item.status
-                  }));
-                  
-                  console.log('Loaded all items from all orders:', formattedItems);
-                  setOrderItems(formattedItems);
-                });
-              });
-          }
+          setCurrentOrderId(session.orders[0].order.orderId);
+
+                                                                                          // Flatten items from ALL open orders into one array
+          const allItems = session.orders.flatMap(o => o.items.map(i => i.orderItem));
+
+          const formattedItems = allItems.map(item => ({
+            orderItemId: item.orderItemId,
+            menuItemId: item.menuItemId,
+            name: menuData.find(m => m.menuItemId === item.menuItemId)?.name,
+            price: item.price,
+            quantity: item.quantity,
+            status: item.status
+          }));
+
+          console.log('Loaded all items from all orders:', formattedItems);
+          setOrderItems(formattedItems);
         }
       })
       .catch(error => console.error('Error loading order:', error));
   }
 }, [selectedTable]);
 
-useEffect(() => {
-  fetch('http://localhost:8080/api/menu-items')                             // fetch menu items
-    .then(response => response.json())
-    .then(data => {
-      console.log('Menu items:', data);
-      setMenuItems(data);
-    })
-    .catch(error => console.error('Error fetching menu items:', error));
-  }, []);
-
   useEffect(() => {
     if (!timerExpires) return;                                       
 
@@ -323,14 +298,10 @@ useEffect(() => {
                     const response = await fetch(`http://localhost:8080/api/order-items/order/${currentOrderId}`);
                     const updatedItems = await response.json();
                     
-                    // Fetch menu items to format properly
-                    const menuResponse = await fetch('http://localhost:8080/api/menu-items');
-                    const menuData = await menuResponse.json();
-                    
                     const formattedItems = updatedItems.map(item => ({
                       orderItemId: item.orderItemId,
                       menuItemId: item.menuItemId,
-                      name: menuData.find(m => m.menuItemId === item.menuItemId)?.name,
+                      name: menuItems.find(m => m.menuItemId === item.menuItemId)?.name,
                       price: item.price,
                       quantity: item.quantity,
                       status: item.status
@@ -1,30 +1,57 @@
+import { useState, useEffect } from 'react';
 import NavBar from '../../components/NavBar';
 import './Financials.css';
 
+const PAYMENT_METHODS = [                                           // Rows of the breakdown, keyed like Payment.paymentMethod
+  { key: 'credit_card', icon: '💳', label: 'Credit Card' },
+  { key: 'cash', icon: '💵', label: 'Cash' },
+  { key: 'gift_card', icon: '🎁', label: 'Gift Card' }
+];
+
+function formatTime(isoDateTime) {
+  return new Date(isoDateTime).toLocaleTimeString([], { hour: 'numeric', minute: '2-digit' });
+}
+
+function formatDuration(fromIso) {
+  const minutes = Math.max(0, Math.floor((Date.now() - new Date(fromIso).getTime()) / 60000));
+  return `${Math.floor(minutes / 60)}h ${minutes % 60}m`;
+}
+
 function Financials({ setCurrentView }) {
-  // Mock data - will be replaced with API call later
-  const mockData = {
-    shiftStart: '4:30 PM',
-    shiftDuration: '4h 17m',
-    totalSales: 847.50,
-    totalTips: 152.75,
-    ordersClosed: 18,
-    avgCheckSize: 47.08,
-    avgTipPercent: 18.0,
-    tablesServed: 22,
-    paymentBreakdown: {
-      creditCard: { amount: 620.25, percent: 73 },
-      cash: { amount: 227.25, percent: 27 },
-      giftCard: { amount: 0, percent: 0 }
-    },
-    recentTransactions: [
-      { table: 'W5', time: '8 mins ago', total: 73.44, tip: 13.22 },
-      { table: 'C3', time: '15 mins ago', total: 42.80, tip: 8.56 },
-      { table: 'A2', time: '23 mins ago', total: 95.30, tip: 19.06 },
-      { table: 'B4', time: '31 mins ago', total: 68.75, tip: 12.38 },
-      { table: 'W2', time: '45 mins ago', total: 54.20, tip: 9.76 }
-    ]
-  };
+  const [summary, setSummary] = useState(null);
+
+  useEffect(() => {
+    const load = () =>
+      fetch('http://localhost:8080/api/reports/day')              // Pre-aggregated: same cost at close as at open
+        .then(response => response.json())
+        .then(data => setSummary(data))
+        .catch(error => console.error('Error fetching sales summary:', error));
+
+    load();
+    const interval = setInterval(load, 30000);
+    return () => clearInterval(interval);
+  }, []);
+
+  if (!summary) {
+    return (
+      <div className="page-with-nav">
+        <NavBar currentView="financials" setCurrentView={setCurrentView} />
+        <div className="financials-page">
+          <h2>FINANCIALS</h2>
+        </div>
+      </div>
+    );
+  }
+
+  const totalSales = Number(summary.totalSales);
+  const paymentBreakdown = PAYMENT_METHODS.map(method => {
+    const amount = Number(summary.salesByPaymentMethod[method.key] || 0);
+    return { ...method, amount, percent: totalSales > 0 ? Math.round(amount / totalSales * 100) : 0 };
+  });
+  const recentIntervals = summary.intervals
+    .filter(interval => Number(interval.sales) !== 0 || interval.ordersClosed > 0)
+    .slice(-5)
+    .reverse();
 
   return (
     <div className="page-with-nav">
@@ -33,90 +60,70 @@ function Financials({ setCurrentView }) {
         <h2>FINANCIALS</h2>
         
         <div className="shift-info">
-          Shift Start: {mockData.shiftStart} • Duration: {mockData.shiftDuration}
+          Day Start: {formatTime(summary.from)} • Duration: {formatDuration(summary.from)}
         </div>
 
         <div className="stats-grid">
           <div className="stat-card">
             <div className="stat-label">Total Sales</div>
-            <div className="stat-value large">${mockData.totalSales.toFixed(2)}</div>
+            <div className="stat-value large">${totalSales.toFixed(2)}</div>
           </div>
           
           <div className="stat-card">
             <div className="stat-label">Total Tips</div>
-            <div className="stat-value large">${mockData.totalTips.toFixed(2)}</div>
+            <div className="stat-value large">${Number(summary.totalTips).toFixed(2)}</div>
           </div>
           
           <div className="stat-card">
             <div className="stat-label">Orders Closed</div>
-            <div className="stat-value large">{mockData.ordersClosed}</div>
+            <div className="stat-value large">{summary.ordersClosed}</div>
           </div>
           
           <div className="stat-card">
             <div className="stat-label">Avg Check Size</div>
-            <div className="stat-value">${mockData.avgCheckSize.toFixed(2)}</div>
+            <div className="stat-value">${Number(summary.averageCheck).toFixed(2)}</div>
           </div>
           
           <div className="stat-card">
             <div className="stat-label">Avg Tip %</div>
-            <div className="stat-value">{mockData.avgTipPercent.toFixed(1)}%</div>
+            <div className="stat-value">{Number(summary.averageTipPercent).toFixed(1)}%</div>
           </div>
           
           <div className="stat-card">
-            <div className="stat-label">Tables Served</div>
-            <div className="stat-value">{mockData.tablesServed}</div>
+            <div className="stat-label">Payments</div>
+            <div className="stat-value">{summary.paymentCount}</div>
           </div>
         </div>
 
         <div className="payment-breakdown">
           <h3>Payment Breakdown</h3>
           
-          <div className="payment-row">
-            <div className="payment-icon">💳</div>
-            <div className="payment-label">Credit Card:</div>
-            <div className="payment-amount">${mockData.paymentBreakdown.creditCard.amount.toFixed(2)}</div>
-            <div className="payment-bar-container">
-              <div className="payment-bar" style={{ width: `${mockData.paymentBreakdown.creditCard.percent}%` }}>
-                <span className="payment-percent">{mockData.paymentBreakdown.creditCard.percent}%</span>
-              </div>
-            </div>
-          </div>
-          
-          <div className="payment-row">
-            <div className="payment-icon">💵</div>
-            <div className="payment-label">Cash:</div>
-            <div className="payment-amount">${mockData.paymentBreakdown.cash.amount.toFixed(2)}</div>
-            <div className="payment-bar-container">
-              <div className="payment-bar" style={{ width: `${mockData.paymentBreakdown.cash.percent}%` }}>
-                <span className="payment-percent">{mockData.paymentBreakdown.cash.percent}%</span>
-              </div>
-            </div>
-          </div>
-          
-          <div className="payment-row">
-            <div className="payment-icon">🎁</div>
-            <div className="payment-label">Gift Card:</div>
-            <div className="payment-amount">${mockData.paymentBreakdown.giftCard.amount.toFixed(2)}</div>
-            <div className="payment-bar-container">
-              <div className="payment-bar" style={{ width: `${mockData.paymentBreakdown.giftCard.percent}%` }}>
-                <span className="payment-percent">{mockData.paymentBreakdown.giftCard.percent}%</span>
+          {paymentBreakdown.map(method => (
+            <div key={method.key} className="payment-row">
+              <div className="payment-icon">{method.icon}</div>
+              <div className="payment-label">{method.label}:</div>
+              <div className="payment-amount">${method.amount.toFixed(2)}</div>
+              <div className="payment-bar-container">
+                <div className="payment-bar" style={{ width: `${method.percent}%` }}>
+                  <span className="payment-percent">{method.percent}%</span>
+                </div>
               </div>
             </div>
-          </div>
+          ))}
         </div>
 
         <div className="recent-transactions">
-          <h3>Recent Transactions</h3>
+          <h3>Recent Activity</h3>
           <div className="transaction-list">
-            {mockData.recentTransactions.map((transaction, index) => (
-              <div key={index} className="transaction-item">
+            {recentIntervals.map(interval => (
+              <div key={interval.start} className="transaction-item">
                 <div className="transaction-info">
-                  <div className="transaction-table">Table {transaction.table}</div>
-                  <div className="transaction-time">{transaction.time}</div>
+                  <div className="transaction-table">{formatTime(interval.start)}</div>
+                  <div className="transaction-time">{interval.ordersClosed} closed</div>
                 </div>
                 <div className="transaction-amounts">
-                  <div className="transaction-total">${transaction.total.toFixed(2)}</div>
-                  <div className="transaction-tip">Tip: ${transaction.tip.toFixed(2)}</div>
+                  <div className="transaction-total">${Number(interval.sales).toFixed(2)}</div>
+                  <div className="transaction-tip">Tip: ${Number(interval.tips).toFixed(2)}</div>
                 </div>
               </div>
             ))}
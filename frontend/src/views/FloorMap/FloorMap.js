@@ -1,30 +1,9 @@
-import { useState, useEffect } from 'react';
 import NavBar from '../../components/NavBar';
+import useFloorMap from '../../hooks/useFloorMap';
 import './FloorMap.css';
 
 function FloorMap({ setCurrentView, setSelectedTable }) {
-    const [tables, setTables] = useState([]);
-
-    useEffect(() => {
-        fetch('http://localhost:8080/api/tables')
-            .then(response => response.json())
-            .then(data => {
-                console.log('Table:', data);
-                setTables(data);
-            })
-            .catch(error => console.error('Error fetching tables:', error));
-    },      []);
-
-    useEffect(() => {
-        const interval = setInterval(() => {
-            fetch('http://localhost:8080/api/tables')
-                .then(response => response.json())
-                .then(data => setTables(data))
-                .catch(error => console.error('Error fetching tables:', error));
-        }, 3000);
-
-        return () => clearInterval(interval);
-    }, []);
+    const tables = useFloorMap();                                     // pushed from the server, no polling
 
     return (
         <div className="page-with-nav">